@@ -0,0 +1,143 @@
+package ru.naumen.bot.benchmark;
+
+import ru.naumen.bot.data.entity.Expense;
+import ru.naumen.bot.data.entity.Income;
+import ru.naumen.bot.data.enums.ExpenseCategory;
+import ru.naumen.bot.utils.Money;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Генерация данных для бенчмарков, похожих на данные реальных пользователей.
+ *
+ * <p>Операции распределены равномерно по двум годам, заканчивающимся текущим днём,
+ * и добавлены в порядке дат, поэтому отчёты бота за текущий месяц видят историю. Описания повторяются из небольшого словаря, как это бывает
+ * у реальных пользователей ("кофе", "такси"). Генератор случайных чисел инициализируется
+ * постоянным значением, поэтому данные одинаковы во всех запусках.
+ */
+public final class BenchmarkData {
+
+    /**
+     * Последний день, за который генерируются операции
+     */
+    public static final LocalDate LAST_DAY = LocalDate.now();
+
+    /**
+     * Количество дней, по которым распределены операции
+     */
+    private static final int DAYS = 730;
+
+    /**
+     * Начальное значение генератора случайных чисел
+     */
+    private static final long SEED = 42L;
+
+    /**
+     * Описания расходов
+     */
+    private static final String[] EXPENSE_DESCRIPTIONS = {"кофе", "такси", "обед", "продукты", "кино",
+            "аптека", "подписка", "перевод маме", "бензин", "одежда", "маркетплейс", "ужин в ресторане"};
+
+    /**
+     * Описания доходов
+     */
+    private static final String[] INCOME_DESCRIPTIONS = {"зарплата", "аванс", "кэшбэк", "подарок", "фриланс"};
+
+    /**
+     * Все категории расходов
+     */
+    private static final ExpenseCategory[] CATEGORIES = ExpenseCategory.values();
+
+    /**
+     * Класс содержит только статические методы
+     */
+    private BenchmarkData() {
+    }
+
+    /**
+     * Генерирует расходы в порядке дат.
+     *
+     * @param count количество расходов
+     * @return список расходов
+     */
+    public static List<Expense> expenses(int count) {
+        Random random = new Random(SEED);
+        List<Expense> expenses = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            expenses.add(new Expense(EXPENSE_DESCRIPTIONS[random.nextInt(EXPENSE_DESCRIPTIONS.length)],
+                    amount(random, 5000), CATEGORIES[random.nextInt(CATEGORIES.length)], date(i, count)));
+        }
+        return expenses;
+    }
+
+    /**
+     * Генерирует доходы в порядке дат.
+     *
+     * @param count количество доходов
+     * @return список доходов
+     */
+    public static List<Income> incomes(int count) {
+        Random random = new Random(SEED);
+        List<Income> incomes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            incomes.add(new Income(INCOME_DESCRIPTIONS[random.nextInt(INCOME_DESCRIPTIONS.length)],
+                    amount(random, 100000), date(i, count)));
+        }
+        return incomes;
+    }
+
+    /**
+     * Преобразует расходы в строки в том виде, в котором их возвращает Google Sheets API при чтении
+     * без форматирования: суммы числами, категории и даты текстом.
+     *
+     * @param expenses список расходов
+     * @return строки листа "Расходы"
+     */
+    public static List<List<Object>> expenseRows(List<Expense> expenses) {
+        List<List<Object>> rows = new ArrayList<>(expenses.size());
+        for (Expense expense : expenses) {
+            rows.add(List.of(expense.getDescription(), Money.toDecimal(expense.getAmount()).stripTrailingZeros(),
+                    expense.getCategory().name(), expense.getDate().toString()));
+        }
+        return rows;
+    }
+
+    /**
+     * Преобразует доходы в строки в том виде, в котором их возвращает Google Sheets API при чтении
+     * без форматирования: суммы числами, даты текстом.
+     *
+     * @param incomes список доходов
+     * @return строки листа "Доходы"
+     */
+    public static List<List<Object>> incomeRows(List<Income> incomes) {
+        List<List<Object>> rows = new ArrayList<>(incomes.size());
+        for (Income income : incomes) {
+            rows.add(List.of(income.description(), Money.toDecimal(income.amount()).stripTrailingZeros(),
+                    income.date().toString()));
+        }
+        return rows;
+    }
+
+    /**
+     * Возвращает случайную сумму в копейках.
+     *
+     * @param random генератор случайных чисел
+     * @param max    наибольшая сумма в рублях
+     */
+    private static long amount(Random random, int max) {
+        return 1 + random.nextInt(max * Money.MINOR_UNITS_PER_UNIT);
+    }
+
+    /**
+     * Возвращает дату операции по её номеру так, чтобы операции равномерно заполняли период.
+     *
+     * @param index номер операции
+     * @param count количество операций
+     */
+    private static LocalDate date(int index, int count) {
+        return LAST_DAY.minusDays(DAYS - 1 - (long) index * DAYS / count);
+    }
+}
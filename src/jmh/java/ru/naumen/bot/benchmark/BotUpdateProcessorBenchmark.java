@@ -0,0 +1,132 @@
+package ru.naumen.bot.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.naumen.bot.data.entity.AnswerMessage;
+import ru.naumen.bot.data.entity.BotUpdate;
+import ru.naumen.bot.data.enums.ChatState;
+import ru.naumen.bot.data.enums.ExpenseCategory;
+import ru.naumen.bot.interaction.CommandData;
+import ru.naumen.bot.processor.BotUpdateProcessor;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бенчмарк обработки обновлений {@link BotUpdateProcessor#processBotUpdate(BotUpdate)}
+ * для текстовых сообщений, команд и нажатий кнопок.
+ *
+ * <p>Обновления поочерёдно приходят из {@link #CHATS} чатов, у каждого из которых
+ * в памяти хранится история из {@code ledgerSize} расходов. Бот собирается заново перед каждой
+ * итерацией, чтобы добавленные за итерацию расходы не увеличивали историю следующих итераций.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class BotUpdateProcessorBenchmark {
+
+    /**
+     * Количество чатов, степень двойки
+     */
+    private static final int CHATS = 16;
+
+    /**
+     * Количество расходов в истории каждого чата
+     */
+    @Param({"1000", "100000"})
+    int ledgerSize;
+
+    /**
+     * Бот, обрабатывающий обновления
+     */
+    private InMemoryBot bot;
+
+    /**
+     * Счётчик обновлений, по которому выбирается чат
+     */
+    private long updates;
+
+    /**
+     * Собирает бота и заполняет историю чатов.
+     */
+    @Setup(Level.Iteration)
+    public void setUp() {
+        bot = new InMemoryBot();
+        for (long chatId = 0; chatId < CHATS; chatId++) {
+            bot.openChat(chatId, ledgerSize, ledgerSize / 10);
+        }
+    }
+
+    /**
+     * Сообщение о новом расходе.
+     */
+    @Benchmark
+    public List<AnswerMessage> expenseMessage() {
+        return process(new BotUpdate(nextChatId(), "- 250.50 кофе", null, null));
+    }
+
+    /**
+     * Сообщение о новом доходе.
+     */
+    @Benchmark
+    public List<AnswerMessage> incomeMessage() {
+        return process(new BotUpdate(nextChatId(), "+ 1000 кэшбэк", null, null));
+    }
+
+    /**
+     * Команда вывода баланса.
+     */
+    @Benchmark
+    public List<AnswerMessage> balanceCommand() {
+        return process(new BotUpdate(nextChatId(), CommandData.BALANCE_COMMAND.getReadableName(), null, null));
+    }
+
+    /**
+     * Команда вывода сумм расходов по категориям за месяц.
+     */
+    @Benchmark
+    public List<AnswerMessage> categoryTotalsCommand() {
+        return process(new BotUpdate(nextChatId(), CommandData.ALL_CAT_OF_EXPENSES.getReadableName(), null, null));
+    }
+
+    /**
+     * Нажатие кнопки категории после добавления расхода. Включает перевод чата
+     * в состояние ожидания категории.
+     */
+    @Benchmark
+    public List<AnswerMessage> categoryCallback() {
+        long chatId = nextChatId();
+        bot.getUserService().setUserState(chatId, ChatState.WAITING_EXPENSE_CATEGORY_FOR_ADDING);
+        return process(new BotUpdate(chatId, null, ExpenseCategory.TRANSPORT.getName(), "callbackId"));
+    }
+
+    /**
+     * Передаёт обновление обработчику.
+     *
+     * @param botUpdate обновление
+     * @return ответные сообщения
+     */
+    private List<AnswerMessage> process(BotUpdate botUpdate) {
+        return bot.getBotUpdateProcessor().processBotUpdate(botUpdate);
+    }
+
+    /**
+     * Возвращает идентификатор чата следующего обновления.
+     */
+    private long nextChatId() {
+        return updates++ & (CHATS - 1);
+    }
+}
@@ -0,0 +1,114 @@
+package ru.naumen.bot.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.naumen.bot.data.entity.Expense;
+import ru.naumen.bot.data.entity.Income;
+import ru.naumen.bot.data.enums.ExpenseCategory;
+import ru.naumen.bot.utils.GoogleSheetsConverter;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бенчмарк преобразований {@link GoogleSheetsConverter} между операциями и строками гугл-таблицы.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class GoogleSheetsConverterBenchmark {
+
+    /**
+     * Количество строк в листе
+     */
+    @Param({"100", "10000"})
+    int rows;
+
+    /**
+     * Тестируемый конвертер
+     */
+    private final GoogleSheetsConverter converter = new GoogleSheetsConverter();
+
+    /**
+     * Расходы для записи в таблицу
+     */
+    private List<Expense> expenses;
+
+    /**
+     * Доходы для записи в таблицу
+     */
+    private List<Income> incomes;
+
+    /**
+     * Строки листа "Расходы", прочитанные из таблицы
+     */
+    private List<List<Object>> expenseRows;
+
+    /**
+     * Строки листа "Доходы", прочитанные из таблицы
+     */
+    private List<List<Object>> incomeRows;
+
+    /**
+     * Генерирует операции и соответствующие им строки таблицы.
+     */
+    @Setup
+    public void setUp() {
+        expenses = BenchmarkData.expenses(rows);
+        incomes = BenchmarkData.incomes(rows);
+        expenseRows = BenchmarkData.expenseRows(expenses);
+        incomeRows = BenchmarkData.incomeRows(incomes);
+    }
+
+    /**
+     * Преобразование расходов в строки таблицы.
+     */
+    @Benchmark
+    public List<List<Object>> expensesToSheetFormat() {
+        return converter.expensesToSheetFormat(expenses);
+    }
+
+    /**
+     * Преобразование строк таблицы в расходы.
+     */
+    @Benchmark
+    public List<Expense> sheetFormatToExpenses() {
+        return converter.sheetFormatToExpenses(expenseRows);
+    }
+
+    /**
+     * Ленивое преобразование строк таблицы в расходы одной категории.
+     */
+    @Benchmark
+    public List<Expense> streamExpensesOfCategory() {
+        return converter.streamExpenses(expenseRows, ExpenseCategory.SUPERMARKET).toList();
+    }
+
+    /**
+     * Преобразование доходов в строки таблицы.
+     */
+    @Benchmark
+    public List<List<Object>> incomesToSheetFormat() {
+        return converter.incomesToSheetFormat(incomes);
+    }
+
+    /**
+     * Преобразование строк таблицы в доходы.
+     */
+    @Benchmark
+    public List<Income> sheetFormatToIncomes() {
+        return converter.sheetFormatToIncomes(incomeRows);
+    }
+}
@@ -0,0 +1,208 @@
+package ru.naumen.bot.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.naumen.bot.client.GoogleSheetsClient;
+import ru.naumen.bot.client.GoogleSheetsHttpTransport;
+import ru.naumen.bot.client.GoogleSheetsResilience;
+import ru.naumen.bot.client.emulator.GoogleSheetsEmulator;
+import ru.naumen.bot.configuration.GoogleSheetsHttpConfig;
+import ru.naumen.bot.configuration.GoogleSheetsResilienceConfig;
+import ru.naumen.bot.data.dao.UserDao;
+import ru.naumen.bot.data.dao.googleSheets.GoogleSheetsBalanceDao;
+import ru.naumen.bot.data.dao.googleSheets.GoogleSheetsCache;
+import ru.naumen.bot.data.dao.googleSheets.GoogleSheetsDao;
+import ru.naumen.bot.data.dao.googleSheets.GoogleSheetsExpenseDao;
+import ru.naumen.bot.data.dao.googleSheets.GoogleSheetsWriteBehindBuffer;
+import ru.naumen.bot.data.dao.inMemory.InMemoryBalanceDao;
+import ru.naumen.bot.data.dao.inMemory.InMemoryExpenseDao;
+import ru.naumen.bot.data.dao.inMemory.InMemoryIncomeDao;
+import ru.naumen.bot.data.entity.Expense;
+import ru.naumen.bot.data.enums.ExpenseCategory;
+import ru.naumen.bot.data.journal.Journal;
+import ru.naumen.bot.exception.DaoException;
+import ru.naumen.bot.service.UserService;
+import ru.naumen.bot.utils.GoogleSheetsConverter;
+import ru.naumen.bot.utils.metrics.BotMetrics;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Нагрузочный бенчмарк хранилищ в Google Sheets, выполняющий настоящие HTTP-запросы
+ * к эмулятору Google Sheets API без доступа к сети.
+ *
+ * <p>Несколько потоков одновременно работают с таблицами {@link #CHATS} чатов, в каждой из которых
+ * {@code ledgerSize} расходов. Эмулятор отвечает с задержкой {@code latencyMillis}, как настоящий API.
+ * Кэш гугл-таблиц отключён, чтобы каждая операция доходила до API.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Threads(8)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+public class GoogleSheetsDaoBenchmark {
+
+    /**
+     * Количество чатов со своими гугл-таблицами
+     */
+    private static final int CHATS = 100;
+
+    /**
+     * Месяц, за который выполняются выборки
+     */
+    private static final YearMonth MONTH = YearMonth.from(BenchmarkData.LAST_DAY);
+
+    /**
+     * Задержка ответа эмулятора в миллисекундах
+     */
+    @Param({"0", "50"})
+    int latencyMillis;
+
+    /**
+     * Количество расходов в каждой гугл-таблице
+     */
+    @Param({"1000"})
+    int ledgerSize;
+
+    /**
+     * Эмулятор Google Sheets API
+     */
+    private GoogleSheetsEmulator emulator;
+
+    /**
+     * Транспорт запросов к эмулятору
+     */
+    private GoogleSheetsHttpTransport transport;
+
+    /**
+     * Буфер отложенной записи строк
+     */
+    private GoogleSheetsWriteBehindBuffer writeBehindBuffer;
+
+    /**
+     * Сервис пользователей, хранящий идентификаторы гугл-таблиц чатов
+     */
+    private UserService userService;
+
+    /**
+     * Хранилище расходов
+     */
+    private GoogleSheetsExpenseDao expenseDao;
+
+    /**
+     * Хранилище баланса
+     */
+    private GoogleSheetsBalanceDao balanceDao;
+
+    /**
+     * Расход, добавляемый в бенчмарке добавления
+     */
+    private final Expense newExpense = new Expense("кофе", 25050, ExpenseCategory.RESTAURANT, BenchmarkData.LAST_DAY);
+
+    /**
+     * Запускает эмулятор, создаёт и заполняет гугл-таблицы чатов.
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, DaoException {
+        emulator = new GoogleSheetsEmulator(16);
+        BotMetrics botMetrics = new BotMetrics(new SimpleMeterRegistry());
+        transport = new GoogleSheetsHttpTransport(
+                new GoogleSheetsHttpConfig(Duration.ofSeconds(10), Duration.ofSeconds(30)),
+                botMetrics);
+        GoogleSheetsResilience resilience = new GoogleSheetsResilience(
+                new GoogleSheetsResilienceConfig(5, Duration.ofMillis(200), Duration.ofSeconds(5), 5,
+                        Duration.ofSeconds(30), 1_000_000, 1_000_000, 1000, Duration.ofSeconds(10)),
+                botMetrics);
+        GoogleSheetsClient googleSheetsClient = new GoogleSheetsClient(
+                emulator.createSheetsService(transport), botMetrics, resilience);
+        GoogleSheetsConverter googleSheetsConverter = new GoogleSheetsConverter();
+        GoogleSheetsCache googleSheetsCache = new GoogleSheetsCache(new SimpleMeterRegistry(), Duration.ZERO, 0);
+        UserDao userDao = new UserDao(Journal.NONE);
+        writeBehindBuffer = new GoogleSheetsWriteBehindBuffer(googleSheetsClient, 100, 10_000);
+        userService = new UserService(userDao, new InMemoryBalanceDao(Journal.NONE),
+                new InMemoryExpenseDao(Journal.NONE), new InMemoryIncomeDao(Journal.NONE), writeBehindBuffer,
+                ZoneOffset.UTC, Clock.systemUTC());
+        expenseDao = new GoogleSheetsExpenseDao(googleSheetsClient, googleSheetsConverter, userService,
+                writeBehindBuffer, googleSheetsCache);
+        balanceDao = new GoogleSheetsBalanceDao(googleSheetsClient, googleSheetsConverter, userService,
+                googleSheetsCache);
+        GoogleSheetsDao googleSheetsDao = new GoogleSheetsDao(googleSheetsClient, userService);
+
+        List<Expense> expenses = BenchmarkData.expenses(ledgerSize);
+        for (long chatId = 0; chatId < CHATS; chatId++) {
+            String spreadsheetId = "spreadsheet-" + chatId;
+            emulator.createSpreadsheet(spreadsheetId);
+            userDao.setGoogleSheetId(chatId, spreadsheetId);
+            googleSheetsDao.initGoogleSheets(chatId);
+            expenseDao.addExpenses(chatId, expenses);
+            writeBehindBuffer.flush(spreadsheetId);
+            balanceDao.setBalance(chatId, 1_000_000);
+        }
+        emulator.setLatency(Duration.ofMillis(latencyMillis), Duration.ofMillis(latencyMillis / 5));
+    }
+
+    /**
+     * Останавливает эмулятор и транспорт.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        writeBehindBuffer.shutdown();
+        transport.shutdown();
+        emulator.close();
+    }
+
+    /**
+     * Добавление расхода со сбросом буфера отложенной записи, то есть с запросом к API.
+     */
+    @Benchmark
+    public void addExpense() throws DaoException {
+        long chatId = randomChat();
+        expenseDao.addExpense(chatId, newExpense);
+        writeBehindBuffer.flush(userService.getGoogleSheetId(chatId));
+    }
+
+    /**
+     * Расходы за месяц.
+     */
+    @Benchmark
+    public List<Expense> expensesForMonth() throws DaoException {
+        return expenseDao.getExpenses(randomChat(), MONTH.atDay(1), MONTH.atEndOfMonth());
+    }
+
+    /**
+     * Баланс.
+     */
+    @Benchmark
+    public long balance() throws DaoException {
+        return balanceDao.getBalance(randomChat());
+    }
+
+    /**
+     * Возвращает случайный чат.
+     */
+    private long randomChat() {
+        return ThreadLocalRandom.current().nextInt(CHATS);
+    }
+}
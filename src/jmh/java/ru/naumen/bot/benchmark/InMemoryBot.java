@@ -0,0 +1,181 @@
+package ru.naumen.bot.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import ru.naumen.bot.data.dao.UserDao;
+import ru.naumen.bot.data.dao.inMemory.InMemoryBalanceDao;
+import ru.naumen.bot.data.dao.inMemory.InMemoryExpenseDao;
+import ru.naumen.bot.data.dao.inMemory.InMemoryIncomeDao;
+import ru.naumen.bot.data.dao.inMemory.InMemoryLimitDao;
+import ru.naumen.bot.data.dao.inMemory.InMemorySummaryDao;
+import ru.naumen.bot.data.dao.provider.BalanceDaoProvider;
+import ru.naumen.bot.data.dao.provider.ExpenseDaoProvider;
+import ru.naumen.bot.data.dao.provider.IncomeDaoProvider;
+import ru.naumen.bot.data.dao.provider.LimitDaoProvider;
+import ru.naumen.bot.data.dao.provider.SummaryDaoProvider;
+import ru.naumen.bot.data.enums.ChatState;
+import ru.naumen.bot.data.journal.Journal;
+import ru.naumen.bot.handler.callback.impl.ExpenseCategoryForAddingCallbackHandler;
+import ru.naumen.bot.handler.callback.impl.ExpenseCategoryForOutputCallbackHandler;
+import ru.naumen.bot.handler.callback.impl.ExpensesPageCallbackHandler;
+import ru.naumen.bot.handler.callback.impl.IncomesPageCallbackHandler;
+import ru.naumen.bot.handler.callback.impl.TypeDBForChangeCallbackHandler;
+import ru.naumen.bot.handler.callback.impl.TypeDBForStartCallbackHandler;
+import ru.naumen.bot.handler.command.impl.AllCatOfExpensesCommandHandler;
+import ru.naumen.bot.handler.command.impl.BalanceCommandHandler;
+import ru.naumen.bot.handler.command.impl.ChangeDbCommandHandler;
+import ru.naumen.bot.handler.command.impl.DeleteLimitCommandHandler;
+import ru.naumen.bot.handler.command.impl.ExpensesByCatCommandHandler;
+import ru.naumen.bot.handler.command.impl.ExpensesCommandHandler;
+import ru.naumen.bot.handler.command.impl.HelpCommandHandler;
+import ru.naumen.bot.handler.command.impl.IncomesCommandHandler;
+import ru.naumen.bot.handler.command.impl.LimitCommandHandler;
+import ru.naumen.bot.handler.command.impl.StartCommandHandler;
+import ru.naumen.bot.handler.message.impl.MessageWithGoogleSheetLinkHandler;
+import ru.naumen.bot.handler.message.impl.SetDailyLimitMessageHandler;
+import ru.naumen.bot.handler.message.impl.SimpleMessageHandler;
+import ru.naumen.bot.interaction.HistoryPages;
+import ru.naumen.bot.interaction.keyboards.CategoriesKeyboard;
+import ru.naumen.bot.interaction.keyboards.PageKeyboard;
+import ru.naumen.bot.processor.BotUpdateProcessor;
+import ru.naumen.bot.service.BalanceService;
+import ru.naumen.bot.service.DatabaseService;
+import ru.naumen.bot.service.ExpenseService;
+import ru.naumen.bot.service.IncomeService;
+import ru.naumen.bot.service.UserService;
+import ru.naumen.bot.utils.Money;
+import ru.naumen.bot.utils.concurrent.ChatLocks;
+import ru.naumen.bot.utils.metrics.BotMetrics;
+import ru.naumen.bot.utils.parser.TransactionParser;
+
+import java.time.Clock;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * Бот, собранный без Spring из тех же компонентов, что и в приложении, для хранения данных в памяти.
+ *
+ * <p>DAO гугл-таблиц не создаются: пользователи бенчмарков работают только с хранилищем в памяти,
+ * а журнал изменений не ведётся, чтобы измерялась обработка обновлений, а не запись на диск.
+ * Метрики записываются в {@link SimpleMeterRegistry}, поэтому их стоимость входит в измерения, как и в приложении.
+ */
+public class InMemoryBot {
+
+    /**
+     * Хранилище расходов в памяти
+     */
+    private final InMemoryExpenseDao expenseDao = new InMemoryExpenseDao(Journal.NONE);
+
+    /**
+     * Хранилище доходов в памяти
+     */
+    private final InMemoryIncomeDao incomeDao = new InMemoryIncomeDao(Journal.NONE);
+
+    /**
+     * Хранилище балансов в памяти
+     */
+    private final InMemoryBalanceDao balanceDao = new InMemoryBalanceDao(Journal.NONE);
+
+    /**
+     * Сервис для работы с пользователями
+     */
+    private final UserService userService;
+
+    /**
+     * Обработчик обычных сообщений
+     */
+    private final SimpleMessageHandler simpleMessageHandler;
+
+    /**
+     * Обработчик обновлений
+     */
+    private final BotUpdateProcessor botUpdateProcessor;
+
+    /**
+     * Собирает бота со всеми обработчиками команд, сообщений и нажатий кнопок.
+     */
+    public InMemoryBot() {
+        UserDao userDao = new UserDao(Journal.NONE);
+        InMemoryLimitDao limitDao = new InMemoryLimitDao(Journal.NONE);
+        BotMetrics botMetrics = new BotMetrics(new SimpleMeterRegistry());
+        ExpenseDaoProvider expenseDaoProvider = new ExpenseDaoProvider(null, expenseDao, userDao, botMetrics);
+        IncomeDaoProvider incomeDaoProvider = new IncomeDaoProvider(null, incomeDao, userDao, botMetrics);
+        BalanceDaoProvider balanceDaoProvider = new BalanceDaoProvider(null, balanceDao, userDao, botMetrics);
+        LimitDaoProvider limitDaoProvider = new LimitDaoProvider(null, limitDao, userDao, botMetrics);
+        SummaryDaoProvider summaryDaoProvider = new SummaryDaoProvider(null,
+                new InMemorySummaryDao(balanceDao, limitDao), userDao, botMetrics);
+        ChatLocks chatLocks = new ChatLocks();
+
+        userService = new UserService(userDao, balanceDao, expenseDao, incomeDao, null, ZoneOffset.UTC,
+                Clock.systemUTC());
+        ExpenseService expenseService = new ExpenseService(expenseDaoProvider, limitDaoProvider,
+                summaryDaoProvider, userService, chatLocks);
+        IncomeService incomeService = new IncomeService(incomeDaoProvider, balanceDaoProvider, userService,
+                chatLocks);
+        BalanceService balanceService = new BalanceService(balanceDaoProvider);
+        DatabaseService databaseService = new DatabaseService(userService, null, expenseDaoProvider,
+                incomeDaoProvider, balanceDaoProvider, limitDaoProvider, chatLocks, 500);
+        CategoriesKeyboard categoriesKeyboard = new CategoriesKeyboard();
+        PageKeyboard pageKeyboard = new PageKeyboard();
+        HistoryPages historyPages = new HistoryPages(expenseService, incomeService, userService, pageKeyboard, 20);
+
+        simpleMessageHandler = new SimpleMessageHandler(expenseService, incomeService, userService,
+                categoriesKeyboard, new TransactionParser());
+        botUpdateProcessor = new BotUpdateProcessor(userService,
+                List.of(new AllCatOfExpensesCommandHandler(expenseService, userService),
+                        new BalanceCommandHandler(balanceService, userService),
+                        new ChangeDbCommandHandler(userService),
+                        new DeleteLimitCommandHandler(userService, expenseService),
+                        new ExpensesByCatCommandHandler(userService, categoriesKeyboard),
+                        new ExpensesCommandHandler(historyPages),
+                        new HelpCommandHandler(userService),
+                        new IncomesCommandHandler(historyPages),
+                        new LimitCommandHandler(userService),
+                        new StartCommandHandler(userService)),
+                List.of(new ExpenseCategoryForAddingCallbackHandler(expenseService, userService),
+                        new ExpenseCategoryForOutputCallbackHandler(expenseService, userService),
+                        new ExpensesPageCallbackHandler(historyPages, pageKeyboard, userService),
+                        new IncomesPageCallbackHandler(historyPages, pageKeyboard, userService),
+                        new TypeDBForChangeCallbackHandler(databaseService, userService),
+                        new TypeDBForStartCallbackHandler(userService)),
+                List.of(new MessageWithGoogleSheetLinkHandler(databaseService, userService),
+                        new SetDailyLimitMessageHandler(userService, expenseService),
+                        simpleMessageHandler),
+                botMetrics);
+    }
+
+    /**
+     * Открывает чат с хранением данных в памяти и заполняет его историей операций.
+     *
+     * @param chatId   идентификатор чата
+     * @param expenses количество расходов в истории
+     * @param incomes  количество доходов в истории
+     */
+    public void openChat(long chatId, int expenses, int incomes) {
+        userService.openChat(chatId);
+        userService.setUserState(chatId, ChatState.NOTHING_WAITING);
+        expenseDao.addExpenses(chatId, BenchmarkData.expenses(expenses));
+        incomeDao.addIncomes(chatId, BenchmarkData.incomes(incomes));
+        balanceDao.setBalance(chatId, Money.ofUnits(100000));
+    }
+
+    /**
+     * Возвращает сервис для работы с пользователями.
+     */
+    public UserService getUserService() {
+        return userService;
+    }
+
+    /**
+     * Возвращает обработчик обычных сообщений.
+     */
+    public SimpleMessageHandler getSimpleMessageHandler() {
+        return simpleMessageHandler;
+    }
+
+    /**
+     * Возвращает обработчик обновлений.
+     */
+    public BotUpdateProcessor getBotUpdateProcessor() {
+        return botUpdateProcessor;
+    }
+}
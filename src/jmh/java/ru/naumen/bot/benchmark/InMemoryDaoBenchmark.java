@@ -0,0 +1,132 @@
+package ru.naumen.bot.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.naumen.bot.data.dao.inMemory.InMemoryExpenseDao;
+import ru.naumen.bot.data.dao.inMemory.InMemoryIncomeDao;
+import ru.naumen.bot.data.entity.Expense;
+import ru.naumen.bot.data.entity.Income;
+import ru.naumen.bot.data.enums.ExpenseCategory;
+import ru.naumen.bot.data.journal.Journal;
+
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бенчмарк хранилищ расходов и доходов в памяти на истории разной длины.
+ *
+ * <p>Выборки выполняются за последний месяц истории, как в отчётах бота.
+ * Хранилища создаются заново перед каждой итерацией, чтобы добавление не увеличивало историю.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class InMemoryDaoBenchmark {
+
+    /**
+     * Идентификатор чата
+     */
+    private static final long CHAT_ID = 1L;
+
+    /**
+     * Месяц, за который выполняются выборки
+     */
+    private static final YearMonth MONTH = YearMonth.from(BenchmarkData.LAST_DAY);
+
+    /**
+     * Количество расходов и доходов в истории
+     */
+    @Param({"1000", "100000", "1000000"})
+    int ledgerSize;
+
+    /**
+     * Хранилище расходов
+     */
+    private InMemoryExpenseDao expenseDao;
+
+    /**
+     * Хранилище доходов
+     */
+    private InMemoryIncomeDao incomeDao;
+
+    /**
+     * Расход, добавляемый в бенчмарке добавления
+     */
+    private final Expense newExpense = new Expense("кофе", 25050, ExpenseCategory.RESTAURANT, BenchmarkData.LAST_DAY);
+
+    /**
+     * Создаёт хранилища и заполняет историю.
+     */
+    @Setup(Level.Iteration)
+    public void setUp() {
+        expenseDao = new InMemoryExpenseDao(Journal.NONE);
+        expenseDao.createUserList(CHAT_ID);
+        expenseDao.addExpenses(CHAT_ID, BenchmarkData.expenses(ledgerSize));
+        incomeDao = new InMemoryIncomeDao(Journal.NONE);
+        incomeDao.createUserList(CHAT_ID);
+        incomeDao.addIncomes(CHAT_ID, BenchmarkData.incomes(ledgerSize));
+    }
+
+    /**
+     * Добавление расхода.
+     */
+    @Benchmark
+    public void addExpense() {
+        expenseDao.addExpense(CHAT_ID, newExpense);
+    }
+
+    /**
+     * Расходы за месяц.
+     */
+    @Benchmark
+    public List<Expense> expensesForMonth() {
+        return expenseDao.getExpenses(CHAT_ID, MONTH.atDay(1), MONTH.atEndOfMonth());
+    }
+
+    /**
+     * Расходы категории за месяц.
+     */
+    @Benchmark
+    public List<Expense> expensesForMonthByCategory() {
+        return expenseDao.getExpenses(CHAT_ID, MONTH.atDay(1), MONTH.atEndOfMonth(), ExpenseCategory.SUPERMARKET);
+    }
+
+    /**
+     * Суммы расходов по категориям за месяц.
+     */
+    @Benchmark
+    public Map<ExpenseCategory, Long> categoryTotals() {
+        return expenseDao.getCategoryTotals(CHAT_ID, MONTH);
+    }
+
+    /**
+     * Все расходы чата.
+     */
+    @Benchmark
+    public List<Expense> allExpenses() {
+        return expenseDao.getExpenses(CHAT_ID);
+    }
+
+    /**
+     * Доходы за месяц.
+     */
+    @Benchmark
+    public List<Income> incomesForMonth() {
+        return incomeDao.getIncomes(CHAT_ID, MONTH.atDay(1), MONTH.atEndOfMonth());
+    }
+}
@@ -0,0 +1,79 @@
+package ru.naumen.bot.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.naumen.bot.data.entity.AnswerMessage;
+import ru.naumen.bot.exception.DaoException;
+import ru.naumen.bot.handler.message.impl.SimpleMessageHandler;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бенчмарк разбора сообщений {@link SimpleMessageHandler#handleMessage(String, long)}
+ * для дохода, расхода и нераспознанного сообщения.
+ *
+ * <p>Нераспознанное сообщение проверяется обоими регулярными выражениями и не обращается
+ * к хранилищу, поэтому показывает стоимость самого разбора.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SimpleMessageHandlerBenchmark {
+
+    /**
+     * Идентификатор чата
+     */
+    private static final long CHAT_ID = 1L;
+
+    /**
+     * Тестируемый обработчик сообщений
+     */
+    private SimpleMessageHandler handler;
+
+    /**
+     * Собирает бота с одним чатом.
+     */
+    @Setup(Level.Iteration)
+    public void setUp() {
+        InMemoryBot bot = new InMemoryBot();
+        bot.openChat(CHAT_ID, 1000, 100);
+        handler = bot.getSimpleMessageHandler();
+    }
+
+    /**
+     * Сообщение о доходе.
+     */
+    @Benchmark
+    public List<AnswerMessage> income() throws DaoException {
+        return handler.handleMessage("+ 50000 зарплата за октябрь", CHAT_ID);
+    }
+
+    /**
+     * Сообщение о расходе.
+     */
+    @Benchmark
+    public List<AnswerMessage> expense() throws DaoException {
+        return handler.handleMessage("- 349.90 продукты в магазине у дома", CHAT_ID);
+    }
+
+    /**
+     * Сообщение, не подходящее ни под доход, ни под расход.
+     */
+    @Benchmark
+    public List<AnswerMessage> unrecognized() throws DaoException {
+        return handler.handleMessage("потратил сегодня 300 на такси", CHAT_ID);
+    }
+}
@@ -0,0 +1,175 @@
+package ru.naumen.bot.benchmark.load;
+
+import ru.naumen.bot.benchmark.InMemoryBot;
+import ru.naumen.bot.data.entity.BotUpdate;
+import ru.naumen.bot.processor.UpdateDispatcher;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Нагрузочный тест одного узла бота. Генерирует смесь обновлений из {@link LoadScenario} для множества чатов
+ * и отправляет их через {@link UpdateDispatcher} в {@link ru.naumen.bot.processor.BotUpdateProcessor},
+ * как это делает контроллер Telegram, после чего выводит {@link LoadReport}.
+ *
+ * <p>Чаты и сценарии выбираются генератором случайных чисел с постоянным начальным значением,
+ * поэтому при одинаковых параметрах каждый запуск отправляет одни и те же обновления в том же порядке.
+ * Данные хранятся в памяти, как в {@link InMemoryBot}, поэтому измеряется обработка обновлений узлом,
+ * а не сеть до Telegram и Google Sheets.
+ */
+public class LoadGenerator implements AutoCloseable {
+
+    /**
+     * Наибольшее время ожидания обработки отправленных обновлений в минутах
+     */
+    private static final long PROCESSING_TIMEOUT_MINUTES = 10;
+
+    /**
+     * Параметры нагрузочного теста
+     */
+    private final LoadSettings settings;
+
+    /**
+     * Бот, обрабатывающий обновления
+     */
+    private final InMemoryBot bot = new InMemoryBot();
+
+    /**
+     * Диспетчер, распределяющий обновления по очередям чатов
+     */
+    private final UpdateDispatcher updateDispatcher;
+
+    /**
+     * Сценарии в порядке накопленных долей
+     */
+    private final LoadScenario[] scenarios;
+
+    /**
+     * Накопленные доли сценариев, по которым выбирается следующий сценарий
+     */
+    private final int[] cumulativeWeights;
+
+    /**
+     * Конструктор LoadGenerator. Открывает чаты и заполняет их историю.
+     *
+     * @param settings параметры нагрузочного теста
+     */
+    public LoadGenerator(LoadSettings settings) {
+        this.settings = settings;
+        for (long chatId = 0; chatId < settings.chats(); chatId++) {
+            bot.openChat(chatId, settings.ledgerSize(), settings.ledgerSize() / 10);
+        }
+        this.updateDispatcher = new UpdateDispatcher(bot.getBotUpdateProcessor(), settings.maxPending());
+        this.scenarios = settings.mix().keySet().toArray(new LoadScenario[0]);
+        this.cumulativeWeights = new int[scenarios.length];
+        int total = 0;
+        for (int i = 0; i < scenarios.length; i++) {
+            total += settings.mix().get(scenarios[i]);
+            cumulativeWeights[i] = total;
+        }
+    }
+
+    /**
+     * Запускает нагрузочный тест с параметрами из аргументов командной строки.
+     *
+     * @param args аргументы вида {@code имя=значение}, см. {@link LoadSettings#parse(String...)}
+     */
+    public static void main(String[] args) throws InterruptedException, IOException {
+        LoadSettings settings = LoadSettings.parse(args);
+        LoadReport report;
+        try (LoadGenerator loadGenerator = new LoadGenerator(settings)) {
+            report = loadGenerator.run();
+        }
+        report.print(System.out);
+        if (settings.output() != null) {
+            report.appendCsv();
+        }
+    }
+
+    /**
+     * Отправляет обновления прогрева, затем измеряемые обновления.
+     *
+     * @return результаты измеряемой части теста
+     * @throws InterruptedException если поток был прерван во время отправки или ожидания обработки
+     */
+    public LoadReport run() throws InterruptedException {
+        Random random = new Random(settings.seed());
+        send(random, settings.warmupUpdates());
+        return send(random, settings.updates());
+    }
+
+    /**
+     * Отправляет обновления по расписанию и дожидается их обработки.
+     * Если скорость не задана, следующее обновление отправляется сразу, как только в очереди есть место.
+     *
+     * @param random генератор случайных чисел
+     * @param count  количество обновлений
+     * @return результаты отправки
+     * @throws InterruptedException если поток был прерван во время отправки или ожидания обработки
+     */
+    private LoadReport send(Random random, int count) throws InterruptedException {
+        long[] latencies = new long[count];
+        Arrays.fill(latencies, -1);
+        LoadScenario[] sentScenarios = new LoadScenario[count];
+        CountDownLatch processed = new CountDownLatch(count);
+        long intervalNanos = settings.rate() == 0 ? 0 : TimeUnit.SECONDS.toNanos(1) / settings.rate();
+        long start = System.nanoTime();
+        int sent = 0;
+        while (sent < count) {
+            LoadScenario scenario = nextScenario(random);
+            long chatId = random.nextInt(settings.chats());
+            for (BotUpdate botUpdate : scenario.updates(chatId, random)) {
+                if (sent == count) {
+                    break;
+                }
+                long scheduledAt = intervalNanos == 0 ? System.nanoTime() : start + sent * intervalNanos;
+                waitUntil(scheduledAt);
+                int index = sent++;
+                sentScenarios[index] = scenario;
+                updateDispatcher.dispatch(botUpdate, answers -> {
+                    latencies[index] = System.nanoTime() - scheduledAt;
+                    processed.countDown();
+                });
+            }
+        }
+        processed.await(PROCESSING_TIMEOUT_MINUTES, TimeUnit.MINUTES);
+        return new LoadReport(settings, System.nanoTime() - start, latencies, sentScenarios);
+    }
+
+    /**
+     * Выбирает следующий сценарий пропорционально долям сценариев.
+     *
+     * @param random генератор случайных чисел
+     */
+    private LoadScenario nextScenario(Random random) {
+        int value = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        int index = 0;
+        while (value >= cumulativeWeights[index]) {
+            index++;
+        }
+        return scenarios[index];
+    }
+
+    /**
+     * Ждёт наступления момента отправки обновления.
+     *
+     * @param deadline момент отправки по {@link System#nanoTime()}
+     */
+    private void waitUntil(long deadline) {
+        for (long remaining = deadline - System.nanoTime(); remaining > 0; remaining = deadline - System.nanoTime()) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+
+    /**
+     * Дожидается обработки принятых обновлений и останавливает диспетчер.
+     */
+    @Override
+    public void close() {
+        updateDispatcher.shutdown();
+    }
+}
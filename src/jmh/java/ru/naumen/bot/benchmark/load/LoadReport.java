@@ -0,0 +1,192 @@
+package ru.naumen.bot.benchmark.load;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Результаты нагрузочного теста: пропускная способность и перцентили задержки обработки обновлений.
+ *
+ * <p>Задержка отсчитывается от момента, когда обновление должно было быть отправлено по расписанию,
+ * до получения ответных сообщений. Поэтому время ожидания в очереди и паузы отправителя
+ * при заполненной очереди входят в задержку, а не скрываются ей.
+ */
+public class LoadReport {
+
+    /**
+     * Перцентили задержки, попадающие в отчёт
+     */
+    private static final double[] PERCENTILES = {50, 99, 99.9};
+
+    /**
+     * Заголовок CSV-файла с результатами
+     */
+    private static final String CSV_HEADER = "timestamp,chats,ledger,rate,max_pending,seed,mix,updates,unprocessed,"
+            + "throughput,p50_us,p99_us,p999_us,max_us";
+
+    /**
+     * Параметры нагрузочного теста
+     */
+    private final LoadSettings settings;
+
+    /**
+     * Время от начала отправки до обработки последнего обновления в наносекундах
+     */
+    private final long durationNanos;
+
+    /**
+     * Отсортированные задержки всех обработанных обновлений в наносекундах
+     */
+    private final long[] latencies;
+
+    /**
+     * Отсортированные задержки обработанных обновлений каждого сценария в наносекундах
+     */
+    private final Map<LoadScenario, long[]> scenarioLatencies = new EnumMap<>(LoadScenario.class);
+
+    /**
+     * Количество отправленных, но не обработанных обновлений
+     */
+    private final int unprocessed;
+
+    /**
+     * Конструктор LoadReport
+     *
+     * @param settings      параметры нагрузочного теста
+     * @param durationNanos время от начала отправки до обработки последнего обновления в наносекундах
+     * @param latencies     задержки обновлений в порядке отправки, отрицательные у необработанных обновлений
+     * @param scenarios     сценарии обновлений в порядке отправки
+     */
+    LoadReport(LoadSettings settings, long durationNanos, long[] latencies, LoadScenario[] scenarios) {
+        this.settings = settings;
+        this.durationNanos = durationNanos;
+        this.latencies = Arrays.stream(latencies).filter(latency -> latency >= 0).sorted().toArray();
+        this.unprocessed = latencies.length - this.latencies.length;
+        for (LoadScenario scenario : settings.mix().keySet()) {
+            long[] result = new long[latencies.length];
+            int count = 0;
+            for (int i = 0; i < latencies.length; i++) {
+                if (scenarios[i] == scenario && latencies[i] >= 0) {
+                    result[count++] = latencies[i];
+                }
+            }
+            long[] sorted = Arrays.copyOf(result, count);
+            Arrays.sort(sorted);
+            scenarioLatencies.put(scenario, sorted);
+        }
+    }
+
+    /**
+     * Возвращает количество обработанных обновлений в секунду.
+     */
+    public double getThroughput() {
+        return latencies.length * 1e9 / durationNanos;
+    }
+
+    /**
+     * Возвращает количество отправленных, но не обработанных обновлений.
+     */
+    public int getUnprocessed() {
+        return unprocessed;
+    }
+
+    /**
+     * Выводит отчёт в виде таблицы.
+     *
+     * @param out поток вывода
+     */
+    public void print(PrintStream out) {
+        out.println("Нагрузочный тест: " + settings.describe());
+        out.printf(Locale.ROOT, "Обработано обновлений: %d, не обработано: %d, длительность: %.1f с%n",
+                latencies.length, unprocessed, durationNanos / 1e9);
+        out.printf(Locale.ROOT, "Пропускная способность: %.0f обновлений/с%n", getThroughput());
+        out.printf(Locale.ROOT, "%-16s %10s %10s %10s %10s %10s%n",
+                "Задержка, мкс", "обновлений", "p50", "p99", "p99.9", "max");
+        printRow(out, "всего", latencies);
+        scenarioLatencies.forEach((scenario, sorted) -> printRow(out, scenario.name(), sorted));
+    }
+
+    /**
+     * Дописывает строку с результатами в конец CSV-файла, чтобы сравнивать запуски между собой.
+     * Если файла нет, он создаётся с заголовком.
+     *
+     * @throws IOException если не удалось записать файл
+     */
+    public void appendCsv() throws IOException {
+        StringBuilder row = new StringBuilder();
+        if (Files.notExists(settings.output())) {
+            row.append(CSV_HEADER).append('\n');
+        }
+        row.append(Instant.now()).append(',')
+                .append(settings.chats()).append(',')
+                .append(settings.ledgerSize()).append(',')
+                .append(settings.rate()).append(',')
+                .append(settings.maxPending()).append(',')
+                .append(settings.seed()).append(',')
+                .append('"').append(settings.formatMix()).append('"').append(',')
+                .append(latencies.length).append(',')
+                .append(unprocessed).append(',')
+                .append(String.format(Locale.ROOT, "%.0f", getThroughput()));
+        for (double percentile : PERCENTILES) {
+            row.append(',').append(micros(percentile(latencies, percentile)));
+        }
+        row.append(',').append(micros(max(latencies))).append('\n');
+        Files.writeString(settings.output(), row, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Выводит строку таблицы с перцентилями задержки.
+     *
+     * @param out    поток вывода
+     * @param name   название строки
+     * @param sorted отсортированные задержки в наносекундах
+     */
+    private void printRow(PrintStream out, String name, long[] sorted) {
+        out.printf(Locale.ROOT, "%-16s %10d", name, sorted.length);
+        for (double percentile : PERCENTILES) {
+            out.printf(Locale.ROOT, " %10d", micros(percentile(sorted, percentile)));
+        }
+        out.printf(Locale.ROOT, " %10d%n", micros(max(sorted)));
+    }
+
+    /**
+     * Возвращает перцентиль методом ближайшего ранга.
+     *
+     * @param sorted     отсортированные значения
+     * @param percentile перцентиль от 0 до 100
+     * @return значение перцентиля или 0, если значений нет
+     */
+    private static long percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percentile / 100 * sorted.length);
+        return sorted[Math.max(rank, 1) - 1];
+    }
+
+    /**
+     * Возвращает наибольшее значение или 0, если значений нет.
+     *
+     * @param sorted отсортированные значения
+     */
+    private static long max(long[] sorted) {
+        return sorted.length == 0 ? 0 : sorted[sorted.length - 1];
+    }
+
+    /**
+     * Переводит наносекунды в микросекунды.
+     *
+     * @param nanos наносекунды
+     */
+    private static long micros(long nanos) {
+        return nanos / 1000;
+    }
+}
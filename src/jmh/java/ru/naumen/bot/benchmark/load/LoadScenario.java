@@ -0,0 +1,164 @@
+package ru.naumen.bot.benchmark.load;
+
+import ru.naumen.bot.data.entity.BotUpdate;
+import ru.naumen.bot.data.enums.ExpenseCategory;
+import ru.naumen.bot.interaction.CommandData;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Сценарий действий пользователя в нагрузочном тесте. Сценарий состоит из одного или нескольких обновлений
+ * одного чата, которые отправляются друг за другом, как если бы пользователь сразу нажал кнопку под ответом бота.
+ */
+public enum LoadScenario {
+
+    /**
+     * Сообщение о расходе и выбор категории кнопкой
+     */
+    EXPENSE(40) {
+        @Override
+        List<BotUpdate> updates(long chatId, Random random) {
+            return List.of(message(chatId, "- " + amount(random, 5000) + " "
+                            + EXPENSE_DESCRIPTIONS[random.nextInt(EXPENSE_DESCRIPTIONS.length)]),
+                    callback(chatId, category(random)));
+        }
+    },
+
+    /**
+     * Сообщение о доходе
+     */
+    INCOME(15) {
+        @Override
+        List<BotUpdate> updates(long chatId, Random random) {
+            return List.of(message(chatId, "+ " + amount(random, 100000) + " "
+                    + INCOME_DESCRIPTIONS[random.nextInt(INCOME_DESCRIPTIONS.length)]));
+        }
+    },
+
+    /**
+     * Команда вывода баланса
+     */
+    BALANCE(20) {
+        @Override
+        List<BotUpdate> updates(long chatId, Random random) {
+            return List.of(message(chatId, CommandData.BALANCE_COMMAND.getReadableName()));
+        }
+    },
+
+    /**
+     * Отчёт о расходах категории за месяц: команда и выбор категории кнопкой
+     */
+    CATEGORY_REPORT(10) {
+        @Override
+        List<BotUpdate> updates(long chatId, Random random) {
+            return List.of(message(chatId, CommandData.EXPENSES_BY_CAT.getReadableName()),
+                    callback(chatId, category(random)));
+        }
+    },
+
+    /**
+     * Отчёт о суммах расходов по категориям за месяц
+     */
+    TOTALS_REPORT(10) {
+        @Override
+        List<BotUpdate> updates(long chatId, Random random) {
+            return List.of(message(chatId, CommandData.ALL_CAT_OF_EXPENSES.getReadableName()));
+        }
+    },
+
+    /**
+     * Первая страница истории расходов
+     */
+    HISTORY(5) {
+        @Override
+        List<BotUpdate> updates(long chatId, Random random) {
+            return List.of(message(chatId, CommandData.EXPENSES_COMMAND.getReadableName()));
+        }
+    };
+
+    /**
+     * Описания расходов
+     */
+    private static final String[] EXPENSE_DESCRIPTIONS = {"кофе", "такси", "обед", "продукты", "кино"};
+
+    /**
+     * Описания доходов
+     */
+    private static final String[] INCOME_DESCRIPTIONS = {"зарплата", "аванс", "кэшбэк", "подарок", "фриланс"};
+
+    /**
+     * Категории расходов
+     */
+    private static final ExpenseCategory[] CATEGORIES = ExpenseCategory.values();
+
+    /**
+     * Доля сценария в нагрузке по умолчанию
+     */
+    private final int defaultWeight;
+
+    /**
+     * Конструктор LoadScenario
+     *
+     * @param defaultWeight доля сценария в нагрузке по умолчанию
+     */
+    LoadScenario(int defaultWeight) {
+        this.defaultWeight = defaultWeight;
+    }
+
+    /**
+     * Возвращает долю сценария в нагрузке по умолчанию.
+     */
+    public int getDefaultWeight() {
+        return defaultWeight;
+    }
+
+    /**
+     * Генерирует обновления сценария.
+     *
+     * @param chatId идентификатор чата
+     * @param random генератор случайных чисел
+     * @return обновления в порядке отправки
+     */
+    abstract List<BotUpdate> updates(long chatId, Random random);
+
+    /**
+     * Создаёт текстовое сообщение.
+     *
+     * @param chatId  идентификатор чата
+     * @param message текст сообщения
+     */
+    private static BotUpdate message(long chatId, String message) {
+        return new BotUpdate(chatId, message, null, null);
+    }
+
+    /**
+     * Создаёт нажатие кнопки категории.
+     *
+     * @param chatId   идентификатор чата
+     * @param category категория расхода
+     */
+    private static BotUpdate callback(long chatId, ExpenseCategory category) {
+        return new BotUpdate(chatId, null, category.getName(), "callbackId");
+    }
+
+    /**
+     * Возвращает случайную категорию расхода.
+     *
+     * @param random генератор случайных чисел
+     */
+    private static ExpenseCategory category(Random random) {
+        return CATEGORIES[random.nextInt(CATEGORIES.length)];
+    }
+
+    /**
+     * Возвращает случайную сумму с копейками в том виде, в котором её пишет пользователь.
+     *
+     * @param random генератор случайных чисел
+     * @param max    наибольшая сумма в рублях
+     */
+    private static String amount(Random random, int max) {
+        return String.format(Locale.ROOT, "%d.%02d", 1 + random.nextInt(max), random.nextInt(100));
+    }
+}
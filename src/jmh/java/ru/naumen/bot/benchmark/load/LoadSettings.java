@@ -0,0 +1,108 @@
+package ru.naumen.bot.benchmark.load;
+
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Параметры нагрузочного теста. Передаются аргументами вида {@code имя=значение}, например,
+ * {@code chats=10000 rate=2000 mix=EXPENSE:60,BALANCE:40}.
+ *
+ * @param chats         количество чатов
+ * @param ledgerSize    количество расходов в истории каждого чата, доходов в 10 раз меньше
+ * @param warmupUpdates количество обновлений прогрева, не попадающих в отчёт
+ * @param updates       количество измеряемых обновлений
+ * @param rate          количество обновлений в секунду, 0 — отправлять без пауз, как только есть место в очереди
+ * @param maxPending    максимальное количество принятых, но ещё не обработанных обновлений
+ * @param seed          начальное значение генератора случайных чисел, одинаковое значение даёт одинаковую нагрузку
+ * @param mix           доли сценариев в нагрузке
+ * @param output        CSV-файл, в конец которого дописывается строка с результатами, или null
+ */
+public record LoadSettings(int chats, int ledgerSize, int warmupUpdates, int updates, int rate, int maxPending,
+                           long seed, Map<LoadScenario, Integer> mix, Path output) {
+
+    /**
+     * Разбирает аргументы командной строки. Не переданные параметры принимают значения по умолчанию.
+     *
+     * @param args аргументы вида {@code имя=значение}
+     * @return параметры нагрузочного теста
+     * @throws IllegalArgumentException если аргумент не удалось разобрать
+     */
+    public static LoadSettings parse(String... args) {
+        int chats = 5000;
+        int ledgerSize = 100;
+        int warmupUpdates = 100_000;
+        int updates = 500_000;
+        int rate = 0;
+        int maxPending = 1000;
+        long seed = 42L;
+        Map<LoadScenario, Integer> mix = new EnumMap<>(LoadScenario.class);
+        for (LoadScenario scenario : LoadScenario.values()) {
+            mix.put(scenario, scenario.getDefaultWeight());
+        }
+        Path output = null;
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Ожидался аргумент вида имя=значение: " + arg);
+            }
+            String value = arg.substring(separator + 1);
+            switch (arg.substring(0, separator)) {
+                case "chats" -> chats = Integer.parseInt(value);
+                case "ledger" -> ledgerSize = Integer.parseInt(value);
+                case "warmup" -> warmupUpdates = Integer.parseInt(value);
+                case "updates" -> updates = Integer.parseInt(value);
+                case "rate" -> rate = Integer.parseInt(value);
+                case "max-pending" -> maxPending = Integer.parseInt(value);
+                case "seed" -> seed = Long.parseLong(value);
+                case "mix" -> mix = parseMix(value);
+                case "output" -> output = Path.of(value);
+                default -> throw new IllegalArgumentException("Неизвестный параметр: " + arg);
+            }
+        }
+        return new LoadSettings(chats, ledgerSize, warmupUpdates, updates, rate, maxPending, seed, mix, output);
+    }
+
+    /**
+     * Возвращает параметры одной строкой для заголовка отчёта.
+     */
+    public String describe() {
+        return "chats=" + chats + " ledger=" + ledgerSize + " warmup=" + warmupUpdates + " updates=" + updates
+                + " rate=" + (rate == 0 ? "max" : rate) + " max-pending=" + maxPending + " seed=" + seed
+                + " mix=" + formatMix();
+    }
+
+    /**
+     * Возвращает доли сценариев в том же виде, в котором они передаются параметром {@code mix}.
+     */
+    public String formatMix() {
+        StringBuilder result = new StringBuilder();
+        mix.forEach((scenario, weight) -> {
+            if (!result.isEmpty()) {
+                result.append(',');
+            }
+            result.append(scenario.name()).append(':').append(weight);
+        });
+        return result.toString();
+    }
+
+    /**
+     * Разбирает доли сценариев вида {@code EXPENSE:60,BALANCE:40}. Не перечисленные сценарии не выполняются.
+     *
+     * @param value доли сценариев
+     */
+    private static Map<LoadScenario, Integer> parseMix(String value) {
+        Map<LoadScenario, Integer> mix = new EnumMap<>(LoadScenario.class);
+        for (String part : value.split(",")) {
+            String[] scenarioAndWeight = part.split(":");
+            if (scenarioAndWeight.length != 2) {
+                throw new IllegalArgumentException("Ожидалась доля сценария вида СЦЕНАРИЙ:доля: " + part);
+            }
+            mix.put(LoadScenario.valueOf(scenarioAndWeight[0].trim()), Integer.parseInt(scenarioAndWeight[1].trim()));
+        }
+        if (mix.values().stream().mapToInt(Integer::intValue).sum() <= 0) {
+            throw new IllegalArgumentException("Сумма долей сценариев должна быть положительной: " + value);
+        }
+        return mix;
+    }
+}
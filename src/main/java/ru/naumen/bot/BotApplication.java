@@ -2,23 +2,63 @@ package ru.naumen.bot;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.event.ApplicationEnvironmentPreparedEvent;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.ApplicationListener;
 import ru.naumen.bot.configuration.ApplicationConfig;
+import ru.naumen.bot.configuration.GoogleSheetsHttpConfig;
+import ru.naumen.bot.configuration.GoogleSheetsResilienceConfig;
+import ru.naumen.bot.configuration.JournalConfig;
+import ru.naumen.bot.configuration.TelegramInboundConfig;
+import ru.naumen.bot.configuration.TelegramOutboundConfig;
+
+import java.time.Duration;
 
 /**
  * Главный класс приложения BotApplication, который является точкой входа в
  * приложение на основе Spring Boot.
  *
  * <p>Аннотация {@link EnableConfigurationProperties} позволяет использовать
- * свойства, определенные в классе {@link ApplicationConfig}, для
- * конфигурации приложения.
+ * свойства, определенные в классах {@link ApplicationConfig} и
+ * {@link TelegramOutboundConfig}, для конфигурации приложения.
  */
 @SpringBootApplication
-@EnableConfigurationProperties(ApplicationConfig.class)
+@EnableConfigurationProperties({ApplicationConfig.class, TelegramOutboundConfig.class, TelegramInboundConfig.class,
+        JournalConfig.class, GoogleSheetsResilienceConfig.class, GoogleSheetsHttpConfig.class})
 public class BotApplication {
 
     public static void main(String[] args) {
-        SpringApplication.run(BotApplication.class, args);
+        SpringApplication application = new SpringApplication(BotApplication.class);
+        application.addListeners(new HttpKeepAliveListener());
+        application.run(args);
     }
 
+    /**
+     * Задаёт время жизни неиспользуемых соединений {@link java.net.http.HttpClient} из свойства
+     * {@code google-sheets.http.keep-alive} до создания компонентов приложения.
+     *
+     * <p>JDK читает системное свойство {@code jdk.httpclient.keepalive.timeout} один раз для всех
+     * HTTP-клиентов, поэтому оно задаётся здесь, а не в транспорте Google Sheets API. Значение по умолчанию
+     * в JDK (30 секунд) меньше обычного промежутка между запросами пользователя, и без этой настройки
+     * почти каждый запрос к Google Sheets API заново устанавливал бы TLS-соединение. Значение,
+     * переданное через {@code -Djdk.httpclient.keepalive.timeout}, не переопределяется.
+     */
+    private static class HttpKeepAliveListener implements ApplicationListener<ApplicationEnvironmentPreparedEvent> {
+
+        /**
+         * Системное свойство с временем жизни неиспользуемого соединения в секундах
+         */
+        private static final String KEEP_ALIVE_PROPERTY = "jdk.httpclient.keepalive.timeout";
+
+        @Override
+        public void onApplicationEvent(ApplicationEnvironmentPreparedEvent event) {
+            if (System.getProperty(KEEP_ALIVE_PROPERTY) != null) {
+                return;
+            }
+            Binder.get(event.getEnvironment()).bind("google-sheets.http.keep-alive", Duration.class)
+                    .ifBound(keepAlive -> System.setProperty(KEEP_ALIVE_PROPERTY,
+                            String.valueOf(keepAlive.toSeconds())));
+        }
+    }
 }
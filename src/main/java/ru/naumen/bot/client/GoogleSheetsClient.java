@@ -1,19 +1,18 @@
 package ru.naumen.bot.client;
 
-import com.google.api.client.googleapis.javanet.GoogleNetHttpTransport;
-import com.google.api.client.json.gson.GsonFactory;
 import com.google.api.services.sheets.v4.Sheets;
-import com.google.api.services.sheets.v4.SheetsScopes;
+import com.google.api.services.sheets.v4.SheetsRequest;
 import com.google.api.services.sheets.v4.model.*;
-import com.google.auth.http.HttpCredentialsAdapter;
-import com.google.auth.oauth2.GoogleCredentials;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.stereotype.Service;
+import ru.naumen.bot.client.GoogleSheetsResilience.RequestKind;
+import ru.naumen.bot.utils.metrics.BotMetrics;
 
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.security.GeneralSecurityException;
-import java.util.Collections;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Клиент для взаимодействия с Google Sheets API
@@ -22,9 +21,14 @@ import java.util.List;
 public class GoogleSheetsClient {
 
     /**
-     * Путь к файлу с учетными данными Google API
+     * Представление значений при чтении: числа возвращаются числами, а не отформатированными строками
      */
-    private final static String CREDENTIALS_PATH = "src/main/resources/credentials.json";
+    private static final String VALUE_RENDER_OPTION = "UNFORMATTED_VALUE";
+
+    /**
+     * Представление дат при чтении: даты, введённые в таблицу вручную, возвращаются серийными номерами
+     */
+    private static final String DATE_TIME_RENDER_OPTION = "SERIAL_NUMBER";
 
     /**
      * Экземпляр сервиса Google Sheets
@@ -32,72 +36,85 @@ public class GoogleSheetsClient {
     private final Sheets sheetsService;
 
     /**
-     * Конструктор, который инициализирует сервис Google Sheets
+     * Метрики запросов к Google Sheets API
      */
-    public GoogleSheetsClient() throws GeneralSecurityException, IOException {
-        try (FileInputStream serviceAccountStream = new FileInputStream(CREDENTIALS_PATH)) {
-            GoogleCredentials credentials = GoogleCredentials.fromStream(serviceAccountStream)
-                    .createScoped(Collections.singleton(SheetsScopes.SPREADSHEETS));
-            sheetsService = new Sheets.Builder(GoogleNetHttpTransport.newTrustedTransport(),
-                    GsonFactory.getDefaultInstance(),
-                    new HttpCredentialsAdapter(credentials))
-                    .setApplicationName("Google Sheets Integration")
-                    .build();
-        }
-    }
+    private final BotMetrics botMetrics;
 
     /**
-     * Изменение название листа в гугл-таблице
-     *
-     * @param sheetId       идентификатор листа
-     * @param newSheetTitle новое название
-     */
-    public void updateSheetTitle(int sheetId, String newSheetTitle, String spreadsheetId) throws IOException {
-        UpdateSheetPropertiesRequest updateRequest = new UpdateSheetPropertiesRequest()
-                .setProperties(new SheetProperties().setSheetId(sheetId).setTitle(newSheetTitle))
-                .setFields("title");
-        Request request = new Request().setUpdateSheetProperties(updateRequest);
-        BatchUpdateSpreadsheetRequest batchUpdateRequest = new BatchUpdateSpreadsheetRequest()
-                .setRequests(Collections.singletonList(request));
-
-        sheetsService.spreadsheets().batchUpdate(spreadsheetId, batchUpdateRequest).execute();
+     * Повторные попытки, ограничение частоты и предохранители запросов к Google Sheets API
+     */
+    private final GoogleSheetsResilience resilience;
 
+    /**
+     * Конструктор GoogleSheetsClient
+     *
+     * @param sheetsService экземпляр сервиса Google Sheets
+     * @param botMetrics    метрики запросов к Google Sheets API
+     * @param resilience    повторные попытки, ограничение частоты и предохранители запросов
+     */
+    public GoogleSheetsClient(Sheets sheetsService, BotMetrics botMetrics, GoogleSheetsResilience resilience) {
+        this.sheetsService = sheetsService;
+        this.botMetrics = botMetrics;
+        this.resilience = resilience;
     }
 
     /**
-     * Создание нового листа в таблице с названием
+     * Получение названий листов гугл-таблицы
      *
-     * @param sheetId       идентификатор листа
-     * @param sheetTitle    название листа
      * @param spreadsheetId идентификатор гугл-таблицы
+     * @return соответствие названий листов их идентификаторам в порядке следования листов
      */
-    public void createNewSheet(int sheetId, String sheetTitle, String spreadsheetId) throws IOException {
-        AddSheetRequest addSheetRequest = new AddSheetRequest()
-                .setProperties(new SheetProperties().setSheetId(sheetId).setTitle(sheetTitle));
-
-        Request request = new Request().setAddSheet(addSheetRequest);
-        BatchUpdateSpreadsheetRequest batchUpdateRequest = new BatchUpdateSpreadsheetRequest()
-                .setRequests(Collections.singletonList(request));
-
-        sheetsService.spreadsheets().batchUpdate(spreadsheetId, batchUpdateRequest).execute();
+    public Map<String, Integer> getSheetTitles(String spreadsheetId) throws IOException {
+        Spreadsheet spreadsheet = execute("getSheetTitles", spreadsheetId, RequestKind.READ,
+                sheetsService.spreadsheets().get(spreadsheetId).setFields("sheets.properties(sheetId,title)"));
+        Map<String, Integer> result = new LinkedHashMap<>();
+        if (spreadsheet.getSheets() != null) {
+            for (Sheet sheet : spreadsheet.getSheets()) {
+                result.put(sheet.getProperties().getTitle(), sheet.getProperties().getSheetId());
+            }
+        }
+        return result;
     }
 
     /**
-     * Изменение названия гугл-таблицы
+     * Получение количества строк в сетке листов гугл-таблицы. Диапазоны за пределами сетки
+     * Google Sheets API не читает, а отвечает ошибкой 400.
      *
-     * @param newTitle      новое название
      * @param spreadsheetId идентификатор гугл-таблицы
+     * @return количество строк, где ключом является название листа
      */
-    public void updateSpreadsheetTitle(String newTitle, String spreadsheetId) throws IOException {
-        UpdateSpreadsheetPropertiesRequest updateRequest = new UpdateSpreadsheetPropertiesRequest()
-                .setProperties(new SpreadsheetProperties().setTitle(newTitle))
-                .setFields("title");
+    public Map<String, Integer> getRowCounts(String spreadsheetId) throws IOException {
+        Spreadsheet spreadsheet = execute("getRowCounts", spreadsheetId, RequestKind.READ,
+                sheetsService.spreadsheets().get(spreadsheetId)
+                        .setFields("sheets.properties(title,gridProperties.rowCount)"));
+        Map<String, Integer> result = new LinkedHashMap<>();
+        if (spreadsheet.getSheets() != null) {
+            for (Sheet sheet : spreadsheet.getSheets()) {
+                GridProperties gridProperties = sheet.getProperties().getGridProperties();
+                result.put(sheet.getProperties().getTitle(),
+                        gridProperties == null || gridProperties.getRowCount() == null
+                                ? 0
+                                : gridProperties.getRowCount());
+            }
+        }
+        return result;
+    }
 
-        Request request = new Request().setUpdateSpreadsheetProperties(updateRequest);
+    /**
+     * Изменение структуры гугл-таблицы одним запросом.
+     * Запросы применяются атомарно: если один из них не выполнен, не применяется ни один
+     *
+     * @param requests      список запросов на изменение листов и свойств таблицы
+     * @param spreadsheetId идентификатор гугл-таблицы
+     */
+    public void batchUpdateSpreadsheet(List<Request> requests, String spreadsheetId) throws IOException {
+        if (requests.isEmpty()) {
+            return;
+        }
         BatchUpdateSpreadsheetRequest batchUpdateRequest = new BatchUpdateSpreadsheetRequest()
-                .setRequests(Collections.singletonList(request));
-
-        sheetsService.spreadsheets().batchUpdate(spreadsheetId, batchUpdateRequest).execute();
+                .setRequests(requests);
+        execute("batchUpdateSpreadsheet", spreadsheetId, RequestKind.APPEND,
+                sheetsService.spreadsheets().batchUpdate(spreadsheetId, batchUpdateRequest));
     }
 
     /**
@@ -105,15 +122,38 @@ public class GoogleSheetsClient {
      *
      * @param range         диапазон ячеек
      * @param spreadsheetId идентификатор гугл-таблицы
-     * @return Список списков ячеек из таблицы
+     * @return Список списков ячеек из таблицы: строки, числа и логические значения без форматирования
      */
     public List<List<Object>> readData(String range, String spreadsheetId) throws IOException {
-        ValueRange response = sheetsService.spreadsheets().values()
-                .get(spreadsheetId, range)
-                .execute();
+        ValueRange response = execute("readData", spreadsheetId, RequestKind.READ,
+                sheetsService.spreadsheets().values().get(spreadsheetId, range)
+                        .setValueRenderOption(VALUE_RENDER_OPTION)
+                        .setDateTimeRenderOption(DATE_TIME_RENDER_OPTION));
         return response.getValues();
     }
 
+    /**
+     * Чтение данных из нескольких диапазонов одним запросом
+     *
+     * @param ranges        диапазоны ячеек
+     * @param spreadsheetId идентификатор гугл-таблицы
+     * @return данные в порядке диапазонов, где ключом является диапазон в том виде, в котором он передан;
+     * для пустого диапазона значение равно null
+     */
+    public Map<String, List<List<Object>>> batchReadData(List<String> ranges, String spreadsheetId)
+            throws IOException {
+        BatchGetValuesResponse response = execute("batchReadData", spreadsheetId, RequestKind.READ,
+                sheetsService.spreadsheets().values().batchGet(spreadsheetId).setRanges(ranges)
+                        .setValueRenderOption(VALUE_RENDER_OPTION)
+                        .setDateTimeRenderOption(DATE_TIME_RENDER_OPTION));
+        List<ValueRange> valueRanges = response.getValueRanges();
+        Map<String, List<List<Object>>> result = new LinkedHashMap<>();
+        for (int i = 0; i < ranges.size(); i++) {
+            result.put(ranges.get(i), valueRanges == null ? null : valueRanges.get(i).getValues());
+        }
+        return result;
+    }
+
     /**
      * Добавление данных в таблицу
      *
@@ -123,12 +163,11 @@ public class GoogleSheetsClient {
      */
     public void appendData(String range, List<List<Object>> values, String spreadsheetId) throws IOException {
         ValueRange body = new ValueRange().setValues(values);
-        sheetsService.spreadsheets().values()
+        execute("appendData", spreadsheetId, RequestKind.APPEND, sheetsService.spreadsheets().values()
                 .append(spreadsheetId, range, body)
                 .setValueInputOption("USER_ENTERED")
                 .setInsertDataOption("INSERT_ROWS")
-                .setIncludeValuesInResponse(true)
-                .execute();
+                .setIncludeValuesInResponse(true));
     }
 
     /**
@@ -140,10 +179,31 @@ public class GoogleSheetsClient {
      */
     public void updateData(String range, List<List<Object>> values, String spreadsheetId) throws IOException {
         ValueRange body = new ValueRange().setValues(values);
-        sheetsService.spreadsheets().values()
+        execute("updateData", spreadsheetId, RequestKind.WRITE, sheetsService.spreadsheets().values()
                 .update(spreadsheetId, range, body)
+                .setValueInputOption("RAW"));
+    }
+
+    /**
+     * Изменение существующих ячеек в нескольких диапазонах одним запросом
+     *
+     * @param valuesByRange данные, где ключом является диапазон ячеек
+     * @param spreadsheetId идентификатор гугл-таблицы
+     */
+    public void batchUpdateData(Map<String, List<List<Object>>> valuesByRange, String spreadsheetId)
+            throws IOException {
+        if (valuesByRange.isEmpty()) {
+            return;
+        }
+        List<ValueRange> data = new ArrayList<>(valuesByRange.size());
+        for (Map.Entry<String, List<List<Object>>> entry : valuesByRange.entrySet()) {
+            data.add(new ValueRange().setRange(entry.getKey()).setValues(entry.getValue()));
+        }
+        BatchUpdateValuesRequest body = new BatchUpdateValuesRequest()
                 .setValueInputOption("RAW")
-                .execute();
+                .setData(data);
+        execute("batchUpdateData", spreadsheetId, RequestKind.WRITE,
+                sheetsService.spreadsheets().values().batchUpdate(spreadsheetId, body));
     }
 
     /**
@@ -154,7 +214,33 @@ public class GoogleSheetsClient {
      */
     public void clearSheet(String range, String spreadsheetId) throws IOException {
         ClearValuesRequest clearRequest = new ClearValuesRequest();
-        sheetsService.spreadsheets().values().clear(spreadsheetId, range, clearRequest).execute();
+        execute("clearSheet", spreadsheetId, RequestKind.WRITE,
+                sheetsService.spreadsheets().values().clear(spreadsheetId, range, clearRequest));
+    }
+
+    /**
+     * Выполняет запрос к Google Sheets API с повторными попытками и записывает время каждой попытки в метрики
+     *
+     * @param operation     название операции для тега метрики
+     * @param spreadsheetId идентификатор гугл-таблицы
+     * @param kind          вид запроса
+     * @param request       запрос к Google Sheets API
+     * @return ответ на запрос
+     * @throws GoogleSheetsUnavailableException если гугл-таблица временно недоступна
+     */
+    private <T> T execute(String operation, String spreadsheetId, RequestKind kind, SheetsRequest<T> request)
+            throws IOException {
+        return resilience.execute(operation, spreadsheetId, kind, () -> {
+            Timer.Sample sample = botMetrics.start();
+            try {
+                T response = request.execute();
+                botMetrics.recordGoogleSheetsRequest(sample, operation, null);
+                return response;
+            } catch (IOException | RuntimeException e) {
+                botMetrics.recordGoogleSheetsRequest(sample, operation, e);
+                throw e;
+            }
+        });
     }
 }
 
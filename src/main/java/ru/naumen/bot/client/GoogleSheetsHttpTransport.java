@@ -0,0 +1,282 @@
+package ru.naumen.bot.client;
+
+import com.google.api.client.http.HttpTransport;
+import com.google.api.client.http.LowLevelHttpRequest;
+import com.google.api.client.http.LowLevelHttpResponse;
+import com.google.api.client.util.StreamingContent;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+import ru.naumen.bot.configuration.GoogleSheetsHttpConfig;
+import ru.naumen.bot.utils.metrics.BotMetrics;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Транспорт запросов к Google Sheets API на основе {@link HttpClient} из JDK.
+ *
+ * <p>В отличие от транспорта на {@code HttpURLConnection}, все запросы идут через один клиент
+ * с общим пулом соединений: с серверами Google договаривается HTTP/2, и параллельные запросы
+ * мультиплексируются в одном TLS-соединении, а неиспользуемое соединение остаётся открытым
+ * {@code keep-alive} и не устанавливается заново для каждого запроса. Ответы запрашиваются
+ * в gzip и распаковываются клиентом Google API по заголовку {@code Content-Encoding}.
+ *
+ * <p>Время ожидания соединения и ответа задаётся в {@link GoogleSheetsHttpConfig}, а значения
+ * по умолчанию из запросов клиента Google API не используются. Время жизни неиспользуемых
+ * соединений задаётся для всех HTTP-клиентов при запуске в {@link ru.naumen.bot.BotApplication}.
+ */
+@Component
+public class GoogleSheetsHttpTransport extends HttpTransport {
+
+    /**
+     * Заголовки, которые {@link HttpClient} выставляет сам и не позволяет задавать в запросе
+     */
+    private static final Set<String> RESTRICTED_HEADERS =
+            Set.of("connection", "content-length", "expect", "host", "upgrade");
+
+    /**
+     * HTTP-клиент с общим пулом соединений
+     */
+    private final HttpClient httpClient;
+
+    /**
+     * Максимальное время ожидания ответа
+     */
+    private final Duration readTimeout;
+
+    /**
+     * Количество запросов, ожидающих ответа
+     */
+    private final AtomicInteger inFlightRequests = new AtomicInteger();
+
+    /**
+     * Метрики запросов к Google Sheets API
+     */
+    private final BotMetrics botMetrics;
+
+    /**
+     * Конструктор GoogleSheetsHttpTransport.
+     *
+     * @param config     настройки HTTP-соединений с Google Sheets API
+     * @param botMetrics метрики запросов к Google Sheets API
+     */
+    public GoogleSheetsHttpTransport(GoogleSheetsHttpConfig config, BotMetrics botMetrics) {
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(config.connectTimeout())
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .build();
+        this.readTimeout = config.readTimeout();
+        this.botMetrics = botMetrics;
+    }
+
+    @Override
+    protected LowLevelHttpRequest buildRequest(String method, String url) {
+        return new JdkHttpRequest(method, url);
+    }
+
+    @Override
+    public boolean supportsMethod(String method) {
+        return true;
+    }
+
+    /**
+     * Закрывает HTTP-клиент, дожидаясь завершения начатых запросов.
+     */
+    @Override
+    @PreDestroy
+    public void shutdown() {
+        httpClient.close();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return httpClient.isTerminated();
+    }
+
+    /**
+     * Возвращает количество запросов, ожидающих ответа.
+     */
+    public int getInFlightRequests() {
+        return inFlightRequests.get();
+    }
+
+    /**
+     * Записывает тело запроса в массив байт, чтобы длина тела была известна заранее.
+     *
+     * @param content тело запроса или null, если тела нет
+     */
+    private static HttpRequest.BodyPublisher bodyPublisher(StreamingContent content) throws IOException {
+        if (content == null) {
+            return HttpRequest.BodyPublishers.noBody();
+        }
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        content.writeTo(body);
+        return HttpRequest.BodyPublishers.ofByteArray(body.toByteArray());
+    }
+
+    /**
+     * Запрос, собираемый клиентом Google API и отправляемый через {@link HttpClient}.
+     */
+    private class JdkHttpRequest extends LowLevelHttpRequest {
+
+        /**
+         * HTTP-метод запроса
+         */
+        private final String method;
+
+        /**
+         * Собираемый запрос
+         */
+        private final HttpRequest.Builder builder;
+
+        /**
+         * Конструктор JdkHttpRequest
+         *
+         * @param method HTTP-метод запроса
+         * @param url    адрес запроса
+         */
+        private JdkHttpRequest(String method, String url) {
+            this.method = method;
+            this.builder = HttpRequest.newBuilder(URI.create(url));
+        }
+
+        @Override
+        public void addHeader(String name, String value) {
+            if (!RESTRICTED_HEADERS.contains(name.toLowerCase())) {
+                builder.header(name, value);
+            }
+        }
+
+        @Override
+        public LowLevelHttpResponse execute() throws IOException {
+            if (getContentType() != null) {
+                builder.setHeader("Content-Type", getContentType());
+            }
+            if (getContentEncoding() != null) {
+                builder.setHeader("Content-Encoding", getContentEncoding());
+            }
+            builder.timeout(readTimeout);
+            builder.method(method, bodyPublisher(getStreamingContent()));
+
+            inFlightRequests.incrementAndGet();
+            try {
+                HttpResponse<InputStream> response =
+                        httpClient.send(builder.build(), HttpResponse.BodyHandlers.ofInputStream());
+                botMetrics.countGoogleSheetsHttpResponse(response.version().name());
+                return new JdkHttpResponse(response);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Запрос к Google Sheets API прерван");
+            } finally {
+                inFlightRequests.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Ответ {@link HttpClient}, передаваемый клиенту Google API.
+     */
+    private static class JdkHttpResponse extends LowLevelHttpResponse {
+
+        /**
+         * Ответ с телом в виде потока
+         */
+        private final HttpResponse<InputStream> response;
+
+        /**
+         * Названия заголовков ответа, по одному на каждое значение
+         */
+        private final List<String> headerNames = new ArrayList<>();
+
+        /**
+         * Значения заголовков ответа в порядке {@link #headerNames}
+         */
+        private final List<String> headerValues = new ArrayList<>();
+
+        /**
+         * Конструктор JdkHttpResponse
+         *
+         * @param response ответ с телом в виде потока
+         */
+        private JdkHttpResponse(HttpResponse<InputStream> response) {
+            this.response = response;
+            for (Map.Entry<String, List<String>> header : response.headers().map().entrySet()) {
+                if (header.getKey().startsWith(":")) {
+                    continue;
+                }
+                for (String value : header.getValue()) {
+                    headerNames.add(header.getKey());
+                    headerValues.add(value);
+                }
+            }
+        }
+
+        @Override
+        public InputStream getContent() {
+            return response.body();
+        }
+
+        @Override
+        public String getContentEncoding() {
+            return response.headers().firstValue("Content-Encoding").orElse(null);
+        }
+
+        @Override
+        public long getContentLength() {
+            return response.headers().firstValueAsLong("Content-Length").orElse(-1);
+        }
+
+        @Override
+        public String getContentType() {
+            return response.headers().firstValue("Content-Type").orElse(null);
+        }
+
+        @Override
+        public String getStatusLine() {
+            return null;
+        }
+
+        @Override
+        public int getStatusCode() {
+            return response.statusCode();
+        }
+
+        @Override
+        public String getReasonPhrase() {
+            return null;
+        }
+
+        @Override
+        public int getHeaderCount() {
+            return headerNames.size();
+        }
+
+        @Override
+        public String getHeaderName(int index) {
+            return headerNames.get(index);
+        }
+
+        @Override
+        public String getHeaderValue(int index) {
+            return headerValues.get(index);
+        }
+
+        @Override
+        public void disconnect() throws IOException {
+            response.body().close();
+        }
+    }
+}
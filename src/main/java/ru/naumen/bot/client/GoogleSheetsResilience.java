@@ -0,0 +1,288 @@
+package ru.naumen.bot.client;
+
+import com.google.api.client.http.HttpResponseException;
+import org.springframework.stereotype.Component;
+import ru.naumen.bot.configuration.GoogleSheetsResilienceConfig;
+import ru.naumen.bot.utils.concurrent.CircuitBreaker;
+import ru.naumen.bot.utils.concurrent.TokenBucket;
+import ru.naumen.bot.utils.metrics.BotMetrics;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Устойчивое выполнение запросов к Google Sheets API.
+ *
+ * <p>Запросы на чтение и запись проходят через общие для всех таблиц ограничители частоты,
+ * настроенные под квоты проекта, поэтому всплеск запросов замедляет их, а не приводит к ответам 429.
+ * Ответы 429 и 5xx и сетевые ошибки повторяются с экспоненциально растущей паузой со случайной
+ * составляющей; ответ 429 дополнительно приостанавливает все запросы того же вида.
+ * Для каждой таблицы ведётся предохранитель: после серии ошибок 5xx и сетевых ошибок запросы к ней
+ * на время не отправляются. Если запрос не удалось выполнить по этим причинам, выбрасывается
+ * {@link GoogleSheetsUnavailableException}. Предохранитель хранится, только пока запросы к таблице
+ * завершаются ошибками, и удаляется после первого успешного ответа, поэтому память не растёт
+ * с числом таблиц.
+ */
+@Component
+public class GoogleSheetsResilience {
+
+    /**
+     * Код ответа при превышении квоты запросов
+     */
+    private static final int TOO_MANY_REQUESTS = 429;
+
+    /**
+     * Наименьший код ответа, означающий ошибку сервера
+     */
+    private static final int SERVER_ERROR = 500;
+
+    /**
+     * Настройки устойчивости запросов
+     */
+    private final GoogleSheetsResilienceConfig config;
+
+    /**
+     * Ограничитель частоты запросов на чтение
+     */
+    private final TokenBucket readBucket;
+
+    /**
+     * Ограничитель частоты запросов на запись
+     */
+    private final TokenBucket writeBucket;
+
+    /**
+     * Предохранители таблиц, запросы к которым недавно завершались ошибками,
+     * где ключом является идентификатор гугл-таблицы
+     */
+    private final Map<String, CircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+
+    /**
+     * Метрики запросов к Google Sheets API
+     */
+    private final BotMetrics botMetrics;
+
+    /**
+     * Конструктор GoogleSheetsResilience
+     *
+     * @param config     настройки устойчивости запросов
+     * @param botMetrics метрики запросов к Google Sheets API
+     */
+    public GoogleSheetsResilience(GoogleSheetsResilienceConfig config, BotMetrics botMetrics) {
+        this.config = config;
+        this.botMetrics = botMetrics;
+        this.readBucket = new TokenBucket(config.burst(), config.readRequestsPerMinute() / 60);
+        this.writeBucket = new TokenBucket(config.burst(), config.writeRequestsPerMinute() / 60);
+    }
+
+    /**
+     * Выполняет запрос с ограничением частоты, повторными попытками и предохранителем таблицы.
+     *
+     * @param operation     название операции для метрик
+     * @param spreadsheetId идентификатор гугл-таблицы
+     * @param kind          вид запроса
+     * @param request       запрос к Google Sheets API
+     * @return ответ на запрос
+     * @throws GoogleSheetsUnavailableException если таблица временно недоступна
+     * @throws IOException                      если запрос завершился ошибкой, которую повторять бесполезно
+     */
+    public <T> T execute(String operation, String spreadsheetId, RequestKind kind, SheetsCall<T> request)
+            throws IOException {
+        TokenBucket bucket = kind == RequestKind.READ ? readBucket : writeBucket;
+        for (int attempt = 1; ; attempt++) {
+            if (!allowRequest(spreadsheetId)) {
+                botMetrics.countGoogleSheetsRejected(operation, "circuit-open");
+                throw new GoogleSheetsUnavailableException("Запросы к гугл-таблице временно приостановлены",
+                        true, null);
+            }
+            if (!acquire(bucket)) {
+                botMetrics.countGoogleSheetsRejected(operation, "throttled");
+                throw new GoogleSheetsUnavailableException("Превышена квота запросов к Google Sheets API",
+                        true, null);
+            }
+
+            int status;
+            try {
+                T response = request.call();
+                recordSuccess(spreadsheetId);
+                return response;
+            } catch (HttpResponseException e) {
+                status = e.getStatusCode();
+                if (status != TOO_MANY_REQUESTS && status < SERVER_ERROR) {
+                    recordSuccess(spreadsheetId);
+                    throw e;
+                }
+                if (status >= SERVER_ERROR) {
+                    recordFailure(spreadsheetId);
+                } else {
+                    bucket.suspend(backoff(attempt));
+                }
+                if (attempt >= config.maxAttempts() || (status != TOO_MANY_REQUESTS && !kind.idempotent)) {
+                    throw new GoogleSheetsUnavailableException("Гугл-таблица временно недоступна",
+                            status == TOO_MANY_REQUESTS, e);
+                }
+            } catch (IOException e) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw e;
+                }
+                status = 0;
+                recordFailure(spreadsheetId);
+                if (attempt >= config.maxAttempts() || !kind.idempotent) {
+                    throw new GoogleSheetsUnavailableException("Гугл-таблица временно недоступна", false, e);
+                }
+            }
+            botMetrics.countGoogleSheetsRetry(operation, status);
+            sleep(backoff(attempt));
+        }
+    }
+
+    /**
+     * Возвращает количество гугл-таблиц, для которых хранится предохранитель.
+     */
+    public int getTrackedSpreadsheets() {
+        return circuitBreakers.size();
+    }
+
+    /**
+     * Проверяет предохранитель таблицы. Запрос к таблице без предохранителя всегда разрешён.
+     *
+     * @param spreadsheetId идентификатор гугл-таблицы
+     * @return true, если запрос к таблице можно выполнить
+     */
+    private boolean allowRequest(String spreadsheetId) {
+        CircuitBreaker circuitBreaker = circuitBreakers.get(spreadsheetId);
+        return circuitBreaker == null || circuitBreaker.allowRequest();
+    }
+
+    /**
+     * Замыкает предохранитель таблицы после успешного ответа и удаляет его,
+     * так как замкнутый предохранитель без ошибок не отличается от отсутствующего.
+     *
+     * @param spreadsheetId идентификатор гугл-таблицы
+     */
+    private void recordSuccess(String spreadsheetId) {
+        circuitBreakers.computeIfPresent(spreadsheetId, (id, circuitBreaker) -> {
+            circuitBreaker.recordSuccess();
+            return null;
+        });
+    }
+
+    /**
+     * Запоминает ошибку запроса к таблице, создавая её предохранитель при необходимости.
+     *
+     * @param spreadsheetId идентификатор гугл-таблицы
+     */
+    private void recordFailure(String spreadsheetId) {
+        circuitBreakers.compute(spreadsheetId, (id, circuitBreaker) -> {
+            CircuitBreaker result = circuitBreaker == null
+                    ? new CircuitBreaker(config.failureThreshold(), config.openDuration())
+                    : circuitBreaker;
+            result.recordFailure();
+            return result;
+        });
+    }
+
+    /**
+     * Возвращает паузу перед следующей попыткой: половина паузы постоянна, а вторая половина случайна,
+     * чтобы запросы, получившие ошибку одновременно, не повторялись тоже одновременно.
+     *
+     * @param attempt номер неудавшейся попытки, начиная с 1
+     */
+    private Duration backoff(int attempt) {
+        long maxNanos = config.maxBackoff().toNanos();
+        long nanos = config.initialBackoff().toNanos() << Math.min(attempt - 1, 30);
+        if (nanos <= 0 || nanos > maxNanos) {
+            nanos = maxNanos;
+        }
+        return Duration.ofNanos(nanos / 2 + ThreadLocalRandom.current().nextLong(nanos / 2 + 1));
+    }
+
+    /**
+     * Забирает токен из ограничителя частоты, ожидая не дольше {@code maxThrottleWait}.
+     *
+     * @param bucket ограничитель частоты
+     * @return true, если токен получен
+     * @throws InterruptedIOException если поток был прерван во время ожидания
+     */
+    private boolean acquire(TokenBucket bucket) throws InterruptedIOException {
+        try {
+            return bucket.tryAcquire(config.maxThrottleWait());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Ожидание квоты запросов прервано");
+        }
+    }
+
+    /**
+     * Приостанавливает поток перед повторной попыткой.
+     *
+     * @param pause длительность паузы
+     * @throws InterruptedIOException если поток был прерван во время паузы
+     */
+    private static void sleep(Duration pause) throws InterruptedIOException {
+        try {
+            TimeUnit.NANOSECONDS.sleep(pause.toNanos());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Ожидание повторной попытки прервано");
+        }
+    }
+
+    /**
+     * Вид запроса к Google Sheets API.
+     */
+    public enum RequestKind {
+
+        /**
+         * Чтение данных
+         */
+        READ(true),
+
+        /**
+         * Запись, повторное выполнение которой не меняет результат, например, изменение ячеек
+         */
+        WRITE(true),
+
+        /**
+         * Запись, повторное выполнение которой может задвоить данные, например, добавление строк.
+         * Повторяется только после ответа 429, так как тогда запрос точно не был применён.
+         */
+        APPEND(false);
+
+        /**
+         * Можно ли повторять запрос после ошибки сервера или сети
+         */
+        private final boolean idempotent;
+
+        /**
+         * Конструктор RequestKind
+         *
+         * @param idempotent можно ли повторять запрос после ошибки сервера или сети
+         */
+        RequestKind(boolean idempotent) {
+            this.idempotent = idempotent;
+        }
+    }
+
+    /**
+     * Запрос к Google Sheets API.
+     *
+     * @param <T> тип ответа
+     */
+    @FunctionalInterface
+    public interface SheetsCall<T> {
+
+        /**
+         * Выполняет запрос.
+         *
+         * @return ответ на запрос
+         * @throws IOException если запрос завершился ошибкой
+         */
+        T call() throws IOException;
+    }
+}
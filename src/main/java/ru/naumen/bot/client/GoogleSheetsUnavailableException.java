@@ -0,0 +1,37 @@
+package ru.naumen.bot.client;
+
+import java.io.IOException;
+
+/**
+ * Исключение, выбрасываемое, если гугл-таблица временно недоступна: попытки запроса исчерпаны
+ * из-за ответов 429 и 5xx или сетевых ошибок, запросы к таблице приостановлены предохранителем
+ * или очередь в ограничителе частоты слишком длинная.
+ */
+public class GoogleSheetsUnavailableException extends IOException {
+
+    /**
+     * Был ли запрос отклонён без применения в таблице
+     */
+    private final boolean rejected;
+
+    /**
+     * Конструктор GoogleSheetsUnavailableException
+     *
+     * @param message  сообщение об ошибке
+     * @param rejected был ли запрос отклонён без применения в таблице: не отправлялся
+     *                 или получил ответ 429 Too Many Requests
+     * @param cause    ошибка последней попытки или null, если запрос не отправлялся
+     */
+    public GoogleSheetsUnavailableException(String message, boolean rejected, Throwable cause) {
+        super(message, cause);
+        this.rejected = rejected;
+    }
+
+    /**
+     * Проверяет, был ли запрос отклонён без применения в таблице, то есть его можно безопасно
+     * повторить позже, не опасаясь двойной записи.
+     */
+    public boolean isRejected() {
+        return rejected;
+    }
+}
@@ -0,0 +1,50 @@
+package ru.naumen.bot.configuration;
+
+import com.google.api.client.json.gson.GsonFactory;
+import com.google.api.services.sheets.v4.Sheets;
+import com.google.api.services.sheets.v4.SheetsScopes;
+import com.google.auth.http.HttpCredentialsAdapter;
+import com.google.auth.oauth2.GoogleCredentials;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.naumen.bot.client.GoogleSheetsHttpTransport;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.Collections;
+
+/**
+ * Конфигурационный класс для создания сервиса Google Sheets API.
+ */
+@Configuration
+public class GoogleSheetsConfig {
+
+    /**
+     * Путь к файлу с учетными данными Google API
+     */
+    private static final String CREDENTIALS_PATH = "src/main/resources/credentials.json";
+
+    /**
+     * Создаёт сервис Google Sheets, авторизованный учётными данными сервисного аккаунта.
+     *
+     * @param httpTransport транспорт запросов с общим пулом соединений
+     * @param rootUrl       корневой адрес Google Sheets API, например, адрес эмулятора для нагрузочного
+     *                      тестирования
+     * @return сервис Google Sheets
+     */
+    @Bean
+    public Sheets sheetsService(GoogleSheetsHttpTransport httpTransport,
+                                @Value("${google-sheets.root-url}") String rootUrl) throws IOException {
+        try (FileInputStream serviceAccountStream = new FileInputStream(CREDENTIALS_PATH)) {
+            GoogleCredentials credentials = GoogleCredentials.fromStream(serviceAccountStream)
+                    .createScoped(Collections.singleton(SheetsScopes.SPREADSHEETS));
+            return new Sheets.Builder(httpTransport,
+                    GsonFactory.getDefaultInstance(),
+                    new HttpCredentialsAdapter(credentials))
+                    .setApplicationName("Google Sheets Integration")
+                    .setRootUrl(rootUrl)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package ru.naumen.bot.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Настройки HTTP-соединений с Google Sheets API.
+ *
+ * <p>Свойства с префиксом "google-sheets.http" задают время ожидания соединения и ответа.
+ * Свойство "google-sheets.http.keep-alive" с временем, в течение которого неиспользуемое соединение
+ * остаётся открытым для следующих запросов, действует для всех HTTP-клиентов и применяется
+ * при запуске в {@link ru.naumen.bot.BotApplication}.
+ *
+ * @param connectTimeout максимальное время установления соединения
+ * @param readTimeout    максимальное время ожидания ответа на запрос
+ */
+@ConfigurationProperties(prefix = "google-sheets.http")
+public record GoogleSheetsHttpConfig(Duration connectTimeout, Duration readTimeout) {
+}
@@ -0,0 +1,29 @@
+package ru.naumen.bot.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Настройки устойчивости запросов к Google Sheets API.
+ *
+ * <p>Свойства с префиксом "google-sheets.resilience" задают повторные попытки при ответах 429 и 5xx,
+ * предохранитель для каждой гугл-таблицы и ограничения частоты чтения и записи, соответствующие
+ * квотам проекта в Google Sheets API.
+ *
+ * @param maxAttempts            максимальное количество попыток выполнения одного запроса
+ * @param initialBackoff         пауза перед второй попыткой, каждая следующая пауза вдвое длиннее
+ * @param maxBackoff             максимальная пауза между попытками
+ * @param failureThreshold       количество ошибок подряд, после которого запросы к таблице приостанавливаются
+ * @param openDuration           время, на которое приостанавливаются запросы к таблице
+ * @param readRequestsPerMinute  допустимое количество запросов на чтение в минуту
+ * @param writeRequestsPerMinute допустимое количество запросов на запись в минуту
+ * @param burst                  допустимый всплеск запросов каждого вида
+ * @param maxThrottleWait        максимальное время ожидания своей очереди в ограничителе частоты
+ */
+@ConfigurationProperties(prefix = "google-sheets.resilience")
+public record GoogleSheetsResilienceConfig(int maxAttempts, Duration initialBackoff, Duration maxBackoff,
+                                           int failureThreshold, Duration openDuration,
+                                           double readRequestsPerMinute, double writeRequestsPerMinute,
+                                           int burst, Duration maxThrottleWait) {
+}
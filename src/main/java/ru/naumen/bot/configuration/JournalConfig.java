@@ -0,0 +1,16 @@
+package ru.naumen.bot.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+
+/**
+ * Настройки журнала хранилищ в памяти.
+ *
+ * @param directory   каталог с сегментами и снимками журнала
+ * @param segmentSize размер одного сегмента
+ */
+@ConfigurationProperties(prefix = "journal")
+public record JournalConfig(Path directory, DataSize segmentSize) {
+}
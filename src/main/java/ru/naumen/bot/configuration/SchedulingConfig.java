@@ -1,9 +1,12 @@
 package ru.naumen.bot.configuration;
 
 
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableScheduling;
 
+import java.time.Clock;
+
 /**
  * Конфигурационный класс для настройки расписания удаления суммы расходов за день.
  */
@@ -11,4 +14,13 @@ import org.springframework.scheduling.annotation.EnableScheduling;
 @EnableScheduling // Оставили аннотацию здесь, так как она должна быть в классе конфигурации (исходя из документации).
 public class SchedulingConfig {
 
+    /**
+     * Часы, по которым планируются задачи, зависящие от времени пользователей.
+     *
+     * @return системные часы в UTC
+     */
+    @Bean
+    public Clock clock() {
+        return Clock.systemUTC();
+    }
 }
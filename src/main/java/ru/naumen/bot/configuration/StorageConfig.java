@@ -0,0 +1,28 @@
+package ru.naumen.bot.configuration;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.naumen.bot.data.journal.Journal;
+import ru.naumen.bot.data.journal.MappedFileJournal;
+
+import java.io.IOException;
+
+/**
+ * Конфигурация хранилищ в памяти.
+ */
+@Configuration
+public class StorageConfig {
+
+    /**
+     * Журнал изменений хранилищ в памяти, сохраняемый в каталоге из настроек.
+     *
+     * @param journalConfig настройки журнала
+     * @return журнал в отображаемых в память файлах
+     * @throws IOException если создать файлы журнала не удалось
+     */
+    @Bean
+    public Journal journal(JournalConfig journalConfig) throws IOException {
+        return new MappedFileJournal(journalConfig.directory(),
+                Math.toIntExact(journalConfig.segmentSize().toBytes()));
+    }
+}
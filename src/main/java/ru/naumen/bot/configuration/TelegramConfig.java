@@ -0,0 +1,23 @@
+package ru.naumen.bot.configuration;
+
+import com.pengrad.telegrambot.TelegramBot;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Конфигурационный класс для создания клиента Telegram Bot API.
+ */
+@Configuration
+public class TelegramConfig {
+
+    /**
+     * Создаёт экземпляр бота Телеграмм, общий для получения обновлений и отправки сообщений.
+     *
+     * @param applicationConfig конфигурация, содержащая токен бота Telegram
+     * @return экземпляр бота Телеграмм
+     */
+    @Bean
+    public TelegramBot telegramBot(ApplicationConfig applicationConfig) {
+        return new TelegramBot(applicationConfig.telegramToken());
+    }
+}
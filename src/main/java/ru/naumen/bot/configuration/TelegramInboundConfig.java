@@ -0,0 +1,50 @@
+package ru.naumen.bot.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Настройки получения обновлений от Telegram.
+ *
+ * <p>Свойства с префиксом "telegram.inbound" задают способ получения обновлений. В режиме
+ * {@link Mode#LONG_POLLING} бот сам запрашивает обновления у Telegram. В режиме {@link Mode#WEBHOOK}
+ * Telegram отправляет обновления на адрес {@code webhookUrl}, который должен вести на
+ * {@code /telegram/webhook} этого приложения, и передаёт {@code secretToken} в заголовке
+ * {@code X-Telegram-Bot-Api-Secret-Token}.
+ *
+ * @param mode        способ получения обновлений
+ * @param webhookUrl  публичный HTTPS-адрес, на который Telegram отправляет обновления в режиме вебхука
+ * @param secretToken секретный токен для проверки, что запрос отправлен Telegram; обязателен в режиме вебхука
+ */
+@ConfigurationProperties(prefix = "telegram.inbound")
+public record TelegramInboundConfig(Mode mode, String webhookUrl, String secretToken) {
+
+    /**
+     * Способы получения обновлений.
+     */
+    public enum Mode {
+
+        /**
+         * Бот запрашивает обновления у Telegram.
+         */
+        LONG_POLLING,
+
+        /**
+         * Telegram отправляет обновления на вебхук приложения.
+         */
+        WEBHOOK
+    }
+
+    /**
+     * Возвращает true, если обновления получаются через вебхук.
+     */
+    public boolean isWebhook() {
+        return mode == Mode.WEBHOOK;
+    }
+
+    /**
+     * Возвращает true, если задан секретный токен вебхука.
+     */
+    public boolean hasSecretToken() {
+        return secretToken != null && !secretToken.isEmpty();
+    }
+}
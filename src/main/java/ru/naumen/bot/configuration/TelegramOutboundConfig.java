@@ -0,0 +1,23 @@
+package ru.naumen.bot.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Настройки отправки сообщений в Telegram.
+ *
+ * <p>Свойства с префиксом "telegram.outbound" задают размер очереди исходящих сообщений
+ * и ограничения частоты отправки, соответствующие лимитам Telegram.
+ *
+ * @param maxPendingMessages      максимальное количество сообщений, ожидающих отправки
+ * @param chatMessagesPerSecond   допустимое количество сообщений в секунду в один чат
+ * @param chatBurst               допустимый всплеск сообщений в один чат
+ * @param globalMessagesPerSecond допустимое количество сообщений в секунду во все чаты
+ * @param globalBurst             допустимый всплеск сообщений во все чаты
+ * @param maxRetries              количество повторных попыток отправки после ответа 429 Too Many Requests
+ */
+@ConfigurationProperties(prefix = "telegram.outbound")
+public record TelegramOutboundConfig(int maxPendingMessages,
+                                     double chatMessagesPerSecond, int chatBurst,
+                                     double globalMessagesPerSecond, int globalBurst,
+                                     int maxRetries) {
+}
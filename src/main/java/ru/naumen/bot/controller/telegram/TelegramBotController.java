@@ -7,17 +7,23 @@ import com.pengrad.telegrambot.model.Update;
 import com.pengrad.telegrambot.model.request.InlineKeyboardButton;
 import com.pengrad.telegrambot.model.request.InlineKeyboardMarkup;
 import com.pengrad.telegrambot.request.AnswerCallbackQuery;
+import com.pengrad.telegrambot.request.DeleteWebhook;
 import com.pengrad.telegrambot.request.SendMessage;
 import com.pengrad.telegrambot.request.SetMyCommands;
+import com.pengrad.telegrambot.request.SetWebhook;
+import com.pengrad.telegrambot.response.BaseResponse;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
-import ru.naumen.bot.configuration.ApplicationConfig;
+import ru.naumen.bot.configuration.TelegramInboundConfig;
 import ru.naumen.bot.controller.BotController;
 import ru.naumen.bot.data.entity.AnswerMessage;
 import ru.naumen.bot.data.entity.BotUpdate;
 import ru.naumen.bot.interaction.CommandData;
-import ru.naumen.bot.processor.BotUpdateProcessor;
+import ru.naumen.bot.processor.UpdateDispatcher;
 
 import java.util.Arrays;
 import java.util.List;
@@ -34,9 +40,19 @@ public class TelegramBotController implements BotController {
     private final TelegramBot telegramBot;
 
     /**
-     * Обработчик обновлений, полученных ботом.
+     * Диспетчер, распределяющий обновления по очередям чатов.
      */
-    private final BotUpdateProcessor botUpdateProcessor;
+    private final UpdateDispatcher updateDispatcher;
+
+    /**
+     * Асинхронная отправка запросов в Telegram Bot API.
+     */
+    private final TelegramMessageSender telegramMessageSender;
+
+    /**
+     * Настройки получения обновлений
+     */
+    private final TelegramInboundConfig inboundConfig;
 
     /**
      * Логгер для записи сообщений об ошибках
@@ -44,21 +60,36 @@ public class TelegramBotController implements BotController {
     private final Logger logger = LoggerFactory.getLogger(TelegramBotController.class);
 
     /**
-     * Конструктор {@link  TelegramBotController} инициализирует бота Telegram, устанавливает его команды
-     * и настраивает слушатель обновлений для обработки входящих обновлений.
+     * Конструктор {@link  TelegramBotController}
      *
-     * @param applicationConfig  конфигурация, содержащая токен бота Telegram
-     * @param botUpdateProcessor обработчик обновлений, полученных ботом
-     */
-    public TelegramBotController(ApplicationConfig applicationConfig, BotUpdateProcessor botUpdateProcessor) {
-        this.telegramBot = new TelegramBot(applicationConfig.telegramToken());
-        this.botUpdateProcessor = botUpdateProcessor;
-
-        this.telegramBot.execute(new SetMyCommands(createCommandsMenu()));
-        this.telegramBot.setUpdatesListener(updates -> {
-            updates.forEach(this::processUpdate);
-            return UpdatesListener.CONFIRMED_UPDATES_ALL;
-        }, exception -> {
+     * @param telegramBot           экземпляр бота Телеграмм
+     * @param updateDispatcher      диспетчер, распределяющий обновления по очередям чатов
+     * @param telegramMessageSender асинхронная отправка запросов в Telegram Bot API
+     * @param inboundConfig         настройки получения обновлений
+     */
+    public TelegramBotController(TelegramBot telegramBot, UpdateDispatcher updateDispatcher,
+                                 TelegramMessageSender telegramMessageSender, TelegramInboundConfig inboundConfig) {
+        this.telegramBot = telegramBot;
+        this.updateDispatcher = updateDispatcher;
+        this.telegramMessageSender = telegramMessageSender;
+        this.inboundConfig = inboundConfig;
+    }
+
+    /**
+     * Устанавливает команды бота и начинает получение обновлений: регистрирует вебхук
+     * или настраивает слушатель входящих обновлений.
+     * Вызывается после полного запуска приложения, чтобы обновления не обрабатывались
+     * до восстановления данных из журнала.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        telegramBot.execute(new SetMyCommands(createCommandsMenu()));
+        if (inboundConfig.isWebhook()) {
+            registerWebhook();
+            return;
+        }
+        telegramBot.execute(new DeleteWebhook());
+        telegramBot.setUpdatesListener(this::processUpdates, exception -> {
             if (exception.response() != null) {
                 logger.error(
                         "[Bot exception] :: Code: {}; Message: {}.",
@@ -76,6 +107,30 @@ public class TelegramBotController implements BotController {
         });
     }
 
+    /**
+     * Регистрирует вебхук, на который Telegram будет отправлять обновления.
+     */
+    private void registerWebhook() {
+        SetWebhook setWebhook = new SetWebhook().url(inboundConfig.webhookUrl())
+                .secretToken(inboundConfig.secretToken());
+        BaseResponse response = telegramBot.execute(setWebhook);
+        if (!response.isOk()) {
+            logger.error("[Bot exception] :: Code: {}; Message: {}.", response.errorCode(), response.description());
+        }
+    }
+
+    /**
+     * Принимает обновление, полученное через вебхук, и передаёт его диспетчеру, не дожидаясь обработки
+     * и не блокируя поток запроса.
+     *
+     * @param update обновление от Telegram
+     * @return true, если обновление принято или не требует обработки, false, если очереди диспетчера заполнены
+     */
+    public boolean acceptUpdate(Update update) {
+        BotUpdate botUpdate = toBotUpdate(update);
+        return botUpdate.chatId() == null || updateDispatcher.tryDispatch(botUpdate, this::sendMessages);
+    }
+
     /**
      * Создание меню команд для бота
      *
@@ -88,11 +143,36 @@ public class TelegramBotController implements BotController {
     }
 
     /**
-     * Обрабатывает входящее обновление от пользователя, преобразуя его в объект {@link BotUpdate}.
+     * Передаёт полученные обновления диспетчеру, не дожидаясь их обработки.
+     * Если очереди диспетчера заполнены, поток получения обновлений ждёт освобождения места.
+     *
+     * @param updates список обновлений
+     * @return идентификатор последнего принятого обновления
+     */
+    private int processUpdates(List<Update> updates) {
+        int lastDispatchedUpdateId = UpdatesListener.CONFIRMED_UPDATES_NONE;
+        for (Update update : updates) {
+            BotUpdate botUpdate = toBotUpdate(update);
+            if (botUpdate.chatId() != null) {
+                try {
+                    updateDispatcher.dispatch(botUpdate, this::sendMessages);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return lastDispatchedUpdateId;
+                }
+            }
+            lastDispatchedUpdateId = update.updateId();
+        }
+        return UpdatesListener.CONFIRMED_UPDATES_ALL;
+    }
+
+    /**
+     * Преобразует входящее обновление от пользователя в объект {@link BotUpdate}.
      *
      * @param update обновление, содержащее информацию о действии пользователя
+     * @return обновление бота
      */
-    private void processUpdate(Update update) {
+    private BotUpdate toBotUpdate(Update update) {
         Long chatId = null;
         String message = null;
         if (update.message() != null) {
@@ -106,10 +186,7 @@ public class TelegramBotController implements BotController {
             callbackQueryId = update.callbackQuery().id();
             chatId = update.callbackQuery().from().id();
         }
-        BotUpdate botUpdate = new BotUpdate(chatId, message, callbackQueryData, callbackQueryId);
-
-        List<AnswerMessage> answerMessages = botUpdateProcessor.processBotUpdate(botUpdate);
-        sendMessages(answerMessages);
+        return new BotUpdate(chatId, message, callbackQueryData, callbackQueryId);
     }
 
     /**
@@ -132,7 +209,7 @@ public class TelegramBotController implements BotController {
     private void sendMessage(String message, long chatId, List<List<String>> buttons) {
         SendMessage sendMessage = new SendMessage(chatId, message);
         if (buttons == null) {
-            telegramBot.execute(sendMessage);
+            telegramMessageSender.send(chatId, sendMessage);
             return;
         }
         InlineKeyboardButton[][] keyboardButtons = new InlineKeyboardButton[buttons.size()][];
@@ -142,7 +219,7 @@ public class TelegramBotController implements BotController {
                     .toArray(InlineKeyboardButton[]::new);
         }
         InlineKeyboardMarkup keyboardMarkup = new InlineKeyboardMarkup(keyboardButtons);
-        telegramBot.execute(sendMessage.replyMarkup(keyboardMarkup));
+        telegramMessageSender.send(chatId, sendMessage.replyMarkup(keyboardMarkup));
     }
 
     /**
@@ -152,7 +229,7 @@ public class TelegramBotController implements BotController {
      * @param callbackQueryId идентификатор callback-запроса
      */
     private void sendPopUpMessage(String message, String callbackQueryId) {
-        telegramBot.execute(new AnswerCallbackQuery(callbackQueryId).text(message));
+        telegramMessageSender.sendImmediately(new AnswerCallbackQuery(callbackQueryId).text(message));
     }
 
     @Override
@@ -167,4 +244,17 @@ public class TelegramBotController implements BotController {
             }
         });
     }
+
+    /**
+     * Останавливает получение обновлений, дожидается обработки принятых обновлений
+     * и отправки ответов на них.
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (!inboundConfig.isWebhook()) {
+            telegramBot.removeGetUpdatesListener();
+        }
+        updateDispatcher.shutdown();
+        telegramMessageSender.shutdown();
+    }
 }
@@ -0,0 +1,215 @@
+package ru.naumen.bot.controller.telegram;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.pengrad.telegrambot.Callback;
+import com.pengrad.telegrambot.TelegramBot;
+import com.pengrad.telegrambot.request.BaseRequest;
+import com.pengrad.telegrambot.response.BaseResponse;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import ru.naumen.bot.configuration.TelegramOutboundConfig;
+import ru.naumen.bot.utils.concurrent.ChatTaskExecutor;
+import ru.naumen.bot.utils.concurrent.TokenBucket;
+import ru.naumen.bot.utils.metrics.BotMetrics;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Асинхронная отправка запросов в Telegram Bot API.
+ *
+ * <p>Запросы ставятся в очередь своего чата и отправляются через асинхронный
+ * {@link TelegramBot#execute(BaseRequest, Callback)}, поэтому отправка ответов не задерживает
+ * обработку обновлений. Запросы одного чата отправляются строго по порядку: следующий запрос
+ * уходит только после ответа на предыдущий. Частота отправки ограничивается отдельно для каждого
+ * чата и для бота в целом, а ответ 429 Too Many Requests приостанавливает отправку на время,
+ * указанное Telegram.
+ */
+@Component
+public class TelegramMessageSender {
+
+    /**
+     * Код ответа Telegram при превышении ограничения частоты запросов
+     */
+    private static final int TOO_MANY_REQUESTS = 429;
+
+    /**
+     * Экземпляр бота Телеграмм
+     */
+    private final TelegramBot telegramBot;
+
+    /**
+     * Настройки отправки сообщений
+     */
+    private final TelegramOutboundConfig outboundConfig;
+
+    /**
+     * Исполнитель, отправляющий запросы с сохранением порядка внутри чата
+     */
+    private final ChatTaskExecutor chatTaskExecutor;
+
+    /**
+     * Ограничитель частоты отправки во все чаты
+     */
+    private final TokenBucket globalBucket;
+
+    /**
+     * Ограничители частоты отправки, где ключом является идентификатор чата.
+     * Ограничитель удаляется, если в чат ничего не отправлялось дольше, чем ведро пополняется целиком:
+     * к этому времени оно заполнено и не отличается от нового.
+     */
+    private final Cache<Long, TokenBucket> chatBuckets;
+
+    /**
+     * Метрики запросов к Telegram Bot API
+     */
+    private final BotMetrics botMetrics;
+
+    /**
+     * Логгер для записи сообщений об ошибках
+     */
+    private final Logger logger = LoggerFactory.getLogger(TelegramMessageSender.class);
+
+    /**
+     * Конструктор {@link TelegramMessageSender}.
+     *
+     * @param telegramBot    экземпляр бота Телеграмм
+     * @param outboundConfig настройки отправки сообщений
+     * @param botMetrics     метрики запросов к Telegram Bot API
+     */
+    public TelegramMessageSender(TelegramBot telegramBot, TelegramOutboundConfig outboundConfig,
+                                 BotMetrics botMetrics) {
+        this.telegramBot = telegramBot;
+        this.outboundConfig = outboundConfig;
+        this.botMetrics = botMetrics;
+        this.chatTaskExecutor = new ChatTaskExecutor("telegram-sender", outboundConfig.maxPendingMessages());
+        this.globalBucket = new TokenBucket(outboundConfig.globalBurst(), outboundConfig.globalMessagesPerSecond());
+        long refillNanos = (long) Math.ceil(outboundConfig.chatBurst() / outboundConfig.chatMessagesPerSecond()
+                * TimeUnit.SECONDS.toNanos(1));
+        this.chatBuckets = Caffeine.newBuilder()
+                .expireAfterAccess(Duration.ofNanos(refillNanos).plusSeconds(1))
+                .build();
+    }
+
+    /**
+     * Ставит запрос в очередь отправки чата.
+     * Если очередь отправки заполнена, блокирует вызывающий поток до освобождения места.
+     *
+     * @param chatId  идентификатор чата, в который отправляется запрос
+     * @param request запрос к Telegram Bot API
+     */
+    public <T extends BaseRequest<T, R>, R extends BaseResponse> void send(long chatId, T request) {
+        try {
+            chatTaskExecutor.execute(chatId, () -> deliver(chatId, request));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.error("[Sender exception] :: Chat: {}; Message: request was dropped.", chatId, e);
+        }
+    }
+
+    /**
+     * Отправляет запрос без очереди и ограничения частоты, например, ответ на callback-запрос,
+     * который не считается сообщением и должен быть отправлен как можно быстрее.
+     *
+     * @param request запрос к Telegram Bot API
+     */
+    public <T extends BaseRequest<T, R>, R extends BaseResponse> void sendImmediately(T request) {
+        execute(request).whenComplete((response, exception) -> {
+            if (exception != null) {
+                logger.error("[Sender exception] :: Message: {}.", exception.getMessage(), exception);
+            } else if (!response.isOk()) {
+                logger.error("[Bot exception] :: Code: {}; Message: {}.",
+                        response.errorCode(), response.description());
+            }
+        });
+    }
+
+    /**
+     * Возвращает количество запросов, ожидающих отправки.
+     */
+    public int getPendingMessages() {
+        return chatTaskExecutor.getPendingTasks();
+    }
+
+    /**
+     * Отправляет запрос с учётом ограничений частоты и дожидается ответа.
+     * Выполняется в потоке очереди чата, поэтому ограничитель чата используется только одним потоком.
+     *
+     * @param chatId  идентификатор чата
+     * @param request запрос к Telegram Bot API
+     */
+    private <T extends BaseRequest<T, R>, R extends BaseResponse> void deliver(long chatId, T request) {
+        TokenBucket chatBucket = chatBuckets.get(chatId, id ->
+                new TokenBucket(outboundConfig.chatBurst(), outboundConfig.chatMessagesPerSecond()));
+        try {
+            for (int attempt = 0; ; attempt++) {
+                chatBucket.acquire();
+                globalBucket.acquire();
+                R response = execute(request).get();
+                if (response.isOk()) {
+                    return;
+                }
+                Integer retryAfter = response.parameters() != null ? response.parameters().retryAfter() : null;
+                if (response.errorCode() != TOO_MANY_REQUESTS || retryAfter == null
+                        || attempt >= outboundConfig.maxRetries()) {
+                    logger.error("[Bot exception] :: Chat: {}; Code: {}; Message: {}.",
+                            chatId, response.errorCode(), response.description());
+                    return;
+                }
+                botMetrics.countTelegramRateLimited();
+                Duration pause = Duration.ofSeconds(retryAfter);
+                chatBucket.suspend(pause);
+                globalBucket.suspend(pause);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.error("[Sender exception] :: Chat: {}; Message: request was dropped.", chatId, e);
+        } catch (ExecutionException e) {
+            logger.error("[Sender exception] :: Chat: {}; Message: {}.", chatId, e.getCause().getMessage(), e);
+        } finally {
+            // Ожидание токена или ответа может быть дольше срока хранения ограничителя,
+            // поэтому он возвращается в кэш, чтобы следующий запрос не получил заполненное ведро
+            chatBuckets.put(chatId, chatBucket);
+        }
+    }
+
+    /**
+     * Выполняет запрос через асинхронный API бота и записывает время до получения ответа в метрики.
+     *
+     * @param request запрос к Telegram Bot API
+     * @return будущий ответ на запрос
+     */
+    private <T extends BaseRequest<T, R>, R extends BaseResponse> CompletableFuture<R> execute(T request) {
+        CompletableFuture<R> future = new CompletableFuture<>();
+        Timer.Sample sample = botMetrics.start();
+        telegramBot.execute(request, new Callback<T, R>() {
+            @Override
+            public void onResponse(T request, R response) {
+                botMetrics.recordTelegramRequest(sample, request.getMethod(), response.errorCode(), null);
+                future.complete(response);
+            }
+
+            @Override
+            public void onFailure(T request, IOException e) {
+                botMetrics.recordTelegramRequest(sample, request.getMethod(), 0, e);
+                future.completeExceptionally(e);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Дожидается отправки уже принятых запросов при остановке приложения.
+     */
+    @PreDestroy
+    public void shutdown() {
+        chatTaskExecutor.close();
+    }
+}
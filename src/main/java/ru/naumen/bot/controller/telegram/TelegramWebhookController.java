@@ -0,0 +1,103 @@
+package ru.naumen.bot.controller.telegram;
+
+import com.google.gson.JsonParseException;
+import com.pengrad.telegrambot.model.Update;
+import com.pengrad.telegrambot.utility.BotUtils;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+import ru.naumen.bot.configuration.TelegramInboundConfig;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Вебхук, на который Telegram отправляет обновления в режиме {@code telegram.inbound.mode: webhook}.
+ *
+ * <p>Обновление ставится в очередь диспетчера, и ответ отправляется сразу, не дожидаясь обработки.
+ * Если очереди диспетчера заполнены, возвращается 503, и Telegram повторит доставку позже.
+ * Секретный токен обязателен: без него приложение не запускается, а запросы без токена
+ * или с другим токеном отклоняются с кодом 401.
+ */
+@RestController
+@ConditionalOnProperty(name = "telegram.inbound.mode", havingValue = "webhook")
+public class TelegramWebhookController {
+
+    /**
+     * Путь вебхука
+     */
+    public static final String WEBHOOK_PATH = "/telegram/webhook";
+
+    /**
+     * Заголовок, в котором Telegram передаёт секретный токен вебхука
+     */
+    public static final String SECRET_TOKEN_HEADER = "X-Telegram-Bot-Api-Secret-Token";
+
+    /**
+     * Контроллер, передающий обновления диспетчеру
+     */
+    private final TelegramBotController telegramBotController;
+
+    /**
+     * Секретный токен вебхука в байтах
+     */
+    private final byte[] secretToken;
+
+    /**
+     * Конструктор {@link TelegramWebhookController}.
+     *
+     * @param telegramBotController контроллер, передающий обновления диспетчеру
+     * @param inboundConfig         настройки получения обновлений
+     * @throws IllegalStateException если секретный токен вебхука не задан
+     */
+    public TelegramWebhookController(TelegramBotController telegramBotController,
+                                     TelegramInboundConfig inboundConfig) {
+        this.telegramBotController = telegramBotController;
+        if (!inboundConfig.hasSecretToken()) {
+            throw new IllegalStateException("Не задан секретный токен вебхука telegram.inbound.secret-token");
+        }
+        this.secretToken = inboundConfig.secretToken().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Принимает обновление от Telegram.
+     *
+     * @param token секретный токен из заголовка запроса
+     * @param body  обновление в формате JSON
+     * @return 200, если обновление принято, 400, если тело не является обновлением,
+     * 401, если токен не совпадает, 503, если очереди диспетчера заполнены
+     */
+    @PostMapping(WEBHOOK_PATH)
+    public ResponseEntity<Void> receiveUpdate(@RequestHeader(name = SECRET_TOKEN_HEADER, required = false) String token,
+                                              @RequestBody String body) {
+        if (!isAuthorized(token)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        Update update;
+        try {
+            update = BotUtils.parseUpdate(body);
+        } catch (JsonParseException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (update == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        return telegramBotController.acceptUpdate(update)
+                ? ResponseEntity.ok().build()
+                : ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+    }
+
+    /**
+     * Проверяет секретный токен запроса. Сравнение выполняется за время, не зависящее от совпадающей части.
+     *
+     * @param token секретный токен из заголовка запроса или null
+     * @return true, если токен совпадает
+     */
+    private boolean isAuthorized(String token) {
+        return token != null && MessageDigest.isEqual(secretToken, token.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -11,18 +11,19 @@ public interface BalanceDao {
      * Устанавливает баланс пользователя для указанного идентификатора.
      *
      * @param chatId     идентификатор чата, в котором необходимо установить баланс
-     * @param newBalance сумма нового баланса
+     * @param newBalance сумма нового баланса в копейках
      * @throws DaoException если возникает ошибка, связанная со взаимодействием с БД.
      */
-    void setBalance(long chatId, double newBalance) throws DaoException;
+    void setBalance(long chatId, long newBalance) throws DaoException;
 
     /**
      * Возвращает баланс пользователя для указанного идентификатора
      *
      * @param chatId идентификатор чата, из которого необходимо вернуть баланс
+     * @return баланс в копейках или 0, если баланс не установлен
      * @throws DaoException если возникает ошибка, связанная со взаимодействием с БД.
      */
-    Double getBalance(long chatId) throws DaoException;
+    long getBalance(long chatId) throws DaoException;
 
     /**
      * Удаляет баланс пользователя для указанного идентификатора
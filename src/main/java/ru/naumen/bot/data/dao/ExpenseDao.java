@@ -4,7 +4,10 @@ import ru.naumen.bot.data.entity.Expense;
 import ru.naumen.bot.data.enums.ExpenseCategory;
 import ru.naumen.bot.exception.DaoException;
 
+import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Интерфейс ExpenseDao предоставляет методы для работы с данными о расходах.
@@ -20,6 +23,73 @@ public interface ExpenseDao {
      */
     List<Expense> getExpenses(long chatId) throws DaoException;
 
+    /**
+     * Возвращает не более {@code limit} расходов, добавленных перед последними {@code offset} расходами,
+     * для постраничного вывода истории начиная с последних записей.
+     *
+     * @param chatId идентификатор чата, для которого нужно получить расходы.
+     * @param offset количество последних расходов, которые нужно пропустить.
+     * @param limit  максимальное количество расходов.
+     * @return список объектов {@link Expense} в порядке добавления.
+     * @throws DaoException если возникает ошибка, связанная со взаимодействием с БД.
+     */
+    List<Expense> getLatestExpenses(long chatId, int offset, int limit) throws DaoException;
+
+    /**
+     * Возвращает количество расходов для указанного идентификатора чата.
+     *
+     * @param chatId идентификатор чата, для которого нужно посчитать расходы.
+     * @return количество расходов.
+     * @throws DaoException если возникает ошибка, связанная со взаимодействием с БД.
+     */
+    int countExpenses(long chatId) throws DaoException;
+
+    /**
+     * Возвращает не более {@code count} расходов начиная с {@code start}-го по порядку добавления
+     * для чтения истории частями.
+     *
+     * @param chatId идентификатор чата, для которого нужно получить расходы.
+     * @param start  номер первого расхода, начиная с 0.
+     * @param count  максимальное количество расходов.
+     * @return список объектов {@link Expense} в порядке добавления.
+     * @throws DaoException если возникает ошибка, связанная со взаимодействием с БД.
+     */
+    List<Expense> getExpensesChunk(long chatId, int start, int count) throws DaoException;
+
+    /**
+     * Возвращает расходы за период для указанного идентификатора чата.
+     *
+     * @param chatId идентификатор чата, для которого нужно получить расходы.
+     * @param from   начальная дата периода включительно.
+     * @param to     конечная дата периода включительно.
+     * @return список объектов {@link Expense} в порядке дат.
+     * @throws DaoException если возникает ошибка, связанная со взаимодействием с БД.
+     */
+    List<Expense> getExpenses(long chatId, LocalDate from, LocalDate to) throws DaoException;
+
+    /**
+     * Возвращает расходы указанной категории за период для указанного идентификатора чата.
+     *
+     * @param chatId   идентификатор чата, для которого нужно получить расходы.
+     * @param from     начальная дата периода включительно.
+     * @param to       конечная дата периода включительно.
+     * @param category категория расходов.
+     * @return список объектов {@link Expense} в порядке дат.
+     * @throws DaoException если возникает ошибка, связанная со взаимодействием с БД.
+     */
+    List<Expense> getExpenses(long chatId, LocalDate from, LocalDate to, ExpenseCategory category)
+            throws DaoException;
+
+    /**
+     * Возвращает суммы расходов по категориям за месяц для указанного идентификатора чата.
+     *
+     * @param chatId идентификатор чата, для которого нужно получить суммы расходов.
+     * @param month  месяц.
+     * @return суммы расходов в копейках по категориям, в которых за месяц были расходы.
+     * @throws DaoException если возникает ошибка, связанная со взаимодействием с БД.
+     */
+    Map<ExpenseCategory, Long> getCategoryTotals(long chatId, YearMonth month) throws DaoException;
+
     /**
      * Добавляет расход для указанного идентификатора чата.
      *
@@ -3,6 +3,7 @@ package ru.naumen.bot.data.dao;
 import ru.naumen.bot.data.entity.Income;
 import ru.naumen.bot.exception.DaoException;
 
+import java.time.LocalDate;
 import java.util.List;
 
 /**
@@ -19,6 +20,50 @@ public interface IncomeDao {
      */
     List<Income> getIncomes(long chatId) throws DaoException;
 
+    /**
+     * Возвращает не более {@code limit} доходов, добавленных перед последними {@code offset} доходами,
+     * для постраничного вывода истории начиная с последних записей.
+     *
+     * @param chatId идентификатор чата, для которого нужно получить доходы.
+     * @param offset количество последних доходов, которые нужно пропустить.
+     * @param limit  максимальное количество доходов.
+     * @return список объектов {@link Income} в порядке добавления.
+     * @throws DaoException если возникает ошибка, связанная со взаимодействием с БД.
+     */
+    List<Income> getLatestIncomes(long chatId, int offset, int limit) throws DaoException;
+
+    /**
+     * Возвращает количество доходов для указанного идентификатора чата.
+     *
+     * @param chatId идентификатор чата, для которого нужно посчитать доходы.
+     * @return количество доходов.
+     * @throws DaoException если возникает ошибка, связанная со взаимодействием с БД.
+     */
+    int countIncomes(long chatId) throws DaoException;
+
+    /**
+     * Возвращает не более {@code count} доходов начиная с {@code start}-го по порядку добавления
+     * для чтения истории частями.
+     *
+     * @param chatId идентификатор чата, для которого нужно получить доходы.
+     * @param start  номер первого дохода, начиная с 0.
+     * @param count  максимальное количество доходов.
+     * @return список объектов {@link Income} в порядке добавления.
+     * @throws DaoException если возникает ошибка, связанная со взаимодействием с БД.
+     */
+    List<Income> getIncomesChunk(long chatId, int start, int count) throws DaoException;
+
+    /**
+     * Возвращает доходы за период для указанного идентификатора чата.
+     *
+     * @param chatId идентификатор чата, для которого нужно получить доходы.
+     * @param from   начальная дата периода включительно.
+     * @param to     конечная дата периода включительно.
+     * @return список объектов {@link Income} в порядке дат.
+     * @throws DaoException если возникает ошибка, связанная со взаимодействием с БД.
+     */
+    List<Income> getIncomes(long chatId, LocalDate from, LocalDate to) throws DaoException;
+
     /**
      * Добавляет доход для указанного идентификатора чата.
      *
@@ -0,0 +1,30 @@
+package ru.naumen.bot.data.dao;
+
+import ru.naumen.bot.data.entity.Summary;
+import ru.naumen.bot.exception.DaoException;
+
+/**
+ * Интерфейс SummaryDao предоставляет методы для чтения и записи баланса и лимита пользователя
+ * как одной единицы работы.
+ */
+public interface SummaryDao {
+
+    /**
+     * Возвращает баланс и лимит пользователя для указанного идентификатора чата.
+     *
+     * @param chatId идентификатор чата
+     * @return объект {@link Summary} с балансом и лимитом
+     * @throws DaoException если возникает ошибка, связанная со взаимодействием с БД.
+     */
+    Summary getSummary(long chatId) throws DaoException;
+
+    /**
+     * Записывает баланс и лимит пользователя для указанного идентификатора чата.
+     * Если лимит не установлен, записывается только баланс.
+     *
+     * @param chatId  идентификатор чата
+     * @param summary объект {@link Summary} с новым балансом и лимитом
+     * @throws DaoException если возникает ошибка, связанная со взаимодействием с БД.
+     */
+    void setSummary(long chatId, Summary summary) throws DaoException;
+}
@@ -4,25 +4,51 @@ import org.springframework.stereotype.Component;
 import ru.naumen.bot.data.entity.User;
 import ru.naumen.bot.data.enums.ChatState;
 import ru.naumen.bot.data.enums.DataType;
+import ru.naumen.bot.data.journal.Journal;
+import ru.naumen.bot.data.journal.JournalParticipant;
+import ru.naumen.bot.data.journal.JournalRecord;
+import ru.naumen.bot.data.journal.JournalRecord.ChatStateSet;
+import ru.naumen.bot.data.journal.JournalRecord.DataTypeSet;
+import ru.naumen.bot.data.journal.JournalRecord.GoogleSheetIdSet;
+import ru.naumen.bot.data.journal.JournalRecord.TimeZoneSet;
+import ru.naumen.bot.data.journal.JournalRecord.UserOpened;
 
-import java.util.HashMap;
+import java.time.ZoneId;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.LongPredicate;
 
 /**
  * Класс, предоставляющий функционал для управления данными о пользователях в памяти.
  *
- * <p>Использует HashMap для хранения данных пользователей.
+ * <p>Использует ConcurrentHashMap для хранения данных пользователей. Каждое изменение
+ * записывается в {@link Journal}, поэтому состояния чатов, идентификаторы гугл-таблиц
+ * и часовые пояса восстанавливаются после перезапуска.
  */
 @Component
-public class UserDao {
+public class UserDao implements JournalParticipant {
 
     /**
      * Хранилище для данных пользователей, где ключом является идентификатор чата,
      * а значением — объект {@link User}.
      */
-    private final Map<Long, User> users = new HashMap<>();
+    private final Map<Long, User> users = new ConcurrentHashMap<>();
 
+    /**
+     * Журнал изменений данных пользователей
+     */
+    private final Journal journal;
+
+    /**
+     * Конструктор UserDao
+     *
+     * @param journal журнал изменений данных пользователей
+     */
+    public UserDao(Journal journal) {
+        this.journal = journal;
+    }
 
     /**
      * Проверяет, открыт ли чат для данного идентификатора.
@@ -44,7 +70,7 @@ public class UserDao {
      * @param chatId идентификатор чата, который нужно открыть.
      */
     public void openChat(long chatId) {
-        users.put(chatId, new User(DataType.IN_MEMORY, ChatState.WAITING_FOR_TYPE_DB));
+        journal.write(new UserOpened(chatId), () -> openUser(chatId));
     }
 
     /**
@@ -54,7 +80,8 @@ public class UserDao {
      * @param chatState состояние, которое необходимо установить
      */
     public void setChatState(long chatId, ChatState chatState) {
-        users.get(chatId).setChatState(chatState);
+        User user = users.get(chatId);
+        journal.write(new ChatStateSet(chatId, chatState), () -> user.setChatState(chatState));
     }
 
     /**
@@ -74,7 +101,8 @@ public class UserDao {
      * @param dataType тип данных, который необходимо установить
      */
     public void setDataType(long chatId, DataType dataType) {
-        users.get(chatId).setDataType(dataType);
+        User user = users.get(chatId);
+        journal.write(new DataTypeSet(chatId, dataType), () -> user.setDataType(dataType));
     }
 
     /**
@@ -94,7 +122,8 @@ public class UserDao {
      * @param googleSheetId ссылка на Google Sheet
      */
     public void setGoogleSheetId(long chatId, String googleSheetId) {
-        users.get(chatId).setGoogleSheetId(googleSheetId);
+        User user = users.get(chatId);
+        journal.write(new GoogleSheetIdSet(chatId, googleSheetId), () -> user.setGoogleSheetId(googleSheetId));
     }
 
     /**
@@ -107,10 +136,74 @@ public class UserDao {
         return users.get(chatId).getGoogleSheetId();
     }
 
+    /**
+     * Устанавливает часовой пояс пользователя для указанного идентификатора.
+     *
+     * @param chatId   идентификатор чата, для которого необходимо установить часовой пояс
+     * @param timeZone часовой пояс пользователя
+     */
+    public void setTimeZone(long chatId, ZoneId timeZone) {
+        User user = users.get(chatId);
+        journal.write(new TimeZoneSet(chatId, timeZone), () -> user.setTimeZone(timeZone));
+    }
+
+    /**
+     * Возвращает часовой пояс пользователя для указанного идентификатора.
+     *
+     * @param chatId идентификатор чата, для которого необходимо получить часовой пояс
+     * @return часовой пояс пользователя или null, если он не установлен
+     */
+    public ZoneId getTimeZone(long chatId) {
+        return users.get(chatId).getTimeZone();
+    }
+
     /**
      * Возвращает идентификаторы всех открытых чатов.
      */
     public Set<Long> getUserIds() {
         return users.keySet();
     }
-}
\ No newline at end of file
+
+    @Override
+    public boolean apply(JournalRecord record) {
+        switch (record) {
+            case UserOpened opened -> openUser(opened.chatId());
+            case ChatStateSet chatStateSet -> users.get(chatStateSet.chatId()).setChatState(chatStateSet.chatState());
+            case DataTypeSet dataTypeSet -> users.get(dataTypeSet.chatId()).setDataType(dataTypeSet.dataType());
+            case GoogleSheetIdSet sheetIdSet ->
+                    users.get(sheetIdSet.chatId()).setGoogleSheetId(sheetIdSet.googleSheetId());
+            case TimeZoneSet timeZoneSet -> users.get(timeZoneSet.chatId()).setTimeZone(timeZoneSet.timeZone());
+            default -> {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void snapshot(LongPredicate chats, Consumer<JournalRecord> consumer) {
+        users.forEach((chatId, user) -> {
+            if (!chats.test(chatId)) {
+                return;
+            }
+            consumer.accept(new UserOpened(chatId));
+            consumer.accept(new DataTypeSet(chatId, user.getDataType()));
+            consumer.accept(new ChatStateSet(chatId, user.getChatState()));
+            if (user.getGoogleSheetId() != null) {
+                consumer.accept(new GoogleSheetIdSet(chatId, user.getGoogleSheetId()));
+            }
+            if (user.getTimeZone() != null) {
+                consumer.accept(new TimeZoneSet(chatId, user.getTimeZone()));
+            }
+        });
+    }
+
+    /**
+     * Добавляет в хранилище нового пользователя с настройками по умолчанию.
+     *
+     * @param chatId идентификатор чата
+     */
+    private void openUser(long chatId) {
+        users.put(chatId, new User(DataType.IN_MEMORY, ChatState.WAITING_FOR_TYPE_DB));
+    }
+}
@@ -31,50 +31,61 @@ public class GoogleSheetsBalanceDao implements BalanceDao {
      */
     private final UserService userService;
 
+    /**
+     * Кэш данных гугл-таблиц
+     */
+    private final GoogleSheetsCache googleSheetsCache;
+
     /**
      * Конструктор класса GoogleSheetsBalanceDao
      *
      * @param googleSheetsClient    Экземпляр клиента Google Sheets
      * @param googleSheetsConverter Конвертер для преобразования данных в формате Google Sheets
      * @param userService           Экземпляр сервиса пользователя для получения информации о пользователе
+     * @param googleSheetsCache     Кэш данных гугл-таблиц
      */
     public GoogleSheetsBalanceDao(GoogleSheetsClient googleSheetsClient, GoogleSheetsConverter googleSheetsConverter,
-                                  UserService userService) {
+                                  UserService userService, GoogleSheetsCache googleSheetsCache) {
         this.googleSheetsClient = googleSheetsClient;
         this.googleSheetsConverter = googleSheetsConverter;
         this.userService = userService;
+        this.googleSheetsCache = googleSheetsCache;
     }
 
     @Override
-    public void setBalance(long chatId, double newBalance) throws GoogleSheetsException {
-        List<List<Object>> value = googleSheetsConverter.doubleToSheetFormat(newBalance);
+    public void setBalance(long chatId, long newBalance) throws GoogleSheetsException {
+        List<List<Object>> value = googleSheetsConverter.moneyToSheetFormat(newBalance);
         String googleSheetId = userService.getGoogleSheetId(chatId);
         try {
             googleSheetsClient.updateData("Общая информация!B1", value, googleSheetId);
         } catch (IOException e) {
             throw new GoogleSheetsException("Ошибка обновления баланса", e);
         }
-
+        googleSheetsCache.putBalance(googleSheetId, newBalance);
     }
 
     @Override
-    public Double getBalance(long chatId) throws GoogleSheetsException {
-        List<List<Object>> data;
-        try {
-            data = googleSheetsClient.readData("Общая информация!B1",
-                    userService.getGoogleSheetId(chatId));
-        } catch (IOException e) {
-            throw new GoogleSheetsException("Ошибка получения баланса", e);
-        }
-        return googleSheetsConverter.sheetFormatToDouble(data);
+    public long getBalance(long chatId) throws GoogleSheetsException {
+        String googleSheetId = userService.getGoogleSheetId(chatId);
+        return googleSheetsCache.getBalance(googleSheetId, () -> {
+            List<List<Object>> data;
+            try {
+                data = googleSheetsClient.readData("Общая информация!B1", googleSheetId);
+            } catch (IOException e) {
+                throw new GoogleSheetsException("Ошибка получения баланса", e);
+            }
+            return googleSheetsConverter.sheetFormatToMoney(data);
+        });
     }
 
     @Override
     public void removeBalance(long chatId) throws GoogleSheetsException {
+        String googleSheetId = userService.getGoogleSheetId(chatId);
         try {
-            googleSheetsClient.clearSheet("Общая информация!B1", userService.getGoogleSheetId(chatId));
+            googleSheetsClient.clearSheet("Общая информация!B1", googleSheetId);
         } catch (IOException e) {
             throw new GoogleSheetsException("Ошибка удаления баланса", e);
         }
+        googleSheetsCache.invalidateBalance(googleSheetId);
     }
 }
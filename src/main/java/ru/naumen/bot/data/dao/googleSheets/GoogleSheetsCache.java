@@ -0,0 +1,703 @@
+package ru.naumen.bot.data.dao.googleSheets;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.naumen.bot.data.dao.googleSheets.exception.GoogleSheetsException;
+import ru.naumen.bot.data.entity.Expense;
+import ru.naumen.bot.data.entity.Income;
+import ru.naumen.bot.data.entity.Limit;
+import ru.naumen.bot.data.entity.Summary;
+import ru.naumen.bot.data.enums.ExpenseCategory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * Кэш данных гугл-таблиц пользователей.
+ *
+ * <p>Хранит баланс, лимит, расходы и доходы, прочитанные из гугл-таблиц, где ключом является
+ * идентификатор гугл-таблицы. Записи удаляются по истечении времени {@code expire-after-write},
+ * чтобы подхватывать изменения, внесённые в таблицу вручную, и при превышении {@code maximum-size}.
+ * DAO обновляют кэш при каждой записи, поэтому повторное чтение после записи не обращается к API.
+ * Время хранения отсчитывается от появления значения в кэше и не продлевается его изменениями,
+ * иначе часто изменяемый список никогда не перечитывался бы из таблицы.
+ *
+ * <p>Каждая запись в гугл-таблицу увеличивает версию таблицы. Загруженное значение сохраняется в кэше,
+ * только если версия не изменилась за время загрузки, иначе оно могло быть прочитано до записи и затереть
+ * её результат. Добавление строк и изменение последней строки начинаются с {@link #beginWrite(String)}
+ * до записи в таблицу: если список загружен после этого, неизвестно, содержит ли он изменение,
+ * и список удаляется из кэша вместо изменения.
+ *
+ * <p>Количество строк расходов и доходов хранится отдельно от списков: оно подсчитывается без чтения
+ * листа целиком и увеличивается при добавлении строк, поэтому постраничный вывод не загружает весь лист.
+ *
+ * <p>Статистика попаданий публикуется в метриках {@code cache.gets} с тегом {@code cache}
+ * вида {@code google-sheets.balance}.
+ */
+@Component
+public class GoogleSheetsCache {
+
+    /**
+     * Количество версий, между которыми распределяются гугл-таблицы
+     */
+    private static final int VERSION_SLOTS = 1024;
+
+    /**
+     * Кэш балансов в копейках
+     */
+    private final Cache<String, Long> balances;
+
+    /**
+     * Кэш лимитов. Отсутствие лимита хранится как пустой {@link Optional}
+     */
+    private final Cache<String, Optional<Limit>> limits;
+
+    /**
+     * Кэш расходов
+     */
+    private final Cache<String, CachedList<Expense>> expenses;
+
+    /**
+     * Кэш доходов
+     */
+    private final Cache<String, CachedList<Income>> incomes;
+
+    /**
+     * Кэш количества расходов
+     */
+    private final Cache<String, CachedCount> expenseCounts;
+
+    /**
+     * Кэш количества доходов
+     */
+    private final Cache<String, CachedCount> incomeCounts;
+
+    /**
+     * Версии гугл-таблиц, увеличиваемые при каждой записи. Несколько таблиц могут делить одну версию,
+     * тогда запись в одну из них лишь чаще отменяет сохранение загруженных значений другой
+     */
+    private final AtomicLongArray versions = new AtomicLongArray(VERSION_SLOTS);
+
+    /**
+     * Конструктор класса GoogleSheetsCache
+     *
+     * @param meterRegistry    реестр метрик, в котором публикуется статистика кэша
+     * @param expireAfterWrite время хранения записи в кэше
+     * @param maximumSize      максимальное количество гугл-таблиц в каждом кэше
+     */
+    public GoogleSheetsCache(MeterRegistry meterRegistry,
+                             @Value("${google-sheets.cache.expire-after-write}") Duration expireAfterWrite,
+                             @Value("${google-sheets.cache.maximum-size}") long maximumSize) {
+        this.balances = CaffeineCacheMetrics.monitor(meterRegistry,
+                createCache(expireAfterWrite, maximumSize), "google-sheets.balance");
+        this.limits = CaffeineCacheMetrics.monitor(meterRegistry,
+                createCache(expireAfterWrite, maximumSize), "google-sheets.limit");
+        this.expenses = CaffeineCacheMetrics.monitor(meterRegistry,
+                createCache(expireAfterWrite, maximumSize), "google-sheets.expenses");
+        this.incomes = CaffeineCacheMetrics.monitor(meterRegistry,
+                createCache(expireAfterWrite, maximumSize), "google-sheets.incomes");
+        this.expenseCounts = CaffeineCacheMetrics.monitor(meterRegistry,
+                createCache(expireAfterWrite, maximumSize), "google-sheets.expense-count");
+        this.incomeCounts = CaffeineCacheMetrics.monitor(meterRegistry,
+                createCache(expireAfterWrite, maximumSize), "google-sheets.income-count");
+    }
+
+    /**
+     * Отмечает начало добавления строк или изменения последней строки в гугл-таблице.
+     * Вызывается до записи в таблицу, а полученная версия передаётся в метод, обновляющий кэш после записи.
+     *
+     * @param spreadsheetId идентификатор гугл-таблицы
+     * @return версия гугл-таблицы, соответствующая записи
+     */
+    public long beginWrite(String spreadsheetId) {
+        return versions.incrementAndGet(slotOf(spreadsheetId));
+    }
+
+    /**
+     * Возвращает баланс из кэша или загружает его из гугл-таблицы.
+     *
+     * @param spreadsheetId идентификатор гугл-таблицы
+     * @param loader        загрузка баланса из гугл-таблицы
+     * @return баланс пользователя в копейках
+     * @throws GoogleSheetsException если загрузить баланс не удалось
+     */
+    public long getBalance(String spreadsheetId, Loader<Long> loader) throws GoogleSheetsException {
+        Long balance = balances.getIfPresent(spreadsheetId);
+        if (balance != null) {
+            return balance;
+        }
+        long version = versions.get(slotOf(spreadsheetId));
+        return store(balances, spreadsheetId, version, loader.load());
+    }
+
+    /**
+     * Сохраняет записанный в гугл-таблицу баланс.
+     *
+     * @param spreadsheetId идентификатор гугл-таблицы
+     * @param balance       новый баланс в копейках
+     */
+    public void putBalance(String spreadsheetId, long balance) {
+        beginWrite(spreadsheetId);
+        balances.put(spreadsheetId, balance);
+    }
+
+    /**
+     * Удаляет баланс из кэша.
+     *
+     * @param spreadsheetId идентификатор гугл-таблицы
+     */
+    public void invalidateBalance(String spreadsheetId) {
+        beginWrite(spreadsheetId);
+        balances.invalidate(spreadsheetId);
+    }
+
+    /**
+     * Возвращает копию лимита из кэша или загружает его из гугл-таблицы.
+     *
+     * @param spreadsheetId идентификатор гугл-таблицы
+     * @param loader        загрузка лимита из гугл-таблицы
+     * @return лимит пользователя или null, если лимит не установлен
+     * @throws GoogleSheetsException если загрузить лимит не удалось
+     */
+    public Limit getLimit(String spreadsheetId, Loader<Limit> loader) throws GoogleSheetsException {
+        Optional<Limit> limit = limits.getIfPresent(spreadsheetId);
+        if (limit == null) {
+            long version = versions.get(slotOf(spreadsheetId));
+            limit = store(limits, spreadsheetId, version, Optional.ofNullable(copyOf(loader.load())));
+        }
+        return limit.map(this::copyOf).orElse(null);
+    }
+
+    /**
+     * Сохраняет копию записанного в гугл-таблицу лимита.
+     *
+     * @param spreadsheetId идентификатор гугл-таблицы
+     * @param limit         новый лимит или null, если лимит удалён
+     */
+    public void putLimit(String spreadsheetId, Limit limit) {
+        beginWrite(spreadsheetId);
+        limits.put(spreadsheetId, Optional.ofNullable(copyOf(limit)));
+    }
+
+    /**
+     * Возвращает баланс и копию лимита из кэша, если в нём есть оба значения,
+     * или загружает их из гугл-таблицы вместе и сохраняет в кэше.
+     *
+     * @param spreadsheetId идентификатор гугл-таблицы
+     * @param loader        загрузка баланса и лимита из гугл-таблицы
+     * @return баланс и лимит пользователя
+     * @throws GoogleSheetsException если загрузить баланс и лимит не удалось
+     */
+    public Summary getSummary(String spreadsheetId, Loader<Summary> loader) throws GoogleSheetsException {
+        Long balance = balances.getIfPresent(spreadsheetId);
+        Optional<Limit> limit = limits.getIfPresent(spreadsheetId);
+        if (balance != null && limit != null) {
+            return new Summary(balance, limit.map(this::copyOf).orElse(null));
+        }
+        long version = versions.get(slotOf(spreadsheetId));
+        Summary summary = loader.load();
+        balance = store(balances, spreadsheetId, version, summary.balance());
+        limit = store(limits, spreadsheetId, version, Optional.ofNullable(copyOf(summary.limit())));
+        return new Summary(balance, limit.map(this::copyOf).orElse(null));
+    }
+
+    /**
+     * Возвращает список расходов из кэша или загружает его из гугл-таблицы.
+     *
+     * @param spreadsheetId идентификатор гугл-таблицы
+     * @param loader        загрузка расходов из гугл-таблицы
+     * @return изменяемая копия списка расходов
+     * @throws GoogleSheetsException если загрузить расходы не удалось
+     */
+    public List<Expense> getExpenses(String spreadsheetId, Loader<List<Expense>> loader)
+            throws GoogleSheetsException {
+        CachedList<Expense> cached = expenses.getIfPresent(spreadsheetId);
+        if (cached == null) {
+            long version = versions.get(slotOf(spreadsheetId));
+            cached = store(expenses, spreadsheetId, version,
+                    new CachedList<>(version, copyOfExpenses(loader.load())));
+        }
+        return cached.slice(0, Integer.MAX_VALUE, this::copyOf);
+    }
+
+    /**
+     * Возвращает количество расходов, если список расходов есть в кэше.
+     *
+     * @param spreadsheetId идентификатор гугл-таблицы
+     * @return количество расходов или null, если списка нет в кэше
+     */
+    public Integer getCachedExpenseCount(String spreadsheetId) {
+        CachedList<Expense> cached = expenses.getIfPresent(spreadsheetId);
+        return cached == null ? null : cached.size();
+    }
+
+    /**
+     * Возвращает количество расходов из кэша или подсчитывает его в гугл-таблице.
+     *
+     * @param spreadsheetId идентификатор гугл-таблицы
+     * @param loader        подсчёт расходов в гугл-таблице
+     * @return количество расходов
+     * @throws GoogleSheetsException если подсчитать расходы не удалось
+     */
+    public int getExpenseCount(String spreadsheetId, Loader<Integer> loader) throws GoogleSheetsException {
+        return getCount(expenses, expenseCounts, spreadsheetId, loader);
+    }
+
+    /**
+     * Возвращает копии расходов с {@code from} включительно по {@code to} не включительно,
+     * если список расходов есть в кэше. Границы, выходящие за список, сужаются до него.
+     *
+     * @param spreadsheetId идентификатор гугл-таблицы
+     * @param from          номер первого расхода
+     * @param to            номер расхода после последнего
+     * @return изменяемые копии расходов или null, если списка нет в кэше
+     */
+    public List<Expense> getCachedExpenses(String spreadsheetId, int from, int to) {
+        CachedList<Expense> cached = expenses.getIfPresent(spreadsheetId);
+        return cached == null ? null : cached.slice(from, to, this::copyOf);
+    }
+
+    /**
+     * Возвращает копии расходов, удовлетворяющих условию, если список расходов есть в кэше.
+     *
+     * @param spreadsheetId идентификатор гугл-таблицы
+     * @param filter        условие отбора расходов
+     * @return изменяемые копии отобранных расходов или null, если списка нет в кэше
+     */
+    public List<Expense> getCachedExpenses(String spreadsheetId, Predicate<Expense> filter) {
+        CachedList<Expense> cached = expenses.getIfPresent(spreadsheetId);
+        return cached == null ? null : cached.filter(filter, this::copyOf);
+    }
+
+    /**
+     * Добавляет записанные расходы в конец закэшированного списка, если он есть.
+     *
+     * @param spreadsheetId идентификатор гугл-таблицы
+     * @param version       версия, полученная из {@link #beginWrite(String)} до записи в таблицу
+     * @param newExpenses   добавленные расходы
+     */
+    public void appendExpenses(String spreadsheetId, long version, List<Expense> newExpenses) {
+        List<Expense> copies = copyOfExpenses(newExpenses);
+        update(expenses, spreadsheetId, version, cached -> cached.addAll(copies));
+        addToCount(expenseCounts, spreadsheetId, version, copies.size());
+    }
+
+    /**
+     * Изменяет категорию последнего закэшированного расхода, если список расходов есть в кэше.
+     *
+     * @param spreadsheetId идентификатор гугл-таблицы
+     * @param version       версия, полученная из {@link #beginWrite(String)} до записи в таблицу
+     * @param category      новая категория
+     */
+    public void setLastExpenseCategory(String spreadsheetId, long version, ExpenseCategory category) {
+        update(expenses, spreadsheetId, version, cached -> cached.replaceLast(last ->
+                new Expense(last.getDescription(), last.getAmount(), category, last.getDate())));
+    }
+
+    /**
+     * Удаляет расходы из кэша.
+     *
+     * @param spreadsheetId идентификатор гугл-таблицы
+     */
+    public void invalidateExpenses(String spreadsheetId) {
+        beginWrite(spreadsheetId);
+        expenses.invalidate(spreadsheetId);
+        expenseCounts.invalidate(spreadsheetId);
+    }
+
+    /**
+     * Возвращает список доходов из кэша или загружает его из гугл-таблицы.
+     *
+     * @param spreadsheetId идентификатор гугл-таблицы
+     * @param loader        загрузка доходов из гугл-таблицы
+     * @return изменяемая копия списка доходов
+     * @throws GoogleSheetsException если загрузить доходы не удалось
+     */
+    public List<Income> getIncomes(String spreadsheetId, Loader<List<Income>> loader) throws GoogleSheetsException {
+        CachedList<Income> cached = incomes.getIfPresent(spreadsheetId);
+        if (cached == null) {
+            long version = versions.get(slotOf(spreadsheetId));
+            cached = store(incomes, spreadsheetId, version, new CachedList<>(version, loader.load()));
+        }
+        return cached.slice(0, Integer.MAX_VALUE, UnaryOperator.identity());
+    }
+
+    /**
+     * Возвращает количество доходов, если список доходов есть в кэше.
+     *
+     * @param spreadsheetId идентификатор гугл-таблицы
+     * @return количество доходов или null, если списка нет в кэше
+     */
+    public Integer getCachedIncomeCount(String spreadsheetId) {
+        CachedList<Income> cached = incomes.getIfPresent(spreadsheetId);
+        return cached == null ? null : cached.size();
+    }
+
+    /**
+     * Возвращает количество доходов из кэша или подсчитывает его в гугл-таблице.
+     *
+     * @param spreadsheetId идентификатор гугл-таблицы
+     * @param loader        подсчёт доходов в гугл-таблице
+     * @return количество доходов
+     * @throws GoogleSheetsException если подсчитать доходы не удалось
+     */
+    public int getIncomeCount(String spreadsheetId, Loader<Integer> loader) throws GoogleSheetsException {
+        return getCount(incomes, incomeCounts, spreadsheetId, loader);
+    }
+
+    /**
+     * Возвращает доходы с {@code from} включительно по {@code to} не включительно,
+     * если список доходов есть в кэше. Границы, выходящие за список, сужаются до него.
+     *
+     * @param spreadsheetId идентификатор гугл-таблицы
+     * @param from          номер первого дохода
+     * @param to            номер дохода после последнего
+     * @return изменяемый список доходов или null, если списка нет в кэше
+     */
+    public List<Income> getCachedIncomes(String spreadsheetId, int from, int to) {
+        CachedList<Income> cached = incomes.getIfPresent(spreadsheetId);
+        return cached == null ? null : cached.slice(from, to, UnaryOperator.identity());
+    }
+
+    /**
+     * Возвращает доходы, удовлетворяющие условию, если список доходов есть в кэше.
+     *
+     * @param spreadsheetId идентификатор гугл-таблицы
+     * @param filter        условие отбора доходов
+     * @return изменяемый список отобранных доходов или null, если списка нет в кэше
+     */
+    public List<Income> getCachedIncomes(String spreadsheetId, Predicate<Income> filter) {
+        CachedList<Income> cached = incomes.getIfPresent(spreadsheetId);
+        return cached == null ? null : cached.filter(filter, UnaryOperator.identity());
+    }
+
+    /**
+     * Добавляет записанные доходы в конец закэшированного списка, если он есть.
+     *
+     * @param spreadsheetId идентификатор гугл-таблицы
+     * @param version       версия, полученная из {@link #beginWrite(String)} до записи в таблицу
+     * @param newIncomes    добавленные доходы
+     */
+    public void appendIncomes(String spreadsheetId, long version, List<Income> newIncomes) {
+        update(incomes, spreadsheetId, version, cached -> cached.addAll(newIncomes));
+        addToCount(incomeCounts, spreadsheetId, version, newIncomes.size());
+    }
+
+    /**
+     * Удаляет доходы из кэша.
+     *
+     * @param spreadsheetId идентификатор гугл-таблицы
+     */
+    public void invalidateIncomes(String spreadsheetId) {
+        beginWrite(spreadsheetId);
+        incomes.invalidate(spreadsheetId);
+        incomeCounts.invalidate(spreadsheetId);
+    }
+
+    /**
+     * Сохраняет загруженное значение, если в кэше ещё нет значения и версия гугл-таблицы
+     * не изменилась с начала загрузки. Значение null не кэшируется.
+     *
+     * @param cache         кэш
+     * @param spreadsheetId идентификатор гугл-таблицы
+     * @param version       версия гугл-таблицы до начала загрузки
+     * @param loaded        загруженное значение
+     * @return значение из кэша, если оно уже было сохранено, иначе загруженное значение
+     */
+    private <V> V store(Cache<String, V> cache, String spreadsheetId, long version, V loaded) {
+        if (loaded == null) {
+            return null;
+        }
+        V stored = cache.asMap().compute(spreadsheetId, (id, current) -> {
+            if (current != null) {
+                return current;
+            }
+            return versions.get(slotOf(id)) == version ? loaded : null;
+        });
+        return stored == null ? loaded : stored;
+    }
+
+    /**
+     * Изменяет закэшированный список после записи в гугл-таблицу. Если список загружен после начала записи,
+     * неизвестно, содержит ли он изменение, поэтому он удаляется из кэша.
+     *
+     * @param cache         кэш списков
+     * @param spreadsheetId идентификатор гугл-таблицы
+     * @param version       версия, полученная из {@link #beginWrite(String)} до записи в таблицу
+     * @param change        изменение списка
+     */
+    private <T> void update(Cache<String, CachedList<T>> cache, String spreadsheetId, long version,
+                            Consumer<CachedList<T>> change) {
+        cache.asMap().computeIfPresent(spreadsheetId, (id, cached) -> {
+            if (cached.version >= version) {
+                return null;
+            }
+            change.accept(cached);
+            return cached;
+        });
+    }
+
+    /**
+     * Возвращает количество строк из закэшированного списка или кэша количества,
+     * иначе подсчитывает строки и сохраняет количество, если версия таблицы не изменилась.
+     *
+     * @param lists         кэш списков
+     * @param counts        кэш количества строк
+     * @param spreadsheetId идентификатор гугл-таблицы
+     * @param loader        подсчёт строк в гугл-таблице
+     * @return количество строк
+     * @throws GoogleSheetsException если подсчитать строки не удалось
+     */
+    private <T> int getCount(Cache<String, CachedList<T>> lists, Cache<String, CachedCount> counts,
+                             String spreadsheetId, Loader<Integer> loader) throws GoogleSheetsException {
+        CachedList<T> list = lists.getIfPresent(spreadsheetId);
+        if (list != null) {
+            return list.size();
+        }
+        CachedCount cached = counts.getIfPresent(spreadsheetId);
+        if (cached == null) {
+            long version = versions.get(slotOf(spreadsheetId));
+            cached = store(counts, spreadsheetId, version, new CachedCount(version, loader.load()));
+        }
+        return cached.count();
+    }
+
+    /**
+     * Увеличивает закэшированное количество строк на количество добавленных, если оно есть в кэше.
+     * Количество, подсчитанное после начала записи, удаляется, как и список в
+     * {@link #update(Cache, String, long, Consumer)}.
+     *
+     * @param counts        кэш количества строк
+     * @param spreadsheetId идентификатор гугл-таблицы
+     * @param version       версия, полученная из {@link #beginWrite(String)} до записи в таблицу
+     * @param added         количество добавленных строк
+     */
+    private void addToCount(Cache<String, CachedCount> counts, String spreadsheetId, long version, int added) {
+        counts.asMap().computeIfPresent(spreadsheetId, (id, cached) -> cached.version() >= version
+                ? null
+                : new CachedCount(cached.version(), cached.count() + added));
+    }
+
+    /**
+     * Возвращает номер версии, которой принадлежит гугл-таблица.
+     *
+     * @param spreadsheetId идентификатор гугл-таблицы
+     */
+    private static int slotOf(String spreadsheetId) {
+        return Math.floorMod(spreadsheetId.hashCode(), VERSION_SLOTS);
+    }
+
+    /**
+     * Создаёт кэш с ограничением времени хранения и размера.
+     *
+     * @param expireAfterWrite время хранения записи в кэше, отсчитываемое от её появления
+     * @param maximumSize      максимальное количество записей
+     * @return новый кэш со сбором статистики
+     */
+    private <V> Cache<String, V> createCache(Duration expireAfterWrite, long maximumSize) {
+        return Caffeine.newBuilder()
+                .expireAfter(new ExpireAfterCreate<String, V>(expireAfterWrite))
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Копирует лимит, чтобы изменения объекта вызывающим кодом не попадали в кэш.
+     *
+     * @param limit лимит или null
+     * @return копия лимита или null
+     */
+    private Limit copyOf(Limit limit) {
+        return limit == null ? null : new Limit(limit.getDailyLimit(), limit.getDailyExpensesSum());
+    }
+
+    /**
+     * Копирует расход, чтобы изменения объекта вызывающим кодом не попадали в кэш.
+     *
+     * @param expense расход
+     * @return копия расхода
+     */
+    private Expense copyOf(Expense expense) {
+        return new Expense(expense.getDescription(), expense.getAmount(), expense.getCategory(), expense.getDate());
+    }
+
+    /**
+     * Копирует расходы, чтобы изменения объектов вызывающим кодом не попадали в кэш.
+     *
+     * @param source список расходов
+     * @return новый список с копиями расходов
+     */
+    private List<Expense> copyOfExpenses(List<Expense> source) {
+        List<Expense> result = new ArrayList<>(source.size());
+        for (Expense expense : source) {
+            result.add(copyOf(expense));
+        }
+        return result;
+    }
+
+    /**
+     * Загрузка значения из гугл-таблицы при промахе кэша.
+     *
+     * @param <V> тип загружаемого значения
+     */
+    @FunctionalInterface
+    public interface Loader<V> {
+
+        /**
+         * Загружает значение из гугл-таблицы.
+         *
+         * @return загруженное значение
+         * @throws GoogleSheetsException если загрузить значение не удалось
+         */
+        V load() throws GoogleSheetsException;
+    }
+
+    /**
+     * Срок хранения, отсчитываемый от появления записи в кэше. Изменение и чтение записи
+     * оставляют оставшееся время хранения без изменений.
+     *
+     * @param <K> тип ключа
+     * @param <V> тип значения
+     */
+    private static final class ExpireAfterCreate<K, V> implements Expiry<K, V> {
+
+        /**
+         * Время хранения записи в наносекундах
+         */
+        private final long durationNanos;
+
+        /**
+         * Конструктор класса ExpireAfterCreate
+         *
+         * @param duration время хранения записи
+         */
+        private ExpireAfterCreate(Duration duration) {
+            this.durationNanos = duration.toNanos();
+        }
+
+        @Override
+        public long expireAfterCreate(K key, V value, long currentTime) {
+            return durationNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(K key, V value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(K key, V value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+
+    /**
+     * Закэшированное количество строк и версия гугл-таблицы, при которой оно было подсчитано.
+     *
+     * @param version версия гугл-таблицы на момент начала подсчёта
+     * @param count   количество строк
+     */
+    private record CachedCount(long version, int count) {
+    }
+
+    /**
+     * Закэшированный список строк листа. Строки добавляются в конец без копирования списка,
+     * а читаются копией нужной части, поэтому все методы синхронизированы.
+     *
+     * @param <T> тип строк
+     */
+    private static final class CachedList<T> {
+
+        /**
+         * Версия гугл-таблицы, прочитанная до загрузки списка
+         */
+        private final long version;
+
+        /**
+         * Строки листа
+         */
+        private final List<T> items;
+
+        /**
+         * Конструктор класса CachedList
+         *
+         * @param version версия гугл-таблицы, прочитанная до загрузки списка
+         * @param items   загруженные строки листа
+         */
+        private CachedList(long version, List<T> items) {
+            this.version = version;
+            this.items = new ArrayList<>(items);
+        }
+
+        /**
+         * Возвращает количество строк.
+         */
+        private synchronized int size() {
+            return items.size();
+        }
+
+        /**
+         * Возвращает копии строк с {@code from} включительно по {@code to} не включительно.
+         *
+         * @param from номер первой строки
+         * @param to   номер строки после последней
+         * @param copy копирование строки
+         */
+        private synchronized List<T> slice(int from, int to, UnaryOperator<T> copy) {
+            int end = Math.min(to, items.size());
+            List<T> result = new ArrayList<>(Math.max(end - from, 0));
+            for (int i = Math.max(from, 0); i < end; i++) {
+                result.add(copy.apply(items.get(i)));
+            }
+            return result;
+        }
+
+        /**
+         * Возвращает копии строк, удовлетворяющих условию.
+         *
+         * @param filter условие отбора строк
+         * @param copy   копирование строки
+         */
+        private synchronized List<T> filter(Predicate<T> filter, UnaryOperator<T> copy) {
+            List<T> result = new ArrayList<>();
+            for (T item : items) {
+                if (filter.test(item)) {
+                    result.add(copy.apply(item));
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Добавляет строки в конец списка.
+         *
+         * @param newItems добавленные строки
+         */
+        private synchronized void addAll(List<T> newItems) {
+            items.addAll(newItems);
+        }
+
+        /**
+         * Заменяет последнюю строку, если список не пуст.
+         *
+         * @param change изменение строки
+         */
+        private synchronized void replaceLast(UnaryOperator<T> change) {
+            if (!items.isEmpty()) {
+                items.set(items.size() - 1, change.apply(items.getLast()));
+            }
+        }
+    }
+}
@@ -1,5 +1,11 @@
 package ru.naumen.bot.data.dao.googleSheets;
 
+import com.google.api.services.sheets.v4.model.AddSheetRequest;
+import com.google.api.services.sheets.v4.model.Request;
+import com.google.api.services.sheets.v4.model.SheetProperties;
+import com.google.api.services.sheets.v4.model.SpreadsheetProperties;
+import com.google.api.services.sheets.v4.model.UpdateSheetPropertiesRequest;
+import com.google.api.services.sheets.v4.model.UpdateSpreadsheetPropertiesRequest;
 import org.springframework.stereotype.Component;
 import ru.naumen.bot.client.GoogleSheetsClient;
 import ru.naumen.bot.data.dao.googleSheets.exception.GoogleSheetsException;
@@ -7,7 +13,10 @@ import ru.naumen.bot.exception.DaoException;
 import ru.naumen.bot.service.UserService;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Класс для работы с гугл таблицами
@@ -15,6 +24,21 @@ import java.util.List;
 @Component
 public class GoogleSheetsDao {
 
+    /**
+     * Название листа с балансом и лимитом
+     */
+    private static final String GENERAL_SHEET = "Общая информация";
+
+    /**
+     * Название листа с расходами
+     */
+    private static final String EXPENSES_SHEET = "Расходы";
+
+    /**
+     * Название листа с доходами
+     */
+    private static final String INCOMES_SHEET = "Доходы";
+
     /**
      * Экземпляр клиента Google Sheets
      */
@@ -38,30 +62,59 @@ public class GoogleSheetsDao {
 
     /**
      * Инициализация гугл-таблицы для указанного чата
-     * Создание листов, заполнение начальными данными
+     * Создание листов, заполнение начальными данными.
+     * Уже существующие листы не создаются повторно, поэтому инициализацию можно выполнять
+     * для одной таблицы несколько раз
      *
      * @param chatId идентификатор чата, для которого инициализируется таблица
      */
     public void initGoogleSheets(long chatId) throws DaoException {
         String googleSheetId = userService.getGoogleSheetId(chatId);
         try {
-            googleSheetsClient.updateSpreadsheetTitle("FinBot", googleSheetId);
-            googleSheetsClient.updateSheetTitle(0, "Общая информация", googleSheetId);
-            googleSheetsClient.createNewSheet(1, "Расходы", googleSheetId);
-            googleSheetsClient.createNewSheet(2, "Доходы", googleSheetId);
-            googleSheetsClient.updateData("Расходы!A1:D1",
-                    List.of(List.of("Описание", "Сумма", "Категория", "Дата")), googleSheetId);
-            googleSheetsClient.updateData("Доходы!A1:C1",
-                    List.of(List.of("Описание", "Сумма", "Дата")), googleSheetId);
-            googleSheetsClient.updateData("Общая информация!A1",
-                    List.of(List.of("Баланс:")), googleSheetId);
-            googleSheetsClient.updateData("Общая информация!A3",
-                    List.of(List.of("Лимит на день:")), googleSheetId);
-            googleSheetsClient.updateData("Общая информация!B3",
-                    List.of(List.of("Сумма расходов за день:")), googleSheetId);
+            Map<String, Integer> sheetTitles = googleSheetsClient.getSheetTitles(googleSheetId);
+
+            List<Request> requests = new ArrayList<>();
+            requests.add(new Request().setUpdateSpreadsheetProperties(new UpdateSpreadsheetPropertiesRequest()
+                    .setProperties(new SpreadsheetProperties().setTitle("FinBot"))
+                    .setFields("title")));
+            if (!sheetTitles.containsKey(GENERAL_SHEET)) {
+                Integer firstSheetId = sheetTitles.values().stream().findFirst().orElse(null);
+                if (firstSheetId != null && !sheetTitles.containsKey(EXPENSES_SHEET)
+                        && !sheetTitles.containsKey(INCOMES_SHEET)) {
+                    requests.add(new Request().setUpdateSheetProperties(new UpdateSheetPropertiesRequest()
+                            .setProperties(new SheetProperties().setSheetId(firstSheetId).setTitle(GENERAL_SHEET))
+                            .setFields("title")));
+                } else {
+                    requests.add(addSheetRequest(GENERAL_SHEET));
+                }
+            }
+            if (!sheetTitles.containsKey(EXPENSES_SHEET)) {
+                requests.add(addSheetRequest(EXPENSES_SHEET));
+            }
+            if (!sheetTitles.containsKey(INCOMES_SHEET)) {
+                requests.add(addSheetRequest(INCOMES_SHEET));
+            }
+            googleSheetsClient.batchUpdateSpreadsheet(requests, googleSheetId);
+
+            Map<String, List<List<Object>>> headers = new LinkedHashMap<>();
+            headers.put("Расходы!A1:D1", List.of(List.of("Описание", "Сумма", "Категория", "Дата")));
+            headers.put("Доходы!A1:C1", List.of(List.of("Описание", "Сумма", "Дата")));
+            headers.put("Общая информация!A1", List.of(List.of("Баланс:")));
+            headers.put("Общая информация!A3:B3", List.of(List.of("Лимит на день:", "Сумма расходов за день:")));
+            googleSheetsClient.batchUpdateData(headers, googleSheetId);
         } catch (IOException e) {
             throw new GoogleSheetsException("Ошибка инициализации таблицы", e);
         }
+    }
 
+    /**
+     * Создаёт запрос на добавление листа
+     *
+     * @param sheetTitle название листа
+     * @return запрос на добавление листа
+     */
+    private Request addSheetRequest(String sheetTitle) {
+        return new Request().setAddSheet(new AddSheetRequest()
+                .setProperties(new SheetProperties().setTitle(sheetTitle)));
     }
 }
@@ -10,7 +10,13 @@ import ru.naumen.bot.service.UserService;
 import ru.naumen.bot.utils.GoogleSheetsConverter;
 
 import java.io.IOException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Comparator;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 /**
  * Управление расходами пользователей, хранящимся в Google Sheets
@@ -18,6 +24,11 @@ import java.util.List;
 @Component
 public class GoogleSheetsExpenseDao implements ExpenseDao {
 
+    /**
+     * Диапазон листа расходов
+     */
+    private static final SheetRange RANGE = SheetRange.parse("Расходы!A2:D");
+
     /**
      * Экземпляр клиента Google Sheets
      */
@@ -33,6 +44,15 @@ public class GoogleSheetsExpenseDao implements ExpenseDao {
      */
     private final UserService userService;
 
+    /**
+     * Буфер отложенной записи строк в гугл-таблицы
+     */
+    private final GoogleSheetsWriteBehindBuffer writeBehindBuffer;
+
+    /**
+     * Кэш данных гугл-таблиц
+     */
+    private final GoogleSheetsCache googleSheetsCache;
 
     /**
      * Конструктор класса GoogleSheetsExpenseDao
@@ -40,71 +60,208 @@ public class GoogleSheetsExpenseDao implements ExpenseDao {
      * @param googleSheetsClient    экземпляр клиента Google Sheets
      * @param googleSheetsConverter экземпляр конвертера для преобразования данных в формате Google Sheets
      * @param userService           экземпляр сервиса пользователя для получения информации о пользователе
+     * @param writeBehindBuffer     буфер отложенной записи строк в гугл-таблицы
+     * @param googleSheetsCache     кэш данных гугл-таблиц
      */
     public GoogleSheetsExpenseDao(GoogleSheetsClient googleSheetsClient, GoogleSheetsConverter googleSheetsConverter,
-                                  UserService userService) {
+                                  UserService userService, GoogleSheetsWriteBehindBuffer writeBehindBuffer,
+                                  GoogleSheetsCache googleSheetsCache) {
         this.googleSheetsClient = googleSheetsClient;
         this.googleSheetsConverter = googleSheetsConverter;
         this.userService = userService;
+        this.writeBehindBuffer = writeBehindBuffer;
+        this.googleSheetsCache = googleSheetsCache;
     }
 
     @Override
     public List<Expense> getExpenses(long chatId) throws GoogleSheetsException {
-        List<List<Object>> data;
+        String googleSheetId = userService.getGoogleSheetId(chatId);
+        return googleSheetsCache.getExpenses(googleSheetId, () -> {
+            writeBehindBuffer.flush(googleSheetId);
+            List<List<Object>> data;
+            try {
+                data = googleSheetsClient.readData("Расходы!A2:D", googleSheetId);
+            } catch (IOException e) {
+                throw new GoogleSheetsException("Ошибка получения расходов", e);
+            }
+            return googleSheetsConverter.sheetFormatToExpenses(data);
+        });
+    }
+
+    /**
+     * {@inheritDoc}
+     * Если расходы есть в кэше, страница берётся из кэша без обращения к API. Иначе количество строк
+     * берётся из кэша или подсчитывается по отдельным ячейкам листа, и читаются только строки запрошенной страницы.
+     */
+    @Override
+    public List<Expense> getLatestExpenses(long chatId, int offset, int limit) throws GoogleSheetsException {
+        String googleSheetId = userService.getGoogleSheetId(chatId);
+        Integer cachedCount = googleSheetsCache.getCachedExpenseCount(googleSheetId);
+        if (cachedCount != null) {
+            int end = Math.max(cachedCount - offset, 0);
+            return googleSheetsCache.getCachedExpenses(googleSheetId, Math.max(end - limit, 0), end);
+        }
+        writeBehindBuffer.flush(googleSheetId);
+        int end = googleSheetsCache.getExpenseCount(googleSheetId, () -> countRows(googleSheetId)) - offset;
+        if (end <= 0 || limit <= 0) {
+            return List.of();
+        }
+        int start = Math.max(end - limit, 0);
         try {
-            data = googleSheetsClient.readData("Расходы!A2:D",
-                    userService.getGoogleSheetId(chatId));
+            return googleSheetsConverter.sheetFormatToExpenses(
+                    googleSheetsClient.readData(RANGE.rows(start, end), googleSheetId));
         } catch (IOException e) {
             throw new GoogleSheetsException("Ошибка получения расходов", e);
         }
+    }
 
-        return googleSheetsConverter.sheetFormatToExpenses(data);
+    @Override
+    public int countExpenses(long chatId) throws GoogleSheetsException {
+        String googleSheetId = userService.getGoogleSheetId(chatId);
+        writeBehindBuffer.flush(googleSheetId);
+        return googleSheetsCache.getExpenseCount(googleSheetId, () -> countRows(googleSheetId));
     }
 
+    /**
+     * {@inheritDoc}
+     * Если расходы есть в кэше, часть берётся из кэша, иначе читаются только её строки.
+     */
     @Override
-    public void addExpense(long chatId, Expense newExpense) throws GoogleSheetsException {
-        List<List<Object>> values = googleSheetsConverter.expenseToSheetFormat(newExpense);
+    public List<Expense> getExpensesChunk(long chatId, int start, int count) throws GoogleSheetsException {
+        if (count <= 0) {
+            return List.of();
+        }
         String googleSheetId = userService.getGoogleSheetId(chatId);
+        List<Expense> cached = googleSheetsCache.getCachedExpenses(googleSheetId, start, start + count);
+        if (cached != null) {
+            return cached;
+        }
+        writeBehindBuffer.flush(googleSheetId);
         try {
-            googleSheetsClient.appendData("Расходы!A2:D", values, googleSheetId);
+            return googleSheetsConverter.sheetFormatToExpenses(googleSheetsClient
+                    .readData("Расходы!A" + (start + 2) + ":D" + (start + count + 1), googleSheetId));
         } catch (IOException e) {
-            throw new GoogleSheetsException("Ошибка добавления расхода", e);
+            throw new GoogleSheetsException("Ошибка получения расходов", e);
         }
+    }
 
+    /**
+     * {@inheritDoc}
+     * Если расходы есть в кэше, они фильтруются без обращения к API. Иначе границы периода
+     * находятся поиском по столбцу дат с чтением отдельных ячеек, и читаются только строки периода.
+     */
+    @Override
+    public List<Expense> getExpenses(long chatId, LocalDate from, LocalDate to) throws GoogleSheetsException {
+        return getExpenses(chatId, from, to, null);
     }
 
     @Override
-    public void addExpenses(long chatId, List<Expense> expenses) throws GoogleSheetsException {
-        List<List<Object>> values = googleSheetsConverter.expensesToSheetFormat(expenses);
+    public List<Expense> getExpenses(long chatId, LocalDate from, LocalDate to, ExpenseCategory category)
+            throws GoogleSheetsException {
         String googleSheetId = userService.getGoogleSheetId(chatId);
-        try {
-            googleSheetsClient.appendData("Расходы!A2:D", values, googleSheetId);
-        } catch (IOException e) {
-            throw new GoogleSheetsException("Ошибка добавления расходов", e);
+        List<Expense> cached = googleSheetsCache.getCachedExpenses(googleSheetId,
+                expense -> !expense.getDate().isBefore(from) && !expense.getDate().isAfter(to)
+                        && (category == null || expense.getCategory() == category));
+        Stream<Expense> expenses;
+        if (cached != null) {
+            expenses = cached.stream();
+        } else {
+            writeBehindBuffer.flush(googleSheetId);
+            try {
+                int[] period = SheetSearch.findPeriod(googleSheetsClient, googleSheetId, RANGE, "D", from, to);
+                int first = period[0];
+                int last = period[1];
+                if (first >= last) {
+                    return List.of();
+                }
+                expenses = googleSheetsConverter.streamExpenses(googleSheetsClient
+                        .readData(RANGE.rows(first, last), googleSheetId), category);
+            } catch (IOException e) {
+                throw new GoogleSheetsException("Ошибка получения расходов", e);
+            }
         }
+        return expenses
+                .filter(expense -> !expense.getDate().isBefore(from) && !expense.getDate().isAfter(to))
+                .filter(expense -> category == null || expense.getCategory() == category)
+                .sorted(Comparator.comparing(Expense::getDate))
+                .toList();
+    }
 
+    /**
+     * {@inheritDoc}
+     * Суммы считаются по расходам месяца, прочитанным из листа через ограниченный диапазон строк.
+     */
+    @Override
+    public Map<ExpenseCategory, Long> getCategoryTotals(long chatId, YearMonth month)
+            throws GoogleSheetsException {
+        Map<ExpenseCategory, Long> result = new EnumMap<>(ExpenseCategory.class);
+        for (Expense expense : getExpenses(chatId, month.atDay(1), month.atEndOfMonth())) {
+            result.merge(expense.getCategory(), expense.getAmount(), Long::sum);
+        }
+        return result;
+    }
+
+    @Override
+    public void addExpense(long chatId, Expense newExpense) throws GoogleSheetsException {
+        List<List<Object>> values = googleSheetsConverter.expenseToSheetFormat(newExpense);
+        String googleSheetId = userService.getGoogleSheetId(chatId);
+        long version = googleSheetsCache.beginWrite(googleSheetId);
+        writeBehindBuffer.append(googleSheetId, "Расходы!A2:D", values);
+        googleSheetsCache.appendExpenses(googleSheetId, version, List.of(newExpense));
+    }
+
+    @Override
+    public void addExpenses(long chatId, List<Expense> expenses) throws GoogleSheetsException {
+        List<List<Object>> values = googleSheetsConverter.expensesToSheetFormat(expenses);
+        String googleSheetId = userService.getGoogleSheetId(chatId);
+        long version = googleSheetsCache.beginWrite(googleSheetId);
+        writeBehindBuffer.append(googleSheetId, "Расходы!A2:D", values);
+        googleSheetsCache.appendExpenses(googleSheetId, version, expenses);
     }
 
     @Override
     public void removeExpenses(long chatId) throws GoogleSheetsException {
+        String googleSheetId = userService.getGoogleSheetId(chatId);
+        writeBehindBuffer.discard(googleSheetId, "Расходы!A2:D");
         try {
-            googleSheetsClient.clearSheet("Расходы!A2:D", userService.getGoogleSheetId(chatId));
+            googleSheetsClient.clearSheet("Расходы!A2:D", googleSheetId);
         } catch (IOException e) {
             throw new GoogleSheetsException("Ошибка удаления расходов", e);
         }
+        googleSheetsCache.invalidateExpenses(googleSheetId);
     }
 
     @Override
     public void setLastExpenseCategory(long chatId, ExpenseCategory newCategory) throws GoogleSheetsException {
-        List<List<Object>> values = googleSheetsConverter.stringToSheetFormat(newCategory.toString());
         String googleSheetId = userService.getGoogleSheetId(chatId);
+        long version = googleSheetsCache.beginWrite(googleSheetId);
+        if (writeBehindBuffer.updateLastPendingRow(googleSheetId, "Расходы!A2:D", 2, newCategory.toString())) {
+            googleSheetsCache.setLastExpenseCategory(googleSheetId, version, newCategory);
+            return;
+        }
+        List<List<Object>> values = googleSheetsConverter.stringToSheetFormat(newCategory.toString());
+        writeBehindBuffer.flush(googleSheetId);
+        int count = googleSheetsCache.getExpenseCount(googleSheetId, () -> countRows(googleSheetId));
         try {
-            List<List<Object>> data = googleSheetsClient.
-                    readData("Расходы!A1:C", userService.getGoogleSheetId(chatId));
-
-            googleSheetsClient.updateData("Расходы!C" + data.size(), values, googleSheetId);
+            googleSheetsClient.updateData(RANGE.cell("C", count - 1), values, googleSheetId);
         } catch (IOException e) {
             throw new GoogleSheetsException("Ошибка изменения категории последнего расхода", e);
         }
+        googleSheetsCache.setLastExpenseCategory(googleSheetId, version, newCategory);
+    }
+
+    /**
+     * Подсчитывает строки расходов на листе, не читая лист целиком.
+     *
+     * @param googleSheetId идентификатор гугл-таблицы
+     * @return количество строк расходов
+     * @throws GoogleSheetsException если возникла ошибка при обращении к гугл-таблице
+     */
+    private int countRows(String googleSheetId) throws GoogleSheetsException {
+        try {
+            return SheetSearch.countRows(googleSheetsClient, googleSheetId, RANGE);
+        } catch (IOException e) {
+            throw new GoogleSheetsException("Ошибка получения расходов", e);
+        }
     }
 }
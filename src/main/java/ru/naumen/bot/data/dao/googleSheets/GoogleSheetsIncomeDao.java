@@ -9,7 +9,10 @@ import ru.naumen.bot.service.UserService;
 import ru.naumen.bot.utils.GoogleSheetsConverter;
 
 import java.io.IOException;
+import java.time.LocalDate;
+import java.util.Comparator;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Класс для управления доходами пользователей, хранящимся в Google Sheets
@@ -17,6 +20,11 @@ import java.util.List;
 @Component
 public class GoogleSheetsIncomeDao implements IncomeDao {
 
+    /**
+     * Диапазон листа доходов
+     */
+    private static final SheetRange RANGE = SheetRange.parse("Доходы!A2:C");
+
     /**
      * Экземпляр клиента Google Sheets
      */
@@ -32,62 +40,183 @@ public class GoogleSheetsIncomeDao implements IncomeDao {
      */
     private final UserService userService;
 
+    /**
+     * Буфер отложенной записи строк в гугл-таблицы
+     */
+    private final GoogleSheetsWriteBehindBuffer writeBehindBuffer;
+
+    /**
+     * Кэш данных гугл-таблиц
+     */
+    private final GoogleSheetsCache googleSheetsCache;
+
     /**
      * Конструктор класса GoogleSheetsIncomeDao
      *
      * @param googleSheetsClient    экземпляр клиента Google Sheets
      * @param googleSheetsConverter экземпляр конвертера для преобразования данных
      * @param userService           экземпляр сервиса пользователя
+     * @param writeBehindBuffer     буфер отложенной записи строк в гугл-таблицы
+     * @param googleSheetsCache     кэш данных гугл-таблиц
      */
-    public GoogleSheetsIncomeDao(GoogleSheetsClient googleSheetsClient,
-                                 GoogleSheetsConverter googleSheetsConverter, UserService userService) {
+    public GoogleSheetsIncomeDao(GoogleSheetsClient googleSheetsClient, GoogleSheetsConverter googleSheetsConverter,
+                                 UserService userService, GoogleSheetsWriteBehindBuffer writeBehindBuffer,
+                                 GoogleSheetsCache googleSheetsCache) {
         this.googleSheetsClient = googleSheetsClient;
         this.googleSheetsConverter = googleSheetsConverter;
         this.userService = userService;
+        this.writeBehindBuffer = writeBehindBuffer;
+        this.googleSheetsCache = googleSheetsCache;
     }
 
     @Override
     public List<Income> getIncomes(long chatId) throws GoogleSheetsException {
-        List<List<Object>> data;
+        String googleSheetId = userService.getGoogleSheetId(chatId);
+        return googleSheetsCache.getIncomes(googleSheetId, () -> {
+            writeBehindBuffer.flush(googleSheetId);
+            List<List<Object>> data;
+            try {
+                data = googleSheetsClient.readData("Доходы!A2:C", googleSheetId);
+            } catch (IOException e) {
+                throw new GoogleSheetsException("Ошибка получения доходов", e);
+            }
+            return googleSheetsConverter.sheetFormatToIncomes(data);
+        });
+    }
+
+    /**
+     * {@inheritDoc}
+     * Если доходы есть в кэше, страница берётся из кэша без обращения к API. Иначе количество строк
+     * берётся из кэша или подсчитывается по отдельным ячейкам листа, и читаются только строки запрошенной страницы.
+     */
+    @Override
+    public List<Income> getLatestIncomes(long chatId, int offset, int limit) throws GoogleSheetsException {
+        String googleSheetId = userService.getGoogleSheetId(chatId);
+        Integer cachedCount = googleSheetsCache.getCachedIncomeCount(googleSheetId);
+        if (cachedCount != null) {
+            int end = Math.max(cachedCount - offset, 0);
+            return googleSheetsCache.getCachedIncomes(googleSheetId, Math.max(end - limit, 0), end);
+        }
+        writeBehindBuffer.flush(googleSheetId);
+        int end = googleSheetsCache.getIncomeCount(googleSheetId, () -> countRows(googleSheetId)) - offset;
+        if (end <= 0 || limit <= 0) {
+            return List.of();
+        }
+        int start = Math.max(end - limit, 0);
         try {
-            data = googleSheetsClient.readData("Доходы!A2:C",
-                    userService.getGoogleSheetId(chatId));
+            return googleSheetsConverter.sheetFormatToIncomes(
+                    googleSheetsClient.readData(RANGE.rows(start, end), googleSheetId));
         } catch (IOException e) {
             throw new GoogleSheetsException("Ошибка получения доходов", e);
         }
+    }
 
-        return googleSheetsConverter.sheetFormatToIncomes(data);
+    @Override
+    public int countIncomes(long chatId) throws GoogleSheetsException {
+        String googleSheetId = userService.getGoogleSheetId(chatId);
+        writeBehindBuffer.flush(googleSheetId);
+        return googleSheetsCache.getIncomeCount(googleSheetId, () -> countRows(googleSheetId));
     }
 
+    /**
+     * {@inheritDoc}
+     * Если доходы есть в кэше, часть берётся из кэша, иначе читаются только её строки.
+     */
     @Override
-    public void addIncome(long chatId, Income newIncome) throws GoogleSheetsException {
-        List<List<Object>> values = googleSheetsConverter.incomeToSheetFormat(newIncome);
+    public List<Income> getIncomesChunk(long chatId, int start, int count) throws GoogleSheetsException {
+        if (count <= 0) {
+            return List.of();
+        }
         String googleSheetId = userService.getGoogleSheetId(chatId);
+        List<Income> cached = googleSheetsCache.getCachedIncomes(googleSheetId, start, start + count);
+        if (cached != null) {
+            return cached;
+        }
+        writeBehindBuffer.flush(googleSheetId);
         try {
-            googleSheetsClient.appendData("Доходы!A2:C", values, googleSheetId);
+            return googleSheetsConverter.sheetFormatToIncomes(googleSheetsClient
+                    .readData("Доходы!A" + (start + 2) + ":C" + (start + count + 1), googleSheetId));
         } catch (IOException e) {
-            throw new GoogleSheetsException("Ошибка добавления дохода", e);
+            throw new GoogleSheetsException("Ошибка получения доходов", e);
         }
     }
 
+    /**
+     * {@inheritDoc}
+     * Если доходы есть в кэше, они фильтруются без обращения к API. Иначе границы периода
+     * находятся поиском по столбцу дат с чтением отдельных ячеек, и читаются только строки периода.
+     */
     @Override
-    public void addIncomes(long chatId, List<Income> incomes) throws GoogleSheetsException {
-        List<List<Object>> values = googleSheetsConverter.incomesToSheetFormat(incomes);
+    public List<Income> getIncomes(long chatId, LocalDate from, LocalDate to) throws GoogleSheetsException {
         String googleSheetId = userService.getGoogleSheetId(chatId);
-        try {
-            googleSheetsClient.appendData("Доходы!A2:C", values, googleSheetId);
-        } catch (IOException e) {
-            throw new GoogleSheetsException("Ошибка добавления доходов", e);
+        List<Income> cached = googleSheetsCache.getCachedIncomes(googleSheetId,
+                income -> !income.date().isBefore(from) && !income.date().isAfter(to));
+        Stream<Income> incomes;
+        if (cached != null) {
+            incomes = cached.stream();
+        } else {
+            writeBehindBuffer.flush(googleSheetId);
+            try {
+                int[] period = SheetSearch.findPeriod(googleSheetsClient, googleSheetId, RANGE, "C", from, to);
+                int first = period[0];
+                int last = period[1];
+                if (first >= last) {
+                    return List.of();
+                }
+                incomes = googleSheetsConverter.streamIncomes(googleSheetsClient
+                        .readData(RANGE.rows(first, last), googleSheetId));
+            } catch (IOException e) {
+                throw new GoogleSheetsException("Ошибка получения доходов", e);
+            }
         }
+        return incomes
+                .filter(income -> !income.date().isBefore(from) && !income.date().isAfter(to))
+                .sorted(Comparator.comparing(Income::date))
+                .toList();
+    }
 
+    @Override
+    public void addIncome(long chatId, Income newIncome) throws GoogleSheetsException {
+        List<List<Object>> values = googleSheetsConverter.incomeToSheetFormat(newIncome);
+        String googleSheetId = userService.getGoogleSheetId(chatId);
+        long version = googleSheetsCache.beginWrite(googleSheetId);
+        writeBehindBuffer.append(googleSheetId, "Доходы!A2:C", values);
+        googleSheetsCache.appendIncomes(googleSheetId, version, List.of(newIncome));
+    }
+
+    @Override
+    public void addIncomes(long chatId, List<Income> incomes) throws GoogleSheetsException {
+        List<List<Object>> values = googleSheetsConverter.incomesToSheetFormat(incomes);
+        String googleSheetId = userService.getGoogleSheetId(chatId);
+        long version = googleSheetsCache.beginWrite(googleSheetId);
+        writeBehindBuffer.append(googleSheetId, "Доходы!A2:C", values);
+        googleSheetsCache.appendIncomes(googleSheetId, version, incomes);
     }
 
     @Override
     public void removeIncomes(long chatId) throws GoogleSheetsException {
+        String googleSheetId = userService.getGoogleSheetId(chatId);
+        writeBehindBuffer.discard(googleSheetId, "Доходы!A2:C");
         try {
-            googleSheetsClient.clearSheet("Доходы!A2:C", userService.getGoogleSheetId(chatId));
+            googleSheetsClient.clearSheet("Доходы!A2:C", googleSheetId);
         } catch (IOException e) {
             throw new GoogleSheetsException("Ошибка удаления доходов", e);
         }
+        googleSheetsCache.invalidateIncomes(googleSheetId);
+    }
+
+    /**
+     * Подсчитывает строки доходов на листе, не читая лист целиком.
+     *
+     * @param googleSheetId идентификатор гугл-таблицы
+     * @return количество строк доходов
+     * @throws GoogleSheetsException если возникла ошибка при обращении к гугл-таблице
+     */
+    private int countRows(String googleSheetId) throws GoogleSheetsException {
+        try {
+            return SheetSearch.countRows(googleSheetsClient, googleSheetId, RANGE);
+        } catch (IOException e) {
+            throw new GoogleSheetsException("Ошибка получения доходов", e);
+        }
     }
 }
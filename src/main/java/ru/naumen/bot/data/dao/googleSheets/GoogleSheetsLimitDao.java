@@ -33,21 +33,35 @@ public class GoogleSheetsLimitDao implements LimitDao {
      */
     private final UserService userService;
 
+    /**
+     * Кэш данных гугл-таблиц
+     */
+    private final GoogleSheetsCache googleSheetsCache;
+
+    /**
+     * Индекс гугл-таблиц, в которых не установлен лимит
+     */
+    private final GoogleSheetsLimitIndex limitIndex;
+
     /**
      * Конструктор класса GoogleSheetsLimitDao
      *
      * @param googleSheetsClient    Экземпляр клиента Google Sheets
      * @param googleSheetsConverter Конвертер для преобразования данных в формате Google Sheets
      * @param userService           Экземпляр сервиса пользователя для получения информации о пользователе
+     * @param googleSheetsCache     Кэш данных гугл-таблиц
+     * @param limitIndex            Индекс гугл-таблиц, в которых не установлен лимит
      */
     public GoogleSheetsLimitDao(GoogleSheetsClient googleSheetsClient, GoogleSheetsConverter googleSheetsConverter,
-                                UserService userService) {
+                                UserService userService, GoogleSheetsCache googleSheetsCache,
+                                GoogleSheetsLimitIndex limitIndex) {
         this.googleSheetsClient = googleSheetsClient;
         this.googleSheetsConverter = googleSheetsConverter;
         this.userService = userService;
+        this.googleSheetsCache = googleSheetsCache;
+        this.limitIndex = limitIndex;
     }
 
-
     @Override
     public void setLimit(long chatId, Limit limit) throws DaoException {
         List<List<Object>> value = googleSheetsConverter.limitToSheetFormat(limit);
@@ -57,26 +71,35 @@ public class GoogleSheetsLimitDao implements LimitDao {
         } catch (IOException e) {
             throw new GoogleSheetsException("Ошибка установки лимита", e);
         }
+        googleSheetsCache.putLimit(googleSheetId, limit);
+        limitIndex.update(googleSheetId, limit != null);
     }
 
     @Override
     public void removeLimit(long chatId) throws DaoException {
+        String googleSheetId = userService.getGoogleSheetId(chatId);
         try {
-            googleSheetsClient.clearSheet("Общая информация!A4:B4", userService.getGoogleSheetId(chatId));
+            googleSheetsClient.clearSheet("Общая информация!A4:B4", googleSheetId);
         } catch (IOException e) {
             throw new GoogleSheetsException("Ошибка удаления лимита", e);
         }
+        googleSheetsCache.putLimit(googleSheetId, null);
+        limitIndex.update(googleSheetId, false);
     }
 
     @Override
     public Limit getLimit(long chatId) throws DaoException {
-        List<List<Object>> data;
-        try {
-            data = googleSheetsClient.readData("Общая информация!A4:B4",
-                    userService.getGoogleSheetId(chatId));
-        } catch (IOException e) {
-            throw new GoogleSheetsException("Ошибка получения лимита", e);
-        }
-        return googleSheetsConverter.sheetFormatToLimit(data);
+        String googleSheetId = userService.getGoogleSheetId(chatId);
+        Limit limit = googleSheetsCache.getLimit(googleSheetId, () -> {
+            List<List<Object>> data;
+            try {
+                data = googleSheetsClient.readData("Общая информация!A4:B4", googleSheetId);
+            } catch (IOException e) {
+                throw new GoogleSheetsException("Ошибка получения лимита", e);
+            }
+            return googleSheetsConverter.sheetFormatToLimit(data);
+        });
+        limitIndex.update(googleSheetId, limit != null);
+        return limit;
     }
 }
@@ -0,0 +1,48 @@
+package ru.naumen.bot.data.dao.googleSheets;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Индекс гугл-таблиц, в которых, как известно, не установлен лимит расходов.
+ *
+ * <p>Индекс заполняется при чтении и изменении лимита через DAO и позволяет сбросу лимитов
+ * не обращаться к таким таблицам. Ключом является идентификатор таблицы, а не чата, поэтому
+ * смена таблицы пользователем или возврат к уже использованной таблице не приводят к устаревшим
+ * сведениям. Индекс не сохраняется между перезапусками: пока лимит в таблице не прочитан,
+ * считается, что лимит может быть установлен.
+ */
+@Component
+public class GoogleSheetsLimitIndex {
+
+    /**
+     * Идентификаторы гугл-таблиц, в которых лимит не установлен
+     */
+    private final Set<String> spreadsheetsWithoutLimit = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Запоминает, установлен ли лимит в гугл-таблице.
+     *
+     * @param spreadsheetId идентификатор гугл-таблицы
+     * @param hasLimit      true, если лимит установлен
+     */
+    public void update(String spreadsheetId, boolean hasLimit) {
+        if (hasLimit) {
+            spreadsheetsWithoutLimit.remove(spreadsheetId);
+        } else {
+            spreadsheetsWithoutLimit.add(spreadsheetId);
+        }
+    }
+
+    /**
+     * Проверяет, может ли в гугл-таблице быть установлен лимит.
+     *
+     * @param spreadsheetId идентификатор гугл-таблицы
+     * @return false, если известно, что лимит не установлен, иначе true
+     */
+    public boolean mayHaveLimit(String spreadsheetId) {
+        return !spreadsheetsWithoutLimit.contains(spreadsheetId);
+    }
+}
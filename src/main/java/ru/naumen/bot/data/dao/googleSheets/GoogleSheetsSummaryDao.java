@@ -0,0 +1,118 @@
+package ru.naumen.bot.data.dao.googleSheets;
+
+import org.springframework.stereotype.Component;
+import ru.naumen.bot.client.GoogleSheetsClient;
+import ru.naumen.bot.data.dao.SummaryDao;
+import ru.naumen.bot.data.dao.googleSheets.exception.GoogleSheetsException;
+import ru.naumen.bot.data.entity.Summary;
+import ru.naumen.bot.service.UserService;
+import ru.naumen.bot.utils.GoogleSheetsConverter;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Класс для чтения и записи баланса и лимита пользователя, хранящихся в Google Sheets.
+ *
+ * <p>Баланс в ячейке {@value #BALANCE_RANGE} и лимит в диапазоне {@value #LIMIT_RANGE} читаются одним
+ * запросом {@code values.batchGet} и записываются одним запросом {@code values.batchUpdate},
+ * поэтому обновление баланса и лимита при добавлении расхода занимает два обращения к API вместо четырёх.
+ * Прочитанные и записанные значения сохраняются в {@link GoogleSheetsCache}, общем с
+ * {@link GoogleSheetsBalanceDao} и {@link GoogleSheetsLimitDao}.
+ */
+@Component
+public class GoogleSheetsSummaryDao implements SummaryDao {
+
+    /**
+     * Ячейка с балансом
+     */
+    static final String BALANCE_RANGE = "Общая информация!B1";
+
+    /**
+     * Диапазон с лимитом и суммой расходов за день
+     */
+    static final String LIMIT_RANGE = "Общая информация!A4:B4";
+
+    /**
+     * Экземпляр клиента Google Sheets
+     */
+    private final GoogleSheetsClient googleSheetsClient;
+
+    /**
+     * Конвертер для преобразования данных в формате Google Sheets
+     */
+    private final GoogleSheetsConverter googleSheetsConverter;
+
+    /**
+     * Экземпляр сервиса пользователя для получения информации о пользователе
+     */
+    private final UserService userService;
+
+    /**
+     * Кэш данных гугл-таблиц
+     */
+    private final GoogleSheetsCache googleSheetsCache;
+
+    /**
+     * Индекс гугл-таблиц, в которых не установлен лимит
+     */
+    private final GoogleSheetsLimitIndex limitIndex;
+
+    /**
+     * Конструктор класса GoogleSheetsSummaryDao
+     *
+     * @param googleSheetsClient    Экземпляр клиента Google Sheets
+     * @param googleSheetsConverter Конвертер для преобразования данных в формате Google Sheets
+     * @param userService           Экземпляр сервиса пользователя для получения информации о пользователе
+     * @param googleSheetsCache     Кэш данных гугл-таблиц
+     * @param limitIndex            Индекс гугл-таблиц, в которых не установлен лимит
+     */
+    public GoogleSheetsSummaryDao(GoogleSheetsClient googleSheetsClient, GoogleSheetsConverter googleSheetsConverter,
+                                  UserService userService, GoogleSheetsCache googleSheetsCache,
+                                  GoogleSheetsLimitIndex limitIndex) {
+        this.googleSheetsClient = googleSheetsClient;
+        this.googleSheetsConverter = googleSheetsConverter;
+        this.userService = userService;
+        this.googleSheetsCache = googleSheetsCache;
+        this.limitIndex = limitIndex;
+    }
+
+    @Override
+    public Summary getSummary(long chatId) throws GoogleSheetsException {
+        String googleSheetId = userService.getGoogleSheetId(chatId);
+        Summary summary = googleSheetsCache.getSummary(googleSheetId, () -> {
+            Map<String, List<List<Object>>> data;
+            try {
+                data = googleSheetsClient.batchReadData(List.of(BALANCE_RANGE, LIMIT_RANGE), googleSheetId);
+            } catch (IOException e) {
+                throw new GoogleSheetsException("Ошибка получения баланса и лимита", e);
+            }
+            return new Summary(googleSheetsConverter.sheetFormatToMoney(data.get(BALANCE_RANGE)),
+                    googleSheetsConverter.sheetFormatToLimit(data.get(LIMIT_RANGE)));
+        });
+        limitIndex.update(googleSheetId, summary.limit() != null);
+        return summary;
+    }
+
+    @Override
+    public void setSummary(long chatId, Summary summary) throws GoogleSheetsException {
+        Map<String, List<List<Object>>> values = new LinkedHashMap<>();
+        values.put(BALANCE_RANGE, googleSheetsConverter.moneyToSheetFormat(summary.balance()));
+        if (summary.limit() != null) {
+            values.put(LIMIT_RANGE, googleSheetsConverter.limitToSheetFormat(summary.limit()));
+        }
+        String googleSheetId = userService.getGoogleSheetId(chatId);
+        try {
+            googleSheetsClient.batchUpdateData(values, googleSheetId);
+        } catch (IOException e) {
+            throw new GoogleSheetsException("Ошибка обновления баланса и лимита", e);
+        }
+        googleSheetsCache.putBalance(googleSheetId, summary.balance());
+        if (summary.limit() != null) {
+            googleSheetsCache.putLimit(googleSheetId, summary.limit());
+            limitIndex.update(googleSheetId, true);
+        }
+    }
+}
@@ -0,0 +1,509 @@
+package ru.naumen.bot.data.dao.googleSheets;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.naumen.bot.client.GoogleSheetsClient;
+import ru.naumen.bot.client.GoogleSheetsUnavailableException;
+import ru.naumen.bot.data.dao.googleSheets.exception.GoogleSheetsException;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Буфер отложенной записи строк в гугл-таблицы.
+ *
+ * <p>Строки, добавляемые в одну гугл-таблицу за короткий промежуток времени, накапливаются
+ * и отправляются одним запросом {@code append} на каждый диапазон. Буфер сбрасывается
+ * по расписанию, при накоплении {@code max-batch-rows} строк в одной таблице, при превышении
+ * общего предела {@code max-pending-rows}, перед чтением данных и при остановке приложения.
+ *
+ * <p>Пользователь уже получил ответ, что данные сохранены, поэтому строки остаются в буфере
+ * после любой ошибки записи и записываются при следующем сбросе. Если ответ на запрос {@code append}
+ * не получен, неизвестно, были ли строки добавлены в таблицу. Перед повторной отправкой такие строки
+ * сравниваются с последними строками диапазона, и если они уже есть в таблице, повторно не отправляются.
+ * Постоянная ошибка, например, отсутствие доступа к таблице, запоминается и выбрасывается как
+ * {@link GoogleSheetsException} при следующем обращении к той же таблице, чтобы пользователь узнал
+ * о ней через обычную обработку ошибок Google Sheets. До этого таблица не сбрасывается по расписанию.
+ * После того как о постоянной ошибке сообщено, пользователь переводится на хранение данных в памяти,
+ * поэтому строки таблицы удаляются из буфера и не занимают место {@code max-pending-rows}.
+ * Строки таблицы также удаляются методом {@link #release(String)}, когда пользователь перестаёт
+ * хранить данные в ней.
+ */
+@Component
+public class GoogleSheetsWriteBehindBuffer {
+
+    /**
+     * Экземпляр клиента Google Sheets
+     */
+    private final GoogleSheetsClient googleSheetsClient;
+
+    /**
+     * Количество строк одной таблицы, при накоплении которого буфер таблицы сбрасывается сразу
+     */
+    private final int maxBatchRows;
+
+    /**
+     * Общее количество строк в буфере, при превышении которого запись во все таблицы выполняется синхронно,
+     * а если это не помогло, новые строки не принимаются
+     */
+    private final int maxPendingRows;
+
+    /**
+     * Отложенные строки, где ключом является идентификатор гугл-таблицы
+     */
+    private final Map<String, PendingAppends> pendingAppends = new ConcurrentHashMap<>();
+
+    /**
+     * Общее количество строк, ожидающих записи
+     */
+    private final AtomicInteger pendingRows = new AtomicInteger();
+
+    /**
+     * Логгер для записи сообщений об ошибках
+     */
+    private final Logger logger = LoggerFactory.getLogger(GoogleSheetsWriteBehindBuffer.class);
+
+    /**
+     * Конструктор класса GoogleSheetsWriteBehindBuffer
+     *
+     * @param googleSheetsClient экземпляр клиента Google Sheets
+     * @param maxBatchRows       количество строк одной таблицы, при накоплении которого буфер сбрасывается сразу
+     * @param maxPendingRows     общее количество строк в буфере, при превышении которого запись синхронная
+     */
+    public GoogleSheetsWriteBehindBuffer(GoogleSheetsClient googleSheetsClient,
+                                         @Value("${google-sheets.write-behind.max-batch-rows}") int maxBatchRows,
+                                         @Value("${google-sheets.write-behind.max-pending-rows}") int maxPendingRows) {
+        this.googleSheetsClient = googleSheetsClient;
+        this.maxBatchRows = maxBatchRows;
+        this.maxPendingRows = maxPendingRows;
+    }
+
+    /**
+     * Добавляет строки в буфер для последующей записи в конец диапазона.
+     * Если в буфере уже {@code max-pending-rows} строк, сначала синхронно записываются строки всех таблиц.
+     * Ошибка записи, выполняемой при заполнении буфера, не выбрасывается, так как строки остаются в буфере.
+     *
+     * @param spreadsheetId идентификатор гугл-таблицы
+     * @param range         диапазон ячеек, в конец которого добавляются строки
+     * @param rows          строки в формате Google Sheets
+     * @throws GoogleSheetsException если предыдущая запись в эту таблицу завершилась постоянной ошибкой
+     *                               или буфер переполнен, так как таблицы временно недоступны
+     */
+    public void append(String spreadsheetId, String range, List<List<Object>> rows) throws GoogleSheetsException {
+        if (pendingRows.get() + rows.size() > maxPendingRows) {
+            flushAll();
+            if (pendingRows.get() + rows.size() > maxPendingRows) {
+                throw new GoogleSheetsException("Слишком много строк ожидает записи в гугл-таблицы",
+                        new GoogleSheetsUnavailableException("Буфер отложенной записи переполнен", true, null));
+            }
+        }
+        PendingAppends pending = lockPending(spreadsheetId);
+        try {
+            throwFailure(spreadsheetId, pending);
+            pending.rowsByRange.computeIfAbsent(range, r -> new ArrayList<>()).addAll(rows);
+            pending.rowCount += rows.size();
+            pendingRows.addAndGet(rows.size());
+            if (pending.rowCount >= maxBatchRows) {
+                flushLoggingErrors(spreadsheetId, pending);
+            }
+        } finally {
+            pending.lock.unlock();
+        }
+    }
+
+    /**
+     * Заменяет значение в последней отложенной строке диапазона, если она ещё не отправлялась в таблицу.
+     *
+     * @param spreadsheetId идентификатор гугл-таблицы
+     * @param range         диапазон ячеек
+     * @param column        номер столбца в строке, начиная с 0
+     * @param value         новое значение
+     * @return true, если строка ещё не отправлялась и значение заменено, иначе false
+     * @throws GoogleSheetsException если предыдущая запись в эту таблицу завершилась ошибкой
+     */
+    public boolean updateLastPendingRow(String spreadsheetId, String range, int column, Object value)
+            throws GoogleSheetsException {
+        PendingAppends pending = pendingAppends.get(spreadsheetId);
+        if (pending == null) {
+            return false;
+        }
+        pending.lock.lock();
+        try {
+            throwFailure(spreadsheetId, pending);
+            List<List<Object>> rows = pending.rowsByRange.get(range);
+            if (rows == null || rows.size() <= pending.uncertainRows.getOrDefault(range, 0)) {
+                return false;
+            }
+            List<Object> lastRow = new ArrayList<>(rows.getLast());
+            lastRow.set(column, value);
+            rows.set(rows.size() - 1, lastRow);
+            return true;
+        } finally {
+            pending.lock.unlock();
+        }
+    }
+
+    /**
+     * Удаляет из буфера ещё не записанные строки диапазона, например, перед его очисткой.
+     *
+     * @param spreadsheetId идентификатор гугл-таблицы
+     * @param range         диапазон ячеек
+     * @throws GoogleSheetsException если предыдущая запись в эту таблицу завершилась ошибкой
+     */
+    public void discard(String spreadsheetId, String range) throws GoogleSheetsException {
+        PendingAppends pending = pendingAppends.get(spreadsheetId);
+        if (pending == null) {
+            return;
+        }
+        pending.lock.lock();
+        try {
+            throwFailure(spreadsheetId, pending);
+            List<List<Object>> rows = pending.rowsByRange.remove(range);
+            pending.uncertainRows.remove(range);
+            if (rows != null) {
+                pending.rowCount -= rows.size();
+                pendingRows.addAndGet(-rows.size());
+            }
+        } finally {
+            pending.lock.unlock();
+        }
+    }
+
+    /**
+     * Записывает в гугл-таблицу все отложенные для неё строки.
+     *
+     * @param spreadsheetId идентификатор гугл-таблицы
+     * @throws GoogleSheetsException если запись не удалась или предыдущая запись завершилась постоянной ошибкой;
+     *                               после временной ошибки незаписанные строки остаются в буфере,
+     *                               после постоянной удаляются из него
+     */
+    public void flush(String spreadsheetId) throws GoogleSheetsException {
+        PendingAppends pending = pendingAppends.get(spreadsheetId);
+        if (pending == null) {
+            return;
+        }
+        pending.lock.lock();
+        try {
+            throwFailure(spreadsheetId, pending);
+            flushPending(spreadsheetId, pending);
+        } catch (GoogleSheetsException e) {
+            if (isPermanent(e)) {
+                drop(spreadsheetId, pending);
+            }
+            throw e;
+        } finally {
+            pending.lock.unlock();
+        }
+    }
+
+    /**
+     * Записывает отложенные строки во все гугл-таблицы, кроме таблиц с ещё не переданной пользователю
+     * постоянной ошибкой. Ошибки записи не выбрасываются, а строки остаются в буфере.
+     */
+    @Scheduled(fixedDelayString = "${google-sheets.write-behind.flush-interval}")
+    public void flushAll() {
+        for (Map.Entry<String, PendingAppends> entry : pendingAppends.entrySet()) {
+            PendingAppends pending = entry.getValue();
+            pending.lock.lock();
+            try {
+                if (pending.failure == null && !pending.removed) {
+                    flushLoggingErrors(entry.getKey(), pending);
+                }
+            } finally {
+                pending.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Записывает оставшиеся строки таблицы, если это удаётся, и удаляет таблицу из буфера.
+     * Вызывается, когда пользователь перестаёт хранить данные в таблице: переходит на хранение в памяти
+     * или указывает другую таблицу. Ошибки записи не выбрасываются, незаписанные строки удаляются.
+     *
+     * @param spreadsheetId идентификатор гугл-таблицы
+     */
+    public void release(String spreadsheetId) {
+        PendingAppends pending = pendingAppends.get(spreadsheetId);
+        if (pending == null) {
+            return;
+        }
+        pending.lock.lock();
+        try {
+            if (pending.removed) {
+                return;
+            }
+            if (pending.failure == null) {
+                flushLoggingErrors(spreadsheetId, pending);
+            }
+            drop(spreadsheetId, pending);
+        } finally {
+            pending.lock.unlock();
+        }
+    }
+
+    /**
+     * Возвращает общее количество строк, ожидающих записи.
+     */
+    public int getPendingRows() {
+        return pendingRows.get();
+    }
+
+    /**
+     * Записывает все отложенные строки при остановке приложения.
+     */
+    @PreDestroy
+    public void shutdown() {
+        flushAll();
+    }
+
+    /**
+     * Возвращает отложенные строки гугл-таблицы с удерживаемой блокировкой, создавая их при необходимости.
+     * Если полученные строки одновременно удалены из {@link #pendingAppends} как пустые, берутся новые.
+     *
+     * @param spreadsheetId идентификатор гугл-таблицы
+     */
+    private PendingAppends lockPending(String spreadsheetId) {
+        while (true) {
+            PendingAppends pending = pendingAppends.computeIfAbsent(spreadsheetId, id -> new PendingAppends());
+            pending.lock.lock();
+            if (!pending.removed) {
+                return pending;
+            }
+            pending.lock.unlock();
+        }
+    }
+
+    /**
+     * Записывает отложенные строки таблицы в текущем потоке без выбрасывания ошибки. Постоянная ошибка
+     * запоминается и будет выброшена при следующем обращении к таблице, временная только записывается в лог.
+     * Вызывается при удерживаемой блокировке строк таблицы.
+     *
+     * @param spreadsheetId идентификатор гугл-таблицы
+     * @param pending       отложенные строки гугл-таблицы
+     */
+    private void flushLoggingErrors(String spreadsheetId, PendingAppends pending) {
+        try {
+            flushPending(spreadsheetId, pending);
+        } catch (GoogleSheetsException e) {
+            if (isPermanent(e)) {
+                logger.error("[GoogleSheetsException exception] :: Message: {}.", e.getMessage(), e);
+                pending.failure = e;
+            } else {
+                logger.warn("[GoogleSheetsException exception] :: Message: {}.", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Записывает отложенные строки таблицы по диапазонам. Строки, ответ на отправку которых не получен,
+     * сначала проверяются в таблице и повторно отправляются, только если их там нет.
+     * Пустые отложенные строки удаляются из {@link #pendingAppends}.
+     * Вызывается при удерживаемой блокировке строк таблицы.
+     *
+     * @param spreadsheetId идентификатор гугл-таблицы
+     * @param pending       отложенные строки гугл-таблицы
+     * @throws GoogleSheetsException если проверка или запись не удалась; незаписанные строки остаются в буфере
+     */
+    private void flushPending(String spreadsheetId, PendingAppends pending) throws GoogleSheetsException {
+        Iterator<Map.Entry<String, List<List<Object>>>> iterator = pending.rowsByRange.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, List<List<Object>>> entry = iterator.next();
+            String range = entry.getKey();
+            List<List<Object>> rows = entry.getValue();
+            Integer uncertainRows = pending.uncertainRows.get(range);
+            if (uncertainRows != null) {
+                List<List<Object>> sentRows = rows.subList(0, uncertainRows);
+                try {
+                    if (isAppended(spreadsheetId, range, sentRows)) {
+                        removeRows(pending, sentRows.size());
+                        sentRows.clear();
+                    }
+                } catch (IOException e) {
+                    throw new GoogleSheetsException("Ошибка проверки отложенных данных", e);
+                }
+                pending.uncertainRows.remove(range);
+            }
+            if (!rows.isEmpty()) {
+                try {
+                    googleSheetsClient.appendData(range, rows, spreadsheetId);
+                } catch (IOException e) {
+                    if (!(e instanceof GoogleSheetsUnavailableException unavailable && unavailable.isRejected())) {
+                        pending.uncertainRows.put(range, rows.size());
+                    }
+                    throw new GoogleSheetsException("Ошибка записи отложенных данных", e);
+                }
+                removeRows(pending, rows.size());
+            }
+            iterator.remove();
+        }
+        if (pending.failure == null) {
+            pending.removed = true;
+            pendingAppends.remove(spreadsheetId, pending);
+        }
+    }
+
+    /**
+     * Проверяет, добавлены ли строки в конец диапазона: подсчитывает строки диапазона
+     * и сравнивает последние из них с отправленными.
+     *
+     * @param spreadsheetId идентификатор гугл-таблицы
+     * @param range         диапазон ячеек
+     * @param rows          отправленные строки
+     * @return true, если последние строки диапазона совпадают с отправленными
+     * @throws IOException если запрос к Google Sheets API завершился ошибкой
+     */
+    private boolean isAppended(String spreadsheetId, String range, List<List<Object>> rows) throws IOException {
+        SheetRange sheetRange = SheetRange.parse(range);
+        int count = SheetSearch.countRows(googleSheetsClient, spreadsheetId, sheetRange);
+        if (count < rows.size()) {
+            return false;
+        }
+        List<List<Object>> lastRows = googleSheetsClient.readData(sheetRange.rows(count - rows.size(), count),
+                spreadsheetId);
+        if (lastRows == null || lastRows.size() != rows.size()) {
+            return false;
+        }
+        for (int i = 0; i < rows.size(); i++) {
+            List<Object> sent = rows.get(i);
+            List<Object> read = lastRows.get(i);
+            for (int column = 0; column < sent.size(); column++) {
+                if (!isSameValue(sent.get(column), column < read.size() ? read.get(column) : "")) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Сравнивает отправленное в таблицу значение с прочитанным без форматирования:
+     * строки сравниваются без апострофа в начале, которым отмечается текст, а числа — по значению.
+     *
+     * @param sent отправленное значение
+     * @param read прочитанное значение
+     */
+    private static boolean isSameValue(Object sent, Object read) {
+        if (sent instanceof String text && text.startsWith("'")) {
+            sent = text.substring(1);
+        }
+        if (sent instanceof Number || read instanceof Number) {
+            try {
+                return new BigDecimal(sent.toString()).compareTo(new BigDecimal(read.toString())) == 0;
+            } catch (NumberFormatException e) {
+                return false;
+            }
+        }
+        return String.valueOf(sent).equals(String.valueOf(read));
+    }
+
+    /**
+     * Уменьшает количество отложенных строк таблицы и общее количество строк в буфере.
+     *
+     * @param pending отложенные строки гугл-таблицы
+     * @param count   количество записанных строк
+     */
+    private void removeRows(PendingAppends pending, int count) {
+        pending.rowCount -= count;
+        pendingRows.addAndGet(-count);
+    }
+
+    /**
+     * Выбрасывает запомненную постоянную ошибку записи, если она есть, и удаляет строки таблицы из буфера,
+     * так как после этой ошибки пользователь переводится на хранение данных в памяти.
+     * Вызывается при удерживаемой блокировке строк таблицы.
+     *
+     * @param spreadsheetId идентификатор гугл-таблицы
+     * @param pending       отложенные строки гугл-таблицы
+     * @throws GoogleSheetsException запомненная ошибка записи
+     */
+    private void throwFailure(String spreadsheetId, PendingAppends pending) throws GoogleSheetsException {
+        GoogleSheetsException failure = pending.failure;
+        if (failure != null) {
+            drop(spreadsheetId, pending);
+            throw failure;
+        }
+    }
+
+    /**
+     * Удаляет все строки таблицы из буфера без записи.
+     * Вызывается при удерживаемой блокировке строк таблицы.
+     *
+     * @param spreadsheetId идентификатор гугл-таблицы
+     * @param pending       отложенные строки гугл-таблицы
+     */
+    private void drop(String spreadsheetId, PendingAppends pending) {
+        if (pending.rowCount > 0) {
+            logger.warn("[GoogleSheetsException exception] :: Message: {} unwritten rows are discarded.",
+                    pending.rowCount);
+        }
+        pendingRows.addAndGet(-pending.rowCount);
+        pending.rowCount = 0;
+        pending.rowsByRange.clear();
+        pending.uncertainRows.clear();
+        pending.failure = null;
+        pending.removed = true;
+        pendingAppends.remove(spreadsheetId, pending);
+    }
+
+    /**
+     * Проверяет, является ли ошибка записи постоянной, то есть не вызвана временной недоступностью
+     * Google Sheets API или прерыванием потока, и о ней нужно сообщить пользователю.
+     *
+     * @param exception ошибка записи
+     */
+    private static boolean isPermanent(GoogleSheetsException exception) {
+        return !exception.isTemporary() && !(exception.getCause() instanceof InterruptedIOException);
+    }
+
+    /**
+     * Отложенные строки одной гугл-таблицы.
+     * Все поля изменяются только при удерживаемой блокировке {@link #lock}.
+     */
+    private static class PendingAppends {
+
+        /**
+         * Блокировка, упорядочивающая запись в гугл-таблицу
+         */
+        private final ReentrantLock lock = new ReentrantLock();
+
+        /**
+         * Отложенные строки, где ключом является диапазон ячеек
+         */
+        private final Map<String, List<List<Object>>> rowsByRange = new LinkedHashMap<>();
+
+        /**
+         * Количество первых отложенных строк диапазона, ответ на отправку которых не получен,
+         * где ключом является диапазон ячеек
+         */
+        private final Map<String, Integer> uncertainRows = new HashMap<>();
+
+        /**
+         * Количество отложенных строк
+         */
+        private int rowCount;
+
+        /**
+         * Удалены ли строки из {@link #pendingAppends}, так как все они записаны или удалены без записи
+         */
+        private boolean removed;
+
+        /**
+         * Постоянная ошибка записи, ещё не переданная пользователю
+         */
+        private GoogleSheetsException failure;
+    }
+}
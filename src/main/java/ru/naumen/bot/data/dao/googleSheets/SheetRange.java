@@ -0,0 +1,68 @@
+package ru.naumen.bot.data.dao.googleSheets;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Диапазон листа гугл-таблицы, в конец которого добавляются строки, например, {@code Расходы!A2:D}.
+ * Строки данных нумеруются с 0 от первой строки диапазона.
+ *
+ * @param sheet       название листа
+ * @param firstColumn первый столбец диапазона
+ * @param firstRow    номер первой строки данных на листе
+ * @param lastColumn  последний столбец диапазона
+ */
+record SheetRange(String sheet, String firstColumn, int firstRow, String lastColumn) {
+
+    /**
+     * Формат диапазона: лист, первая ячейка и столбец последней ячейки
+     */
+    private static final Pattern RANGE_PATTERN = Pattern.compile("(.+)!([A-Z]+)(\\d+):([A-Z]+)\\d*");
+
+    /**
+     * Разбирает диапазон в нотации A1.
+     *
+     * @param range диапазон вида {@code Лист!A2:D}
+     * @return диапазон листа
+     * @throws IllegalArgumentException если диапазон записан в другом виде
+     */
+    static SheetRange parse(String range) {
+        Matcher matcher = RANGE_PATTERN.matcher(range);
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Неподдерживаемый диапазон: " + range);
+        }
+        return new SheetRange(matcher.group(1), matcher.group(2), Integer.parseInt(matcher.group(3)),
+                matcher.group(4));
+    }
+
+    /**
+     * Возвращает ячейку строки данных в указанном столбце.
+     *
+     * @param column столбец
+     * @param index  номер строки данных, начиная с 0
+     */
+    String cell(String column, int index) {
+        return sheet + "!" + column + (firstRow + index);
+    }
+
+    /**
+     * Возвращает строки данных с {@code from} включительно по {@code to} не включительно в указанном столбце.
+     *
+     * @param column столбец
+     * @param from   номер первой строки данных, начиная с 0
+     * @param to     номер строки данных после последней
+     */
+    String column(String column, int from, int to) {
+        return sheet + "!" + column + (firstRow + from) + ":" + column + (firstRow + to - 1);
+    }
+
+    /**
+     * Возвращает строки данных с {@code from} включительно по {@code to} не включительно во всех столбцах диапазона.
+     *
+     * @param from номер первой строки данных, начиная с 0
+     * @param to   номер строки данных после последней
+     */
+    String rows(int from, int to) {
+        return sheet + "!" + firstColumn + (firstRow + from) + ":" + lastColumn + (firstRow + to - 1);
+    }
+}
@@ -0,0 +1,306 @@
+package ru.naumen.bot.data.dao.googleSheets;
+
+import ru.naumen.bot.client.GoogleSheetsClient;
+import ru.naumen.bot.utils.GoogleSheetsConverter;
+
+import java.io.IOException;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+
+/**
+ * Поиск по столбцу листа гугл-таблицы без чтения всего столбца.
+ *
+ * <p>Вместо чтения столбца целиком одним запросом {@code values.batchGet} читаются отдельные ячейки-пробы,
+ * которые сужают область поиска в {@value #PROBES} + 1 раз. Когда область становится не больше
+ * {@value #WINDOW} строк, она читается целиком. Поэтому объём прочитанных данных растёт логарифмически
+ * с количеством строк на листе, а число запросов почти не зависит от него.
+ *
+ * <p>Google Sheets API отвечает ошибкой 400 на диапазоны за пределами сетки листа, поэтому сначала
+ * читается количество строк сетки, и пробы не выходят за него. Поиск рассчитан на монотонные условия,
+ * например, на упорядоченный столбец дат. Если прочитанные ячейки показывают, что условие не монотонно,
+ * например, пользователь вставил строку со старой датой или очистил строку в середине листа,
+ * результат определяется чтением всех строк.
+ */
+final class SheetSearch {
+
+    /**
+     * Количество ячеек-проб, читаемых за один запрос для каждой области поиска
+     */
+    private static final int PROBES = 32;
+
+    /**
+     * Размер области поиска, которая читается целиком
+     */
+    private static final int WINDOW = 256;
+
+    /**
+     * Закрытый конструктор, класс содержит только статические методы
+     */
+    private SheetSearch() {
+    }
+
+    /**
+     * Подсчитывает строки данных диапазона по последнему столбцу, который бот заполняет в каждой строке.
+     * Строки считаются до последней заполненной, как их считает {@code values.append}.
+     *
+     * @param googleSheetsClient клиент Google Sheets
+     * @param spreadsheetId      идентификатор гугл-таблицы
+     * @param range              диапазон листа
+     * @return количество строк данных
+     * @throws IOException если запрос к Google Sheets API завершился ошибкой
+     */
+    static int countRows(GoogleSheetsClient googleSheetsClient, String spreadsheetId, SheetRange range)
+            throws IOException {
+        int rows = getDataRows(googleSheetsClient, spreadsheetId, range);
+        if (rows == 0) {
+            return 0;
+        }
+        int[] result = search(googleSheetsClient, spreadsheetId, range, rows, range.lastColumn(),
+                List.of(SheetSearch::isEmpty));
+        if (result != null) {
+            return result[0];
+        }
+        List<List<Object>> column = googleSheetsClient.readData(range.column(range.lastColumn(), 0, rows),
+                spreadsheetId);
+        return column == null ? 0 : column.size();
+    }
+
+    /**
+     * Находит строки периода в столбце дат, упорядоченном по возрастанию. Если столбец оказался
+     * не упорядочен, возвращаются все строки листа, и отбирать строки периода должен вызывающий код.
+     *
+     * @param googleSheetsClient клиент Google Sheets
+     * @param spreadsheetId      идентификатор гугл-таблицы
+     * @param range              диапазон листа
+     * @param dateColumn         столбец дат
+     * @param from               начальная дата периода включительно
+     * @param to                 конечная дата периода включительно
+     * @return номер первой строки периода и номер строки после последней
+     * @throws IOException если запрос к Google Sheets API завершился ошибкой
+     *                     или в столбце дат есть ячейка, которая не является датой
+     */
+    static int[] findPeriod(GoogleSheetsClient googleSheetsClient, String spreadsheetId, SheetRange range,
+                            String dateColumn, LocalDate from, LocalDate to) throws IOException {
+        int rows = getDataRows(googleSheetsClient, spreadsheetId, range);
+        if (rows == 0) {
+            return new int[]{0, 0};
+        }
+        int[] result;
+        try {
+            result = search(googleSheetsClient, spreadsheetId, range, rows, dateColumn, List.of(
+                    value -> value == null || !GoogleSheetsConverter.cellToDate(value).isBefore(from),
+                    value -> value == null || GoogleSheetsConverter.cellToDate(value).isAfter(to)));
+        } catch (DateTimeException e) {
+            throw new IOException("Столбец " + dateColumn + " листа " + range.sheet()
+                    + " содержит значение, которое не является датой", e);
+        }
+        return result != null ? result : new int[]{0, rows};
+    }
+
+    /**
+     * Возвращает количество строк данных, которые помещаются в сетку листа.
+     *
+     * @param googleSheetsClient клиент Google Sheets
+     * @param spreadsheetId      идентификатор гугл-таблицы
+     * @param range              диапазон листа
+     * @throws IOException если листа нет или запрос к Google Sheets API завершился ошибкой
+     */
+    private static int getDataRows(GoogleSheetsClient googleSheetsClient, String spreadsheetId, SheetRange range)
+            throws IOException {
+        Integer rowCount = googleSheetsClient.getRowCounts(spreadsheetId).get(range.sheet());
+        if (rowCount == null) {
+            throw new IOException("В гугл-таблице нет листа " + range.sheet());
+        }
+        return Math.max(rowCount - range.firstRow() + 1, 0);
+    }
+
+    /**
+     * Находит для каждого условия первую строку столбца, значение в которой ему удовлетворяет.
+     * Условие должно быть истинным для пустой ячейки после последней строки данных.
+     * Сначала одним запросом читаются строки с номерами 2<sup>k</sup> - 1, затем найденные промежутки
+     * сужаются методом {@link #search(GoogleSheetsClient, String, SheetRange, String, List, int[], int[])}.
+     *
+     * @param googleSheetsClient клиент Google Sheets
+     * @param spreadsheetId      идентификатор гугл-таблицы
+     * @param range              диапазон листа
+     * @param rows               количество строк данных в сетке листа, больше нуля
+     * @param column             столбец, по которому выполняется поиск
+     * @param conditions         монотонные условия; пустая ячейка передаётся как null
+     * @return номер найденной строки для каждого условия или null, если условие оказалось не монотонным
+     * @throws IOException если запрос к Google Sheets API завершился ошибкой
+     */
+    static int[] search(GoogleSheetsClient googleSheetsClient, String spreadsheetId, SheetRange range, int rows,
+                        String column, List<Predicate<Object>> conditions) throws IOException {
+        List<Integer> probes = new ArrayList<>();
+        for (int probe = 0; probe < rows; probe = probe * 2 + 1) {
+            probes.add(probe);
+        }
+        Map<Integer, Object> cells = readCells(googleSheetsClient, spreadsheetId, range, column, probes);
+        int[] low = new int[conditions.size()];
+        int[] high = new int[conditions.size()];
+        for (int i = 0; i < conditions.size(); i++) {
+            high[i] = rows;
+            if (!narrow(conditions.get(i), probes, cells, low, high, i)) {
+                return null;
+            }
+        }
+        return search(googleSheetsClient, spreadsheetId, range, column, conditions, low, high);
+    }
+
+    /**
+     * Находит в каждой области первую строку, значение столбца в которой удовлетворяет условию.
+     * Условие должно быть монотонным: ложным для строк до искомой и истинным для неё и всех строк после.
+     * Все области сужаются одновременно, поэтому каждый шаг занимает один запрос.
+     *
+     * @param googleSheetsClient клиент Google Sheets
+     * @param spreadsheetId      идентификатор гугл-таблицы
+     * @param range              диапазон листа
+     * @param column             столбец, по которому выполняется поиск
+     * @param conditions         условия для каждой области; пустая ячейка передаётся как null
+     * @param low                номера первых строк областей включительно, изменяются при поиске
+     * @param high               номера строк после последних строк областей, изменяются при поиске
+     * @return номер найденной строки для каждой области или номер строки после области, если строка не найдена;
+     * null, если условие оказалось не монотонным
+     * @throws IOException если запрос к Google Sheets API завершился ошибкой
+     */
+    static int[] search(GoogleSheetsClient googleSheetsClient, String spreadsheetId, SheetRange range, String column,
+                        List<Predicate<Object>> conditions, int[] low, int[] high) throws IOException {
+        while (true) {
+            TreeSet<Integer> probes = new TreeSet<>();
+            for (int i = 0; i < conditions.size(); i++) {
+                long width = high[i] - low[i];
+                if (width > WINDOW) {
+                    for (int j = 1; j <= PROBES; j++) {
+                        probes.add((int) (low[i] + width * j / (PROBES + 1)));
+                    }
+                }
+            }
+            if (probes.isEmpty()) {
+                break;
+            }
+            Map<Integer, Object> cells = readCells(googleSheetsClient, spreadsheetId, range, column,
+                    new ArrayList<>(probes));
+            for (int i = 0; i < conditions.size(); i++) {
+                if (high[i] - low[i] > WINDOW
+                        && !narrow(conditions.get(i), probes.subSet(low[i], high[i]), cells, low, high, i)) {
+                    return null;
+                }
+            }
+        }
+
+        List<String> windows = new ArrayList<>();
+        for (int i = 0; i < conditions.size(); i++) {
+            if (low[i] < high[i]) {
+                windows.add(range.column(column, low[i], high[i]));
+            }
+        }
+        Map<String, List<List<Object>>> values = windows.isEmpty()
+                ? Map.of()
+                : googleSheetsClient.batchReadData(windows, spreadsheetId);
+        int[] result = high.clone();
+        for (int i = 0; i < conditions.size(); i++) {
+            if (low[i] >= high[i]) {
+                continue;
+            }
+            List<List<Object>> window = values.get(range.column(column, low[i], high[i]));
+            boolean found = false;
+            for (int index = low[i]; index < high[i]; index++) {
+                boolean matches = conditions.get(i).test(cellAt(window, index - low[i]));
+                if (matches && !found) {
+                    result[i] = index;
+                    found = true;
+                } else if (!matches && found) {
+                    return null;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Читает отдельные ячейки столбца одним запросом.
+     *
+     * @param googleSheetsClient клиент Google Sheets
+     * @param spreadsheetId      идентификатор гугл-таблицы
+     * @param range              диапазон листа
+     * @param column             столбец
+     * @param indexes            номера строк данных
+     * @return значения ячеек, где ключом является номер строки; пустые ячейки отсутствуют
+     * @throws IOException если запрос к Google Sheets API завершился ошибкой
+     */
+    private static Map<Integer, Object> readCells(GoogleSheetsClient googleSheetsClient, String spreadsheetId,
+                                                  SheetRange range, String column, List<Integer> indexes)
+            throws IOException {
+        List<String> cells = new ArrayList<>(indexes.size());
+        for (int index : indexes) {
+            cells.add(range.cell(column, index));
+        }
+        Map<String, List<List<Object>>> values = googleSheetsClient.batchReadData(cells, spreadsheetId);
+        Map<Integer, Object> result = new HashMap<>();
+        for (int i = 0; i < indexes.size(); i++) {
+            Object value = cellAt(values.get(cells.get(i)), 0);
+            if (value != null) {
+                result.put(indexes.get(i), value);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Сужает область поиска по прочитанным ячейкам-пробам: область начинается после последней пробы,
+     * для которой условие ложно, и заканчивается первой пробой, для которой оно истинно.
+     *
+     * @param condition условие области
+     * @param probes    номера строк проб внутри области по возрастанию
+     * @param cells     значения проб, где ключом является номер строки
+     * @param low       номера первых строк областей включительно
+     * @param high      номера строк после последних строк областей
+     * @param index     номер области
+     * @return false, если после пробы, для которой условие истинно, нашлась проба, для которой оно ложно
+     */
+    private static boolean narrow(Predicate<Object> condition, Iterable<Integer> probes, Map<Integer, Object> cells,
+                                  int[] low, int[] high, int index) {
+        boolean found = false;
+        for (int probe : probes) {
+            boolean matches = condition.test(cells.get(probe));
+            if (matches && !found) {
+                high[index] = probe;
+                found = true;
+            } else if (!matches && found) {
+                return false;
+            } else if (!found) {
+                low[index] = probe + 1;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Возвращает значение первого столбца строки или null, если ячейка пуста.
+     *
+     * @param values строки, прочитанные из гугл-таблицы, или null
+     * @param index  номер строки
+     */
+    private static Object cellAt(List<List<Object>> values, int index) {
+        if (values == null || index >= values.size() || values.get(index).isEmpty()) {
+            return null;
+        }
+        Object value = values.get(index).getFirst();
+        return isEmpty(value) ? null : value;
+    }
+
+    /**
+     * Проверяет, пуста ли ячейка.
+     *
+     * @param value значение ячейки или null
+     */
+    private static boolean isEmpty(Object value) {
+        return value == null || "".equals(value);
+    }
+}
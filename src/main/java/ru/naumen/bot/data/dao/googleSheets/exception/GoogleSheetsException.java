@@ -1,5 +1,6 @@
 package ru.naumen.bot.data.dao.googleSheets.exception;
 
+import ru.naumen.bot.client.GoogleSheetsUnavailableException;
 import ru.naumen.bot.exception.DaoException;
 
 /**
@@ -16,4 +17,16 @@ public class GoogleSheetsException extends DaoException {
         super(message, exception);
     }
 
+    /**
+     * Проверяет, вызвана ли ошибка временной недоступностью гугл-таблицы: перегрузкой или сбоем
+     * Google Sheets API, после которых запрос можно повторить позже
+     */
+    public boolean isTemporary() {
+        for (Throwable cause = getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof GoogleSheetsUnavailableException) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
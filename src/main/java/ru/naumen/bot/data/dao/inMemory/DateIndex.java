@@ -0,0 +1,158 @@
+package ru.naumen.bot.data.dao.inMemory;
+
+import java.util.Arrays;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Индекс записей журнала по дате.
+ *
+ * <p>Записи добавляются в журнал в порядке их появления, поэтому обычно уже упорядочены по дате,
+ * и диапазон находится двоичным поиском прямо по номерам записей. Если запись с более ранней
+ * датой добавлена после более поздней (например, при переносе данных из другого хранилища),
+ * индекс при первом запросе строит перестановку номеров записей, отсортированную по дате,
+ * и дальше вставляет в неё каждую добавленную запись, не сортируя журнал заново.
+ *
+ * <p>Класс не потокобезопасен, синхронизацию обеспечивает владелец журнала.
+ */
+public class DateIndex {
+
+    /**
+     * Признак того, что записи добавлялись в порядке неубывания даты
+     */
+    private boolean ordered = true;
+
+    /**
+     * Наибольшая дата среди добавленных записей в виде номера дня от эпохи
+     */
+    private int maxEpochDay = Integer.MIN_VALUE;
+
+    /**
+     * Номера записей, отсортированные по дате, или null, если перестановка ещё не построена.
+     * Массив может быть длиннее количества записей
+     */
+    private int[] sortedPositions;
+
+    /**
+     * Даты записей в порядке {@link #sortedPositions} в виде номеров дней от эпохи
+     */
+    private int[] sortedEpochDays;
+
+    /**
+     * Количество записей в перестановке
+     */
+    private int sortedSize;
+
+    /**
+     * Учитывает добавление записи в конец журнала. Если перестановка уже построена,
+     * запись вставляется в неё после записей с той же датой.
+     *
+     * @param epochDay дата записи в виде номера дня от эпохи
+     */
+    public void onAppend(int epochDay) {
+        if (ordered && epochDay >= maxEpochDay) {
+            maxEpochDay = epochDay;
+            return;
+        }
+        ordered = false;
+        if (sortedPositions == null) {
+            return;
+        }
+        if (sortedSize == sortedPositions.length) {
+            int capacity = Math.max(sortedSize * 2, 16);
+            sortedPositions = Arrays.copyOf(sortedPositions, capacity);
+            sortedEpochDays = Arrays.copyOf(sortedEpochDays, capacity);
+        }
+        int index = lowerBound(sortedSize, i -> sortedEpochDays[i], epochDay + 1);
+        System.arraycopy(sortedPositions, index, sortedPositions, index + 1, sortedSize - index);
+        System.arraycopy(sortedEpochDays, index, sortedEpochDays, index + 1, sortedSize - index);
+        sortedPositions[index] = sortedSize;
+        sortedEpochDays[index] = epochDay;
+        sortedSize++;
+    }
+
+    /**
+     * Сбрасывает индекс после очистки журнала.
+     */
+    public void onClear() {
+        ordered = true;
+        maxEpochDay = Integer.MIN_VALUE;
+        sortedPositions = null;
+        sortedEpochDays = null;
+        sortedSize = 0;
+    }
+
+    /**
+     * Возвращает номера записей с датой в диапазоне, упорядоченные по дате,
+     * а при равных датах по порядку добавления.
+     *
+     * @param size         количество записей в журнале
+     * @param epochDayOf   дата записи по её номеру в виде номера дня от эпохи
+     * @param fromEpochDay начало диапазона включительно
+     * @param toEpochDay   конец диапазона включительно
+     * @return номера записей журнала
+     */
+    public int[] range(int size, IntUnaryOperator epochDayOf, int fromEpochDay, int toEpochDay) {
+        IntUnaryOperator position = IntUnaryOperator.identity();
+        IntUnaryOperator epochDayAt = epochDayOf;
+        if (!ordered) {
+            sort(size, epochDayOf);
+            int[] positions = sortedPositions;
+            int[] epochDays = sortedEpochDays;
+            position = i -> positions[i];
+            epochDayAt = i -> epochDays[i];
+        }
+        int from = lowerBound(size, epochDayAt, fromEpochDay);
+        int to = lowerBound(size, epochDayAt, toEpochDay + 1);
+        int[] result = new int[Math.max(0, to - from)];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = position.applyAsInt(from + i);
+        }
+        return result;
+    }
+
+    /**
+     * Строит перестановку номеров записей, отсортированную по дате, если она ещё не построена.
+     *
+     * @param size       количество записей в журнале
+     * @param epochDayOf дата записи по её номеру
+     */
+    private void sort(int size, IntUnaryOperator epochDayOf) {
+        if (sortedPositions != null && sortedSize == size) {
+            return;
+        }
+        long[] keys = new long[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = ((long) epochDayOf.applyAsInt(i) << 32) | i;
+        }
+        Arrays.sort(keys);
+        sortedPositions = new int[size];
+        sortedEpochDays = new int[size];
+        for (int i = 0; i < size; i++) {
+            sortedPositions[i] = (int) keys[i];
+            sortedEpochDays[i] = (int) (keys[i] >> 32);
+        }
+        sortedSize = size;
+    }
+
+    /**
+     * Находит первое место, дата записи на котором не меньше заданной.
+     *
+     * @param size       количество записей
+     * @param epochDayAt дата записи по её месту в порядке дат
+     * @param epochDay   искомая дата
+     * @return место первой записи с датой не меньше заданной или size, если такой записи нет
+     */
+    private int lowerBound(int size, IntUnaryOperator epochDayAt, int epochDay) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (epochDayAt.applyAsInt(middle) < epochDay) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,354 @@
+package ru.naumen.bot.data.dao.inMemory;
+
+import ru.naumen.bot.data.entity.Expense;
+import ru.naumen.bot.data.enums.ExpenseCategory;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Журнал расходов одного чата в поколоночном представлении.
+ *
+ * <p>Вместо списка объектов {@link Expense} хранит каждое поле в отдельном массиве примитивов:
+ * суммы в копейках в {@code long[]}, даты в {@code int[]} как номер дня от эпохи, категории в {@code byte[]}
+ * как порядковый номер и описания в {@code int[]} как номер строки в пуле описаний журнала.
+ * Повторяющиеся описания ("такси", "кофе") хранятся один раз. Объекты {@link Expense}
+ * создаются только при чтении. Выборка за период выполняется через {@link DateIndex}
+ * и читает только расходы, попавшие в период. Суммы по категориям за каждый месяц
+ * поддерживаются при каждом изменении журнала, поэтому отчёт по категориям не зависит
+ * от длины истории.
+ *
+ * <p>Класс не потокобезопасен, синхронизацию обеспечивает владелец журнала.
+ */
+public class ExpenseLedger {
+
+    /**
+     * Начальная вместимость журнала
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * Все категории расходов в порядке их порядковых номеров
+     */
+    private static final ExpenseCategory[] CATEGORIES = ExpenseCategory.values();
+
+    /**
+     * Суммы расходов в копейках
+     */
+    private long[] amounts = new long[INITIAL_CAPACITY];
+
+    /**
+     * Даты расходов в виде номера дня от 1970-01-01
+     */
+    private int[] epochDays = new int[INITIAL_CAPACITY];
+
+    /**
+     * Порядковые номера категорий расходов
+     */
+    private byte[] categories = new byte[INITIAL_CAPACITY];
+
+    /**
+     * Номера описаний расходов в пуле {@link #descriptions}
+     */
+    private int[] descriptionIds = new int[INITIAL_CAPACITY];
+
+    /**
+     * Пул уникальных описаний
+     */
+    private final List<String> descriptions = new ArrayList<>();
+
+    /**
+     * Номера описаний в пуле, где ключом является описание
+     */
+    private final Map<String, Integer> descriptionIndex = new HashMap<>();
+
+    /**
+     * Индекс расходов по дате
+     */
+    private final DateIndex dateIndex = new DateIndex();
+
+    /**
+     * Суммы расходов по категориям, где ключом является месяц
+     */
+    private final Map<YearMonth, MonthlyTotals> monthlyTotals = new HashMap<>();
+
+    /**
+     * Количество расходов в журнале
+     */
+    private int size;
+
+    /**
+     * Добавляет расход в конец журнала.
+     *
+     * @param expense расход
+     */
+    public void add(Expense expense) {
+        ensureCapacity(size + 1);
+        write(size, expense);
+        size++;
+    }
+
+    /**
+     * Добавляет расходы в конец журнала.
+     *
+     * @param expenses список расходов
+     */
+    public void addAll(List<Expense> expenses) {
+        ensureCapacity(size + expenses.size());
+        for (Expense expense : expenses) {
+            write(size, expense);
+            size++;
+        }
+    }
+
+    /**
+     * Возвращает расход по его номеру в журнале.
+     *
+     * @param index номер расхода, начиная с 0
+     * @return новый объект расхода
+     */
+    public Expense get(int index) {
+        checkIndex(index);
+        return new Expense(descriptions.get(descriptionIds[index]), amounts[index],
+                CATEGORIES[categories[index]], LocalDate.ofEpochDay(epochDays[index]));
+    }
+
+    /**
+     * Возвращает расходы за период в порядке дат.
+     *
+     * @param from начальная дата периода включительно
+     * @param to   конечная дата периода включительно
+     * @return новый список расходов
+     */
+    public List<Expense> getRange(LocalDate from, LocalDate to) {
+        return getRange(from, to, null);
+    }
+
+    /**
+     * Возвращает расходы указанной категории за период в порядке дат.
+     *
+     * @param from     начальная дата периода включительно
+     * @param to       конечная дата периода включительно
+     * @param category категория расходов или null, если нужны расходы всех категорий
+     * @return новый список расходов
+     */
+    public List<Expense> getRange(LocalDate from, LocalDate to, ExpenseCategory category) {
+        int[] positions = dateIndex.range(size, i -> epochDays[i], toEpochDay(from), toEpochDay(to));
+        List<Expense> result = new ArrayList<>(positions.length);
+        for (int position : positions) {
+            if (category == null || categories[position] == category.ordinal()) {
+                result.add(get(position));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Изменяет категорию расхода.
+     *
+     * @param index    номер расхода, начиная с 0
+     * @param category новая категория
+     */
+    public void setCategory(int index, ExpenseCategory category) {
+        checkIndex(index);
+        MonthlyTotals totals = monthlyTotals.get(YearMonth.from(LocalDate.ofEpochDay(epochDays[index])));
+        totals.remove(categories[index], amounts[index]);
+        categories[index] = (byte) category.ordinal();
+        totals.add(categories[index], amounts[index]);
+    }
+
+    /**
+     * Возвращает суммы расходов по категориям за месяц.
+     *
+     * @param month месяц
+     * @return суммы расходов в копейках по категориям, в которых за месяц были расходы
+     */
+    public Map<ExpenseCategory, Long> getCategoryTotals(YearMonth month) {
+        Map<ExpenseCategory, Long> result = new EnumMap<>(ExpenseCategory.class);
+        MonthlyTotals totals = monthlyTotals.get(month);
+        if (totals != null) {
+            for (int ordinal = 0; ordinal < CATEGORIES.length; ordinal++) {
+                if (totals.counts[ordinal] > 0) {
+                    result.put(CATEGORIES[ordinal], totals.sums[ordinal]);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Возвращает не более {@code limit} расходов, добавленных перед последними {@code offset} расходами.
+     * Время работы не зависит от размера журнала.
+     *
+     * @param offset количество последних расходов, которые нужно пропустить
+     * @param limit  максимальное количество расходов
+     * @return новый список расходов в порядке добавления
+     */
+    public List<Expense> getLatest(int offset, int limit) {
+        int end = Math.max(size - offset, 0);
+        int start = Math.max(end - limit, 0);
+        List<Expense> result = new ArrayList<>(end - start);
+        for (int i = start; i < end; i++) {
+            result.add(get(i));
+        }
+        return result;
+    }
+
+    /**
+     * Возвращает все расходы журнала в порядке добавления.
+     *
+     * @return новый список расходов
+     */
+    public List<Expense> toList() {
+        List<Expense> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            result.add(get(i));
+        }
+        return result;
+    }
+
+    /**
+     * Возвращает количество расходов в журнале.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Проверяет, пуст ли журнал.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Удаляет все расходы и освобождает занятую память.
+     */
+    public void clear() {
+        amounts = new long[INITIAL_CAPACITY];
+        epochDays = new int[INITIAL_CAPACITY];
+        categories = new byte[INITIAL_CAPACITY];
+        descriptionIds = new int[INITIAL_CAPACITY];
+        descriptions.clear();
+        descriptionIndex.clear();
+        dateIndex.onClear();
+        monthlyTotals.clear();
+        size = 0;
+    }
+
+    /**
+     * Записывает поля расхода в массивы по указанному номеру.
+     *
+     * @param index   номер расхода
+     * @param expense расход
+     */
+    private void write(int index, Expense expense) {
+        amounts[index] = expense.getAmount();
+        epochDays[index] = Math.toIntExact(expense.getDate().toEpochDay());
+        categories[index] = (byte) expense.getCategory().ordinal();
+        descriptionIds[index] = intern(expense.getDescription());
+        dateIndex.onAppend(epochDays[index]);
+        monthlyTotals.computeIfAbsent(YearMonth.from(expense.getDate()), month -> new MonthlyTotals())
+                .add(categories[index], amounts[index]);
+    }
+
+    /**
+     * Преобразует границу периода в номер дня от эпохи, ограничивая его диапазоном int,
+     * чтобы можно было передавать {@link LocalDate#MIN} и {@link LocalDate#MAX}.
+     *
+     * @param date граница периода
+     * @return номер дня от эпохи
+     */
+    static int toEpochDay(LocalDate date) {
+        return Math.clamp(date.toEpochDay(), Integer.MIN_VALUE, Integer.MAX_VALUE - 1);
+    }
+
+    /**
+     * Возвращает номер описания в пуле, добавляя его при первом появлении.
+     *
+     * @param description описание расхода
+     * @return номер описания в пуле
+     */
+    private int intern(String description) {
+        Integer id = descriptionIndex.get(description);
+        if (id == null) {
+            id = descriptions.size();
+            descriptions.add(description);
+            descriptionIndex.put(description, id);
+        }
+        return id;
+    }
+
+    /**
+     * Увеличивает массивы, если в них не помещается указанное количество расходов.
+     * Вместимость растёт в полтора раза, чтобы добавление оставалось амортизированно постоянным.
+     *
+     * @param minCapacity требуемая вместимость
+     */
+    private void ensureCapacity(int minCapacity) {
+        if (minCapacity <= amounts.length) {
+            return;
+        }
+        int newCapacity = Math.max(minCapacity, amounts.length + (amounts.length >> 1));
+        amounts = Arrays.copyOf(amounts, newCapacity);
+        epochDays = Arrays.copyOf(epochDays, newCapacity);
+        categories = Arrays.copyOf(categories, newCapacity);
+        descriptionIds = Arrays.copyOf(descriptionIds, newCapacity);
+    }
+
+    /**
+     * Проверяет, что номер расхода находится в пределах журнала.
+     *
+     * @param index номер расхода
+     */
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+        }
+    }
+
+    /**
+     * Суммы и количество расходов по категориям за один месяц,
+     * где номер элемента массива равен порядковому номеру категории.
+     */
+    private static class MonthlyTotals {
+
+        /**
+         * Суммы расходов в копейках по категориям
+         */
+        private final long[] sums = new long[CATEGORIES.length];
+
+        /**
+         * Количество расходов по категориям
+         */
+        private final int[] counts = new int[CATEGORIES.length];
+
+        /**
+         * Учитывает расход в сумме категории.
+         *
+         * @param category порядковый номер категории
+         * @param amount   сумма расхода
+         */
+        private void add(int category, long amount) {
+            sums[category] += amount;
+            counts[category]++;
+        }
+
+        /**
+         * Исключает расход из суммы категории.
+         *
+         * @param category порядковый номер категории
+         * @param amount   сумма расхода
+         */
+        private void remove(int category, long amount) {
+            counts[category]--;
+            sums[category] -= amount;
+        }
+    }
+}
@@ -2,37 +2,88 @@ package ru.naumen.bot.data.dao.inMemory;
 
 import org.springframework.stereotype.Component;
 import ru.naumen.bot.data.dao.BalanceDao;
+import ru.naumen.bot.data.journal.Journal;
+import ru.naumen.bot.data.journal.JournalParticipant;
+import ru.naumen.bot.data.journal.JournalRecord;
+import ru.naumen.bot.data.journal.JournalRecord.BalanceSet;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.LongPredicate;
 
 /**
  * Класс, предоставляющий функционал для установки и вывода баланса.
  *
- * <p>Использует HashMap для хранения балансов пользователей, где ключом
- * является идентификатор чата, а значением — текущий баланс.
+ * <p>Использует ConcurrentHashMap для хранения балансов пользователей, где ключом
+ * является идентификатор чата, а значением — текущий баланс в копейках. Баланс чата хранится
+ * в изменяемом {@link AtomicLong}, поэтому его изменение не создаёт новых объектов. Каждое изменение
+ * записывается в {@link Journal} и восстанавливается из него после перезапуска.
  */
 @Component
-public class InMemoryBalanceDao implements BalanceDao {
+public class InMemoryBalanceDao implements BalanceDao, JournalParticipant {
 
     /**
      * Хранилище для балансов пользователей, где ключом является идентификатор
-     * пользователя, а значением - текущий баланс.
+     * пользователя, а значением - текущий баланс в копейках.
      */
-    private final Map<Long, Double> usersBalance = new HashMap<>();
+    private final Map<Long, AtomicLong> usersBalance = new ConcurrentHashMap<>();
+
+    /**
+     * Журнал изменений балансов
+     */
+    private final Journal journal;
+
+    /**
+     * Конструктор InMemoryBalanceDao
+     *
+     * @param journal журнал изменений балансов
+     */
+    public InMemoryBalanceDao(Journal journal) {
+        this.journal = journal;
+    }
 
     @Override
-    public void setBalance(long chatId, double newBalance) {
-        usersBalance.put(chatId, newBalance);
+    public void setBalance(long chatId, long newBalance) {
+        journal.write(new BalanceSet(chatId, newBalance), () -> balanceOf(chatId).set(newBalance));
     }
 
     @Override
-    public Double getBalance(long chatId) {
-        return usersBalance.getOrDefault(chatId, 0.0);
+    public long getBalance(long chatId) {
+        AtomicLong balance = usersBalance.get(chatId);
+        return balance == null ? 0 : balance.get();
     }
 
     @Override
     public void removeBalance(long chatId) {
-        usersBalance.put(chatId, 0.0);
+        setBalance(chatId, 0);
+    }
+
+    @Override
+    public boolean apply(JournalRecord record) {
+        if (record instanceof BalanceSet balanceSet) {
+            balanceOf(balanceSet.chatId()).set(balanceSet.balance());
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void snapshot(LongPredicate chats, Consumer<JournalRecord> consumer) {
+        usersBalance.forEach((chatId, balance) -> {
+            if (chats.test(chatId)) {
+                consumer.accept(new BalanceSet(chatId, balance.get()));
+            }
+        });
+    }
+
+    /**
+     * Возвращает баланс чата, создавая нулевой баланс при первом обращении.
+     *
+     * @param chatId идентификатор чата
+     */
+    private AtomicLong balanceOf(long chatId) {
+        return usersBalance.computeIfAbsent(chatId, id -> new AtomicLong());
     }
-}
\ No newline at end of file
+}
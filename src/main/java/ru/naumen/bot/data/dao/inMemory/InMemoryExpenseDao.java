@@ -4,58 +4,220 @@ import org.springframework.stereotype.Component;
 import ru.naumen.bot.data.dao.ExpenseDao;
 import ru.naumen.bot.data.entity.Expense;
 import ru.naumen.bot.data.enums.ExpenseCategory;
+import ru.naumen.bot.data.journal.Journal;
+import ru.naumen.bot.data.journal.JournalParticipant;
+import ru.naumen.bot.data.journal.JournalRecord;
+import ru.naumen.bot.data.journal.JournalRecord.ExpenseAdded;
+import ru.naumen.bot.data.journal.JournalRecord.ExpensesCreated;
+import ru.naumen.bot.data.journal.JournalRecord.ExpensesRemoved;
+import ru.naumen.bot.data.journal.JournalRecord.LastExpenseCategorySet;
 
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.LongPredicate;
 
 /**
  * Класс, предоставляющий функционал для управления данными о расходах пользователей в памяти.
  *
- * <p>Использует HashMap для хранения расходов пользователей, где ключом
- * является идентификатор чата, а значением — список расходов.
+ * <p>Использует ConcurrentHashMap для хранения расходов пользователей, где ключом
+ * является идентификатор чата, а значением — поколоночный журнал расходов {@link ExpenseLedger}.
+ * Журнал чата изменяется только при удерживаемом мониторе самого журнала, а наружу отдаются
+ * новые объекты расходов, поэтому чтение безопасно при параллельной записи из других потоков.
+ * Каждое изменение записывается в {@link Journal} и восстанавливается из него после перезапуска.
  */
 @Component
-public class InMemoryExpenseDao implements ExpenseDao {
+public class InMemoryExpenseDao implements ExpenseDao, JournalParticipant {
 
     /**
      * Хранилище для расходов пользователей, где ключом является идентификатор
-     * чата, а значением — список объектов {@link Expense}.
+     * чата, а значением — журнал расходов {@link ExpenseLedger}.
      */
-    private final Map<Long, List<Expense>> usersExpenses = new HashMap<>();
+    private final Map<Long, ExpenseLedger> usersExpenses = new ConcurrentHashMap<>();
+
+    /**
+     * Журнал изменений расходов
+     */
+    private final Journal journal;
+
+    /**
+     * Конструктор InMemoryExpenseDao
+     *
+     * @param journal журнал изменений расходов
+     */
+    public InMemoryExpenseDao(Journal journal) {
+        this.journal = journal;
+    }
 
     @Override
     public List<Expense> getExpenses(long chatId) {
-        return usersExpenses.get(chatId);
+        ExpenseLedger ledger = usersExpenses.get(chatId);
+        if (ledger == null) {
+            return null;
+        }
+        synchronized (ledger) {
+            return ledger.toList();
+        }
+    }
+
+    @Override
+    public List<Expense> getLatestExpenses(long chatId, int offset, int limit) {
+        ExpenseLedger ledger = usersExpenses.get(chatId);
+        if (ledger == null) {
+            return List.of();
+        }
+        synchronized (ledger) {
+            return ledger.getLatest(offset, limit);
+        }
+    }
+
+    @Override
+    public int countExpenses(long chatId) {
+        ExpenseLedger ledger = usersExpenses.get(chatId);
+        if (ledger == null) {
+            return 0;
+        }
+        synchronized (ledger) {
+            return ledger.size();
+        }
+    }
+
+    @Override
+    public List<Expense> getExpensesChunk(long chatId, int start, int count) {
+        ExpenseLedger ledger = usersExpenses.get(chatId);
+        if (ledger == null) {
+            return List.of();
+        }
+        synchronized (ledger) {
+            int end = Math.min(start + count, ledger.size());
+            return ledger.getLatest(ledger.size() - end, end - Math.min(start, end));
+        }
+    }
+
+    @Override
+    public List<Expense> getExpenses(long chatId, LocalDate from, LocalDate to) {
+        ExpenseLedger ledger = usersExpenses.get(chatId);
+        if (ledger == null) {
+            return List.of();
+        }
+        synchronized (ledger) {
+            return ledger.getRange(from, to);
+        }
+    }
+
+    @Override
+    public List<Expense> getExpenses(long chatId, LocalDate from, LocalDate to, ExpenseCategory category) {
+        ExpenseLedger ledger = usersExpenses.get(chatId);
+        if (ledger == null) {
+            return List.of();
+        }
+        synchronized (ledger) {
+            return ledger.getRange(from, to, category);
+        }
+    }
+
+    @Override
+    public Map<ExpenseCategory, Long> getCategoryTotals(long chatId, YearMonth month) {
+        ExpenseLedger ledger = usersExpenses.get(chatId);
+        if (ledger == null) {
+            return Map.of();
+        }
+        synchronized (ledger) {
+            return ledger.getCategoryTotals(month);
+        }
     }
 
     @Override
     public void addExpense(long chatId, Expense newExpense) {
-        usersExpenses.get(chatId).add(newExpense);
+        ExpenseLedger ledger = usersExpenses.get(chatId);
+        journal.write(new ExpenseAdded(chatId, newExpense), () -> {
+            synchronized (ledger) {
+                ledger.add(newExpense);
+            }
+        });
     }
 
     @Override
     public void addExpenses(long chatId, List<Expense> expenses) {
-        usersExpenses.get(chatId).addAll(expenses);
+        for (Expense expense : expenses) {
+            addExpense(chatId, expense);
+        }
     }
 
     @Override
     public void removeExpenses(long chatId) {
-        usersExpenses.get(chatId).clear();
+        ExpenseLedger ledger = usersExpenses.get(chatId);
+        journal.write(new ExpensesRemoved(chatId), () -> {
+            synchronized (ledger) {
+                ledger.clear();
+            }
+        });
     }
 
     @Override
     public void setLastExpenseCategory(long chatId, ExpenseCategory newCategory) {
-        usersExpenses.get(chatId).getLast().setCategory(newCategory);
+        ExpenseLedger ledger = usersExpenses.get(chatId);
+        journal.write(new LastExpenseCategorySet(chatId, newCategory), () -> {
+            synchronized (ledger) {
+                setLastCategory(ledger, newCategory);
+            }
+        });
     }
 
     /**
-     * Создает новый список расходов для указанного идентификатора чата.
+     * Создает новый журнал расходов для указанного идентификатора чата.
      *
-     * @param chatId идентификатор чата, для которого необходимо создать список расходов.
+     * @param chatId идентификатор чата, для которого необходимо создать журнал расходов.
      */
     public void createUserList(long chatId) {
-        usersExpenses.put(chatId, new ArrayList<>());
+        journal.write(new ExpensesCreated(chatId), () -> usersExpenses.put(chatId, new ExpenseLedger()));
+    }
+
+    @Override
+    public boolean apply(JournalRecord record) {
+        switch (record) {
+            case ExpensesCreated created -> usersExpenses.put(created.chatId(), new ExpenseLedger());
+            case ExpenseAdded added -> usersExpenses.get(added.chatId()).add(added.expense());
+            case LastExpenseCategorySet categorySet ->
+                    setLastCategory(usersExpenses.get(categorySet.chatId()), categorySet.category());
+            case ExpensesRemoved removed -> usersExpenses.get(removed.chatId()).clear();
+            default -> {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void snapshot(LongPredicate chats, Consumer<JournalRecord> consumer) {
+        usersExpenses.forEach((chatId, ledger) -> {
+            if (!chats.test(chatId)) {
+                return;
+            }
+            consumer.accept(new ExpensesCreated(chatId));
+            synchronized (ledger) {
+                for (int i = 0; i < ledger.size(); i++) {
+                    consumer.accept(new ExpenseAdded(chatId, ledger.get(i)));
+                }
+            }
+        });
+    }
+
+    /**
+     * Изменяет категорию последнего расхода в журнале.
+     *
+     * @param ledger      журнал расходов чата
+     * @param newCategory новая категория
+     * @throws NoSuchElementException если в журнале нет расходов
+     */
+    private void setLastCategory(ExpenseLedger ledger, ExpenseCategory newCategory) {
+        if (ledger.isEmpty()) {
+            throw new NoSuchElementException();
+        }
+        ledger.setCategory(ledger.size() - 1, newCategory);
     }
 }
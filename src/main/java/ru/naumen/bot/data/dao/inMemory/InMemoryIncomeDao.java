@@ -3,53 +3,168 @@ package ru.naumen.bot.data.dao.inMemory;
 import org.springframework.stereotype.Component;
 import ru.naumen.bot.data.dao.IncomeDao;
 import ru.naumen.bot.data.entity.Income;
+import ru.naumen.bot.data.journal.Journal;
+import ru.naumen.bot.data.journal.JournalParticipant;
+import ru.naumen.bot.data.journal.JournalRecord;
+import ru.naumen.bot.data.journal.JournalRecord.IncomeAdded;
+import ru.naumen.bot.data.journal.JournalRecord.IncomesCreated;
+import ru.naumen.bot.data.journal.JournalRecord.IncomesRemoved;
 
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.LongPredicate;
 
 /**
  * Класс, предоставляющий функционал для управления данными о доходах пользователей в памяти.
  *
- * <p>Использует HashMap для хранения доходов пользователей, где ключом
- * является идентификатор чата, а значением — список доходов.
+ * <p>Использует ConcurrentHashMap для хранения доходов пользователей, где ключом
+ * является идентификатор чата, а значением — журнал доходов {@link IncomeLedger}. Журнал чата изменяется
+ * только при удерживаемом мониторе самого журнала, а наружу отдаются копии списков.
+ * Каждое изменение записывается в {@link Journal} и восстанавливается из него после перезапуска.
  */
 @Component
-public class InMemoryIncomeDao implements IncomeDao {
+public class InMemoryIncomeDao implements IncomeDao, JournalParticipant {
 
     /**
      * Хранилище для доходов пользователей, где ключом является идентификатор
-     * чата, а значением — список объектов {@link Income}.
+     * чата, а значением — журнал доходов {@link IncomeLedger}.
      */
-    private final Map<Long, List<Income>> usersIncomes = new HashMap<>();
+    private final Map<Long, IncomeLedger> usersIncomes = new ConcurrentHashMap<>();
+
+    /**
+     * Журнал изменений доходов
+     */
+    private final Journal journal;
+
+    /**
+     * Конструктор InMemoryIncomeDao
+     *
+     * @param journal журнал изменений доходов
+     */
+    public InMemoryIncomeDao(Journal journal) {
+        this.journal = journal;
+    }
 
     @Override
     public List<Income> getIncomes(long chatId) {
-        return usersIncomes.get(chatId);
+        IncomeLedger ledger = usersIncomes.get(chatId);
+        if (ledger == null) {
+            return null;
+        }
+        synchronized (ledger) {
+            return ledger.toList();
+        }
+    }
+
+    @Override
+    public List<Income> getLatestIncomes(long chatId, int offset, int limit) {
+        IncomeLedger ledger = usersIncomes.get(chatId);
+        if (ledger == null) {
+            return List.of();
+        }
+        synchronized (ledger) {
+            return ledger.getLatest(offset, limit);
+        }
+    }
+
+    @Override
+    public int countIncomes(long chatId) {
+        IncomeLedger ledger = usersIncomes.get(chatId);
+        if (ledger == null) {
+            return 0;
+        }
+        synchronized (ledger) {
+            return ledger.size();
+        }
+    }
+
+    @Override
+    public List<Income> getIncomesChunk(long chatId, int start, int count) {
+        IncomeLedger ledger = usersIncomes.get(chatId);
+        if (ledger == null) {
+            return List.of();
+        }
+        synchronized (ledger) {
+            int end = Math.min(start + count, ledger.size());
+            return ledger.getLatest(ledger.size() - end, end - Math.min(start, end));
+        }
+    }
+
+    @Override
+    public List<Income> getIncomes(long chatId, LocalDate from, LocalDate to) {
+        IncomeLedger ledger = usersIncomes.get(chatId);
+        if (ledger == null) {
+            return List.of();
+        }
+        synchronized (ledger) {
+            return ledger.getRange(from, to);
+        }
     }
 
     @Override
     public void addIncome(long chatId, Income newIncome) {
-        usersIncomes.get(chatId).add(newIncome);
+        IncomeLedger ledger = usersIncomes.get(chatId);
+        journal.write(new IncomeAdded(chatId, newIncome), () -> {
+            synchronized (ledger) {
+                ledger.add(newIncome);
+            }
+        });
     }
 
     @Override
     public void addIncomes(long chatId, List<Income> incomes) {
-        usersIncomes.get(chatId).addAll(incomes);
+        for (Income income : incomes) {
+            addIncome(chatId, income);
+        }
     }
 
     @Override
     public void removeIncomes(long chatId) {
-        usersIncomes.get(chatId).clear();
+        IncomeLedger ledger = usersIncomes.get(chatId);
+        journal.write(new IncomesRemoved(chatId), () -> {
+            synchronized (ledger) {
+                ledger.clear();
+            }
+        });
     }
 
     /**
-     * Создает новый список доходов для указанного идентификатора чата.
+     * Создает новый журнал доходов для указанного идентификатора чата.
      *
-     * @param chatId идентификатор чата, для которого необходимо создать список доходов.
+     * @param chatId идентификатор чата, для которого необходимо создать журнал доходов.
      */
     public void createUserList(long chatId) {
-        usersIncomes.put(chatId, new ArrayList<>());
+        journal.write(new IncomesCreated(chatId), () -> usersIncomes.put(chatId, new IncomeLedger()));
+    }
+
+    @Override
+    public boolean apply(JournalRecord record) {
+        switch (record) {
+            case IncomesCreated created -> usersIncomes.put(created.chatId(), new IncomeLedger());
+            case IncomeAdded added -> usersIncomes.get(added.chatId()).add(added.income());
+            case IncomesRemoved removed -> usersIncomes.get(removed.chatId()).clear();
+            default -> {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void snapshot(LongPredicate chats, Consumer<JournalRecord> consumer) {
+        usersIncomes.forEach((chatId, ledger) -> {
+            if (!chats.test(chatId)) {
+                return;
+            }
+            consumer.accept(new IncomesCreated(chatId));
+            synchronized (ledger) {
+                for (Income income : ledger.toList()) {
+                    consumer.accept(new IncomeAdded(chatId, income));
+                }
+            }
+        });
     }
 }
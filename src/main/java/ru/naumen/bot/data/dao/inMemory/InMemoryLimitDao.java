@@ -3,34 +3,101 @@ package ru.naumen.bot.data.dao.inMemory;
 import org.springframework.stereotype.Component;
 import ru.naumen.bot.data.dao.LimitDao;
 import ru.naumen.bot.data.entity.Limit;
+import ru.naumen.bot.data.journal.Journal;
+import ru.naumen.bot.data.journal.JournalParticipant;
+import ru.naumen.bot.data.journal.JournalRecord;
+import ru.naumen.bot.data.journal.JournalRecord.LimitRemoved;
+import ru.naumen.bot.data.journal.JournalRecord.LimitSet;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.LongPredicate;
 
 /**
  * Класс для управления лимитами пользователей в памяти.
+ *
+ * <p>Каждая установка и удаление лимита записывается в {@link Journal} со значениями лимита
+ * на момент записи и восстанавливается из него после перезапуска.
  */
 @Component
-public class InMemoryLimitDao implements LimitDao {
+public class InMemoryLimitDao implements LimitDao, JournalParticipant {
 
     /**
      * Хранилище для лимитов пользователей, где ключом является идентификатор
      * пользователя, а значением - текущий лимит.
      */
-    private final Map<Long, Limit> usersLimit = new HashMap<>();
+    private final Map<Long, Limit> usersLimit = new ConcurrentHashMap<>();
+
+    /**
+     * Журнал изменений лимитов
+     */
+    private final Journal journal;
+
+    /**
+     * Конструктор InMemoryLimitDao
+     *
+     * @param journal журнал изменений лимитов
+     */
+    public InMemoryLimitDao(Journal journal) {
+        this.journal = journal;
+    }
 
     @Override
     public void setLimit(long chatId, Limit limit) {
-        usersLimit.put(chatId, limit);
+        // При переносе данных из другого хранилища лимита может не быть
+        if (limit == null) {
+            removeLimit(chatId);
+            return;
+        }
+        journal.write(new LimitSet(chatId, limit.getDailyLimit(), limit.getDailyExpensesSum()),
+                () -> usersLimit.put(chatId, limit));
     }
 
     @Override
     public void removeLimit(long chatId) {
-        usersLimit.remove(chatId);
+        journal.write(new LimitRemoved(chatId), () -> usersLimit.remove(chatId));
     }
 
     @Override
     public Limit getLimit(long chatId) {
         return usersLimit.get(chatId);
     }
+
+    /**
+     * Обнуляет сумму расходов за день, если для чата установлен лимит и сумма не равна нулю.
+     *
+     * @param chatId идентификатор чата
+     * @return true, если сумма была обнулена
+     */
+    public boolean resetDailyExpensesSum(long chatId) {
+        Limit limit = usersLimit.get(chatId);
+        if (limit == null || limit.getDailyExpensesSum() == 0) {
+            return false;
+        }
+        setLimit(chatId, new Limit(limit.getDailyLimit(), 0));
+        return true;
+    }
+
+    @Override
+    public boolean apply(JournalRecord record) {
+        switch (record) {
+            case LimitSet limitSet -> usersLimit.put(limitSet.chatId(),
+                    new Limit(limitSet.dailyLimit(), limitSet.dailyExpensesSum()));
+            case LimitRemoved limitRemoved -> usersLimit.remove(limitRemoved.chatId());
+            default -> {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void snapshot(LongPredicate chats, Consumer<JournalRecord> consumer) {
+        usersLimit.forEach((chatId, limit) -> {
+            if (chats.test(chatId)) {
+                consumer.accept(new LimitSet(chatId, limit.getDailyLimit(), limit.getDailyExpensesSum()));
+            }
+        });
+    }
 }
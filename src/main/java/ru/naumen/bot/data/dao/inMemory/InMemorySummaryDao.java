@@ -0,0 +1,47 @@
+package ru.naumen.bot.data.dao.inMemory;
+
+import org.springframework.stereotype.Component;
+import ru.naumen.bot.data.dao.SummaryDao;
+import ru.naumen.bot.data.entity.Summary;
+
+/**
+ * Класс для чтения и записи баланса и лимита пользователя, хранящихся в памяти.
+ * Данные хранятся в {@link InMemoryBalanceDao} и {@link InMemoryLimitDao}.
+ */
+@Component
+public class InMemorySummaryDao implements SummaryDao {
+
+    /**
+     * DAO балансов в памяти
+     */
+    private final InMemoryBalanceDao inMemoryBalanceDao;
+
+    /**
+     * DAO лимитов в памяти
+     */
+    private final InMemoryLimitDao inMemoryLimitDao;
+
+    /**
+     * Конструктор InMemorySummaryDao
+     *
+     * @param inMemoryBalanceDao DAO балансов в памяти
+     * @param inMemoryLimitDao   DAO лимитов в памяти
+     */
+    public InMemorySummaryDao(InMemoryBalanceDao inMemoryBalanceDao, InMemoryLimitDao inMemoryLimitDao) {
+        this.inMemoryBalanceDao = inMemoryBalanceDao;
+        this.inMemoryLimitDao = inMemoryLimitDao;
+    }
+
+    @Override
+    public Summary getSummary(long chatId) {
+        return new Summary(inMemoryBalanceDao.getBalance(chatId), inMemoryLimitDao.getLimit(chatId));
+    }
+
+    @Override
+    public void setSummary(long chatId, Summary summary) {
+        inMemoryBalanceDao.setBalance(chatId, summary.balance());
+        if (summary.limit() != null) {
+            inMemoryLimitDao.setLimit(chatId, summary.limit());
+        }
+    }
+}
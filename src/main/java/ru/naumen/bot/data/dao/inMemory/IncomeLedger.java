@@ -0,0 +1,100 @@
+package ru.naumen.bot.data.dao.inMemory;
+
+import ru.naumen.bot.data.entity.Income;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Журнал доходов одного чата с индексом по дате.
+ *
+ * <p>Класс не потокобезопасен, синхронизацию обеспечивает владелец журнала.
+ */
+public class IncomeLedger {
+
+    /**
+     * Доходы в порядке добавления
+     */
+    private final List<Income> incomes = new ArrayList<>();
+
+    /**
+     * Индекс доходов по дате
+     */
+    private final DateIndex dateIndex = new DateIndex();
+
+    /**
+     * Добавляет доход в конец журнала.
+     *
+     * @param income доход
+     */
+    public void add(Income income) {
+        incomes.add(income);
+        dateIndex.onAppend(Math.toIntExact(income.date().toEpochDay()));
+    }
+
+    /**
+     * Добавляет доходы в конец журнала.
+     *
+     * @param newIncomes список доходов
+     */
+    public void addAll(List<Income> newIncomes) {
+        for (Income income : newIncomes) {
+            add(income);
+        }
+    }
+
+    /**
+     * Возвращает доходы за период в порядке дат.
+     *
+     * @param from начальная дата периода включительно
+     * @param to   конечная дата периода включительно
+     * @return новый список доходов
+     */
+    public List<Income> getRange(LocalDate from, LocalDate to) {
+        int[] positions = dateIndex.range(incomes.size(), i -> (int) incomes.get(i).date().toEpochDay(),
+                ExpenseLedger.toEpochDay(from), ExpenseLedger.toEpochDay(to));
+        List<Income> result = new ArrayList<>(positions.length);
+        for (int position : positions) {
+            result.add(incomes.get(position));
+        }
+        return result;
+    }
+
+    /**
+     * Возвращает не более {@code limit} доходов, добавленных перед последними {@code offset} доходами.
+     * Время работы не зависит от размера журнала.
+     *
+     * @param offset количество последних доходов, которые нужно пропустить
+     * @param limit  максимальное количество доходов
+     * @return новый список доходов в порядке добавления
+     */
+    public List<Income> getLatest(int offset, int limit) {
+        int end = Math.max(incomes.size() - offset, 0);
+        return new ArrayList<>(incomes.subList(Math.max(end - limit, 0), end));
+    }
+
+    /**
+     * Возвращает все доходы журнала в порядке добавления.
+     *
+     * @return новый список доходов
+     */
+    public List<Income> toList() {
+        return new ArrayList<>(incomes);
+    }
+
+    /**
+     * Возвращает количество доходов в журнале.
+     */
+    public int size() {
+        return incomes.size();
+    }
+
+    /**
+     * Удаляет все доходы.
+     */
+    public void clear() {
+        incomes.clear();
+        dateIndex.onClear();
+    }
+}
@@ -6,6 +6,7 @@ import ru.naumen.bot.data.dao.UserDao;
 import ru.naumen.bot.data.dao.googleSheets.GoogleSheetsBalanceDao;
 import ru.naumen.bot.data.dao.inMemory.InMemoryBalanceDao;
 import ru.naumen.bot.data.enums.DataType;
+import ru.naumen.bot.utils.metrics.BotMetrics;
 
 /**
  * Класс предоставляет доступ к DAO-объектам для работы с балансом пользователя.
@@ -16,12 +17,12 @@ public class BalanceDaoProvider {
     /**
      * Экземпляр DAO, использующий Google Sheets для хранения баланса.
      */
-    private final GoogleSheetsBalanceDao googleSheetsBalanceDao;
+    private final BalanceDao googleSheetsBalanceDao;
 
     /**
      * Экземпляр DAO, использующий память для хранения баланса.
      */
-    private final InMemoryBalanceDao inMemoryBalanceDao;
+    private final BalanceDao inMemoryBalanceDao;
 
     /**
      * Экземпляр DAO для получения информации о пользователе.
@@ -34,11 +35,14 @@ public class BalanceDaoProvider {
      * @param googleSheetsBalanceDao Экземпляр DAO для работы с Google Sheets.
      * @param inMemoryBalanceDao     Экземпляр DAO для работы с памятью.
      * @param userDao                Экземпляр DAO для получения информации о пользователе.
+     * @param botMetrics             Метрики, в которые записывается время вызовов DAO.
      */
     public BalanceDaoProvider(GoogleSheetsBalanceDao googleSheetsBalanceDao,
-                              InMemoryBalanceDao inMemoryBalanceDao, UserDao userDao) {
-        this.googleSheetsBalanceDao = googleSheetsBalanceDao;
-        this.inMemoryBalanceDao = inMemoryBalanceDao;
+                              InMemoryBalanceDao inMemoryBalanceDao, UserDao userDao,
+                              BotMetrics botMetrics) {
+        this.googleSheetsBalanceDao = botMetrics.instrument(BalanceDao.class, googleSheetsBalanceDao,
+                DataType.IN_GOOGLE_SHEET);
+        this.inMemoryBalanceDao = botMetrics.instrument(BalanceDao.class, inMemoryBalanceDao, DataType.IN_MEMORY);
         this.userDao = userDao;
     }
 
@@ -49,9 +53,18 @@ public class BalanceDaoProvider {
      * @return InMemoryBalanceDao, если DataType пользователя равен IN_MEMORY, иначе GoogleSheetsBalanceDao.
      */
     public BalanceDao getBalanceDaoForUser(long chatId) {
-        return userDao.getDataType(chatId).equals(DataType.IN_MEMORY)
+        return getBalanceDao(userDao.getDataType(chatId));
+    }
+
+    /**
+     * Возвращает DAO для работы с балансом в указанном хранилище, например, для переноса данных между хранилищами.
+     *
+     * @param dataType тип хранилища
+     * @return InMemoryBalanceDao для IN_MEMORY, иначе GoogleSheetsBalanceDao.
+     */
+    public BalanceDao getBalanceDao(DataType dataType) {
+        return dataType.equals(DataType.IN_MEMORY)
                 ? inMemoryBalanceDao
                 : googleSheetsBalanceDao;
-
     }
 }
@@ -6,6 +6,7 @@ import ru.naumen.bot.data.dao.UserDao;
 import ru.naumen.bot.data.dao.googleSheets.GoogleSheetsExpenseDao;
 import ru.naumen.bot.data.dao.inMemory.InMemoryExpenseDao;
 import ru.naumen.bot.data.enums.DataType;
+import ru.naumen.bot.utils.metrics.BotMetrics;
 
 /**
  * Класс предоставляет доступ к DAO-объектам для работы с расходами пользователя.
@@ -16,12 +17,12 @@ public class ExpenseDaoProvider {
     /**
      * Экземпляр DAO, использующий Google Sheets для хранения расходов.
      */
-    private final GoogleSheetsExpenseDao googleSheetsExpenseDao;
+    private final ExpenseDao googleSheetsExpenseDao;
 
     /**
      * Экземпляр DAO, использующий память для хранения расходов.
      */
-    private final InMemoryExpenseDao inMemoryExpenseDao;
+    private final ExpenseDao inMemoryExpenseDao;
 
     /**
      * Экземпляр DAO для получения информации о пользователе.
@@ -34,11 +35,14 @@ public class ExpenseDaoProvider {
      * @param googleSheetsExpenseDao Экземпляр DAO для работы с Google Sheets.
      * @param inMemoryExpenseDao     Экземпляр DAO для работы с памятью.
      * @param userDao                Экземпляр DAO для получения информации о пользователе.
+     * @param botMetrics             Метрики, в которые записывается время вызовов DAO.
      */
     public ExpenseDaoProvider(GoogleSheetsExpenseDao googleSheetsExpenseDao,
-                              InMemoryExpenseDao inMemoryExpenseDao, UserDao userDao) {
-        this.googleSheetsExpenseDao = googleSheetsExpenseDao;
-        this.inMemoryExpenseDao = inMemoryExpenseDao;
+                              InMemoryExpenseDao inMemoryExpenseDao, UserDao userDao,
+                              BotMetrics botMetrics) {
+        this.googleSheetsExpenseDao = botMetrics.instrument(ExpenseDao.class, googleSheetsExpenseDao,
+                DataType.IN_GOOGLE_SHEET);
+        this.inMemoryExpenseDao = botMetrics.instrument(ExpenseDao.class, inMemoryExpenseDao, DataType.IN_MEMORY);
         this.userDao = userDao;
     }
 
@@ -49,7 +53,17 @@ public class ExpenseDaoProvider {
      * @return InMemoryExpenseDao, если DataType пользователя равен IN_MEMORY, иначе GoogleSheetsExpenseDao.
      */
     public ExpenseDao getExpenseDaoForUser(long chatId) {
-        return userDao.getDataType(chatId).equals(DataType.IN_MEMORY)
+        return getExpenseDao(userDao.getDataType(chatId));
+    }
+
+    /**
+     * Возвращает DAO для работы с расходами в указанном хранилище, например, для переноса данных между хранилищами.
+     *
+     * @param dataType тип хранилища
+     * @return InMemoryExpenseDao для IN_MEMORY, иначе GoogleSheetsExpenseDao.
+     */
+    public ExpenseDao getExpenseDao(DataType dataType) {
+        return dataType.equals(DataType.IN_MEMORY)
                 ? inMemoryExpenseDao
                 : googleSheetsExpenseDao;
     }
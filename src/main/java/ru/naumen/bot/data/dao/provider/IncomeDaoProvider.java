@@ -6,6 +6,7 @@ import ru.naumen.bot.data.dao.UserDao;
 import ru.naumen.bot.data.dao.googleSheets.GoogleSheetsIncomeDao;
 import ru.naumen.bot.data.dao.inMemory.InMemoryIncomeDao;
 import ru.naumen.bot.data.enums.DataType;
+import ru.naumen.bot.utils.metrics.BotMetrics;
 
 /**
  * Класс предоставляет доступ к DAO-объектам для работы с доходами пользователя.
@@ -16,12 +17,12 @@ public class IncomeDaoProvider {
     /**
      * Экземпляр DAO, использующий Google Sheets для хранения доходов.
      */
-    private final GoogleSheetsIncomeDao googleSheetsIncomeDao;
+    private final IncomeDao googleSheetsIncomeDao;
 
     /**
      * Экземпляр DAO, использующий память для хранения доходов.
      */
-    private final InMemoryIncomeDao inMemoryIncomeDao;
+    private final IncomeDao inMemoryIncomeDao;
 
     /**
      * Экземпляр DAO для получения информации о пользователе.
@@ -34,11 +35,14 @@ public class IncomeDaoProvider {
      * @param googleSheetsIncomeDao Экземпляр DAO для работы с Google Sheets.
      * @param inMemoryIncomeDao     Экземпляр DAO для работы с памятью.
      * @param userDao               Экземпляр DAO для получения информации о пользователе.
+     * @param botMetrics            Метрики, в которые записывается время вызовов DAO.
      */
     public IncomeDaoProvider(GoogleSheetsIncomeDao googleSheetsIncomeDao,
-                             InMemoryIncomeDao inMemoryIncomeDao, UserDao userDao) {
-        this.googleSheetsIncomeDao = googleSheetsIncomeDao;
-        this.inMemoryIncomeDao = inMemoryIncomeDao;
+                             InMemoryIncomeDao inMemoryIncomeDao, UserDao userDao,
+                             BotMetrics botMetrics) {
+        this.googleSheetsIncomeDao = botMetrics.instrument(IncomeDao.class, googleSheetsIncomeDao,
+                DataType.IN_GOOGLE_SHEET);
+        this.inMemoryIncomeDao = botMetrics.instrument(IncomeDao.class, inMemoryIncomeDao, DataType.IN_MEMORY);
         this.userDao = userDao;
     }
 
@@ -49,7 +53,17 @@ public class IncomeDaoProvider {
      * @return InMemoryIncomeDao, если DataType пользователя равен IN_MEMORY, иначе GoogleSheetsIncomeDao.
      */
     public IncomeDao getIncomeDaoForUser(long chatId) {
-        return userDao.getDataType(chatId).equals(DataType.IN_MEMORY)
+        return getIncomeDao(userDao.getDataType(chatId));
+    }
+
+    /**
+     * Возвращает DAO для работы с доходами в указанном хранилище, например, для переноса данных между хранилищами.
+     *
+     * @param dataType тип хранилища
+     * @return InMemoryIncomeDao для IN_MEMORY, иначе GoogleSheetsIncomeDao.
+     */
+    public IncomeDao getIncomeDao(DataType dataType) {
+        return dataType.equals(DataType.IN_MEMORY)
                 ? inMemoryIncomeDao
                 : googleSheetsIncomeDao;
     }
@@ -6,6 +6,7 @@ import ru.naumen.bot.data.dao.UserDao;
 import ru.naumen.bot.data.dao.googleSheets.GoogleSheetsLimitDao;
 import ru.naumen.bot.data.dao.inMemory.InMemoryLimitDao;
 import ru.naumen.bot.data.enums.DataType;
+import ru.naumen.bot.utils.metrics.BotMetrics;
 
 /**
  * Класс предоставляет доступ к DAO-объектам для работы с лимитами пользователя.
@@ -16,12 +17,12 @@ public class LimitDaoProvider {
     /**
      * Экземпляр DAO, использующий Google Sheets для хранения лимита.
      */
-    private final GoogleSheetsLimitDao googleSheetsLimitDao;
+    private final LimitDao googleSheetsLimitDao;
 
     /**
      * Экземпляр DAO, использующий память для хранения лимита.
      */
-    private final InMemoryLimitDao inMemoryLimitDao;
+    private final LimitDao inMemoryLimitDao;
 
     /**
      * Экземпляр DAO для получения информации о пользователе.
@@ -34,11 +35,14 @@ public class LimitDaoProvider {
      * @param googleSheetsLimitDao Экземпляр DAO для работы с Google Sheets.
      * @param inMemoryLimitDao     Экземпляр DAO для работы с памятью.
      * @param userDao              Экземпляр DAO для получения информации о пользователе.
+     * @param botMetrics           Метрики, в которые записывается время вызовов DAO.
      */
     public LimitDaoProvider(GoogleSheetsLimitDao googleSheetsLimitDao,
-                            InMemoryLimitDao inMemoryLimitDao, UserDao userDao) {
-        this.googleSheetsLimitDao = googleSheetsLimitDao;
-        this.inMemoryLimitDao = inMemoryLimitDao;
+                            InMemoryLimitDao inMemoryLimitDao, UserDao userDao,
+                            BotMetrics botMetrics) {
+        this.googleSheetsLimitDao = botMetrics.instrument(LimitDao.class, googleSheetsLimitDao,
+                DataType.IN_GOOGLE_SHEET);
+        this.inMemoryLimitDao = botMetrics.instrument(LimitDao.class, inMemoryLimitDao, DataType.IN_MEMORY);
         this.userDao = userDao;
     }
 
@@ -49,7 +53,17 @@ public class LimitDaoProvider {
      * @return InMemoryLimitDao, если DataType пользователя равен IN_MEMORY, иначе GoogleSheetsLimitDao.
      */
     public LimitDao getLimitDaoForUser(long chatId) {
-        return userDao.getDataType(chatId).equals(DataType.IN_MEMORY)
+        return getLimitDao(userDao.getDataType(chatId));
+    }
+
+    /**
+     * Возвращает DAO для работы с лимитами в указанном хранилище, например, для переноса данных между хранилищами.
+     *
+     * @param dataType тип хранилища
+     * @return InMemoryLimitDao для IN_MEMORY, иначе GoogleSheetsLimitDao.
+     */
+    public LimitDao getLimitDao(DataType dataType) {
+        return dataType.equals(DataType.IN_MEMORY)
                 ? inMemoryLimitDao
                 : googleSheetsLimitDao;
     }
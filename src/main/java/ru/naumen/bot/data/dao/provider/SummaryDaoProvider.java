@@ -0,0 +1,60 @@
+package ru.naumen.bot.data.dao.provider;
+
+import org.springframework.stereotype.Component;
+import ru.naumen.bot.data.dao.SummaryDao;
+import ru.naumen.bot.data.dao.UserDao;
+import ru.naumen.bot.data.dao.googleSheets.GoogleSheetsSummaryDao;
+import ru.naumen.bot.data.dao.inMemory.InMemorySummaryDao;
+import ru.naumen.bot.data.enums.DataType;
+import ru.naumen.bot.utils.metrics.BotMetrics;
+
+/**
+ * Класс предоставляет доступ к DAO-объектам для работы с балансом и лимитом пользователя.
+ */
+@Component
+public class SummaryDaoProvider {
+
+    /**
+     * Экземпляр DAO, использующий Google Sheets для хранения баланса и лимита.
+     */
+    private final SummaryDao googleSheetsSummaryDao;
+
+    /**
+     * Экземпляр DAO, использующий память для хранения баланса и лимита.
+     */
+    private final SummaryDao inMemorySummaryDao;
+
+    /**
+     * Экземпляр DAO для получения информации о пользователе.
+     */
+    private final UserDao userDao;
+
+    /**
+     * Конструктор класса {@link SummaryDaoProvider}.
+     *
+     * @param googleSheetsSummaryDao Экземпляр DAO для работы с Google Sheets.
+     * @param inMemorySummaryDao     Экземпляр DAO для работы с памятью.
+     * @param userDao                Экземпляр DAO для получения информации о пользователе.
+     * @param botMetrics             Метрики, в которые записывается время вызовов DAO.
+     */
+    public SummaryDaoProvider(GoogleSheetsSummaryDao googleSheetsSummaryDao,
+                              InMemorySummaryDao inMemorySummaryDao, UserDao userDao,
+                              BotMetrics botMetrics) {
+        this.googleSheetsSummaryDao = botMetrics.instrument(SummaryDao.class, googleSheetsSummaryDao,
+                DataType.IN_GOOGLE_SHEET);
+        this.inMemorySummaryDao = botMetrics.instrument(SummaryDao.class, inMemorySummaryDao, DataType.IN_MEMORY);
+        this.userDao = userDao;
+    }
+
+    /**
+     * Возвращает DAO для работы с балансом и лимитом пользователя для указанного идентификатора чата.
+     *
+     * @param chatId идентификатор чата, для которого необходимо получить DAO
+     * @return InMemorySummaryDao, если DataType пользователя равен IN_MEMORY, иначе GoogleSheetsSummaryDao.
+     */
+    public SummaryDao getSummaryDaoForUser(long chatId) {
+        return userDao.getDataType(chatId).equals(DataType.IN_MEMORY)
+                ? inMemorySummaryDao
+                : googleSheetsSummaryDao;
+    }
+}
@@ -17,9 +17,9 @@ public class Expense {
     private final String description;
 
     /**
-     * Сумма расхода.
+     * Сумма расхода в копейках.
      */
-    private final Double amount;
+    private final long amount;
 
     /**
      * Категория расхода.
@@ -35,11 +35,11 @@ public class Expense {
      * Конструктор для создания нового расхода.
      *
      * @param description Описание расхода
-     * @param amount      Сумма расхода
+     * @param amount      Сумма расхода в копейках
      * @param category    Категория расхода
      * @param date        Дата совершения расхода
      */
-    public Expense(String description, Double amount, ExpenseCategory category, LocalDate date) {
+    public Expense(String description, long amount, ExpenseCategory category, LocalDate date) {
         this.description = description;
         this.amount = amount;
         this.category = category;
@@ -54,9 +54,9 @@ public class Expense {
     }
 
     /**
-     * Возвращение суммы расхода.
+     * Возвращение суммы расхода в копейках.
      */
-    public Double getAmount() {
+    public long getAmount() {
         return amount;
     }
 
@@ -91,7 +91,7 @@ public class Expense {
         }
         Expense expense = (Expense) o;
         return Objects.equals(description, expense.description)
-                && Objects.equals(amount, expense.amount)
+                && amount == expense.amount
                 && category == expense.category
                 && Objects.equals(date, expense.date);
     }
@@ -8,47 +8,47 @@ import ru.naumen.bot.exception.ExceedingTheLimitException;
 public class Limit {
 
     /**
-     * Ежедневный лимит расходов.
+     * Ежедневный лимит расходов в копейках.
      */
-    private final Double dailyLimit;
+    private final long dailyLimit;
 
     /**
-     * Текущая сумма ежедневных расходов.
+     * Текущая сумма ежедневных расходов в копейках.
      */
-    private Double dailyExpensesSum;
+    private volatile long dailyExpensesSum;
 
     /**
      * Конструктор класса {@link Limit}.
      *
-     * @param dailyLimit       Ежедневный лимит расходов.
-     * @param dailyExpensesSum Текущая сумма ежедневных расходов.
+     * @param dailyLimit       Ежедневный лимит расходов в копейках.
+     * @param dailyExpensesSum Текущая сумма ежедневных расходов в копейках.
      */
-    public Limit(Double dailyLimit, Double dailyExpensesSum) {
+    public Limit(long dailyLimit, long dailyExpensesSum) {
         this.dailyLimit = dailyLimit;
         this.dailyExpensesSum = dailyExpensesSum;
     }
 
     /**
-     * Возвращает значение ежедневного лимита расходов.
+     * Возвращает значение ежедневного лимита расходов в копейках.
      */
-    public Double getDailyLimit() {
+    public long getDailyLimit() {
         return dailyLimit;
     }
 
     /**
-     * Возвращает текущую сумму ежедневных расходов.
+     * Возвращает текущую сумму ежедневных расходов в копейках.
      */
-    public Double getDailyExpensesSum() {
+    public long getDailyExpensesSum() {
         return dailyExpensesSum;
     }
 
     /**
      * Устанавливает новую сумму ежедневных расходов и проверяет, не превышает ли она лимит.
      *
-     * @param dailyExpensesSum Новая сумма ежедневных расходов.
+     * @param dailyExpensesSum Новая сумма ежедневных расходов в копейках.
      * @throws ExceedingTheLimitException Если новая сумма превышает лимит.
      */
-    public void setDailyExpensesSum(Double dailyExpensesSum) throws ExceedingTheLimitException {
+    public void setDailyExpensesSum(long dailyExpensesSum) throws ExceedingTheLimitException {
         this.dailyExpensesSum = dailyExpensesSum;
         if (dailyExpensesSum > dailyLimit) {
             throw new ExceedingTheLimitException(dailyExpensesSum);
@@ -0,0 +1,11 @@
+package ru.naumen.bot.data.entity;
+
+/**
+ * Запись Summary представляет сводку пользователя: баланс и лимит расходов,
+ * которые читаются и записываются вместе при добавлении расхода.
+ *
+ * @param balance баланс в копейках.
+ * @param limit   лимит расходов или null, если лимит не установлен.
+ */
+public record Summary(long balance, Limit limit) {
+}
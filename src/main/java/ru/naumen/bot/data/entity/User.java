@@ -3,25 +3,33 @@ package ru.naumen.bot.data.entity;
 import ru.naumen.bot.data.enums.ChatState;
 import ru.naumen.bot.data.enums.DataType;
 
+import java.time.ZoneId;
+
 /**
  * Класс User представляет пользователя бота и содержит информацию о его настройках и состоянии чата.
+ * Поля изменяются из потоков обработки разных обновлений, поэтому объявлены volatile.
  */
 public class User {
 
     /**
      * Тип хранения данных пользователя.
      */
-    private DataType dataType;
+    private volatile DataType dataType;
 
     /**
      * Идентификатор Google Sheet, для хранения данных в Google Sheet.
      */
-    private String googleSheetId;
+    private volatile String googleSheetId;
 
     /**
      * Текущее состояние чата с пользователем.
      */
-    private ChatState chatState;
+    private volatile ChatState chatState;
+
+    /**
+     * Часовой пояс пользователя или null, если используется часовой пояс по умолчанию.
+     */
+    private volatile ZoneId timeZone;
 
     /**
      * Конструктор для создания нового пользователя с указанным типом данных и состоянием чата.
@@ -87,4 +95,22 @@ public class User {
     public void setChatState(ChatState chatState) {
         this.chatState = chatState;
     }
+
+    /**
+     * Возвращает часовой пояс пользователя.
+     *
+     * @return часовой пояс пользователя или null, если используется часовой пояс по умолчанию.
+     */
+    public ZoneId getTimeZone() {
+        return timeZone;
+    }
+
+    /**
+     * Устанавливает часовой пояс пользователя.
+     *
+     * @param timeZone новый часовой пояс пользователя.
+     */
+    public void setTimeZone(ZoneId timeZone) {
+        this.timeZone = timeZone;
+    }
 }
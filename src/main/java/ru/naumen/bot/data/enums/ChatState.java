@@ -39,5 +39,20 @@ public enum ChatState {
     /**
      * Состояние ожидания, когда пользователь вводит лимит на день.
      */
-    WAITING_DAILY_LIMIT
+    WAITING_DAILY_LIMIT,
+
+    /**
+     * Состояние ожидания, когда пользователь вводит часовой пояс.
+     */
+    WAITING_TIME_ZONE,
+
+    /**
+     * Состояние ожидания, когда пользователь переходит между страницами списка расходов.
+     */
+    WAITING_EXPENSES_PAGE,
+
+    /**
+     * Состояние ожидания, когда пользователь переходит между страницами списка доходов.
+     */
+    WAITING_INCOMES_PAGE
 }
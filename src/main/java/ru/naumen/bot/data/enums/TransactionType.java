@@ -0,0 +1,18 @@
+package ru.naumen.bot.data.enums;
+
+/**
+ * Перечисление TransactionType определяет типы операций, которые пользователь
+ * добавляет сообщением.
+ */
+public enum TransactionType {
+
+    /**
+     * Доход, сообщение начинается со знака "+".
+     */
+    INCOME,
+
+    /**
+     * Расход, сообщение начинается со знака "-".
+     */
+    EXPENSE
+}
@@ -0,0 +1,57 @@
+package ru.naumen.bot.data.journal;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Журнал изменений данных, хранящихся в памяти.
+ *
+ * <p>Хранилища в памяти выполняют каждое изменение через {@link #write(JournalRecord, Runnable)},
+ * поэтому журнал содержит изменения в том же порядке, в котором они применялись к данным.
+ * При запуске данные восстанавливаются из последнего снимка и записей, сделанных после него.
+ */
+public interface Journal {
+
+    /**
+     * Журнал, который ничего не сохраняет. Используется, когда данные не нужно переживать перезапуск.
+     */
+    Journal NONE = new NoOpJournal();
+
+    /**
+     * Применяет изменение к данным и добавляет его запись в журнал.
+     * Изменения выполняются по одному, поэтому порядок записей совпадает с порядком изменений.
+     * Если изменение выбросило исключение, запись не добавляется.
+     *
+     * @param record   запись об изменении
+     * @param mutation изменение данных в памяти
+     */
+    void write(JournalRecord record, Runnable mutation);
+
+    /**
+     * Читает последний снимок и записи, сделанные после него до текущего запуска.
+     *
+     * @param consumer получатель записей в порядке их добавления
+     * @return количество прочитанных записей
+     * @throws IOException если прочитать журнал не удалось
+     */
+    long recover(Consumer<JournalRecord> consumer) throws IOException;
+
+    /**
+     * Сохраняет снимок текущего состояния хранилищ и удаляет записи, которые он заменяет.
+     *
+     * @param participants хранилища, состояние которых сохраняется в снимок
+     * @throws IOException если сохранить снимок не удалось
+     */
+    void snapshot(List<JournalParticipant> participants) throws IOException;
+
+    /**
+     * Сбрасывает добавленные записи на диск.
+     */
+    void sync();
+
+    /**
+     * Сбрасывает записи на диск и освобождает файлы журнала.
+     */
+    void close();
+}
@@ -0,0 +1,335 @@
+package ru.naumen.bot.data.journal;
+
+import ru.naumen.bot.data.entity.Expense;
+import ru.naumen.bot.data.entity.Income;
+import ru.naumen.bot.data.enums.ChatState;
+import ru.naumen.bot.data.enums.DataType;
+import ru.naumen.bot.data.enums.ExpenseCategory;
+import ru.naumen.bot.data.journal.JournalRecord.BalanceSet;
+import ru.naumen.bot.data.journal.JournalRecord.ChatStateSet;
+import ru.naumen.bot.data.journal.JournalRecord.DataTypeSet;
+import ru.naumen.bot.data.journal.JournalRecord.ExpenseAdded;
+import ru.naumen.bot.data.journal.JournalRecord.ExpensesCreated;
+import ru.naumen.bot.data.journal.JournalRecord.ExpensesRemoved;
+import ru.naumen.bot.data.journal.JournalRecord.GoogleSheetIdSet;
+import ru.naumen.bot.data.journal.JournalRecord.IncomeAdded;
+import ru.naumen.bot.data.journal.JournalRecord.IncomesCreated;
+import ru.naumen.bot.data.journal.JournalRecord.IncomesRemoved;
+import ru.naumen.bot.data.journal.JournalRecord.LastExpenseCategorySet;
+import ru.naumen.bot.data.journal.JournalRecord.LimitRemoved;
+import ru.naumen.bot.data.journal.JournalRecord.LimitSet;
+import ru.naumen.bot.data.journal.JournalRecord.TimeZoneSet;
+import ru.naumen.bot.data.journal.JournalRecord.UserOpened;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.zip.CRC32;
+
+/**
+ * Двоичный формат записей журнала.
+ *
+ * <p>Запись хранится в виде кадра: длина тела ({@code int}), тело и контрольная сумма CRC32 тела
+ * ({@code int}). Тело начинается с байта типа записи, за которым следуют её поля. Строки хранятся
+ * как длина в байтах UTF-8 и сами байты, перечисления — как порядковый номер, даты — как номер дня
+ * от эпохи, денежные суммы — как {@code long} в копейках. Нулевая длина означает конец записанной части
+ * сегмента, а несовпадение контрольной суммы — запись, оборванную при аварийном завершении.
+ */
+public final class JournalCodec {
+
+    /**
+     * Размер служебных полей кадра: длины тела и контрольной суммы
+     */
+    static final int FRAME_OVERHEAD = 2 * Integer.BYTES;
+
+    /**
+     * Тип записи {@link UserOpened}
+     */
+    private static final byte USER_OPENED = 1;
+
+    /**
+     * Тип записи {@link ChatStateSet}
+     */
+    private static final byte CHAT_STATE_SET = 2;
+
+    /**
+     * Тип записи {@link DataTypeSet}
+     */
+    private static final byte DATA_TYPE_SET = 3;
+
+    /**
+     * Тип записи {@link GoogleSheetIdSet}
+     */
+    private static final byte GOOGLE_SHEET_ID_SET = 4;
+
+    /**
+     * Тип записи {@link BalanceSet}
+     */
+    private static final byte BALANCE_SET = 5;
+
+    /**
+     * Тип записи {@link LimitSet}
+     */
+    private static final byte LIMIT_SET = 6;
+
+    /**
+     * Тип записи {@link LimitRemoved}
+     */
+    private static final byte LIMIT_REMOVED = 7;
+
+    /**
+     * Тип записи {@link ExpensesCreated}
+     */
+    private static final byte EXPENSES_CREATED = 8;
+
+    /**
+     * Тип записи {@link ExpenseAdded}
+     */
+    private static final byte EXPENSE_ADDED = 9;
+
+    /**
+     * Тип записи {@link LastExpenseCategorySet}
+     */
+    private static final byte LAST_EXPENSE_CATEGORY_SET = 10;
+
+    /**
+     * Тип записи {@link ExpensesRemoved}
+     */
+    private static final byte EXPENSES_REMOVED = 11;
+
+    /**
+     * Тип записи {@link IncomesCreated}
+     */
+    private static final byte INCOMES_CREATED = 12;
+
+    /**
+     * Тип записи {@link IncomeAdded}
+     */
+    private static final byte INCOME_ADDED = 13;
+
+    /**
+     * Тип записи {@link IncomesRemoved}
+     */
+    private static final byte INCOMES_REMOVED = 14;
+
+    /**
+     * Тип записи {@link TimeZoneSet}
+     */
+    private static final byte TIME_ZONE_SET = 15;
+
+    /**
+     * Состояния чата в порядке их порядковых номеров
+     */
+    private static final ChatState[] CHAT_STATES = ChatState.values();
+
+    /**
+     * Типы хранилищ в порядке их порядковых номеров
+     */
+    private static final DataType[] DATA_TYPES = DataType.values();
+
+    /**
+     * Категории расходов в порядке их порядковых номеров
+     */
+    private static final ExpenseCategory[] CATEGORIES = ExpenseCategory.values();
+
+    /**
+     * Класс содержит только статические методы
+     */
+    private JournalCodec() {
+    }
+
+    /**
+     * Кодирует запись в кадр журнала.
+     *
+     * @param record запись журнала
+     * @return кадр с длиной, телом и контрольной суммой
+     */
+    public static byte[] encode(JournalRecord record) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            out.writeInt(0);
+            writeBody(record, out);
+            out.writeInt(0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        byte[] frame = bytes.toByteArray();
+        int bodyLength = frame.length - FRAME_OVERHEAD;
+        CRC32 crc = new CRC32();
+        crc.update(frame, Integer.BYTES, bodyLength);
+        ByteBuffer buffer = ByteBuffer.wrap(frame);
+        buffer.putInt(0, bodyLength);
+        buffer.putInt(frame.length - Integer.BYTES, (int) crc.getValue());
+        return frame;
+    }
+
+    /**
+     * Читает запись из буфера, начиная с его текущей позиции, и сдвигает позицию за прочитанный кадр.
+     *
+     * @param buffer буфер с кадрами журнала
+     * @return прочитанная запись или null, если записанная часть закончилась или кадр повреждён;
+     * в этом случае позиция буфера не меняется
+     */
+    public static JournalRecord decode(ByteBuffer buffer) {
+        int start = buffer.position();
+        if (buffer.remaining() < FRAME_OVERHEAD) {
+            return null;
+        }
+        int bodyLength = buffer.getInt(start);
+        if (bodyLength <= 0 || bodyLength > buffer.remaining() - FRAME_OVERHEAD) {
+            return null;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(start + Integer.BYTES, bodyLength));
+        if ((int) crc.getValue() != buffer.getInt(start + Integer.BYTES + bodyLength)) {
+            return null;
+        }
+        buffer.position(start + Integer.BYTES);
+        JournalRecord record = readBody(buffer);
+        buffer.position(start + bodyLength + FRAME_OVERHEAD);
+        return record;
+    }
+
+    /**
+     * Записывает тип и поля записи.
+     *
+     * @param record запись журнала
+     * @param out    поток, в который записывается тело
+     * @throws IOException если запись в поток не удалась
+     */
+    private static void writeBody(JournalRecord record, DataOutputStream out) throws IOException {
+        switch (record) {
+            case UserOpened r -> writeHeader(out, USER_OPENED, r);
+            case ChatStateSet r -> {
+                writeHeader(out, CHAT_STATE_SET, r);
+                out.writeByte(r.chatState().ordinal());
+            }
+            case DataTypeSet r -> {
+                writeHeader(out, DATA_TYPE_SET, r);
+                out.writeByte(r.dataType().ordinal());
+            }
+            case GoogleSheetIdSet r -> {
+                writeHeader(out, GOOGLE_SHEET_ID_SET, r);
+                writeString(out, r.googleSheetId());
+            }
+            case TimeZoneSet r -> {
+                writeHeader(out, TIME_ZONE_SET, r);
+                writeString(out, r.timeZone().getId());
+            }
+            case BalanceSet r -> {
+                writeHeader(out, BALANCE_SET, r);
+                out.writeLong(r.balance());
+            }
+            case LimitSet r -> {
+                writeHeader(out, LIMIT_SET, r);
+                out.writeLong(r.dailyLimit());
+                out.writeLong(r.dailyExpensesSum());
+            }
+            case LimitRemoved r -> writeHeader(out, LIMIT_REMOVED, r);
+            case ExpensesCreated r -> writeHeader(out, EXPENSES_CREATED, r);
+            case ExpenseAdded r -> {
+                writeHeader(out, EXPENSE_ADDED, r);
+                writeString(out, r.expense().getDescription());
+                out.writeLong(r.expense().getAmount());
+                out.writeByte(r.expense().getCategory().ordinal());
+                out.writeLong(r.expense().getDate().toEpochDay());
+            }
+            case LastExpenseCategorySet r -> {
+                writeHeader(out, LAST_EXPENSE_CATEGORY_SET, r);
+                out.writeByte(r.category().ordinal());
+            }
+            case ExpensesRemoved r -> writeHeader(out, EXPENSES_REMOVED, r);
+            case IncomesCreated r -> writeHeader(out, INCOMES_CREATED, r);
+            case IncomeAdded r -> {
+                writeHeader(out, INCOME_ADDED, r);
+                writeString(out, r.income().description());
+                out.writeLong(r.income().amount());
+                out.writeLong(r.income().date().toEpochDay());
+            }
+            case IncomesRemoved r -> writeHeader(out, INCOMES_REMOVED, r);
+        }
+    }
+
+    /**
+     * Читает тип и поля записи.
+     *
+     * @param in буфер, позиция которого указывает на начало тела
+     * @return прочитанная запись
+     */
+    private static JournalRecord readBody(ByteBuffer in) {
+        byte type = in.get();
+        long chatId = in.getLong();
+        return switch (type) {
+            case USER_OPENED -> new UserOpened(chatId);
+            case CHAT_STATE_SET -> new ChatStateSet(chatId, CHAT_STATES[in.get()]);
+            case DATA_TYPE_SET -> new DataTypeSet(chatId, DATA_TYPES[in.get()]);
+            case GOOGLE_SHEET_ID_SET -> new GoogleSheetIdSet(chatId, readString(in));
+            case TIME_ZONE_SET -> new TimeZoneSet(chatId, ZoneId.of(readString(in)));
+            case BALANCE_SET -> new BalanceSet(chatId, in.getLong());
+            case LIMIT_SET -> new LimitSet(chatId, in.getLong(), in.getLong());
+            case LIMIT_REMOVED -> new LimitRemoved(chatId);
+            case EXPENSES_CREATED -> new ExpensesCreated(chatId);
+            case EXPENSE_ADDED -> new ExpenseAdded(chatId, new Expense(readString(in), in.getLong(),
+                    CATEGORIES[in.get()], LocalDate.ofEpochDay(in.getLong())));
+            case LAST_EXPENSE_CATEGORY_SET -> new LastExpenseCategorySet(chatId, CATEGORIES[in.get()]);
+            case EXPENSES_REMOVED -> new ExpensesRemoved(chatId);
+            case INCOMES_CREATED -> new IncomesCreated(chatId);
+            case INCOME_ADDED -> new IncomeAdded(chatId,
+                    new Income(readString(in), in.getLong(), LocalDate.ofEpochDay(in.getLong())));
+            case INCOMES_REMOVED -> new IncomesRemoved(chatId);
+            default -> throw new IllegalStateException("Неизвестный тип записи журнала: " + type);
+        };
+    }
+
+    /**
+     * Записывает тип записи и идентификатор чата.
+     *
+     * @param out    поток, в который записывается тело
+     * @param type   тип записи
+     * @param record запись журнала
+     * @throws IOException если запись в поток не удалась
+     */
+    private static void writeHeader(DataOutputStream out, byte type, JournalRecord record) throws IOException {
+        out.writeByte(type);
+        out.writeLong(record.chatId());
+    }
+
+    /**
+     * Записывает строку как длину в байтах UTF-8 и сами байты. Для null записывается длина -1.
+     *
+     * @param out   поток, в который записывается тело
+     * @param value строка или null
+     * @throws IOException если запись в поток не удалась
+     */
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Читает строку, записанную {@link #writeString(DataOutputStream, String)}.
+     *
+     * @param in буфер с телом записи
+     * @return строка или null
+     */
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
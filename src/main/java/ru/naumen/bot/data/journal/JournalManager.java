@@ -0,0 +1,103 @@
+package ru.naumen.bot.data.journal;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Восстановление хранилищ в памяти из журнала и обслуживание журнала.
+ *
+ * <p>При создании бина читает журнал и применяет записи к хранилищам, после чего сразу сохраняет
+ * снимок, чтобы следующий запуск читал как можно меньше записей. Затем периодически сбрасывает
+ * записи на диск и сохраняет снимки. При остановке приложения Spring закрывает журнал
+ * через {@link Journal#close()}.
+ */
+@Component
+public class JournalManager {
+
+    /**
+     * Журнал изменений хранилищ в памяти
+     */
+    private final Journal journal;
+
+    /**
+     * Хранилища, изменения которых сохраняются в журнале
+     */
+    private final List<JournalParticipant> participants;
+
+    /**
+     * Логгер для записи сообщений о восстановлении и ошибках
+     */
+    private final Logger logger = LoggerFactory.getLogger(JournalManager.class);
+
+    /**
+     * Конструктор JournalManager
+     *
+     * @param journal      журнал изменений хранилищ в памяти
+     * @param participants хранилища, изменения которых сохраняются в журнале
+     */
+    public JournalManager(Journal journal, List<JournalParticipant> participants) {
+        this.journal = journal;
+        this.participants = participants;
+    }
+
+    /**
+     * Восстанавливает хранилища из журнала и сохраняет снимок восстановленного состояния.
+     *
+     * @throws IOException если прочитать журнал или сохранить снимок не удалось
+     */
+    @PostConstruct
+    public void recover() throws IOException {
+        long start = System.nanoTime();
+        long count = journal.recover(this::apply);
+        logger.info("Восстановлено {} записей журнала за {} мс", count,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        journal.snapshot(participants);
+    }
+
+    /**
+     * Сбрасывает добавленные записи журнала на диск.
+     */
+    @Scheduled(fixedDelayString = "${journal.sync-interval}")
+    public void sync() {
+        try {
+            journal.sync();
+        } catch (UncheckedIOException e) {
+            logger.error("[Journal exception] :: Message: {}.", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Сохраняет снимок хранилищ и удаляет заменённые им записи журнала.
+     */
+    @Scheduled(fixedDelayString = "${journal.snapshot-interval}",
+            initialDelayString = "${journal.snapshot-interval}")
+    public void snapshot() {
+        try {
+            journal.snapshot(participants);
+        } catch (IOException | UncheckedIOException e) {
+            logger.error("[Journal exception] :: Message: {}.", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Применяет запись журнала к хранилищу, к которому она относится.
+     *
+     * @param record запись журнала
+     */
+    private void apply(JournalRecord record) {
+        for (JournalParticipant participant : participants) {
+            if (participant.apply(record)) {
+                return;
+            }
+        }
+        throw new IllegalStateException("Запись журнала не относится ни к одному хранилищу: " + record);
+    }
+}
@@ -0,0 +1,27 @@
+package ru.naumen.bot.data.journal;
+
+import java.util.function.Consumer;
+import java.util.function.LongPredicate;
+
+/**
+ * Хранилище в памяти, изменения которого сохраняются в {@link Journal}.
+ */
+public interface JournalParticipant {
+
+    /**
+     * Применяет запись журнала при восстановлении, не добавляя её в журнал повторно.
+     *
+     * @param record запись журнала
+     * @return true, если запись относится к этому хранилищу и применена, иначе false
+     */
+    boolean apply(JournalRecord record);
+
+    /**
+     * Передаёт записи, из которых можно заново построить текущее состояние хранилища для части чатов.
+     * Вызывается журналом, когда изменения этих чатов приостановлены.
+     *
+     * @param chats    условие, которому удовлетворяют идентификаторы чатов снимка
+     * @param consumer получатель записей
+     */
+    void snapshot(LongPredicate chats, Consumer<JournalRecord> consumer);
+}
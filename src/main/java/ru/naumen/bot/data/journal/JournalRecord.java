@@ -0,0 +1,154 @@
+package ru.naumen.bot.data.journal;
+
+import ru.naumen.bot.data.entity.Expense;
+import ru.naumen.bot.data.entity.Income;
+import ru.naumen.bot.data.enums.ChatState;
+import ru.naumen.bot.data.enums.DataType;
+import ru.naumen.bot.data.enums.ExpenseCategory;
+
+import java.time.ZoneId;
+
+/**
+ * Запись журнала — одно изменение данных, хранящихся в памяти.
+ *
+ * <p>Каждая запись описывает изменение данных одного чата так, чтобы его можно было повторить
+ * при восстановлении. Записи хранятся в журнале в том же порядке, в котором изменения
+ * применялись к данным в памяти.
+ */
+public sealed interface JournalRecord {
+
+    /**
+     * Возвращает идентификатор чата, данные которого изменяет запись.
+     */
+    long chatId();
+
+    /**
+     * Открытие чата.
+     *
+     * @param chatId идентификатор чата
+     */
+    record UserOpened(long chatId) implements JournalRecord {
+    }
+
+    /**
+     * Изменение состояния чата.
+     *
+     * @param chatId    идентификатор чата
+     * @param chatState новое состояние чата
+     */
+    record ChatStateSet(long chatId, ChatState chatState) implements JournalRecord {
+    }
+
+    /**
+     * Изменение типа хранилища пользователя.
+     *
+     * @param chatId   идентификатор чата
+     * @param dataType новый тип хранилища
+     */
+    record DataTypeSet(long chatId, DataType dataType) implements JournalRecord {
+    }
+
+    /**
+     * Изменение идентификатора гугл-таблицы пользователя.
+     *
+     * @param chatId        идентификатор чата
+     * @param googleSheetId идентификатор гугл-таблицы или null
+     */
+    record GoogleSheetIdSet(long chatId, String googleSheetId) implements JournalRecord {
+    }
+
+    /**
+     * Изменение часового пояса пользователя.
+     *
+     * @param chatId   идентификатор чата
+     * @param timeZone новый часовой пояс
+     */
+    record TimeZoneSet(long chatId, ZoneId timeZone) implements JournalRecord {
+    }
+
+    /**
+     * Установка баланса.
+     *
+     * @param chatId  идентификатор чата
+     * @param balance новый баланс в копейках
+     */
+    record BalanceSet(long chatId, long balance) implements JournalRecord {
+    }
+
+    /**
+     * Установка лимита.
+     *
+     * @param chatId           идентификатор чата
+     * @param dailyLimit       дневной лимит в копейках
+     * @param dailyExpensesSum сумма расходов за день в копейках
+     */
+    record LimitSet(long chatId, long dailyLimit, long dailyExpensesSum) implements JournalRecord {
+    }
+
+    /**
+     * Удаление лимита.
+     *
+     * @param chatId идентификатор чата
+     */
+    record LimitRemoved(long chatId) implements JournalRecord {
+    }
+
+    /**
+     * Создание пустого журнала расходов чата.
+     *
+     * @param chatId идентификатор чата
+     */
+    record ExpensesCreated(long chatId) implements JournalRecord {
+    }
+
+    /**
+     * Добавление расхода.
+     *
+     * @param chatId  идентификатор чата
+     * @param expense добавленный расход
+     */
+    record ExpenseAdded(long chatId, Expense expense) implements JournalRecord {
+    }
+
+    /**
+     * Изменение категории последнего расхода.
+     *
+     * @param chatId   идентификатор чата
+     * @param category новая категория
+     */
+    record LastExpenseCategorySet(long chatId, ExpenseCategory category) implements JournalRecord {
+    }
+
+    /**
+     * Удаление всех расходов чата.
+     *
+     * @param chatId идентификатор чата
+     */
+    record ExpensesRemoved(long chatId) implements JournalRecord {
+    }
+
+    /**
+     * Создание пустого журнала доходов чата.
+     *
+     * @param chatId идентификатор чата
+     */
+    record IncomesCreated(long chatId) implements JournalRecord {
+    }
+
+    /**
+     * Добавление дохода.
+     *
+     * @param chatId идентификатор чата
+     * @param income добавленный доход
+     */
+    record IncomeAdded(long chatId, Income income) implements JournalRecord {
+    }
+
+    /**
+     * Удаление всех доходов чата.
+     *
+     * @param chatId идентификатор чата
+     */
+    record IncomesRemoved(long chatId) implements JournalRecord {
+    }
+}
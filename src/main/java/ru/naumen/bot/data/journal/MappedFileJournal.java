@@ -0,0 +1,572 @@
+package ru.naumen.bot.data.journal;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiPredicate;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Журнал, хранящий записи в отображаемых в память файлах-сегментах.
+ *
+ * <p>Записи дописываются в конец текущего сегмента фиксированного размера
+ * {@code segment-<номер>.log}. Запись в отображённую память не требует системного вызова,
+ * а сброс на диск выполняется пачкой в {@link #sync()} и при переходе к следующему сегменту.
+ * Перед изменением данных место под его запись резервируется, и если зарезервированные записи
+ * не помещаются в текущий сегмент, заранее создаётся следующий. Поэтому добавление записи после
+ * применённого изменения не создаёт файлов и не может завершиться ошибкой, оставив изменение
+ * без записи в журнале. Отображение заполненного сегмента больше не используется журналом.
+ * Каждый запуск начинает новый сегмент, а сегменты предыдущих запусков только читаются при восстановлении.
+ *
+ * <p>Чаты распределены по {@value #STRIPES} группам, у каждой из которых своя блокировка. Изменение
+ * выполняется под блокировкой группы своего чата, поэтому порядок записей одного чата в журнале
+ * равен порядку изменений в памяти, а изменения чатов разных групп не ждут друг друга. Общая
+ * блокировка берётся только на время копирования кадра в сегмент.
+ *
+ * <p>Снимок {@code snapshot-<номер>.snap} собирается по группам: состояние группы читается под её
+ * блокировкой вместе с позицией в журнале, после которой начинаются ещё не вошедшие в снимок записи
+ * этой группы. Позиции групп хранятся в заголовке снимка. При восстановлении читаются последний снимок
+ * и сегменты, начиная с самой ранней позиции, причём запись применяется, только если она находится
+ * не раньше позиции группы своего чата. После записи снимка более старые снимки и сегменты до самой
+ * ранней позиции удаляются. Снимок сначала пишется во временный файл и переименовывается после сброса
+ * на диск, поэтому недописанный снимок никогда не читается.
+ */
+public class MappedFileJournal implements Journal {
+
+    /**
+     * Количество групп чатов со своей блокировкой
+     */
+    private static final int STRIPES = 64;
+
+    /**
+     * Признак начала снимка, за которым следует заголовок из позиций групп
+     */
+    private static final int SNAPSHOT_MAGIC = 0xF1B0CA7E;
+
+    /**
+     * Префикс имени файла сегмента
+     */
+    private static final String SEGMENT_PREFIX = "segment-";
+
+    /**
+     * Расширение файла сегмента
+     */
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    /**
+     * Префикс имени файла снимка
+     */
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+
+    /**
+     * Расширение файла снимка
+     */
+    private static final String SNAPSHOT_SUFFIX = ".snap";
+
+    /**
+     * Расширение недописанного снимка
+     */
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+
+    /**
+     * Каталог с файлами журнала
+     */
+    private final Path directory;
+
+    /**
+     * Размер сегмента в байтах
+     */
+    private final int segmentSize;
+
+    /**
+     * Номер первого сегмента текущего запуска. Сегменты с меньшими номерами только читаются
+     */
+    private final long firstSegmentNumber;
+
+    /**
+     * Блокировки групп чатов, под которыми выполняются изменения и читается состояние для снимка
+     */
+    private final ReentrantLock[] stripeLocks = new ReentrantLock[STRIPES];
+
+    /**
+     * Блокировка, под которой кадры копируются в текущий сегмент
+     */
+    private final ReentrantLock appendLock = new ReentrantLock();
+
+    /**
+     * Блокировка, не допускающая одновременного сохранения нескольких снимков
+     */
+    private final ReentrantLock snapshotLock = new ReentrantLock();
+
+    /**
+     * Логгер для записи сообщений о восстановлении и ошибках
+     */
+    private final Logger logger = LoggerFactory.getLogger(MappedFileJournal.class);
+
+    /**
+     * Номер текущего сегмента
+     */
+    private long segmentNumber;
+
+    /**
+     * Отображённый в память текущий сегмент
+     */
+    private MappedByteBuffer segment;
+
+    /**
+     * Заранее созданный следующий сегмент или null, если зарезервированные записи помещаются в текущий
+     */
+    private MappedByteBuffer nextSegment;
+
+    /**
+     * Размер записей, место под которые зарезервировано, но которые ещё не добавлены в сегмент
+     */
+    private long reservedBytes;
+
+    /**
+     * Признак того, что в текущий сегмент добавлены записи, ещё не сброшенные на диск
+     */
+    private boolean dirty;
+
+    /**
+     * Номер последнего сохранённого снимка
+     */
+    private long snapshotNumber;
+
+    /**
+     * Конструктор MappedFileJournal. Создаёт каталог журнала и новый сегмент для текущего запуска.
+     *
+     * @param directory   каталог с файлами журнала
+     * @param segmentSize размер сегмента в байтах
+     * @throws IOException если создать сегмент не удалось
+     */
+    public MappedFileJournal(Path directory, int segmentSize) throws IOException {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        for (int i = 0; i < STRIPES; i++) {
+            stripeLocks[i] = new ReentrantLock();
+        }
+        Files.createDirectories(directory);
+        this.snapshotNumber = lastNumber(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+        this.firstSegmentNumber = Math.max(lastNumber(SEGMENT_PREFIX, SEGMENT_SUFFIX), snapshotNumber) + 1;
+        this.segment = createSegment(firstSegmentNumber);
+        this.segmentNumber = firstSegmentNumber;
+    }
+
+    @Override
+    public void write(JournalRecord record, Runnable mutation) {
+        byte[] frame = JournalCodec.encode(record);
+        if (frame.length > segmentSize) {
+            throw new IllegalArgumentException("Запись журнала больше сегмента: " + frame.length + " байт");
+        }
+        ReentrantLock stripeLock = stripeLocks[stripeOf(record.chatId(), STRIPES)];
+        stripeLock.lock();
+        try {
+            reserve(frame.length);
+            try {
+                mutation.run();
+            } catch (RuntimeException e) {
+                release(frame.length);
+                throw e;
+            }
+            append(frame);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            stripeLock.unlock();
+        }
+    }
+
+    @Override
+    public long recover(Consumer<JournalRecord> consumer) throws IOException {
+        List<Long> snapshots = numbers(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+        SnapshotPositions positions = new SnapshotPositions(new long[]{0}, new int[]{0});
+        long count = 0;
+        if (!snapshots.isEmpty()) {
+            Path file = path(SNAPSHOT_PREFIX, snapshots.getLast(), SNAPSHOT_SUFFIX);
+            MappedByteBuffer buffer = map(file);
+            positions = readPositions(buffer, snapshots.getLast());
+            count += read(file, buffer, (record, offset) -> true, consumer, false);
+        }
+        SnapshotPositions snapshotPositions = positions;
+        for (long number : numbers(SEGMENT_PREFIX, SEGMENT_SUFFIX)) {
+            if (number >= positions.firstSegment() && number < firstSegmentNumber) {
+                Path file = path(SEGMENT_PREFIX, number, SEGMENT_SUFFIX);
+                count += read(file, map(file),
+                        (record, offset) -> snapshotPositions.isAfter(record.chatId(), number, offset),
+                        consumer, true);
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public void snapshot(List<JournalParticipant> participants) throws IOException {
+        snapshotLock.lock();
+        try {
+            long number = snapshotNumber + 1;
+            Path temporary = path(SNAPSHOT_PREFIX, number, TEMPORARY_SUFFIX);
+            SnapshotPositions positions = new SnapshotPositions(new long[STRIPES], new int[STRIPES]);
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                channel.position(SnapshotPositions.headerSize(STRIPES));
+                BufferedOutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16);
+                for (int stripe = 0; stripe < STRIPES; stripe++) {
+                    for (JournalRecord record : snapshotStripe(participants, stripe, positions)) {
+                        out.write(JournalCodec.encode(record));
+                    }
+                }
+                out.flush();
+                channel.write(positions.toHeader(), 0);
+                channel.force(true);
+            }
+            Files.move(temporary, path(SNAPSHOT_PREFIX, number, SNAPSHOT_SUFFIX), StandardCopyOption.ATOMIC_MOVE);
+            snapshotNumber = number;
+            deleteOlderThan(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX, number);
+            deleteOlderThan(SEGMENT_PREFIX, SEGMENT_SUFFIX, positions.firstSegment());
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    @Override
+    public void sync() {
+        MappedByteBuffer current;
+        appendLock.lock();
+        try {
+            if (!dirty) {
+                return;
+            }
+            current = segment;
+            dirty = false;
+        } finally {
+            appendLock.unlock();
+        }
+        current.force();
+    }
+
+    @Override
+    public void close() {
+        appendLock.lock();
+        try {
+            segment.force();
+            dirty = false;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * Возвращает номер группы чата.
+     *
+     * @param chatId  идентификатор чата
+     * @param stripes количество групп
+     */
+    private static int stripeOf(long chatId, int stripes) {
+        return Math.floorMod(Long.hashCode(chatId), stripes);
+    }
+
+    /**
+     * Резервирует место под запись до применения изменения. Если зарезервированные записи
+     * не помещаются в текущий сегмент, создаёт следующий.
+     *
+     * @param length размер кадра записи
+     * @throws IOException если создать сегмент не удалось; место в этом случае не резервируется
+     */
+    private void reserve(int length) throws IOException {
+        appendLock.lock();
+        try {
+            if (nextSegment == null && segment.remaining() < reservedBytes + length) {
+                nextSegment = createSegment(segmentNumber + 1);
+            }
+            reservedBytes += length;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * Освобождает место, зарезервированное под запись изменения, которое выбросило исключение.
+     *
+     * @param length размер кадра записи
+     */
+    private void release(int length) {
+        appendLock.lock();
+        try {
+            reservedBytes -= length;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * Копирует кадр записи, место под который зарезервировано, в конец текущего сегмента,
+     * при необходимости переходя к заранее созданному следующему.
+     *
+     * @param frame кадр записи
+     * @throws IOException если следующий сегмент не создан заранее и создать его не удалось;
+     *                     возможно, только если зарезервированные записи не помещаются в пустой сегмент
+     */
+    private void append(byte[] frame) throws IOException {
+        appendLock.lock();
+        try {
+            reservedBytes -= frame.length;
+            if (segment.remaining() < frame.length) {
+                segment.force();
+                segment = nextSegment != null ? nextSegment : createSegment(segmentNumber + 1);
+                segmentNumber++;
+                nextSegment = null;
+            }
+            segment.put(frame);
+            dirty = true;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * Собирает записи снимка для чатов одной группы и запоминает позицию в журнале,
+     * начиная с которой записи этой группы в снимок не вошли.
+     *
+     * @param participants хранилища, изменения которых сохраняются в журнале
+     * @param stripe       номер группы
+     * @param positions    позиции групп, в которые записывается позиция этой группы
+     * @return записи снимка группы
+     */
+    private List<JournalRecord> snapshotStripe(List<JournalParticipant> participants, int stripe,
+                                               SnapshotPositions positions) {
+        List<JournalRecord> records = new ArrayList<>();
+        ReentrantLock stripeLock = stripeLocks[stripe];
+        stripeLock.lock();
+        try {
+            for (JournalParticipant participant : participants) {
+                participant.snapshot(chatId -> stripeOf(chatId, STRIPES) == stripe, records::add);
+            }
+            appendLock.lock();
+            try {
+                positions.segments()[stripe] = segmentNumber;
+                positions.offsets()[stripe] = segment.position();
+            } finally {
+                appendLock.unlock();
+            }
+        } finally {
+            stripeLock.unlock();
+        }
+        return records;
+    }
+
+    /**
+     * Создаёт файл сегмента и отображает его в память.
+     *
+     * @param number номер сегмента
+     * @return отображённый в память сегмент
+     * @throws IOException если создать сегмент не удалось
+     */
+    private MappedByteBuffer createSegment(long number) throws IOException {
+        try (FileChannel channel = FileChannel.open(path(SEGMENT_PREFIX, number, SEGMENT_SUFFIX),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        }
+    }
+
+    /**
+     * Отображает файл журнала в память только для чтения.
+     *
+     * @param file файл сегмента или снимка
+     * @throws IOException если файл не удалось открыть
+     */
+    private MappedByteBuffer map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    /**
+     * Читает заголовок снимка и переводит буфер к первой записи.
+     *
+     * @param buffer содержимое снимка
+     * @param number номер снимка
+     * @return позиции групп, после которых начинаются не вошедшие в снимок записи
+     * @throws IOException если заголовок снимка повреждён
+     */
+    private SnapshotPositions readPositions(ByteBuffer buffer, long number) throws IOException {
+        if (buffer.remaining() < 2 * Integer.BYTES || buffer.getInt(0) != SNAPSHOT_MAGIC) {
+            throw new IOException("Заголовок снимка журнала " + number + " повреждён");
+        }
+        int stripes = buffer.getInt(Integer.BYTES);
+        if (stripes <= 0 || buffer.remaining() < SnapshotPositions.headerSize(stripes)) {
+            throw new IOException("Заголовок снимка журнала " + number + " повреждён");
+        }
+        buffer.position(2 * Integer.BYTES);
+        long[] segments = new long[stripes];
+        int[] offsets = new int[stripes];
+        for (int i = 0; i < stripes; i++) {
+            segments[i] = buffer.getLong();
+            offsets[i] = buffer.getInt();
+        }
+        return new SnapshotPositions(segments, offsets);
+    }
+
+    /**
+     * Читает записи файла журнала, начиная с текущей позиции буфера.
+     *
+     * @param file         файл сегмента или снимка
+     * @param buffer       содержимое файла
+     * @param filter       условие применения записи по её позиции в файле
+     * @param consumer     получатель записей
+     * @param tolerateTail допускается ли оборванная запись в конце файла
+     * @return количество применённых записей
+     * @throws IOException если снимок повреждён
+     */
+    private long read(Path file, ByteBuffer buffer, BiPredicate<JournalRecord, Integer> filter,
+                      Consumer<JournalRecord> consumer, boolean tolerateTail) throws IOException {
+        long count = 0;
+        long read = 0;
+        int offset = buffer.position();
+        JournalRecord record;
+        while ((record = JournalCodec.decode(buffer)) != null) {
+            read++;
+            if (filter.test(record, offset)) {
+                consumer.accept(record);
+                count++;
+            }
+            offset = buffer.position();
+        }
+        boolean corrupted = buffer.remaining() >= Integer.BYTES && buffer.getInt(buffer.position()) != 0;
+        if (corrupted && !tolerateTail) {
+            throw new IOException("Файл журнала " + file + " повреждён после " + read + " записей");
+        }
+        if (corrupted) {
+            logger.warn("[Journal exception] :: File: {}; Message: torn record after {} records is skipped.",
+                    file, read);
+        }
+        return count;
+    }
+
+    /**
+     * Удаляет файлы журнала с номером меньше указанного.
+     *
+     * @param prefix префикс имени файла
+     * @param suffix расширение файла
+     * @param number номер, начиная с которого файлы сохраняются
+     * @throws IOException если удалить файл не удалось
+     */
+    private void deleteOlderThan(String prefix, String suffix, long number) throws IOException {
+        for (long existing : numbers(prefix, suffix)) {
+            if (existing < number) {
+                Files.deleteIfExists(path(prefix, existing, suffix));
+            }
+        }
+    }
+
+    /**
+     * Возвращает наибольший номер среди файлов журнала или 0, если таких файлов нет.
+     *
+     * @param prefix префикс имени файла
+     * @param suffix расширение файла
+     * @throws IOException если прочитать каталог не удалось
+     */
+    private long lastNumber(String prefix, String suffix) throws IOException {
+        List<Long> numbers = numbers(prefix, suffix);
+        return numbers.isEmpty() ? 0 : numbers.getLast();
+    }
+
+    /**
+     * Возвращает номера файлов журнала по возрастанию.
+     *
+     * @param prefix префикс имени файла
+     * @param suffix расширение файла
+     * @return отсортированный список номеров
+     * @throws IOException если прочитать каталог не удалось
+     */
+    private List<Long> numbers(String prefix, String suffix) throws IOException {
+        List<Long> numbers = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.startsWith(prefix) && name.endsWith(suffix))
+                    .forEach(name -> numbers.add(
+                            Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length()))));
+        }
+        numbers.sort(null);
+        return numbers;
+    }
+
+    /**
+     * Возвращает путь к файлу журнала.
+     *
+     * @param prefix префикс имени файла
+     * @param number номер файла
+     * @param suffix расширение файла
+     * @return путь к файлу в каталоге журнала
+     */
+    private Path path(String prefix, long number, String suffix) {
+        return directory.resolve(prefix + String.format("%020d", number) + suffix);
+    }
+
+    /**
+     * Позиции групп чатов в журнале, начиная с которых записи групп не вошли в снимок.
+     * Позиция задаётся номером сегмента и смещением кадра в нём.
+     *
+     * @param segments номера сегментов для каждой группы
+     * @param offsets  смещения в сегментах для каждой группы
+     */
+    private record SnapshotPositions(long[] segments, int[] offsets) {
+
+        /**
+         * Возвращает размер заголовка снимка с позициями групп.
+         *
+         * @param stripes количество групп
+         */
+        private static int headerSize(int stripes) {
+            return 2 * Integer.BYTES + stripes * (Long.BYTES + Integer.BYTES);
+        }
+
+        /**
+         * Возвращает номер самого раннего сегмента, записи которого могут не входить в снимок.
+         */
+        private long firstSegment() {
+            return Arrays.stream(segments).min().orElseThrow();
+        }
+
+        /**
+         * Проверяет, находится ли запись чата не раньше позиции его группы, то есть не вошла в снимок.
+         *
+         * @param chatId        идентификатор чата записи
+         * @param segmentNumber номер сегмента записи
+         * @param offset        смещение записи в сегменте
+         */
+        private boolean isAfter(long chatId, long segmentNumber, int offset) {
+            int stripe = stripeOf(chatId, segments.length);
+            return segmentNumber > segments[stripe]
+                    || segmentNumber == segments[stripe] && offset >= offsets[stripe];
+        }
+
+        /**
+         * Кодирует позиции групп в заголовок снимка.
+         */
+        private ByteBuffer toHeader() {
+            ByteBuffer header = ByteBuffer.allocate(headerSize(segments.length));
+            header.putInt(SNAPSHOT_MAGIC).putInt(segments.length);
+            for (int i = 0; i < segments.length; i++) {
+                header.putLong(segments[i]).putInt(offsets[i]);
+            }
+            return header.flip();
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package ru.naumen.bot.data.journal;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Журнал, который только применяет изменения и ничего не сохраняет.
+ */
+final class NoOpJournal implements Journal {
+
+    @Override
+    public void write(JournalRecord record, Runnable mutation) {
+        mutation.run();
+    }
+
+    @Override
+    public long recover(Consumer<JournalRecord> consumer) {
+        return 0;
+    }
+
+    @Override
+    public void snapshot(List<JournalParticipant> participants) {
+    }
+
+    @Override
+    public void sync() {
+    }
+
+    @Override
+    public void close() {
+    }
+}
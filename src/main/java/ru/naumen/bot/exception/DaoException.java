@@ -14,6 +14,15 @@ public class DaoException extends Exception {
         super(exception);
     }
 
+    /**
+     * Конструктор, инициализирующий исключение с сообщением.
+     *
+     * @param message сообщение об ошибке, которое описывает причину возникновения исключения
+     */
+    public DaoException(String message) {
+        super(message);
+    }
+
     /**
      * Конструктор, инициализирующий исключение с причиной и сообщением .
      *
@@ -6,23 +6,23 @@ package ru.naumen.bot.exception;
 public class ExceedingTheLimitException extends Exception {
 
     /**
-     * Общая сумма ежедневных расходов.
+     * Общая сумма ежедневных расходов в копейках.
      */
-    private final Double dailyExpensesSum;
+    private final long dailyExpensesSum;
 
     /**
      * Конструктор для создания исключения с указанием лимита и суммы расходов.
      *
-     * @param dailyExpensesSum Текущая сумма ежедневных расходов.
+     * @param dailyExpensesSum Текущая сумма ежедневных расходов в копейках.
      */
-    public ExceedingTheLimitException(Double dailyExpensesSum) {
+    public ExceedingTheLimitException(long dailyExpensesSum) {
         this.dailyExpensesSum = dailyExpensesSum;
     }
 
     /**
-     * Возвращает текущую сумму ежедневных расходов.
+     * Возвращает текущую сумму ежедневных расходов в копейках.
      */
-    public Double getDailyExpensesSum() {
+    public long getDailyExpensesSum() {
         return dailyExpensesSum;
     }
 }
@@ -4,12 +4,15 @@ import org.springframework.stereotype.Component;
 import ru.naumen.bot.data.entity.AnswerMessage;
 import ru.naumen.bot.data.entity.Expense;
 import ru.naumen.bot.data.enums.ChatState;
+import ru.naumen.bot.data.enums.ExpenseCategory;
 import ru.naumen.bot.exception.DaoException;
 import ru.naumen.bot.handler.callback.CallbackHandler;
 import ru.naumen.bot.service.ExpenseService;
 import ru.naumen.bot.service.UserService;
+import ru.naumen.bot.utils.Money;
 
 import java.time.LocalDate;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -47,19 +50,20 @@ public class ExpenseCategoryForOutputCallbackHandler implements CallbackHandler
     @Override
     public List<AnswerMessage> handleCallback(String callbackData, String callbackId, long chatId) throws DaoException {
         userService.setUserState(chatId, ChatState.NOTHING_WAITING);
-        List<Expense> expenses = expenseService.getExpenses(chatId);
         StringBuilder result = new StringBuilder();
         result.append("Расходы по категории '").append(callbackData).append("' за текущий месяц:\n");
-        LocalDate today = LocalDate.now();
-        LocalDate startPeriod = LocalDate.of(today.getYear(), today.getMonth(), 1);
-        for (int i = expenses.size() - 1; i >= 0; i--) {
-            Expense expense = expenses.get(i);
-            if (expense.getDate().isBefore(startPeriod)) {
-                break;
-            }
-            if (expense.getCategory().getName().equals(callbackData)) {
-                result.append(expense.getAmount()).append(" - ").append(expense.getDescription()).append("\n");
-            }
+        ExpenseCategory category = Arrays.stream(ExpenseCategory.values())
+                .filter(expenseCategory -> expenseCategory.getName().equals(callbackData))
+                .findFirst()
+                .orElse(null);
+        if (category == null) {
+            return List.of(new AnswerMessage(result.toString(), chatId));
+        }
+        LocalDate today = userService.getToday(chatId);
+        List<Expense> expenses = expenseService.getExpenses(chatId,
+                today.withDayOfMonth(1), today.withDayOfMonth(today.lengthOfMonth()), category);
+        for (Expense expense : expenses.reversed()) {
+            Money.appendTo(result, expense.getAmount()).append(" - ").append(expense.getDescription()).append("\n");
         }
         return List.of(new AnswerMessage(result.toString(), chatId));
     }
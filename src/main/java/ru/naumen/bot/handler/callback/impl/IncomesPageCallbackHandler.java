@@ -0,0 +1,62 @@
+package ru.naumen.bot.handler.callback.impl;
+
+import org.springframework.stereotype.Component;
+import ru.naumen.bot.data.entity.AnswerMessage;
+import ru.naumen.bot.data.enums.ChatState;
+import ru.naumen.bot.exception.DaoException;
+import ru.naumen.bot.handler.callback.CallbackHandler;
+import ru.naumen.bot.interaction.HistoryPages;
+import ru.naumen.bot.interaction.keyboards.PageKeyboard;
+import ru.naumen.bot.service.UserService;
+
+import java.util.List;
+
+/**
+ * Обработчик коллбеков для перехода между страницами списка доходов
+ */
+@Component
+public class IncomesPageCallbackHandler implements CallbackHandler {
+
+    /**
+     * Постраничный вывод истории
+     */
+    private final HistoryPages historyPages;
+
+    /**
+     * Клавиатура для перехода между страницами
+     */
+    private final PageKeyboard pageKeyboard;
+
+    /**
+     * Сервис для работы с пользователями
+     */
+    private final UserService userService;
+
+    /**
+     * Конструктор для инициализации обработчика.
+     *
+     * @param historyPages постраничный вывод истории
+     * @param pageKeyboard клавиатура для перехода между страницами
+     * @param userService  сервис для работы с пользователями
+     */
+    public IncomesPageCallbackHandler(HistoryPages historyPages, PageKeyboard pageKeyboard, UserService userService) {
+        this.historyPages = historyPages;
+        this.pageKeyboard = pageKeyboard;
+        this.userService = userService;
+    }
+
+    @Override
+    public ChatState getChatState() {
+        return ChatState.WAITING_INCOMES_PAGE;
+    }
+
+    @Override
+    public List<AnswerMessage> handleCallback(String callbackData, String callbackId, long chatId) throws DaoException {
+        int page = pageKeyboard.parsePage(callbackData);
+        if (page < 0) {
+            userService.setUserState(chatId, ChatState.NOTHING_WAITING);
+            return List.of();
+        }
+        return historyPages.getIncomesPage(chatId, page);
+    }
+}
@@ -2,7 +2,6 @@ package ru.naumen.bot.handler.command.impl;
 
 import org.springframework.stereotype.Component;
 import ru.naumen.bot.data.entity.AnswerMessage;
-import ru.naumen.bot.data.entity.Expense;
 import ru.naumen.bot.data.enums.ChatState;
 import ru.naumen.bot.data.enums.ExpenseCategory;
 import ru.naumen.bot.exception.DaoException;
@@ -10,10 +9,10 @@ import ru.naumen.bot.handler.command.CommandHandler;
 import ru.naumen.bot.interaction.CommandData;
 import ru.naumen.bot.service.ExpenseService;
 import ru.naumen.bot.service.UserService;
+import ru.naumen.bot.utils.Money;
 
-import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.Comparator;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -52,25 +51,16 @@ public class AllCatOfExpensesCommandHandler implements CommandHandler {
     @Override
     public List<AnswerMessage> handleCommand(String message, long chatId) throws DaoException {
         userService.setUserState(chatId, ChatState.NOTHING_WAITING);
-        List<Expense> expenses = expenseService.getExpenses(chatId);
-        Map<ExpenseCategory, Double> sumExpenses = new HashMap<>();
-        LocalDate today = LocalDate.now();
-        LocalDate startPeriod = LocalDate.of(today.getYear(), today.getMonth(), 1);
-        for (int i = expenses.size() - 1; i >= 0; i--) {
-            Expense expense = expenses.get(i);
-            if (expense.getDate().isBefore(startPeriod)) {
-                break;
-            }
-            ExpenseCategory category = expense.getCategory();
-            sumExpenses.put(category, sumExpenses.getOrDefault(category, 0.0) + expense.getAmount());
-        }
+        Map<ExpenseCategory, Long> sumExpenses = expenseService.getCategoryTotals(chatId,
+                YearMonth.from(userService.getToday(chatId)));
         StringBuilder result = new StringBuilder();
         result.append("Суммарные расходы по категориям за текущий месяц:\n");
-        List<Map.Entry<ExpenseCategory, Double>> sortedEntries = sumExpenses.entrySet().stream()
-                .sorted(Comparator.comparingDouble(entry -> -entry.getValue()))
+        List<Map.Entry<ExpenseCategory, Long>> sortedEntries = sumExpenses.entrySet().stream()
+                .sorted(Comparator.comparingLong(entry -> -entry.getValue()))
                 .toList();
-        for (Map.Entry<ExpenseCategory, Double> entry : sortedEntries) {
-            result.append(entry.getKey().getName()).append(": ").append(entry.getValue()).append("\n");
+        for (Map.Entry<ExpenseCategory, Long> entry : sortedEntries) {
+            result.append(entry.getKey().getName()).append(": ");
+            Money.appendTo(result, entry.getValue()).append("\n");
         }
         return List.of(new AnswerMessage(result.toString(), chatId));
     }
@@ -8,6 +8,7 @@ import ru.naumen.bot.handler.command.CommandHandler;
 import ru.naumen.bot.interaction.CommandData;
 import ru.naumen.bot.service.BalanceService;
 import ru.naumen.bot.service.UserService;
+import ru.naumen.bot.utils.Money;
 
 import java.util.List;
 
@@ -46,7 +47,7 @@ public class BalanceCommandHandler implements CommandHandler {
     @Override
     public List<AnswerMessage> handleCommand(String message, long chatId) throws DaoException {
         userService.setUserState(chatId, ChatState.NOTHING_WAITING);
-        Double balance = balanceService.getBalance(chatId);
-        return List.of(new AnswerMessage("Ваш баланс: " + balance, chatId));
+        long balance = balanceService.getBalance(chatId);
+        return List.of(new AnswerMessage("Ваш баланс: " + Money.format(balance), chatId));
     }
 }
@@ -2,41 +2,31 @@ package ru.naumen.bot.handler.command.impl;
 
 import org.springframework.stereotype.Component;
 import ru.naumen.bot.data.entity.AnswerMessage;
-import ru.naumen.bot.data.entity.Expense;
-import ru.naumen.bot.data.enums.ChatState;
 import ru.naumen.bot.exception.DaoException;
 import ru.naumen.bot.handler.command.CommandHandler;
 import ru.naumen.bot.interaction.CommandData;
-import ru.naumen.bot.service.ExpenseService;
-import ru.naumen.bot.service.UserService;
+import ru.naumen.bot.interaction.HistoryPages;
 
 import java.util.List;
 
 /**
- * Обработчик команды для вывода всех расходов пользователя
+ * Обработчик команды для вывода расходов пользователя, начиная с последних, по страницам
  */
 @Component
 public class ExpensesCommandHandler implements CommandHandler {
 
     /**
-     * Сервис для работы с расходами
+     * Постраничный вывод истории
      */
-    private final ExpenseService expenseService;
-
-    /**
-     * Сервис для работы с пользователями
-     */
-    private final UserService userService;
+    private final HistoryPages historyPages;
 
     /**
      * Конструктор для инициализации обработчика.
      *
-     * @param expenseService сервис для работы с расходами
-     * @param userService    сервис для работы с пользователями
+     * @param historyPages постраничный вывод истории
      */
-    public ExpensesCommandHandler(ExpenseService expenseService, UserService userService) {
-        this.expenseService = expenseService;
-        this.userService = userService;
+    public ExpensesCommandHandler(HistoryPages historyPages) {
+        this.historyPages = historyPages;
     }
 
     @Override
@@ -46,14 +36,6 @@ public class ExpensesCommandHandler implements CommandHandler {
 
     @Override
     public List<AnswerMessage> handleCommand(String message, long chatId) throws DaoException {
-        userService.setUserState(chatId, ChatState.NOTHING_WAITING);
-        List<Expense> expenseList = expenseService.getExpenses(chatId);
-        StringBuilder expenses = new StringBuilder();
-        expenses.append("Ваши расходы:\n");
-        for (Expense expense : expenseList) {
-            expenses.append(expense.getAmount()).append(" - ").append(expense.getDescription()).append(" (").
-                    append(expense.getCategory().getName()).append(")\n");
-        }
-        return List.of(new AnswerMessage(expenses.toString(), chatId));
+        return historyPages.getExpensesPage(chatId, 1);
     }
 }
@@ -2,41 +2,31 @@ package ru.naumen.bot.handler.command.impl;
 
 import org.springframework.stereotype.Component;
 import ru.naumen.bot.data.entity.AnswerMessage;
-import ru.naumen.bot.data.entity.Income;
-import ru.naumen.bot.data.enums.ChatState;
 import ru.naumen.bot.exception.DaoException;
 import ru.naumen.bot.handler.command.CommandHandler;
 import ru.naumen.bot.interaction.CommandData;
-import ru.naumen.bot.service.IncomeService;
-import ru.naumen.bot.service.UserService;
+import ru.naumen.bot.interaction.HistoryPages;
 
 import java.util.List;
 
 /**
- * Обработчик команды для вывода всех доходов пользователя
+ * Обработчик команды для вывода доходов пользователя, начиная с последних, по страницам
  */
 @Component
 public class IncomesCommandHandler implements CommandHandler {
 
     /**
-     * Сервис для работы с доходами
+     * Постраничный вывод истории
      */
-    private final IncomeService incomeService;
-
-    /**
-     * Сервис для работы с пользователями
-     */
-    private final UserService userService;
+    private final HistoryPages historyPages;
 
     /**
      * Конструктор для инициализации обработчика.
      *
-     * @param incomeService сервис для работы с доходами
-     * @param userService   сервис для работы с пользователями
+     * @param historyPages постраничный вывод истории
      */
-    public IncomesCommandHandler(IncomeService incomeService, UserService userService) {
-        this.incomeService = incomeService;
-        this.userService = userService;
+    public IncomesCommandHandler(HistoryPages historyPages) {
+        this.historyPages = historyPages;
     }
 
     @Override
@@ -46,13 +36,6 @@ public class IncomesCommandHandler implements CommandHandler {
 
     @Override
     public List<AnswerMessage> handleCommand(String message, long chatId) throws DaoException {
-        userService.setUserState(chatId, ChatState.NOTHING_WAITING);
-        List<Income> incomeList = incomeService.getIncomes(chatId);
-        StringBuilder incomes = new StringBuilder();
-        incomes.append("Ваши доходы:\n");
-        for (Income income : incomeList) {
-            incomes.append(income.amount()).append(" - ").append(income.description()).append("\n");
-        }
-        return List.of(new AnswerMessage(incomes.toString(), chatId));
+        return historyPages.getIncomesPage(chatId, 1);
     }
 }
@@ -0,0 +1,43 @@
+package ru.naumen.bot.handler.command.impl;
+
+import org.springframework.stereotype.Component;
+import ru.naumen.bot.data.entity.AnswerMessage;
+import ru.naumen.bot.data.enums.ChatState;
+import ru.naumen.bot.handler.command.CommandHandler;
+import ru.naumen.bot.interaction.CommandData;
+import ru.naumen.bot.service.UserService;
+
+import java.util.List;
+
+/**
+ * Обработчик команды для установки часового пояса пользователя
+ */
+@Component
+public class TimeZoneCommandHandler implements CommandHandler {
+
+    /**
+     * Сервис для взаимодействия с данными пользователя.
+     */
+    private final UserService userService;
+
+    /**
+     * Конструктор класса {@link TimeZoneCommandHandler}.
+     *
+     * @param userService Сервис для взаимодействия с данными пользователя.
+     */
+    public TimeZoneCommandHandler(UserService userService) {
+        this.userService = userService;
+    }
+
+    @Override
+    public String getCommand() {
+        return CommandData.SET_TIME_ZONE_COMMAND.getReadableName();
+    }
+
+    @Override
+    public List<AnswerMessage> handleCommand(String message, long chatId) {
+        userService.setUserState(chatId, ChatState.WAITING_TIME_ZONE);
+        return List.of(new AnswerMessage("Текущий часовой пояс: " + userService.getTimeZone(chatId)
+                + ". Введите часовой пояс, например Europe/Moscow или UTC+5", chatId));
+    }
+}
@@ -0,0 +1,60 @@
+package ru.naumen.bot.handler.message.impl;
+
+import org.springframework.stereotype.Component;
+import ru.naumen.bot.data.entity.AnswerMessage;
+import ru.naumen.bot.data.enums.ChatState;
+import ru.naumen.bot.handler.message.MessageHandler;
+import ru.naumen.bot.service.LimitResetService;
+import ru.naumen.bot.service.UserService;
+
+import java.time.DateTimeException;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * Обработчик сообщений для установки часового пояса пользователя.
+ * После изменения часового пояса сброс суммы расходов за день переносится на полночь в новом поясе.
+ */
+@Component
+public class SetTimeZoneMessageHandler implements MessageHandler {
+
+    /**
+     * Сервис для взаимодействия с данными пользователя.
+     */
+    private final UserService userService;
+
+    /**
+     * Сервис сброса сумм расходов за день.
+     */
+    private final LimitResetService limitResetService;
+
+    /**
+     * Конструктор класса {@link SetTimeZoneMessageHandler}.
+     *
+     * @param userService       Сервис для управления состоянием пользователя.
+     * @param limitResetService Сервис сброса сумм расходов за день.
+     */
+    public SetTimeZoneMessageHandler(UserService userService, LimitResetService limitResetService) {
+        this.userService = userService;
+        this.limitResetService = limitResetService;
+    }
+
+    @Override
+    public ChatState getChatState() {
+        return ChatState.WAITING_TIME_ZONE;
+    }
+
+    @Override
+    public List<AnswerMessage> handleMessage(String message, long chatId) {
+        userService.setUserState(chatId, ChatState.NOTHING_WAITING);
+        ZoneId timeZone;
+        try {
+            timeZone = ZoneId.of(message.trim());
+        } catch (DateTimeException e) {
+            return List.of(new AnswerMessage("Некорректный часовой пояс!", chatId));
+        }
+        userService.setTimeZone(chatId, timeZone);
+        limitResetService.reschedule(chatId);
+        return List.of(new AnswerMessage("Часовой пояс установлен: " + timeZone, chatId));
+    }
+}
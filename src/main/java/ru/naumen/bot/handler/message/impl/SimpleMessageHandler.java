@@ -3,6 +3,7 @@ package ru.naumen.bot.handler.message.impl;
 import org.springframework.stereotype.Component;
 import ru.naumen.bot.data.entity.AnswerMessage;
 import ru.naumen.bot.data.enums.ChatState;
+import ru.naumen.bot.data.enums.TransactionType;
 import ru.naumen.bot.exception.DaoException;
 import ru.naumen.bot.exception.ExceedingTheLimitException;
 import ru.naumen.bot.handler.message.MessageHandler;
@@ -11,6 +12,10 @@ import ru.naumen.bot.interaction.keyboards.CategoriesKeyboard;
 import ru.naumen.bot.service.ExpenseService;
 import ru.naumen.bot.service.IncomeService;
 import ru.naumen.bot.service.UserService;
+import ru.naumen.bot.utils.Money;
+import ru.naumen.bot.utils.parser.ParsedTransaction;
+import ru.naumen.bot.utils.parser.TransactionParseError;
+import ru.naumen.bot.utils.parser.TransactionParser;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -21,16 +26,6 @@ import java.util.List;
 @Component
 public class SimpleMessageHandler implements MessageHandler {
 
-    /**
-     * Шаблон регулярного выражения для распознания сообщений о доходах
-     */
-    private static final String INCOMES_PATTERN = "^\\+\\s\\d{1,8}(\\.\\d{1,2})?\\s.{0,100}$";
-
-    /**
-     * Шаблон регулярного выражения для распознания сообщений о расходах
-     */
-    private static final String EXPENSES_PATTERN = "^-\\s\\d{1,8}(\\.\\d{1,2})?\\s.{0,100}$";
-
     /**
      * Количество кнопок на одной строке в клавиатуре для выбора категории расхода.
      */
@@ -56,6 +51,11 @@ public class SimpleMessageHandler implements MessageHandler {
      */
     private final CategoriesKeyboard categoriesKeyboard;
 
+    /**
+     * Разбор сообщений с доходами и расходами
+     */
+    private final TransactionParser transactionParser;
+
     /**
      * Конструктор для инициализации обработчика сообщений.
      *
@@ -63,13 +63,16 @@ public class SimpleMessageHandler implements MessageHandler {
      * @param incomeService      Сервис для работы с доходами
      * @param userService        Сервис для работы с данными пользователя
      * @param categoriesKeyboard Класс для формирования клавиатуры с категориями расходов
+     * @param transactionParser  Разбор сообщений с доходами и расходами
      */
     public SimpleMessageHandler(ExpenseService expenseService, IncomeService incomeService,
-                                UserService userService, CategoriesKeyboard categoriesKeyboard) {
+                                UserService userService, CategoriesKeyboard categoriesKeyboard,
+                                TransactionParser transactionParser) {
         this.expenseService = expenseService;
         this.incomeService = incomeService;
         this.userService = userService;
         this.categoriesKeyboard = categoriesKeyboard;
+        this.transactionParser = transactionParser;
     }
 
     @Override
@@ -79,25 +82,42 @@ public class SimpleMessageHandler implements MessageHandler {
 
     @Override
     public List<AnswerMessage> handleMessage(String message, long chatId) throws DaoException {
-        List<AnswerMessage> answerMessages = new ArrayList<>();
-        if (message.matches(INCOMES_PATTERN)) {
-            incomeService.addIncome(message, chatId);
-            return List.of(new AnswerMessage("Доход успешно добавлен!", chatId));
-        }
-        if (message.matches(EXPENSES_PATTERN)) {
-            try {
-                expenseService.addExpense(message, chatId);
-            } catch (ExceedingTheLimitException e) {
-                answerMessages.add(new AnswerMessage("Лимит расходов на день превышен!", chatId));
-                answerMessages.add(new AnswerMessage("Сумма расходов за день составляет: "
-                        + e.getDailyExpensesSum(), chatId));
+        return switch (transactionParser.parse(message)) {
+            case ParsedTransaction transaction when transaction.type() == TransactionType.INCOME -> {
+                incomeService.addIncome(transaction, chatId);
+                yield List.of(new AnswerMessage("Доход успешно добавлен!", chatId));
             }
-            userService.setUserState(chatId, ChatState.WAITING_EXPENSE_CATEGORY_FOR_ADDING);
-            List<List<String>> keyboardButtons = categoriesKeyboard.getCategoriesInGroups(COUNT_BUTTONS_AT_ROW);
-            answerMessages.add(new AnswerMessage("Выберите категорию расхода", chatId, keyboardButtons));
-            return answerMessages;
+            case ParsedTransaction transaction -> handleExpense(transaction, chatId);
+            case TransactionParseError error when error.isTransactionAttempt() ->
+                    List.of(new AnswerMessage("Не удалось добавить операцию: "
+                            + error.reason().getDescription() + ".\nНапример: + 1500 зарплата или - 350.50 кофе",
+                            chatId));
+            case TransactionParseError error ->
+                    List.of(new AnswerMessage("Я вас не понял.\nЧтобы ознакомиться с командами - напишите "
+                            + CommandData.HELP_COMMAND.getReadableName(), chatId));
+        };
+    }
+
+    /**
+     * Добавляет расход и предлагает выбрать его категорию.
+     *
+     * @param expense распознанный расход
+     * @param chatId  идентификатор чата
+     * @return список сообщений-ответов
+     * @throws DaoException если возникает ошибка работы с данными
+     */
+    private List<AnswerMessage> handleExpense(ParsedTransaction expense, long chatId) throws DaoException {
+        List<AnswerMessage> answerMessages = new ArrayList<>();
+        try {
+            expenseService.addExpense(expense, chatId);
+        } catch (ExceedingTheLimitException e) {
+            answerMessages.add(new AnswerMessage("Лимит расходов на день превышен!", chatId));
+            answerMessages.add(new AnswerMessage("Сумма расходов за день составляет: "
+                    + Money.format(e.getDailyExpensesSum()), chatId));
         }
-        return List.of(new AnswerMessage("Я вас не понял.\nЧтобы ознакомиться с командами - напишите "
-                + CommandData.HELP_COMMAND.getReadableName(), chatId));
+        userService.setUserState(chatId, ChatState.WAITING_EXPENSE_CATEGORY_FOR_ADDING);
+        List<List<String>> keyboardButtons = categoriesKeyboard.getCategoriesInGroups(COUNT_BUTTONS_AT_ROW);
+        answerMessages.add(new AnswerMessage("Выберите категорию расхода", chatId, keyboardButtons));
+        return answerMessages;
     }
 }
@@ -54,6 +54,11 @@ public enum CommandData {
      * Команда для удаления лимита на день
      */
     DELETE_EXPENSE_LIMIT_COMMAND("/dellimit", "Удалить лимит на день"),
+
+    /**
+     * Команда для установки часового пояса, в полночь по которому сбрасываются расходы за день
+     */
+    SET_TIME_ZONE_COMMAND("/timezone", "Установить часовой пояс"),
     ;
 
     /**
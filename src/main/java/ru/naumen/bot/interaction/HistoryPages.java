@@ -0,0 +1,155 @@
+package ru.naumen.bot.interaction;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.naumen.bot.data.entity.AnswerMessage;
+import ru.naumen.bot.data.entity.Expense;
+import ru.naumen.bot.data.entity.Income;
+import ru.naumen.bot.data.enums.ChatState;
+import ru.naumen.bot.exception.DaoException;
+import ru.naumen.bot.interaction.keyboards.PageKeyboard;
+import ru.naumen.bot.service.ExpenseService;
+import ru.naumen.bot.service.IncomeService;
+import ru.naumen.bot.service.UserService;
+import ru.naumen.bot.utils.Money;
+
+import java.util.List;
+
+/**
+ * Постраничный вывод истории расходов и доходов.
+ *
+ * <p>Первая страница содержит последние добавленные записи, каждая следующая - более старые.
+ * Из хранилища читается только запрошенная страница и одна запись перед ней, по которой
+ * определяется, есть ли более старые записи, поэтому время вывода не зависит от длины истории.
+ */
+@Component
+public class HistoryPages {
+
+    /**
+     * Сервис для работы с расходами
+     */
+    private final ExpenseService expenseService;
+
+    /**
+     * Сервис для работы с доходами
+     */
+    private final IncomeService incomeService;
+
+    /**
+     * Сервис для работы с пользователями
+     */
+    private final UserService userService;
+
+    /**
+     * Клавиатура для перехода между страницами
+     */
+    private final PageKeyboard pageKeyboard;
+
+    /**
+     * Количество записей на одной странице
+     */
+    private final int pageSize;
+
+    /**
+     * Конструктор HistoryPages
+     *
+     * @param expenseService сервис для работы с расходами
+     * @param incomeService  сервис для работы с доходами
+     * @param userService    сервис для работы с пользователями
+     * @param pageKeyboard   клавиатура для перехода между страницами
+     * @param pageSize       количество записей на одной странице
+     */
+    public HistoryPages(ExpenseService expenseService, IncomeService incomeService, UserService userService,
+                        PageKeyboard pageKeyboard, @Value("${history.page-size}") int pageSize) {
+        this.expenseService = expenseService;
+        this.incomeService = incomeService;
+        this.userService = userService;
+        this.pageKeyboard = pageKeyboard;
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Формирует сообщение со страницей расходов пользователя и устанавливает состояние чата:
+     * ожидание перехода между страницами, если страниц больше одной, иначе отсутствие ожидания.
+     *
+     * @param chatId идентификатор чата
+     * @param page   номер страницы, начиная с 1
+     * @return список сообщений для отправки пользователю
+     * @throws DaoException если возникла ошибка при получении расходов
+     */
+    public List<AnswerMessage> getExpensesPage(long chatId, int page) throws DaoException {
+        List<Expense> expenses = expenseService.getLatestExpenses(chatId, offsetOf(page), pageSize + 1);
+        boolean hasOlder = expenses.size() > pageSize;
+        StringBuilder result = new StringBuilder();
+        appendHeader(result, "Ваши расходы", page, hasOlder);
+        for (Expense expense : hasOlder ? expenses.subList(1, expenses.size()) : expenses) {
+            Money.appendTo(result, expense.getAmount()).append(" - ").append(expense.getDescription()).append(" (").
+                    append(expense.getCategory().getName()).append(")\n");
+        }
+        return answer(result.toString(), chatId, page, hasOlder, ChatState.WAITING_EXPENSES_PAGE);
+    }
+
+    /**
+     * Формирует сообщение со страницей доходов пользователя и устанавливает состояние чата:
+     * ожидание перехода между страницами, если страниц больше одной, иначе отсутствие ожидания.
+     *
+     * @param chatId идентификатор чата
+     * @param page   номер страницы, начиная с 1
+     * @return список сообщений для отправки пользователю
+     * @throws DaoException если возникла ошибка при получении доходов
+     */
+    public List<AnswerMessage> getIncomesPage(long chatId, int page) throws DaoException {
+        List<Income> incomes = incomeService.getLatestIncomes(chatId, offsetOf(page), pageSize + 1);
+        boolean hasOlder = incomes.size() > pageSize;
+        StringBuilder result = new StringBuilder();
+        appendHeader(result, "Ваши доходы", page, hasOlder);
+        for (Income income : hasOlder ? incomes.subList(1, incomes.size()) : incomes) {
+            Money.appendTo(result, income.amount()).append(" - ").append(income.description()).append("\n");
+        }
+        return answer(result.toString(), chatId, page, hasOlder, ChatState.WAITING_INCOMES_PAGE);
+    }
+
+    /**
+     * Возвращает количество последних записей, которые нужно пропустить для вывода страницы.
+     *
+     * @param page номер страницы, начиная с 1
+     */
+    private int offsetOf(int page) {
+        return (int) Math.min((long) (page - 1) * pageSize, Integer.MAX_VALUE - pageSize - 1);
+    }
+
+    /**
+     * Дописывает заголовок страницы. Номер страницы указывается, только если страниц больше одной.
+     *
+     * @param result   строка, к которой дописывается заголовок
+     * @param title    заголовок списка
+     * @param page     номер страницы
+     * @param hasOlder есть ли записи старше текущей страницы
+     */
+    private static void appendHeader(StringBuilder result, String title, int page, boolean hasOlder) {
+        result.append(title);
+        if (page > 1 || hasOlder) {
+            result.append(" (стр. ").append(page).append(')');
+        }
+        result.append(":\n");
+    }
+
+    /**
+     * Формирует ответ со страницей и устанавливает состояние чата.
+     *
+     * @param text      текст страницы
+     * @param chatId    идентификатор чата
+     * @param page      номер страницы
+     * @param hasOlder  есть ли записи старше текущей страницы
+     * @param pageState состояние ожидания перехода между страницами этого списка
+     */
+    private List<AnswerMessage> answer(String text, long chatId, int page, boolean hasOlder, ChatState pageState) {
+        List<List<String>> buttons = pageKeyboard.getPageButtons(page, hasOlder);
+        if (buttons.isEmpty()) {
+            userService.setUserState(chatId, ChatState.NOTHING_WAITING);
+            return List.of(new AnswerMessage(text, chatId));
+        }
+        userService.setUserState(chatId, pageState);
+        return List.of(new AnswerMessage(text, chatId, buttons));
+    }
+}
@@ -0,0 +1,70 @@
+package ru.naumen.bot.interaction.keyboards;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Класс для формирования кнопок перехода между страницами списка и разбора нажатых кнопок.
+ * Текст кнопки совпадает с данными коллбека, поэтому номер страницы записывается прямо в текст.
+ */
+@Component
+public class PageKeyboard {
+
+    /**
+     * Начало текста кнопки перехода к более старым записям
+     */
+    private static final String OLDER_PREFIX = "« Стр. ";
+
+    /**
+     * Начало текста кнопки перехода к более новым записям
+     */
+    private static final String NEWER_PREFIX = "Стр. ";
+
+    /**
+     * Конец текста кнопки перехода к более новым записям
+     */
+    private static final String NEWER_SUFFIX = " »";
+
+    /**
+     * Формирует строку кнопок для страницы списка.
+     *
+     * @param page     номер текущей страницы, начиная с 1
+     * @param hasOlder есть ли записи старше текущей страницы
+     * @return список с одной строкой кнопок или пустой список, если страница единственная
+     */
+    public List<List<String>> getPageButtons(int page, boolean hasOlder) {
+        List<String> row = new ArrayList<>(2);
+        if (hasOlder) {
+            row.add(OLDER_PREFIX + (page + 1));
+        }
+        if (page > 1) {
+            row.add(NEWER_PREFIX + (page - 1) + NEWER_SUFFIX);
+        }
+        return row.isEmpty() ? List.of() : List.of(row);
+    }
+
+    /**
+     * Возвращает номер страницы, на которую ведёт кнопка.
+     *
+     * @param buttonText текст нажатой кнопки
+     * @return номер страницы или -1, если текст не является кнопкой перехода
+     */
+    public int parsePage(String buttonText) {
+        String number;
+        if (buttonText.startsWith(OLDER_PREFIX)) {
+            number = buttonText.substring(OLDER_PREFIX.length());
+        } else if (buttonText.startsWith(NEWER_PREFIX) && buttonText.endsWith(NEWER_SUFFIX)) {
+            number = buttonText.substring(NEWER_PREFIX.length(), buttonText.length() - NEWER_SUFFIX.length());
+        } else {
+            return -1;
+        }
+        try {
+            int page = Integer.parseInt(number);
+            return page > 0 ? page : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package ru.naumen.bot.processor;
 
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
@@ -14,6 +15,7 @@ import ru.naumen.bot.handler.command.CommandHandler;
 import ru.naumen.bot.handler.message.MessageHandler;
 import ru.naumen.bot.interaction.CommandData;
 import ru.naumen.bot.service.UserService;
+import ru.naumen.bot.utils.metrics.BotMetrics;
 
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -47,6 +49,11 @@ public class BotUpdateProcessor {
      */
     private final Map<ChatState, CallbackHandler> callbackHandlers = new HashMap<>();
 
+    /**
+     * Метрики обработки обновлений
+     */
+    private final BotMetrics botMetrics;
+
     /**
      * Логгер для записи сообщений об ошибках
      */
@@ -59,10 +66,13 @@ public class BotUpdateProcessor {
      * @param commandHandlers  список обработчиков команд
      * @param callbackHandlers список обработчиков callback-запросов
      * @param messageHandlers  список обработчиков сообщений
+     * @param botMetrics       метрики обработки обновлений
      */
     public BotUpdateProcessor(UserService userService, List<CommandHandler> commandHandlers,
-                              List<CallbackHandler> callbackHandlers, List<MessageHandler> messageHandlers) {
+                              List<CallbackHandler> callbackHandlers, List<MessageHandler> messageHandlers,
+                              BotMetrics botMetrics) {
         this.userService = userService;
+        this.botMetrics = botMetrics;
         this.commandHandlers.putAll(commandHandlers.stream()
                 .collect(Collectors.toMap(CommandHandler::getCommand, handler -> handler)));
         this.callbackHandlers.putAll(callbackHandlers.stream()
@@ -80,14 +90,19 @@ public class BotUpdateProcessor {
      */
     public List<AnswerMessage> processBotUpdate(BotUpdate botUpdate) {
         long chatId = botUpdate.chatId();
+        Timer.Sample sample = botMetrics.start();
 
         if (!userService.isChatOpened(chatId)
                 && (!botUpdate.isTextMessage()
                 || !botUpdate.message().equals(CommandData.START_COMMAND.getReadableName()))) {
+            botMetrics.recordUpdate(sample, updateType(botUpdate), null, null, null);
             return List.of(new AnswerMessage(
                     "Чтобы начать работу, нажмите " + CommandData.START_COMMAND.getReadableName(), chatId));
         }
 
+        DataType dataType = userService.isChatOpened(chatId) ? userService.getDataType(chatId) : null;
+        Object handler = findHandler(botUpdate);
+        Throwable failure = null;
         try {
             if (botUpdate.isCallbackQuery()) {
                 return processCallback(botUpdate.callbackData(), botUpdate.callbackId(), chatId);
@@ -101,15 +116,59 @@ public class BotUpdateProcessor {
                 }
             }
         } catch (GoogleSheetsException exception) {
+            failure = exception;
             return handleGoogleSheetsException(exception, chatId);
         } catch (DaoException exception) {
+            failure = exception;
             logger.error(exception.getMessage(), exception);
             return List.of(new AnswerMessage("Произошла какая-то ошибка", chatId));
+        } catch (RuntimeException exception) {
+            failure = exception;
+            throw exception;
+        } finally {
+            botMetrics.recordUpdate(sample, updateType(botUpdate), handler, dataType, failure);
         }
 
         return List.of(new AnswerMessage("Неподдерживаемое сообщение", chatId));
     }
 
+    /**
+     * Возвращает тип обновления для метрик.
+     *
+     * @param botUpdate объект, содержащий данные обновления
+     * @return {@code callback}, {@code command}, {@code message} или {@code unsupported}
+     */
+    private String updateType(BotUpdate botUpdate) {
+        if (botUpdate.isCallbackQuery()) {
+            return "callback";
+        }
+        if (botUpdate.isTextMessage()) {
+            return botUpdate.message().startsWith("/") ? "command" : "message";
+        }
+        return "unsupported";
+    }
+
+    /**
+     * Возвращает обработчик, которому будет передано обновление, для метрик.
+     *
+     * @param botUpdate объект, содержащий данные обновления
+     * @return обработчик обновления или null, если обработчик не найден
+     */
+    private Object findHandler(BotUpdate botUpdate) {
+        long chatId = botUpdate.chatId();
+        if (botUpdate.isCallbackQuery()) {
+            return callbackHandlers.get(userService.getUserState(chatId));
+        }
+        if (botUpdate.isTextMessage() && botUpdate.message().startsWith("/")) {
+            return commandHandlers.get(botUpdate.message());
+        }
+        if (botUpdate.isTextMessage()) {
+            return messageHandlers.getOrDefault(userService.getUserState(chatId),
+                    messageHandlers.get(ChatState.NOTHING_WAITING));
+        }
+        return null;
+    }
+
     /**
      * Обработка callback-запроса.
      *
@@ -162,12 +221,19 @@ public class BotUpdateProcessor {
 
     /**
      * Обработка исключения, связанного с Google Sheets.
+     * Если гугл-таблица временно недоступна, пользователь остаётся на прежнем режиме работы
+     * и может повторить действие позже, иначе он переводится на режим работы с данными в памяти.
      *
      * @param exception исключение GoogleSheetsException
      * @param chatId    идентификатор чата
      * @return список сообщений-ответов для пользователя
      */
     private List<AnswerMessage> handleGoogleSheetsException(GoogleSheetsException exception, long chatId) {
+        if (exception.isTemporary()) {
+            logger.warn("[GoogleSheetsException exception] :: Message: {}.", exception.getMessage(), exception);
+            return List.of(new AnswerMessage("Гугл-таблица сейчас недоступна или перегружена. "
+                    + "Попробуйте повторить действие через минуту.", chatId));
+        }
         logger.error("[GoogleSheetsException exception] :: Message: {}.", exception.getMessage(), exception);
         userService.setDataType(chatId, DataType.IN_MEMORY);
         userService.setUserState(chatId, ChatState.NOTHING_WAITING);
@@ -0,0 +1,102 @@
+package ru.naumen.bot.processor;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.naumen.bot.data.entity.AnswerMessage;
+import ru.naumen.bot.data.entity.BotUpdate;
+import ru.naumen.bot.utils.concurrent.ChatTaskExecutor;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Диспетчер обновлений, полученных ботом.
+ *
+ * <p>Обновления разных чатов обрабатываются параллельно, обновления одного чата — строго
+ * в порядке поступления, поэтому переходы {@link ru.naumen.bot.data.enums.ChatState} в
+ * {@link BotUpdateProcessor} остаются корректными. Количество необработанных обновлений ограничено
+ * параметром {@code dispatcher.max-pending-updates}.
+ */
+@Component
+public class UpdateDispatcher {
+
+    /**
+     * Обработчик обновлений, полученных ботом
+     */
+    private final BotUpdateProcessor botUpdateProcessor;
+
+    /**
+     * Исполнитель, обрабатывающий обновления с сохранением порядка внутри чата
+     */
+    private final ChatTaskExecutor chatTaskExecutor;
+
+    /**
+     * Конструктор {@link UpdateDispatcher}.
+     *
+     * @param botUpdateProcessor обработчик обновлений, полученных ботом
+     * @param maxPendingUpdates  максимальное количество принятых, но ещё не обработанных обновлений
+     */
+    public UpdateDispatcher(BotUpdateProcessor botUpdateProcessor,
+                            @Value("${dispatcher.max-pending-updates}") int maxPendingUpdates) {
+        this.botUpdateProcessor = botUpdateProcessor;
+        this.chatTaskExecutor = new ChatTaskExecutor("update-dispatcher", maxPendingUpdates);
+    }
+
+    /**
+     * Ставит обновление в очередь чата на обработку.
+     * Если достигнут предел необработанных обновлений, блокирует вызывающий поток до освобождения места.
+     *
+     * @param botUpdate      обновление, полученное ботом
+     * @param answerConsumer получатель ответных сообщений, вызываемый после обработки обновления
+     * @throws InterruptedException если поток был прерван во время ожидания
+     */
+    public void dispatch(BotUpdate botUpdate, Consumer<List<AnswerMessage>> answerConsumer)
+            throws InterruptedException {
+        chatTaskExecutor.execute(botUpdate.chatId(), () -> process(botUpdate, answerConsumer));
+    }
+
+    /**
+     * Ставит обновление в очередь чата на обработку, если предел необработанных обновлений не достигнут.
+     * Не блокирует вызывающий поток.
+     *
+     * @param botUpdate      обновление, полученное ботом
+     * @param answerConsumer получатель ответных сообщений, вызываемый после обработки обновления
+     * @return true, если обновление принято, false, если очереди заполнены
+     */
+    public boolean tryDispatch(BotUpdate botUpdate, Consumer<List<AnswerMessage>> answerConsumer) {
+        return chatTaskExecutor.tryExecute(botUpdate.chatId(), () -> process(botUpdate, answerConsumer));
+    }
+
+    /**
+     * Возвращает количество принятых, но ещё не обработанных обновлений.
+     */
+    public int getPendingUpdates() {
+        return chatTaskExecutor.getPendingTasks();
+    }
+
+    /**
+     * Возвращает количество чатов, обновления которых сейчас обрабатываются или ожидают обработки.
+     */
+    public int getActiveChats() {
+        return chatTaskExecutor.getActiveChats();
+    }
+
+    /**
+     * Обрабатывает обновление и передаёт ответные сообщения получателю.
+     *
+     * @param botUpdate      обновление, полученное ботом
+     * @param answerConsumer получатель ответных сообщений
+     */
+    private void process(BotUpdate botUpdate, Consumer<List<AnswerMessage>> answerConsumer) {
+        answerConsumer.accept(botUpdateProcessor.processBotUpdate(botUpdate));
+    }
+
+    /**
+     * Дожидается обработки уже принятых обновлений при остановке приложения.
+     */
+    @PreDestroy
+    public void shutdown() {
+        chatTaskExecutor.close();
+    }
+}
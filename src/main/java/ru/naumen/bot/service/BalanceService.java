@@ -28,9 +28,9 @@ public class BalanceService {
     /**
      * Возвращает баланс пользователя на основе информации chatId пользователя.
      *
-     * @return текущий баланс пользователя.
+     * @return текущий баланс пользователя в копейках.
      */
-    public Double getBalance(long chatId) throws DaoException {
+    public long getBalance(long chatId) throws DaoException {
         BalanceDao balanceDao = balanceDaoProvider.getBalanceDaoForUser(chatId);
         return balanceDao.getBalance(chatId);
     }
@@ -39,9 +39,9 @@ public class BalanceService {
      * Устанавливает баланс пользователя на основе информации chatId пользователя.
      *
      * @param chatId  идентификатор чата
-     * @param balance сумма установленного баланса
+     * @param balance сумма установленного баланса в копейках
      */
-    public void setBalance(long chatId, Double balance) throws DaoException {
+    public void setBalance(long chatId, long balance) throws DaoException {
         BalanceDao balanceDao = balanceDaoProvider.getBalanceDaoForUser(chatId);
         balanceDao.setBalance(chatId, balance);
     }
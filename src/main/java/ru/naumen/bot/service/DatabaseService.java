@@ -1,17 +1,40 @@
 package ru.naumen.bot.service;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import ru.naumen.bot.data.dao.BalanceDao;
+import ru.naumen.bot.data.dao.ExpenseDao;
+import ru.naumen.bot.data.dao.IncomeDao;
+import ru.naumen.bot.data.dao.LimitDao;
+import ru.naumen.bot.data.dao.provider.BalanceDaoProvider;
+import ru.naumen.bot.data.dao.provider.ExpenseDaoProvider;
+import ru.naumen.bot.data.dao.provider.IncomeDaoProvider;
+import ru.naumen.bot.data.dao.provider.LimitDaoProvider;
 import ru.naumen.bot.data.entity.Expense;
 import ru.naumen.bot.data.entity.Income;
-import ru.naumen.bot.data.entity.Limit;
 import ru.naumen.bot.data.enums.ChatState;
 import ru.naumen.bot.data.enums.DataType;
 import ru.naumen.bot.exception.DaoException;
+import ru.naumen.bot.utils.concurrent.ChatLocks;
 
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.zip.CRC32C;
 
 /**
  * Сервис для взаимодействия с базами данных.
+ *
+ * <p>Перенос данных между хранилищами выполняется частями по {@code migration.chunk-size} записей,
+ * поэтому в памяти одновременно находится не больше одной части истории. Исходные данные удаляются
+ * только после того, как количество и контрольные суммы доходов и расходов в новом хранилище совпали
+ * с исходными. Если перенос прервался ошибкой, повторный перенос в то же хранилище продолжается
+ * с первой незаписанной записи.
  */
 @Service
 public class DatabaseService {
@@ -22,69 +45,290 @@ public class DatabaseService {
     private final UserService userService;
 
     /**
-     * Сервис IncomeService предоставляет методы для работы с доходами пользователя.
+     * Сервис GoogleSheetsService предоставляет методы для работы с Google Sheets.
      */
-    private final IncomeService incomeService;
+    private final GoogleSheetsService googleSheetsService;
 
     /**
-     * Сервис ExpenseService предоставляет методы для работы с расходами пользователя.
+     * Провайдер DAO для работы с расходами
      */
-    private final ExpenseService expenseService;
+    private final ExpenseDaoProvider expenseDaoProvider;
 
     /**
-     * Сервис BalanceService предоставляет методы для работы с балансом пользователя.
+     * Провайдер DAO для работы с доходами
      */
-    private final BalanceService balanceService;
+    private final IncomeDaoProvider incomeDaoProvider;
 
     /**
-     * Сервис GoogleSheetsService предоставляет методы для работы с Google Sheets.
+     * Провайдер DAO для работы с балансом
      */
-    private final GoogleSheetsService googleSheetsService;
+    private final BalanceDaoProvider balanceDaoProvider;
+
+    /**
+     * Провайдер DAO для работы с лимитами
+     */
+    private final LimitDaoProvider limitDaoProvider;
+
+    /**
+     * Блокировки, обеспечивающие атомарность операций над данными одного чата
+     */
+    private final ChatLocks chatLocks;
+
+    /**
+     * Количество записей, переносимых за один раз
+     */
+    private final int chunkSize;
+
+    /**
+     * Прерванные переносы, где ключом является идентификатор чата, а значением - хранилище,
+     * в которое переносились данные. Новое хранилище таких чатов уже очищено и содержит
+     * начало истории, поэтому повторный перенос его не очищает.
+     */
+    private final Map<Long, DataType> interruptedMigrations = new ConcurrentHashMap<>();
+
+    /**
+     * Логгер для записи сообщений об ошибках
+     */
+    private final Logger logger = LoggerFactory.getLogger(DatabaseService.class);
 
     /**
      * Конструктор класса DatabaseService.
      *
      * @param userService         сервис для работы с данными пользователей
-     * @param incomeService       сервис для работы с доходами пользователей
-     * @param expenseService      сервис для работы с расходами пользователей
-     * @param balanceService      сервис для работы с балансом пользователей
      * @param googleSheetsService сервис для работы с Google Sheets
+     * @param expenseDaoProvider  провайдер DAO для работы с расходами
+     * @param incomeDaoProvider   провайдер DAO для работы с доходами
+     * @param balanceDaoProvider  провайдер DAO для работы с балансом
+     * @param limitDaoProvider    провайдер DAO для работы с лимитами
+     * @param chatLocks           блокировки, обеспечивающие атомарность операций над данными одного чата
+     * @param chunkSize           количество записей, переносимых за один раз
      */
-    public DatabaseService(UserService userService, IncomeService incomeService, ExpenseService expenseService,
-                           BalanceService balanceService, GoogleSheetsService googleSheetsService) {
+    public DatabaseService(UserService userService, GoogleSheetsService googleSheetsService,
+                           ExpenseDaoProvider expenseDaoProvider, IncomeDaoProvider incomeDaoProvider,
+                           BalanceDaoProvider balanceDaoProvider, LimitDaoProvider limitDaoProvider,
+                           ChatLocks chatLocks, @Value("${migration.chunk-size}") int chunkSize) {
         this.userService = userService;
-        this.incomeService = incomeService;
-        this.expenseService = expenseService;
-        this.balanceService = balanceService;
         this.googleSheetsService = googleSheetsService;
+        this.expenseDaoProvider = expenseDaoProvider;
+        this.incomeDaoProvider = incomeDaoProvider;
+        this.balanceDaoProvider = balanceDaoProvider;
+        this.limitDaoProvider = limitDaoProvider;
+        this.chatLocks = chatLocks;
+        this.chunkSize = chunkSize;
     }
 
     /**
      * Метод для переноса данных из одной базы данных в другую.
+     * Тип базы данных пользователя меняется только после проверки перенесённых данных.
      *
      * @param chatId      идентификатор чата
      * @param newDataType новый тип базы данных
+     * @throws DaoException если перенос не удался или перенесённые данные не совпали с исходными
      */
     public void changeDB(long chatId, DataType newDataType) throws DaoException {
-        List<Income> incomes = incomeService.getIncomes(chatId);
-        List<Expense> expenses = expenseService.getExpenses(chatId);
-        Double balance = balanceService.getBalance(chatId);
-        Limit limit = expenseService.getExpensesLimit(chatId);
-
-        userService.setDataType(chatId, newDataType);
+        DataType oldDataType = userService.getDataType(chatId);
 
         if (userService.getUserState(chatId).equals(ChatState.WAITING_FOR_GOOGLE_SHEET_LINK)) {
             googleSheetsService.initGoogleSheets(chatId);
+            interruptedMigrations.remove(chatId);
+        }
+        if (oldDataType.equals(newDataType)) {
+            return;
+        }
+
+        ExpenseDao sourceExpenses = expenseDaoProvider.getExpenseDao(oldDataType);
+        ExpenseDao targetExpenses = expenseDaoProvider.getExpenseDao(newDataType);
+        IncomeDao sourceIncomes = incomeDaoProvider.getIncomeDao(oldDataType);
+        IncomeDao targetIncomes = incomeDaoProvider.getIncomeDao(newDataType);
+        BalanceDao sourceBalance = balanceDaoProvider.getBalanceDao(oldDataType);
+        BalanceDao targetBalance = balanceDaoProvider.getBalanceDao(newDataType);
+        LimitDao sourceLimit = limitDaoProvider.getLimitDao(oldDataType);
+        LimitDao targetLimit = limitDaoProvider.getLimitDao(newDataType);
+
+        boolean resume = newDataType.equals(interruptedMigrations.get(chatId));
+        if (!resume) {
+            targetExpenses.removeExpenses(chatId);
+            targetIncomes.removeIncomes(chatId);
+            interruptedMigrations.put(chatId, newDataType);
+        }
+        try {
+            migrateExpenses(chatId, sourceExpenses, targetExpenses, resume);
+            migrateIncomes(chatId, sourceIncomes, targetIncomes, resume);
+        } catch (MismatchException e) {
+            interruptedMigrations.remove(chatId);
+            throw e;
+        }
+
+        Lock lock = chatLocks.getLock(chatId);
+        lock.lock();
+        try {
+            targetBalance.setBalance(chatId, sourceBalance.getBalance(chatId));
+            targetLimit.setLimit(chatId, sourceLimit.getLimit(chatId));
+            userService.setDataType(chatId, newDataType);
+            interruptedMigrations.remove(chatId);
+        } finally {
+            lock.unlock();
+        }
+
+        try {
+            sourceExpenses.removeExpenses(chatId);
+            sourceIncomes.removeIncomes(chatId);
+            sourceBalance.removeBalance(chatId);
+            sourceLimit.removeLimit(chatId);
+        } catch (DaoException e) {
+            logger.error("[Dao exception] :: Chat: {}; Message: {}.", chatId, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Дописывает в новое хранилище расходы, которых в нём ещё нет, и сверяет расходы в обоих хранилищах.
+     *
+     * @param chatId идентификатор чата
+     * @param source DAO исходного хранилища
+     * @param target DAO нового хранилища
+     * @param resume продолжается ли прерванный перенос
+     * @throws DaoException если перенос не удался или расходы не совпали
+     */
+    private void migrateExpenses(long chatId, ExpenseDao source, ExpenseDao target, boolean resume)
+            throws DaoException {
+        int total = source.countExpenses(chatId);
+        int copied = resume ? target.countExpenses(chatId) : 0;
+        CRC32C sourceChecksum = new CRC32C();
+        for (int start = 0; start < total; start += chunkSize) {
+            List<Expense> chunk = source.getExpensesChunk(chatId, start, Math.min(chunkSize, total - start));
+            for (Expense expense : chunk) {
+                update(sourceChecksum, expense);
+            }
+            if (start + chunk.size() > copied) {
+                target.addExpenses(chatId, chunk.subList(Math.max(copied - start, 0), chunk.size()));
+            }
+        }
+
+        int targetTotal = target.countExpenses(chatId);
+        CRC32C targetChecksum = new CRC32C();
+        for (int start = 0; start < targetTotal; start += chunkSize) {
+            for (Expense expense : target.getExpensesChunk(chatId, start, chunkSize)) {
+                update(targetChecksum, expense);
+            }
+        }
+        verify("расходов", total, sourceChecksum, targetTotal, targetChecksum);
+    }
+
+    /**
+     * Дописывает в новое хранилище доходы, которых в нём ещё нет, и сверяет доходы в обоих хранилищах.
+     *
+     * @param chatId идентификатор чата
+     * @param source DAO исходного хранилища
+     * @param target DAO нового хранилища
+     * @param resume продолжается ли прерванный перенос
+     * @throws DaoException если перенос не удался или доходы не совпали
+     */
+    private void migrateIncomes(long chatId, IncomeDao source, IncomeDao target, boolean resume)
+            throws DaoException {
+        int total = source.countIncomes(chatId);
+        int copied = resume ? target.countIncomes(chatId) : 0;
+        CRC32C sourceChecksum = new CRC32C();
+        for (int start = 0; start < total; start += chunkSize) {
+            List<Income> chunk = source.getIncomesChunk(chatId, start, Math.min(chunkSize, total - start));
+            for (Income income : chunk) {
+                update(sourceChecksum, income);
+            }
+            if (start + chunk.size() > copied) {
+                target.addIncomes(chatId, chunk.subList(Math.max(copied - start, 0), chunk.size()));
+            }
+        }
+
+        int targetTotal = target.countIncomes(chatId);
+        CRC32C targetChecksum = new CRC32C();
+        for (int start = 0; start < targetTotal; start += chunkSize) {
+            for (Income income : target.getIncomesChunk(chatId, start, chunkSize)) {
+                update(targetChecksum, income);
+            }
+        }
+        verify("доходов", total, sourceChecksum, targetTotal, targetChecksum);
+    }
+
+    /**
+     * Сравнивает количество и контрольные суммы записей в исходном и новом хранилищах.
+     *
+     * @param kind           название записей для сообщения об ошибке
+     * @param sourceCount    количество записей в исходном хранилище
+     * @param sourceChecksum контрольная сумма записей в исходном хранилище
+     * @param targetCount    количество записей в новом хранилище
+     * @param targetChecksum контрольная сумма записей в новом хранилище
+     * @throws MismatchException если количество или контрольные суммы не совпали
+     */
+    private static void verify(String kind, int sourceCount, CRC32C sourceChecksum,
+                               int targetCount, CRC32C targetChecksum) throws MismatchException {
+        if (sourceCount != targetCount || sourceChecksum.getValue() != targetChecksum.getValue()) {
+            throw new MismatchException("Перенесённые данные не совпадают с исходными: количество " + kind + " "
+                    + sourceCount + " и " + targetCount + ", контрольные суммы "
+                    + sourceChecksum.getValue() + " и " + targetChecksum.getValue());
+        }
+    }
+
+    /**
+     * Добавляет расход к контрольной сумме.
+     *
+     * @param checksum контрольная сумма
+     * @param expense  расход
+     */
+    private static void update(CRC32C checksum, Expense expense) {
+        update(checksum, expense.getDescription());
+        update(checksum, expense.getAmount());
+        update(checksum, expense.getCategory().ordinal());
+        update(checksum, expense.getDate().toEpochDay());
+    }
+
+    /**
+     * Добавляет доход к контрольной сумме.
+     *
+     * @param checksum контрольная сумма
+     * @param income   доход
+     */
+    private static void update(CRC32C checksum, Income income) {
+        update(checksum, income.description());
+        update(checksum, income.amount());
+        update(checksum, income.date().toEpochDay());
+    }
+
+    /**
+     * Добавляет строку к контрольной сумме вместе с её длиной, чтобы соседние строки не склеивались.
+     *
+     * @param checksum контрольная сумма
+     * @param value    строка, отсутствующее значение считается пустой строкой
+     */
+    private static void update(CRC32C checksum, String value) {
+        byte[] bytes = Objects.requireNonNullElse(value, "").getBytes(StandardCharsets.UTF_8);
+        update(checksum, bytes.length);
+        checksum.update(bytes);
+    }
+
+    /**
+     * Добавляет число к контрольной сумме.
+     *
+     * @param checksum контрольная сумма
+     * @param value    число
+     */
+    private static void update(CRC32C checksum, long value) {
+        for (int shift = 0; shift < Long.SIZE; shift += Byte.SIZE) {
+            checksum.update((int) (value >>> shift));
         }
+    }
 
-        incomeService.removeIncomes(chatId);
-        expenseService.removeExpenses(chatId);
-        balanceService.removeBalance(chatId);
-        expenseService.removeExpensesLimit(chatId);
+    /**
+     * Исключение, выбрасываемое, если перенесённые данные не совпали с исходными.
+     * Такой перенос не продолжается, а при следующей попытке начинается заново.
+     */
+    private static class MismatchException extends DaoException {
 
-        incomeService.addIncomes(chatId, incomes);
-        expenseService.addExpenses(chatId, expenses);
-        balanceService.setBalance(chatId, balance);
-        expenseService.setExpensesLimit(chatId, limit);
+        /**
+         * Конструктор MismatchException
+         *
+         * @param message сообщение об ошибке
+         */
+        private MismatchException(String message) {
+            super(message);
+        }
     }
 }
@@ -1,25 +1,28 @@
 package ru.naumen.bot.service;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import ru.naumen.bot.data.dao.BalanceDao;
 import ru.naumen.bot.data.dao.ExpenseDao;
 import ru.naumen.bot.data.dao.LimitDao;
-import ru.naumen.bot.data.dao.provider.BalanceDaoProvider;
+import ru.naumen.bot.data.dao.SummaryDao;
 import ru.naumen.bot.data.dao.provider.ExpenseDaoProvider;
 import ru.naumen.bot.data.dao.provider.LimitDaoProvider;
+import ru.naumen.bot.data.dao.provider.SummaryDaoProvider;
 import ru.naumen.bot.data.entity.Expense;
 import ru.naumen.bot.data.entity.Limit;
+import ru.naumen.bot.data.entity.Summary;
 import ru.naumen.bot.data.enums.ExpenseCategory;
 import ru.naumen.bot.exception.DaoException;
 import ru.naumen.bot.exception.ExceedingTheLimitException;
+import ru.naumen.bot.utils.Money;
+import ru.naumen.bot.utils.concurrent.ChatLocks;
+import ru.naumen.bot.utils.parser.ParsedTransaction;
 
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.Arrays;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
 
 /**
  * Сервис IncomeService предоставляет методы для работы с расходами пользователя.
@@ -38,9 +41,9 @@ public class ExpenseService {
     private final LimitDaoProvider limitDaoProvider;
 
     /**
-     * Провайдер DAO для работы с балансом пользователей.
+     * Провайдер DAO для совместной работы с балансом и лимитом пользователей.
      */
-    private final BalanceDaoProvider balanceDaoProvider;
+    private final SummaryDaoProvider summaryDaoProvider;
 
     /**
      * Сервис для взаимодействия с данными пользователя.
@@ -48,25 +51,27 @@ public class ExpenseService {
     private final UserService userService;
 
     /**
-     * Логгер для записи сообщений об ошибках
+     * Блокировки, обеспечивающие атомарность операций над данными одного чата.
      */
-    private final Logger logger = LoggerFactory.getLogger(ExpenseService.class);
+    private final ChatLocks chatLocks;
 
     /**
      * Конструктор ExpenseService
      *
      * @param expenseDaoProvider Провайдер DAO для работы с расходами пользователей
      * @param limitDaoProvider   Провайдер DAO для работы с лимитами расходов пользователей
-     * @param balanceDaoProvider Провайдер DAO для работы с балансом пользователей
+     * @param summaryDaoProvider Провайдер DAO для совместной работы с балансом и лимитом пользователей
      * @param userService        Сервис для взаимодействия с данными пользователя
+     * @param chatLocks          Блокировки, обеспечивающие атомарность операций над данными одного чата
      */
     public ExpenseService(ExpenseDaoProvider expenseDaoProvider,
-                          LimitDaoProvider limitDaoProvider, BalanceDaoProvider balanceDaoProvider,
-                          UserService userService) {
+                          LimitDaoProvider limitDaoProvider, SummaryDaoProvider summaryDaoProvider,
+                          UserService userService, ChatLocks chatLocks) {
         this.expenseDaoProvider = expenseDaoProvider;
         this.limitDaoProvider = limitDaoProvider;
-        this.balanceDaoProvider = balanceDaoProvider;
+        this.summaryDaoProvider = summaryDaoProvider;
         this.userService = userService;
+        this.chatLocks = chatLocks;
     }
 
     /**
@@ -80,33 +85,89 @@ public class ExpenseService {
         return expenseDao.getExpenses(chatId);
     }
 
+    /**
+     * Возвращает страницу расходов пользователя, начиная с последних добавленных.
+     *
+     * @param chatId идентификатор чата, в котором было отправлено сообщение
+     * @param offset количество последних расходов, которые нужно пропустить
+     * @param limit  максимальное количество расходов
+     * @return список объектов {@link Expense} в порядке добавления.
+     */
+    public List<Expense> getLatestExpenses(long chatId, int offset, int limit) throws DaoException {
+        return expenseDaoProvider.getExpenseDaoForUser(chatId).getLatestExpenses(chatId, offset, limit);
+    }
+
+    /**
+     * Возвращает расходы пользователя за период.
+     *
+     * @param chatId идентификатор чата, в котором было отправлено сообщение
+     * @param from   начальная дата периода включительно
+     * @param to     конечная дата периода включительно
+     * @return список объектов {@link Expense} в порядке дат.
+     */
+    public List<Expense> getExpenses(long chatId, LocalDate from, LocalDate to) throws DaoException {
+        return expenseDaoProvider.getExpenseDaoForUser(chatId).getExpenses(chatId, from, to);
+    }
+
+    /**
+     * Возвращает расходы пользователя указанной категории за период.
+     *
+     * @param chatId   идентификатор чата, в котором было отправлено сообщение
+     * @param from     начальная дата периода включительно
+     * @param to       конечная дата периода включительно
+     * @param category категория расходов
+     * @return список объектов {@link Expense} в порядке дат.
+     */
+    public List<Expense> getExpenses(long chatId, LocalDate from, LocalDate to, ExpenseCategory category)
+            throws DaoException {
+        return expenseDaoProvider.getExpenseDaoForUser(chatId).getExpenses(chatId, from, to, category);
+    }
+
+    /**
+     * Возвращает суммы расходов пользователя по категориям за месяц.
+     *
+     * @param chatId идентификатор чата, в котором было отправлено сообщение
+     * @param month  месяц
+     * @return суммы расходов в копейках по категориям, в которых за месяц были расходы.
+     */
+    public Map<ExpenseCategory, Long> getCategoryTotals(long chatId, YearMonth month) throws DaoException {
+        return expenseDaoProvider.getExpenseDaoForUser(chatId).getCategoryTotals(chatId, month);
+    }
+
     /**
      * Добавляет расход в хранилище, обновляет баланс и сумму расходов за день.
      * По умолчанию установлена категория расхода "Другое".
+     * Баланс и лимит читаются и записываются вместе через {@link SummaryDao}, поэтому в Google Sheets
+     * их обновление занимает одно чтение и одну запись. Баланс и лимит читаются до добавления расхода,
+     * поэтому при ошибке чтения расход не записывается и повторная отправка не добавит его дважды.
+     * Все изменения выполняются под блокировкой чата, поэтому параллельные операции не теряют
+     * обновления баланса и лимита.
      *
-     * @param expense сообщение от пользователя.
+     * @param expense расход, распознанный в сообщении пользователя.
      * @param chatId  идентификатор чата, в котором было отправлено сообщение
      */
-    public void addExpense(String expense, long chatId) throws DaoException, ExceedingTheLimitException {
+    public void addExpense(ParsedTransaction expense, long chatId) throws DaoException, ExceedingTheLimitException {
         ExpenseDao expenseDao = expenseDaoProvider.getExpenseDaoForUser(chatId);
-        BalanceDao balanceDao = balanceDaoProvider.getBalanceDaoForUser(chatId);
-        LimitDao limitDao = limitDaoProvider.getLimitDaoForUser(chatId);
+        SummaryDao summaryDao = summaryDaoProvider.getSummaryDaoForUser(chatId);
 
-        String[] arrayOfStringExpense = expense.split(" ", 3);
-        Expense newExpense = new Expense(
-                arrayOfStringExpense[2], Double.parseDouble(arrayOfStringExpense[1]),
-                ExpenseCategory.OTHER, LocalDate.now());
-        expenseDao.addExpense(chatId, newExpense);
-        balanceDao.setBalance(chatId,
-                balanceDao.getBalance(chatId) - Double.parseDouble(arrayOfStringExpense[1]));
+        Expense newExpense = new Expense(expense.description(), expense.amount(),
+                ExpenseCategory.OTHER, userService.getToday(chatId));
+        Lock lock = chatLocks.getLock(chatId);
+        lock.lock();
+        try {
+            Summary summary = summaryDao.getSummary(chatId);
+            expenseDao.addExpense(chatId, newExpense);
 
-        if (limitDao.getLimit(chatId) != null) {
-            Limit limit = limitDao.getLimit(chatId);
+            Limit limit = summary.limit();
             try {
-                limit.setDailyExpensesSum(limit.getDailyExpensesSum() + Double.parseDouble(arrayOfStringExpense[1]));
+                if (limit != null) {
+                    limit.setDailyExpensesSum(limit.getDailyExpensesSum() + expense.amount());
+                }
             } finally {
-                limitDao.setLimit(chatId, limit);
+                summaryDao.setSummary(chatId, new Summary(summary.balance() - expense.amount(), limit));
             }
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -143,22 +204,30 @@ public class ExpenseService {
                 .filter(expenseCategory -> expenseCategory.getName().equalsIgnoreCase(category))
                 .findFirst()
                 .orElse(ExpenseCategory.OTHER);
-        expenseDao.setLastExpenseCategory(chatId, newCategory);
+        Lock lock = chatLocks.getLock(chatId);
+        lock.lock();
+        try {
+            expenseDao.setLastExpenseCategory(chatId, newCategory);
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
      * Устанавливает лимит расходов для указанного чата.
      *
      * @param chatId  идентификатор чата, для которого необходимо установить лимит.
-     * @param message сообщение от пользователя с новым лимитом расходов.
+     * @param message сообщение от пользователя с новым лимитом расходов в рублях.
+     * @throws NumberFormatException    если сообщение не является суммой
+     * @throws IllegalArgumentException если лимит отрицательный или равен нулю
      */
     public void setExpensesLimit(long chatId, String message) throws DaoException {
         LimitDao limitDao = limitDaoProvider.getLimitDaoForUser(chatId);
-        double limit = Double.parseDouble(message);
-        if (limit <= 0.0) {
+        long limit = Money.parse(message);
+        if (limit <= 0) {
             throw new IllegalArgumentException("Лимит не может быть отрицательным или нулём");
         }
-        limitDao.setLimit(chatId, new Limit(limit, 0.0));
+        limitDao.setLimit(chatId, new Limit(limit, 0));
     }
 
     /**
@@ -189,27 +258,4 @@ public class ExpenseService {
     public void setExpensesLimit(long chatId, Limit limit) throws DaoException {
         limitDaoProvider.getLimitDaoForUser(chatId).setLimit(chatId, limit);
     }
-
-    /**
-     * Обнуляет сумму расходов за день в 00:00.
-     */
-    @Scheduled(cron = "${scheduling.time-to-reset-limits}")
-    private void resetLimits() {
-        Set<Long> usersId = userService.getAllUserIds();
-        for (Long userId : usersId) {
-            LimitDao limitDao = limitDaoProvider.getLimitDaoForUser(userId);
-            try {
-                Limit limit = limitDao.getLimit(userId);
-                try {
-                    limit.setDailyExpensesSum(0.0);
-                } finally {
-                    limitDao.setLimit(userId, limit);
-                }
-            } catch (DaoException e) {
-                logger.error("[Dao exception] :: Message: {}", e.getMessage(), e);
-            } catch (ExceedingTheLimitException e) {
-                logger.error("[ExceedingTheLimitException] :: Message: {}", e.getMessage(), e);
-            }
-        }
-    }
 }
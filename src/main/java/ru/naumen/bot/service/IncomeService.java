@@ -7,9 +7,12 @@ import ru.naumen.bot.data.dao.provider.BalanceDaoProvider;
 import ru.naumen.bot.data.dao.provider.IncomeDaoProvider;
 import ru.naumen.bot.data.entity.Income;
 import ru.naumen.bot.exception.DaoException;
+import ru.naumen.bot.utils.concurrent.ChatLocks;
+import ru.naumen.bot.utils.parser.ParsedTransaction;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.concurrent.locks.Lock;
 
 /**
  * Сервис IncomeService предоставляет методы для работы с доходами пользователя.
@@ -27,15 +30,30 @@ public class IncomeService {
      */
     private final BalanceDaoProvider balanceDaoProvider;
 
+    /**
+     * Сервис для взаимодействия с данными пользователя.
+     */
+    private final UserService userService;
+
+    /**
+     * Блокировки, обеспечивающие атомарность операций над данными одного чата.
+     */
+    private final ChatLocks chatLocks;
+
     /**
      * Конструктор класса IncomeService.
      *
      * @param IncomeDaoProvider  Провайдер DAO для работы с доходами пользователей
      * @param balanceDaoProvider Провайдер DAO для работы с балансом пользователей
+     * @param userService        Сервис для взаимодействия с данными пользователя
+     * @param chatLocks          Блокировки, обеспечивающие атомарность операций над данными одного чата
      */
-    public IncomeService(IncomeDaoProvider IncomeDaoProvider, BalanceDaoProvider balanceDaoProvider) {
+    public IncomeService(IncomeDaoProvider IncomeDaoProvider, BalanceDaoProvider balanceDaoProvider,
+                         UserService userService, ChatLocks chatLocks) {
         this.incomeDaoProvider = IncomeDaoProvider;
         this.balanceDaoProvider = balanceDaoProvider;
+        this.userService = userService;
+        this.chatLocks = chatLocks;
     }
 
     /**
@@ -49,21 +67,52 @@ public class IncomeService {
         return incomeDao.getIncomes(chatId);
     }
 
+    /**
+     * Возвращает страницу доходов пользователя, начиная с последних добавленных.
+     *
+     * @param chatId идентификатор чата, в котором было отправлено сообщение
+     * @param offset количество последних доходов, которые нужно пропустить
+     * @param limit  максимальное количество доходов
+     * @return список объектов {@link Income} в порядке добавления.
+     */
+    public List<Income> getLatestIncomes(long chatId, int offset, int limit) throws DaoException {
+        return incomeDaoProvider.getIncomeDaoForUser(chatId).getLatestIncomes(chatId, offset, limit);
+    }
+
+    /**
+     * Возвращает доходы пользователя за период.
+     *
+     * @param chatId идентификатор чата, в котором было отправлено сообщение
+     * @param from   начальная дата периода включительно
+     * @param to     конечная дата периода включительно
+     * @return список объектов {@link Income} в порядке дат.
+     */
+    public List<Income> getIncomes(long chatId, LocalDate from, LocalDate to) throws DaoException {
+        return incomeDaoProvider.getIncomeDaoForUser(chatId).getIncomes(chatId, from, to);
+    }
+
     /**
      * Добавляет доход в хранилище и обновляет баланс.
+     * Баланс читается до добавления дохода, поэтому при ошибке чтения доход не записывается
+     * и повторная отправка не добавит его дважды. Изменения выполняются под блокировкой чата,
+     * поэтому параллельные операции не теряют обновления баланса.
      *
-     * @param income сообщение от пользователя.
+     * @param income доход, распознанный в сообщении пользователя.
      * @param chatId идентификатор чата, в котором было отправлено сообщение
      */
-    public void addIncome(String income, long chatId) throws DaoException {
+    public void addIncome(ParsedTransaction income, long chatId) throws DaoException {
         IncomeDao incomeDao = incomeDaoProvider.getIncomeDaoForUser(chatId);
         BalanceDao balanceDao = balanceDaoProvider.getBalanceDaoForUser(chatId);
-        String[] arrayOfStringIncome = income.split(" ", 3);
-        Income newIncome = new Income(
-                arrayOfStringIncome[2], Double.parseDouble(arrayOfStringIncome[1]), LocalDate.now());
-        incomeDao.addIncome(chatId, newIncome);
-        balanceDao.setBalance(chatId,
-                balanceDao.getBalance(chatId) + Double.parseDouble(arrayOfStringIncome[1]));
+        Income newIncome = new Income(income.description(), income.amount(), userService.getToday(chatId));
+        Lock lock = chatLocks.getLock(chatId);
+        lock.lock();
+        try {
+            long balance = balanceDao.getBalance(chatId);
+            incomeDao.addIncome(chatId, newIncome);
+            balanceDao.setBalance(chatId, balance + income.amount());
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
@@ -0,0 +1,371 @@
+package ru.naumen.bot.service;
+
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import ru.naumen.bot.data.dao.LimitDao;
+import ru.naumen.bot.data.dao.googleSheets.GoogleSheetsLimitIndex;
+import ru.naumen.bot.data.dao.inMemory.InMemoryLimitDao;
+import ru.naumen.bot.data.dao.provider.LimitDaoProvider;
+import ru.naumen.bot.data.entity.Limit;
+import ru.naumen.bot.data.enums.DataType;
+import ru.naumen.bot.exception.DaoException;
+import ru.naumen.bot.utils.concurrent.ChatLocks;
+import ru.naumen.bot.utils.concurrent.ChatTaskExecutor;
+import ru.naumen.bot.utils.metrics.BotMetrics;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Сервис сброса сумм расходов за день в полночь по времени каждого пользователя.
+ *
+ * <p>Время следующего сброса каждого чата хранится в очереди с приоритетом. Раз в
+ * {@code limit-reset.poll-interval} миллисекунд из очереди извлекаются чаты, для которых
+ * наступила полночь в их часовом поясе, и сразу же планируются на следующую полночь. Поэтому
+ * сбросы распределяются по часовым поясам пользователей, а не приходятся на одно время сервера.
+ * Изменение часового пояса применяется через {@link #reschedule(long)}, новые чаты
+ * планируются при очередной проверке очереди.
+ *
+ * <p>Лимиты в памяти сбрасываются сразу. Лимиты в гугл-таблицах сбрасываются параллельно,
+ * не более чем для {@code limit-reset.parallelism} чатов одновременно. Чаты, для которых
+ * известно, что лимит не установлен, пропускаются по {@link GoogleSheetsLimitIndex},
+ * а лимит с нулевой суммой не перезаписывается. Проверка очереди не ждёт освобождения места
+ * у исполнителя, так как выполняется в общем пуле планировщика: сбросы, которые не поместились,
+ * откладываются до следующей проверки. Время и результат сброса каждого чата записываются
+ * в метрику {@link BotMetrics#LIMIT_RESET}.
+ */
+@Service
+public class LimitResetService {
+
+    /**
+     * DAO лимитов пользователей, хранящих данные в памяти
+     */
+    private final InMemoryLimitDao inMemoryLimitDao;
+
+    /**
+     * Провайдер DAO для работы с лимитами расходов пользователей
+     */
+    private final LimitDaoProvider limitDaoProvider;
+
+    /**
+     * Индекс чатов, в таблицах которых не установлен лимит
+     */
+    private final GoogleSheetsLimitIndex googleSheetsLimitIndex;
+
+    /**
+     * Сервис для взаимодействия с данными пользователя
+     */
+    private final UserService userService;
+
+    /**
+     * Блокировки, обеспечивающие атомарность операций над данными одного чата
+     */
+    private final ChatLocks chatLocks;
+
+    /**
+     * Метрики, в которые записываются время и результаты сброса
+     */
+    private final BotMetrics botMetrics;
+
+    /**
+     * Часы, по которым определяется наступление полуночи
+     */
+    private final Clock clock;
+
+    /**
+     * Исполнитель сбросов лимитов в гугл-таблицах
+     */
+    private final ChatTaskExecutor googleSheetsExecutor;
+
+    /**
+     * Запланированные сбросы в порядке времени. Запись устаревает, если время сброса чата
+     * было изменено, и пропускается при извлечении.
+     */
+    private final PriorityQueue<ScheduledReset> resetQueue = new PriorityQueue<>();
+
+    /**
+     * Время следующего сброса каждого запланированного чата. Изменяется вместе
+     * с {@link #resetQueue} под её монитором.
+     */
+    private final Map<Long, Instant> nextResets = new HashMap<>();
+
+    /**
+     * Чаты, сброс для которых в гугл-таблицах не поместился в исполнитель и будет выполнен
+     * при следующей проверке очереди. Изменяется под монитором {@link #resetQueue}.
+     */
+    private final Set<Long> deferredResets = new LinkedHashSet<>();
+
+    /**
+     * Количество чатов, сброс для которых в гугл-таблицах начат, но ещё не завершён
+     */
+    private final AtomicInteger pendingGoogleSheetsResets = new AtomicInteger();
+
+    /**
+     * Логгер для записи сообщений об ошибках
+     */
+    private final Logger logger = LoggerFactory.getLogger(LimitResetService.class);
+
+    /**
+     * Конструктор LimitResetService
+     *
+     * @param inMemoryLimitDao       DAO лимитов пользователей, хранящих данные в памяти
+     * @param limitDaoProvider       провайдер DAO для работы с лимитами расходов пользователей
+     * @param googleSheetsLimitIndex индекс гугл-таблиц, в которых не установлен лимит
+     * @param userService            сервис для взаимодействия с данными пользователя
+     * @param chatLocks              блокировки, обеспечивающие атомарность операций над данными одного чата
+     * @param botMetrics             метрики, в которые записываются время и результаты сброса
+     * @param clock                  часы, по которым определяется наступление полуночи
+     * @param parallelism            максимальное количество чатов, лимиты которых в гугл-таблицах
+     *                               сбрасываются одновременно
+     */
+    public LimitResetService(InMemoryLimitDao inMemoryLimitDao, LimitDaoProvider limitDaoProvider,
+                             GoogleSheetsLimitIndex googleSheetsLimitIndex, UserService userService,
+                             ChatLocks chatLocks, BotMetrics botMetrics, Clock clock,
+                             @Value("${limit-reset.parallelism}") int parallelism) {
+        this.inMemoryLimitDao = inMemoryLimitDao;
+        this.limitDaoProvider = limitDaoProvider;
+        this.googleSheetsLimitIndex = googleSheetsLimitIndex;
+        this.userService = userService;
+        this.chatLocks = chatLocks;
+        this.botMetrics = botMetrics;
+        this.clock = clock;
+        this.googleSheetsExecutor = new ChatTaskExecutor("limit-reset", parallelism);
+    }
+
+    /**
+     * Планирует новые чаты и сбрасывает суммы расходов за день в чатах, для которых наступила полночь.
+     */
+    @Scheduled(fixedDelayString = "${limit-reset.poll-interval}")
+    public void resetDueLimits() {
+        scheduleNewChats();
+        for (long chatId : pollDueChats(clock.instant())) {
+            if (userService.getDataType(chatId) == DataType.IN_GOOGLE_SHEET) {
+                if (!submitGoogleSheetsReset(chatId)) {
+                    synchronized (resetQueue) {
+                        deferredResets.add(chatId);
+                    }
+                }
+            } else {
+                resetInMemoryLimit(chatId);
+            }
+        }
+    }
+
+    /**
+     * Планирует сброс для чата на ближайшую полночь в текущем часовом поясе пользователя.
+     * Вызывается после изменения часового пояса.
+     *
+     * @param chatId идентификатор чата
+     */
+    public void reschedule(long chatId) {
+        Instant now = clock.instant();
+        synchronized (resetQueue) {
+            schedule(chatId, nextMidnight(chatId, now));
+        }
+    }
+
+    /**
+     * Возвращает время следующего сброса для чата.
+     *
+     * @param chatId идентификатор чата
+     * @return время следующего сброса или null, если сброс для чата ещё не запланирован
+     */
+    public Instant getNextReset(long chatId) {
+        synchronized (resetQueue) {
+            return nextResets.get(chatId);
+        }
+    }
+
+    /**
+     * Возвращает количество чатов, сброс для которых в гугл-таблицах начат, но ещё не завершён.
+     */
+    public int getPendingResets() {
+        return pendingGoogleSheetsResets.get();
+    }
+
+    /**
+     * Возвращает количество чатов, сброс для которых в гугл-таблицах отложен до следующей проверки очереди.
+     */
+    public int getDeferredResets() {
+        synchronized (resetQueue) {
+            return deferredResets.size();
+        }
+    }
+
+    /**
+     * Прекращает приём сбросов и дожидается завершения уже начатых.
+     */
+    @PreDestroy
+    public void close() {
+        googleSheetsExecutor.close();
+    }
+
+    /**
+     * Планирует сброс для чатов, открытых после предыдущей проверки.
+     * Чаты не удаляются, поэтому новые чаты есть, только если их больше, чем запланированных.
+     */
+    private void scheduleNewChats() {
+        Instant now = clock.instant();
+        synchronized (resetQueue) {
+            if (userService.getAllUserIds().size() == nextResets.size()) {
+                return;
+            }
+            for (Long chatId : userService.getAllUserIds()) {
+                if (!nextResets.containsKey(chatId)) {
+                    schedule(chatId, nextMidnight(chatId, now));
+                }
+            }
+        }
+    }
+
+    /**
+     * Извлекает отложенные сбросы и чаты, время сброса которых наступило, планируя последние
+     * на следующую полночь.
+     *
+     * @param now текущее время
+     * @return идентификаторы чатов, для которых нужно выполнить сброс
+     */
+    private List<Long> pollDueChats(Instant now) {
+        List<Long> dueChats = new ArrayList<>();
+        synchronized (resetQueue) {
+            dueChats.addAll(deferredResets);
+            deferredResets.clear();
+            while (!resetQueue.isEmpty() && !resetQueue.peek().time().isAfter(now)) {
+                ScheduledReset reset = resetQueue.poll();
+                if (reset.time().equals(nextResets.get(reset.chatId()))) {
+                    dueChats.add(reset.chatId());
+                    schedule(reset.chatId(), nextMidnight(reset.chatId(), now));
+                }
+            }
+        }
+        return dueChats;
+    }
+
+    /**
+     * Планирует сброс для чата на указанное время, заменяя ранее запланированный.
+     * Вызывается под монитором {@link #resetQueue}.
+     *
+     * @param chatId идентификатор чата
+     * @param time   время сброса
+     */
+    private void schedule(long chatId, Instant time) {
+        if (!time.equals(nextResets.put(chatId, time))) {
+            resetQueue.add(new ScheduledReset(time, chatId));
+        }
+    }
+
+    /**
+     * Возвращает ближайшую полночь после указанного времени в часовом поясе пользователя.
+     *
+     * @param chatId идентификатор чата
+     * @param now    текущее время
+     */
+    private Instant nextMidnight(long chatId, Instant now) {
+        ZoneId timeZone = userService.getTimeZone(chatId);
+        return LocalDate.ofInstant(now, timeZone).plusDays(1).atStartOfDay(timeZone).toInstant();
+    }
+
+    /**
+     * Обнуляет сумму расходов за день в памяти.
+     *
+     * @param chatId идентификатор чата
+     */
+    private void resetInMemoryLimit(long chatId) {
+        Timer.Sample sample = botMetrics.start();
+        boolean isReset;
+        Lock lock = chatLocks.getLock(chatId);
+        lock.lock();
+        try {
+            isReset = inMemoryLimitDao.resetDailyExpensesSum(chatId);
+        } finally {
+            lock.unlock();
+        }
+        botMetrics.recordLimitReset(sample, DataType.IN_MEMORY, isReset ? "reset" : "skipped");
+    }
+
+    /**
+     * Передаёт исполнителю сброс суммы расходов за день в гугл-таблице пользователя, не дожидаясь
+     * места в его очереди. Если известно, что лимит в таблице не установлен, сброс пропускается.
+     *
+     * @param chatId идентификатор чата
+     * @return true, если сброс передан исполнителю или пропущен, false, если в очереди исполнителя нет места
+     */
+    private boolean submitGoogleSheetsReset(long chatId) {
+        Timer.Sample sample = botMetrics.start();
+        String googleSheetId = userService.getGoogleSheetId(chatId);
+        if (googleSheetId != null && !googleSheetsLimitIndex.mayHaveLimit(googleSheetId)) {
+            botMetrics.recordLimitReset(sample, DataType.IN_GOOGLE_SHEET, "skipped");
+            return true;
+        }
+        pendingGoogleSheetsResets.incrementAndGet();
+        boolean accepted = googleSheetsExecutor.tryExecute(chatId, () -> {
+            String outcome = "failed";
+            try {
+                outcome = resetGoogleSheetsLimit(chatId) ? "reset" : "skipped";
+            } catch (DaoException e) {
+                logger.error("[Dao exception] :: Chat: {}; Message: {}.", chatId, e.getMessage(), e);
+            } finally {
+                pendingGoogleSheetsResets.decrementAndGet();
+                botMetrics.recordLimitReset(sample, DataType.IN_GOOGLE_SHEET, outcome);
+            }
+        });
+        if (!accepted) {
+            pendingGoogleSheetsResets.decrementAndGet();
+        }
+        return accepted;
+    }
+
+    /**
+     * Обнуляет сумму расходов за день в гугл-таблице пользователя, если лимит установлен
+     * и сумма не равна нулю.
+     *
+     * @param chatId идентификатор чата
+     * @return true, если сумма была обнулена
+     * @throws DaoException если возникла ошибка при обращении к гугл-таблице
+     */
+    private boolean resetGoogleSheetsLimit(long chatId) throws DaoException {
+        Lock lock = chatLocks.getLock(chatId);
+        lock.lock();
+        try {
+            LimitDao limitDao = limitDaoProvider.getLimitDaoForUser(chatId);
+            Limit limit = limitDao.getLimit(chatId);
+            if (limit == null || limit.getDailyExpensesSum() == 0) {
+                return false;
+            }
+            limitDao.setLimit(chatId, new Limit(limit.getDailyLimit(), 0));
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Запланированный сброс суммы расходов за день.
+     *
+     * @param time   время сброса
+     * @param chatId идентификатор чата
+     */
+    private record ScheduledReset(Instant time, long chatId) implements Comparable<ScheduledReset> {
+
+        @Override
+        public int compareTo(ScheduledReset other) {
+            return time.compareTo(other.time);
+        }
+    }
+}
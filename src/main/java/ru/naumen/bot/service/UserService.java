@@ -1,13 +1,18 @@
 package ru.naumen.bot.service;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import ru.naumen.bot.data.dao.UserDao;
+import ru.naumen.bot.data.dao.googleSheets.GoogleSheetsWriteBehindBuffer;
 import ru.naumen.bot.data.dao.inMemory.InMemoryBalanceDao;
 import ru.naumen.bot.data.dao.inMemory.InMemoryExpenseDao;
 import ru.naumen.bot.data.dao.inMemory.InMemoryIncomeDao;
 import ru.naumen.bot.data.enums.ChatState;
 import ru.naumen.bot.data.enums.DataType;
 
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneId;
 import java.util.Set;
 
 /**
@@ -46,6 +51,21 @@ public class UserService {
      */
     private final InMemoryIncomeDao inMemoryIncomeDao;
 
+    /**
+     * Буфер отложенной записи строк в гугл-таблицы.
+     */
+    private final GoogleSheetsWriteBehindBuffer writeBehindBuffer;
+
+    /**
+     * Часовой пояс пользователей, которые не установили свой.
+     */
+    private final ZoneId defaultTimeZone;
+
+    /**
+     * Часы, по которым определяется текущая дата пользователя.
+     */
+    private final Clock clock;
+
     /**
      * Конструктор UserService. Инициализирует сервис с объектами DAO.
      *
@@ -53,13 +73,21 @@ public class UserService {
      * @param inMemoryBalanceDao DAO для управления балансом пользователя в памяти.
      * @param inMemoryExpenseDao DAO для управления расходами пользователя в памяти.
      * @param inMemoryIncomeDao  DAO для управления доходами пользователя в памяти.
+     * @param writeBehindBuffer  Буфер отложенной записи строк в гугл-таблицы.
+     * @param defaultTimeZone    Часовой пояс пользователей, которые не установили свой.
+     * @param clock              Часы, по которым определяется текущая дата пользователя.
      */
     public UserService(UserDao userDao, InMemoryBalanceDao inMemoryBalanceDao,
-                       InMemoryExpenseDao inMemoryExpenseDao, InMemoryIncomeDao inMemoryIncomeDao) {
+                       InMemoryExpenseDao inMemoryExpenseDao, InMemoryIncomeDao inMemoryIncomeDao,
+                       GoogleSheetsWriteBehindBuffer writeBehindBuffer,
+                       @Value("${users.default-time-zone}") ZoneId defaultTimeZone, Clock clock) {
         this.userDao = userDao;
         this.inMemoryBalanceDao = inMemoryBalanceDao;
         this.inMemoryExpenseDao = inMemoryExpenseDao;
         this.inMemoryIncomeDao = inMemoryIncomeDao;
+        this.writeBehindBuffer = writeBehindBuffer;
+        this.defaultTimeZone = defaultTimeZone;
+        this.clock = clock;
     }
 
     /**
@@ -79,7 +107,7 @@ public class UserService {
      */
     public void openChat(long chatId) {
         userDao.openChat(chatId);
-        inMemoryBalanceDao.setBalance(chatId, 0.0);
+        inMemoryBalanceDao.setBalance(chatId, 0);
         inMemoryExpenseDao.createUserList(chatId);
         inMemoryIncomeDao.createUserList(chatId);
         userDao.setChatState(chatId, ChatState.WAITING_FOR_TYPE_DB);
@@ -117,6 +145,7 @@ public class UserService {
 
     /**
      * Устанавливает ссылку на Google Sheets для указанного идентификатора.
+     * Строки прежней таблицы, ожидающие записи, записываются, если это удаётся, и удаляются из буфера.
      *
      * @param chatId идентификатор чата
      * @param link   ссылка на Google Sheets
@@ -124,17 +153,28 @@ public class UserService {
     public void setGoogleSheetId(long chatId, String link) {
         String googleSheetId = link.substring(link.indexOf(START_SHEET_ID) + START_SHEET_ID.length(),
                 link.indexOf(END_SHEET_ID));
+        String oldGoogleSheetId = userDao.getGoogleSheetId(chatId);
         userDao.setGoogleSheetId(chatId, googleSheetId);
+        if (oldGoogleSheetId != null && !oldGoogleSheetId.equals(googleSheetId)) {
+            writeBehindBuffer.release(oldGoogleSheetId);
+        }
     }
 
     /**
      * Устанавливает тип базы данных для указанного идентификатора.
+     * При уходе с гугл-таблицы строки таблицы, ожидающие записи, записываются, если это удаётся,
+     * и удаляются из буфера.
      *
      * @param chatId   идентификатор чата
      * @param dataType тип базы данных
      */
     public void setDataType(long chatId, DataType dataType) {
+        DataType oldDataType = userDao.getDataType(chatId);
         userDao.setDataType(chatId, dataType);
+        String googleSheetId = userDao.getGoogleSheetId(chatId);
+        if (oldDataType == DataType.IN_GOOGLE_SHEET && dataType != DataType.IN_GOOGLE_SHEET && googleSheetId != null) {
+            writeBehindBuffer.release(googleSheetId);
+        }
     }
 
     /**
@@ -147,6 +187,37 @@ public class UserService {
         return userDao.getGoogleSheetId(chatId);
     }
 
+    /**
+     * Устанавливает часовой пояс пользователя для указанного идентификатора.
+     *
+     * @param chatId   идентификатор чата
+     * @param timeZone часовой пояс пользователя
+     */
+    public void setTimeZone(long chatId, ZoneId timeZone) {
+        userDao.setTimeZone(chatId, timeZone);
+    }
+
+    /**
+     * Возвращает часовой пояс пользователя для указанного идентификатора.
+     *
+     * @param chatId идентификатор чата
+     * @return часовой пояс пользователя или часовой пояс по умолчанию, если пользователь не установил свой
+     */
+    public ZoneId getTimeZone(long chatId) {
+        ZoneId timeZone = userDao.getTimeZone(chatId);
+        return timeZone != null ? timeZone : defaultTimeZone;
+    }
+
+    /**
+     * Возвращает текущую дату в часовом поясе пользователя.
+     *
+     * @param chatId идентификатор чата
+     * @return текущая дата пользователя
+     */
+    public LocalDate getToday(long chatId) {
+        return LocalDate.now(clock.withZone(getTimeZone(chatId)));
+    }
+
     /**
      * Возвращение идентификаторов всех пользователей.
      */
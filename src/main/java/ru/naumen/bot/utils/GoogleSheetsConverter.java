@@ -6,17 +6,46 @@ import ru.naumen.bot.data.entity.Income;
 import ru.naumen.bot.data.entity.Limit;
 import ru.naumen.bot.data.enums.ExpenseCategory;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
- * Преобразование объектов в формат Google Sheets и обратно
+ * Преобразование объектов в формат Google Sheets и обратно.
+ * Денежные суммы записываются в таблицу числами в рублях с двумя знаками после запятой
+ * и читаются обратно в копейки через {@link Money}.
+ *
+ * <p>Таблица читается без форматирования, поэтому числа приходят числами, а даты, введённые в таблицу
+ * вручную, — серийными номерами. Строки, которые вернул бы запрос с форматированием, тоже поддерживаются.
+ * Описания и даты записываются с апострофом в начале, чтобы таблица сохранила их текстом:
+ * иначе описание вроде {@code 01.05} или {@code 50%} было бы прочитано датой или числом.
  */
 @Component
 public class GoogleSheetsConverter {
 
+    /**
+     * День, от которого отсчитываются серийные номера дат в Google Sheets
+     */
+    private static final LocalDate SERIAL_NUMBER_EPOCH = LocalDate.of(1899, 12, 30);
+
+    /**
+     * Категории расходов по названию в таблице: по имени константы, которое записывает бот,
+     * и по названию для пользователя, которое можно ввести в таблицу вручную
+     */
+    private static final Map<String, ExpenseCategory> CATEGORIES_BY_NAME = new HashMap<>();
+
+    static {
+        for (ExpenseCategory category : ExpenseCategory.values()) {
+            CATEGORIES_BY_NAME.put(category.name(), category);
+            CATEGORIES_BY_NAME.put(category.getName(), category);
+        }
+    }
+
     /**
      * Преобразование объекта income в формат Google Sheets
      *
@@ -24,7 +53,8 @@ public class GoogleSheetsConverter {
      * @return список списков, содержащий данные о доходе в формате таблицы
      */
     public List<List<Object>> incomeToSheetFormat(Income income) {
-        return List.of(List.of(income.description(), income.amount(), "'" + income.date().toString()));
+        return List.of(List.of(toText(income.description()), Money.toDecimal(income.amount()),
+                toText(income.date().toString())));
     }
 
     /**
@@ -35,8 +65,8 @@ public class GoogleSheetsConverter {
      */
     public List<List<Object>> incomesToSheetFormat(List<Income> incomes) {
         return incomes.stream()
-                .map(income -> List.<Object>of(income.description(),
-                        income.amount(), "'" + income.date().toString()))
+                .map(income -> List.<Object>of(toText(income.description()),
+                        Money.toDecimal(income.amount()), toText(income.date().toString())))
                 .collect(Collectors.toList());
     }
 
@@ -47,8 +77,8 @@ public class GoogleSheetsConverter {
      * @return список списков, содержащий данные о расходе в формате таблицы
      */
     public List<List<Object>> expenseToSheetFormat(Expense expense) {
-        return List.of(List.of(expense.getDescription(), expense.getAmount(),
-                expense.getCategory().name(), "'" + expense.getDate().toString()));
+        return List.of(List.of(toText(expense.getDescription()), Money.toDecimal(expense.getAmount()),
+                expense.getCategory().name(), toText(expense.getDate().toString())));
     }
 
     /**
@@ -59,8 +89,9 @@ public class GoogleSheetsConverter {
      */
     public List<List<Object>> expensesToSheetFormat(List<Expense> expenses) {
         return expenses.stream()
-                .map(expense -> List.<Object>of(expense.getDescription(), expense.getAmount(),
-                        expense.getCategory().name(), "'" + expense.getDate().toString()))
+                .map(expense -> List.<Object>of(toText(expense.getDescription()),
+                        Money.toDecimal(expense.getAmount()), expense.getCategory().name(),
+                        toText(expense.getDate().toString())))
                 .collect(Collectors.toList());
     }
 
@@ -76,12 +107,21 @@ public class GoogleSheetsConverter {
         }
         List<Income> result = new ArrayList<>(data.size());
         for (List<Object> row : data) {
-            result.add(new Income((String) row.get(0), Double.parseDouble((String) row.get(1)),
-                    LocalDate.parse((String) row.get(2))));
+            result.add(toIncome(row));
         }
         return result;
     }
 
+    /**
+     * Лениво преобразует строки таблицы в доходы: доход создаётся, только когда до него дошёл поток
+     *
+     * @param data данные из Google Sheets в формате списка списков
+     * @return поток доходов в порядке строк
+     */
+    public Stream<Income> streamIncomes(List<List<Object>> data) {
+        return data == null ? Stream.empty() : data.stream().map(this::toIncome);
+    }
+
     /**
      * Преобразует данные из формата таблицы в список объектов Expense
      *
@@ -94,33 +134,175 @@ public class GoogleSheetsConverter {
         }
         List<Expense> result = new ArrayList<>(data.size());
         for (List<Object> row : data) {
-            result.add(new Expense((String) row.get(0), Double.parseDouble((String) row.get(1)),
-                    ExpenseCategory.valueOf((String) row.get(2)), LocalDate.parse((String) row.get(3))));
+            result.add(toExpense(row));
+        }
+        return result;
+    }
+
+    /**
+     * Лениво преобразует строки таблицы в расходы. Строки других категорий отбрасываются
+     * по ячейке категории, без создания расхода.
+     *
+     * @param data     данные из Google Sheets в формате списка списков
+     * @param category категория расходов или null, если нужны расходы всех категорий
+     * @return поток расходов в порядке строк
+     */
+    public Stream<Expense> streamExpenses(List<List<Object>> data, ExpenseCategory category) {
+        if (data == null) {
+            return Stream.empty();
+        }
+        Stream<List<Object>> rows = data.stream();
+        if (category != null) {
+            rows = rows.filter(row -> cellToCategory(row.get(2)) == category);
+        }
+        return rows.map(this::toExpense);
+    }
+
+    /**
+     * Преобразует значение ячейки с суммой в рублях в копейки
+     *
+     * @param cell число или его десятичная запись
+     * @return сумма в копейках
+     * @throws NumberFormatException если ячейка не содержит сумму или сумма не помещается в long
+     */
+    public static long cellToMoney(Object cell) {
+        if (cell instanceof BigDecimal decimal) {
+            return Money.fromDecimal(decimal);
+        }
+        if (cell instanceof Long || cell instanceof Integer) {
+            return Money.ofUnits(((Number) cell).longValue());
+        }
+        if (cell instanceof Number number) {
+            return Money.fromDecimal(BigDecimal.valueOf(number.doubleValue()));
+        }
+        return Money.parse(cellToString(cell));
+    }
+
+    /**
+     * Преобразует значение ячейки с датой в дату
+     *
+     * @param cell серийный номер даты или её запись в формате ISO, например {@code "2024-01-31"}
+     * @return дата
+     * @throws java.time.format.DateTimeParseException если запись даты не удалось разобрать
+     */
+    public static LocalDate cellToDate(Object cell) {
+        if (cell instanceof Number serialNumber) {
+            return SERIAL_NUMBER_EPOCH.plusDays((long) Math.floor(serialNumber.doubleValue()));
+        }
+        String text = cellToString(cell);
+        if (isIsoDate(text)) {
+            return LocalDate.of(digits(text, 0, 4), digits(text, 5, 7), digits(text, 8, 10));
+        }
+        return LocalDate.parse(text);
+    }
+
+    /**
+     * Проверяет, что текст записан в виде {@code yyyy-MM-dd}, в котором бот записывает даты.
+     * Такие даты разбираются напрямую по символам, без {@link java.time.format.DateTimeFormatter}.
+     *
+     * @param text текст ячейки
+     */
+    private static boolean isIsoDate(String text) {
+        if (text.length() != 10 || text.charAt(4) != '-' || text.charAt(7) != '-') {
+            return false;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            if (i != 4 && i != 7 && (text.charAt(i) < '0' || text.charAt(i) > '9')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Возвращает число, записанное цифрами текста с позиции {@code from} до позиции {@code to}.
+     *
+     * @param text текст
+     * @param from первая позиция
+     * @param to   позиция после последней
+     */
+    private static int digits(String text, int from, int to) {
+        int result = 0;
+        for (int i = from; i < to; i++) {
+            result = result * 10 + (text.charAt(i) - '0');
         }
         return result;
     }
 
     /**
-     * Преобразует значение баланса в формат, подходящий для Google Sheets
+     * Преобразует значение ячейки с категорией в категорию расхода
+     *
+     * @param cell имя константы категории или её название для пользователя
+     * @return категория расхода
+     * @throws IllegalArgumentException если категории с таким названием нет
+     */
+    public static ExpenseCategory cellToCategory(Object cell) {
+        ExpenseCategory category = CATEGORIES_BY_NAME.get(cellToString(cell));
+        if (category == null) {
+            throw new IllegalArgumentException("Неизвестная категория расхода: " + cell);
+        }
+        return category;
+    }
+
+    /**
+     * Отмечает значение апострофом, чтобы таблица сохранила его текстом, не разбирая как число или дату.
+     * Сам апостроф в ячейку не попадает.
+     *
+     * @param value значение ячейки
+     */
+    private static String toText(String value) {
+        return "'" + value;
+    }
+
+    /**
+     * Возвращает текст ячейки. Число, введённое в текстовую ячейку, приходит числом и переводится в текст.
+     *
+     * @param cell значение ячейки
+     */
+    private static String cellToString(Object cell) {
+        return cell instanceof String string ? string : String.valueOf(cell);
+    }
+
+    /**
+     * Преобразует строку листа "Доходы" в доход
+     *
+     * @param row описание, сумма и дата
+     */
+    private Income toIncome(List<Object> row) {
+        return new Income(cellToString(row.get(0)), cellToMoney(row.get(1)), cellToDate(row.get(2)));
+    }
+
+    /**
+     * Преобразует строку листа "Расходы" в расход
+     *
+     * @param row описание, сумма, категория и дата
+     */
+    private Expense toExpense(List<Object> row) {
+        return new Expense(cellToString(row.get(0)), cellToMoney(row.get(1)),
+                cellToCategory(row.get(2)), cellToDate(row.get(3)));
+    }
+
+    /**
+     * Преобразует денежную сумму в формат, подходящий для Google Sheets
      *
-     * @param newBalance значение баланса для преобразования
-     * @return список списков, содержащий значение баланса в формате таблицы
+     * @param amount сумма в копейках
+     * @return список списков, содержащий сумму в рублях в формате таблицы
      */
-    public List<List<Object>> doubleToSheetFormat(double newBalance) {
-        return List.of(List.of(newBalance));
+    public List<List<Object>> moneyToSheetFormat(long amount) {
+        return List.of(List.of(Money.toDecimal(amount)));
     }
 
     /**
-     * Преобразует данные из формата таблицы в значение типа Double
+     * Преобразует данные из формата таблицы в денежную сумму
      *
      * @param data данные из Google Sheets в формате списка списков
-     * @return значение типа Double
+     * @return сумма в копейках или 0, если данных нет
      */
-    public Double sheetFormatToDouble(List<List<Object>> data) {
+    public long sheetFormatToMoney(List<List<Object>> data) {
         if (data == null) {
-            return 0.0;
+            return 0;
         }
-        return Double.parseDouble((String) data.getFirst().getFirst());
+        return cellToMoney(data.getFirst().getFirst());
     }
 
     /**
@@ -137,14 +319,13 @@ public class GoogleSheetsConverter {
         if (limit == null) {
             return List.of(List.of());
         }
-        return List.of(List.of(limit.getDailyLimit(), limit.getDailyExpensesSum()));
+        return List.of(List.of(Money.toDecimal(limit.getDailyLimit()), Money.toDecimal(limit.getDailyExpensesSum())));
     }
 
     public Limit sheetFormatToLimit(List<List<Object>> data) {
         if (data == null) {
             return null;
         }
-        return new Limit(Double.parseDouble((String) data.getFirst().getFirst()),
-                Double.parseDouble((String) data.getFirst().get(1)));
+        return new Limit(cellToMoney(data.getFirst().getFirst()), cellToMoney(data.getFirst().get(1)));
     }
 }
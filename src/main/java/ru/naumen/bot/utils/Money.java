@@ -0,0 +1,124 @@
+package ru.naumen.bot.utils;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Денежные суммы в копейках.
+ *
+ * <p>Суммы расходов, доходов, балансов и лимитов хранятся как {@code long} в копейках,
+ * поэтому сложение и вычитание точны и не создают объектов. Класс переводит суммы
+ * из текстовой и десятичной записи в копейки и обратно.
+ */
+public final class Money {
+
+    /**
+     * Количество копеек в рубле
+     */
+    public static final int MINOR_UNITS_PER_UNIT = 100;
+
+    /**
+     * Количество знаков после запятой
+     */
+    public static final int SCALE = 2;
+
+    /**
+     * Закрытый конструктор, так как класс содержит только статические методы.
+     */
+    private Money() {
+    }
+
+    /**
+     * Переводит рубли в копейки.
+     *
+     * @param units сумма в рублях
+     * @return сумма в копейках
+     * @throws ArithmeticException если сумма не помещается в long
+     */
+    public static long ofUnits(long units) {
+        return Math.multiplyExact(units, MINOR_UNITS_PER_UNIT);
+    }
+
+    /**
+     * Разбирает десятичную запись суммы в рублях, например {@code "1500"}, {@code "350.5"} или {@code "-12.30"}.
+     * Знаки после второго округляются до копеек, так как значения, записанные в таблицу
+     * ранее в формате double, могут содержать погрешность.
+     *
+     * @param text десятичная запись суммы
+     * @return сумма в копейках
+     * @throws NumberFormatException если строка не является числом или сумма не помещается в long
+     */
+    public static long parse(String text) {
+        return fromDecimal(new BigDecimal(text.trim()));
+    }
+
+    /**
+     * Переводит десятичное число в рублях, например, прочитанное из таблицы, в копейки.
+     * Знаки после второго округляются до копеек. Суммы, помещающиеся в long, переводятся
+     * без {@link java.math.BigInteger}.
+     *
+     * @param units сумма в рублях
+     * @return сумма в копейках
+     * @throws NumberFormatException если сумма не помещается в long
+     */
+    public static long fromDecimal(BigDecimal units) {
+        try {
+            BigDecimal minorUnits = units.movePointRight(SCALE);
+            return (minorUnits.scale() > 0 ? minorUnits.setScale(0, RoundingMode.HALF_UP) : minorUnits)
+                    .longValueExact();
+        } catch (ArithmeticException e) {
+            throw new NumberFormatException("Сумма вне допустимого диапазона: " + units);
+        }
+    }
+
+    /**
+     * Переводит копейки в десятичное число с двумя знаками после запятой для записи в таблицу.
+     *
+     * @param minorUnits сумма в копейках
+     * @return сумма в рублях
+     */
+    public static BigDecimal toDecimal(long minorUnits) {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+
+    /**
+     * Форматирует сумму для сообщения пользователю.
+     *
+     * @param minorUnits сумма в копейках
+     * @return сумма в рублях, например {@code "1500.0"}, {@code "350.5"} или {@code "0.07"}
+     * @see #appendTo(StringBuilder, long)
+     */
+    public static String format(long minorUnits) {
+        return appendTo(new StringBuilder(24), minorUnits).toString();
+    }
+
+    /**
+     * Дописывает сумму в рублях к строке без промежуточных объектов.
+     * Целая часть отделяется точкой, дробная часть записывается без незначащих нулей,
+     * но не короче одного знака, как в {@link Double#toString(double)}: {@code "1500.0"},
+     * {@code "350.5"}, {@code "0.07"}.
+     *
+     * @param builder    строка, к которой дописывается сумма
+     * @param minorUnits сумма в копейках
+     * @return переданная строка
+     */
+    public static StringBuilder appendTo(StringBuilder builder, long minorUnits) {
+        if (minorUnits < 0) {
+            builder.append('-');
+        }
+        long units = Math.abs(minorUnits / MINOR_UNITS_PER_UNIT);
+        int fraction = (int) Math.abs(minorUnits % MINOR_UNITS_PER_UNIT);
+        builder.append(units).append('.');
+        if (fraction < 10) {
+            builder.append('0');
+            if (fraction != 0) {
+                builder.append(fraction);
+            }
+        } else if (fraction % 10 == 0) {
+            builder.append(fraction / 10);
+        } else {
+            builder.append(fraction);
+        }
+        return builder;
+    }
+}
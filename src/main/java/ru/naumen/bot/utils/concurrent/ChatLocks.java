@@ -0,0 +1,171 @@
+package ru.naumen.bot.utils.concurrent;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Набор блокировок отдельных чатов.
+ *
+ * <p>Используется для атомарного выполнения составных операций над данными одного чата,
+ * например, добавления расхода вместе с изменением баланса и лимита. Такие операции могут
+ * несколько секунд ждать ответа Google Sheets API, поэтому у каждого чата своя блокировка,
+ * и операции разных чатов не ждут друг друга. Блокировка существует, пока её удерживает
+ * или ожидает хотя бы один поток, поэтому память не растёт с числом пользователей.
+ */
+@Component
+public class ChatLocks {
+
+    /**
+     * Используемые блокировки, где ключом является идентификатор чата
+     */
+    private final Map<Long, ChatLockEntry> locks = new ConcurrentHashMap<>();
+
+    /**
+     * Возвращает блокировку, защищающую данные чата.
+     * Блокировка повторно входимая, поэтому вложенные операции одного чата не блокируют друг друга.
+     * Условие {@link Lock#newCondition()} создаётся, только пока текущий поток удерживает блокировку,
+     * и действует, пока блокировку удерживает или ожидает хотя бы один поток.
+     *
+     * @param chatId идентификатор чата
+     * @return блокировка чата
+     */
+    public Lock getLock(long chatId) {
+        return new ChatLock(chatId);
+    }
+
+    /**
+     * Возвращает количество чатов, блокировки которых удерживаются или ожидаются.
+     */
+    public int getActiveChats() {
+        return locks.size();
+    }
+
+    /**
+     * Блокировка чата и количество её захватов, включая ожидающие.
+     * Количество изменяется только внутри атомарных операций над {@link #locks}.
+     */
+    private static class ChatLockEntry {
+
+        /**
+         * Блокировка чата
+         */
+        private final ReentrantLock lock = new ReentrantLock();
+
+        /**
+         * Количество захватов блокировки, включая ожидающие и повторные
+         */
+        private int holds;
+    }
+
+    /**
+     * Блокировка одного чата, которая берёт общую для чата запись из {@link #locks} при захвате
+     * и удаляет её после последнего освобождения.
+     */
+    private class ChatLock implements Lock {
+
+        /**
+         * Идентификатор чата
+         */
+        private final long chatId;
+
+        /**
+         * Конструктор ChatLock
+         *
+         * @param chatId идентификатор чата
+         */
+        private ChatLock(long chatId) {
+            this.chatId = chatId;
+        }
+
+        @Override
+        public void lock() {
+            acquire().lock.lock();
+        }
+
+        @Override
+        public void lockInterruptibly() throws InterruptedException {
+            ChatLockEntry entry = acquire();
+            try {
+                entry.lock.lockInterruptibly();
+            } catch (InterruptedException e) {
+                release();
+                throw e;
+            }
+        }
+
+        @Override
+        public boolean tryLock() {
+            if (acquire().lock.tryLock()) {
+                return true;
+            }
+            release();
+            return false;
+        }
+
+        @Override
+        public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
+            ChatLockEntry entry = acquire();
+            boolean locked = false;
+            try {
+                locked = entry.lock.tryLock(time, unit);
+                return locked;
+            } finally {
+                if (!locked) {
+                    release();
+                }
+            }
+        }
+
+        @Override
+        public void unlock() {
+            ChatLockEntry entry = locks.get(chatId);
+            if (entry == null) {
+                throw new IllegalMonitorStateException();
+            }
+            entry.lock.unlock();
+            release();
+        }
+
+        /**
+         * Возвращает условие блокировки чата. Поток, ожидающий условия, остаётся среди захвативших
+         * блокировку, поэтому она не удаляется, пока условие ожидается.
+         *
+         * @return условие блокировки чата
+         * @throws IllegalMonitorStateException если текущий поток не удерживает блокировку
+         */
+        @Override
+        public Condition newCondition() {
+            ChatLockEntry entry = locks.get(chatId);
+            if (entry == null || !entry.lock.isHeldByCurrentThread()) {
+                throw new IllegalMonitorStateException();
+            }
+            return entry.lock.newCondition();
+        }
+
+        /**
+         * Увеличивает количество захватов блокировки чата, создавая её при необходимости.
+         *
+         * @return запись блокировки чата
+         */
+        private ChatLockEntry acquire() {
+            return locks.compute(chatId, (id, entry) -> {
+                ChatLockEntry result = entry == null ? new ChatLockEntry() : entry;
+                result.holds++;
+                return result;
+            });
+        }
+
+        /**
+         * Уменьшает количество захватов блокировки чата и удаляет её после последнего.
+         */
+        private void release() {
+            locks.computeIfPresent(chatId, (id, entry) -> --entry.holds == 0 ? null : entry);
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package ru.naumen.bot.utils.concurrent;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Исполнитель задач, привязанных к чатам.
+ *
+ * <p>Задачи одного чата выполняются строго последовательно в порядке поступления,
+ * задачи разных чатов выполняются параллельно на виртуальных потоках.
+ * Количество принятых, но ещё не выполненных задач ограничено: при достижении предела
+ * {@link #execute(long, Runnable)} блокирует вызывающий поток, пока не освободится место.
+ */
+public class ChatTaskExecutor implements AutoCloseable {
+
+    /**
+     * Исполнитель, запускающий обработчик очереди каждого активного чата в отдельном виртуальном потоке
+     */
+    private final ExecutorService executorService;
+
+    /**
+     * Разрешения на постановку задач в очередь, ограничивающие количество невыполненных задач
+     */
+    private final Semaphore permits;
+
+    /**
+     * Максимальное количество невыполненных задач
+     */
+    private final int maxPendingTasks;
+
+    /**
+     * Очереди задач активных чатов. Запись существует, пока для чата работает обработчик очереди.
+     */
+    private final Map<Long, Queue<Runnable>> chatQueues = new ConcurrentHashMap<>();
+
+    /**
+     * Логгер для записи сообщений об ошибках
+     */
+    private final Logger logger = LoggerFactory.getLogger(ChatTaskExecutor.class);
+
+    /**
+     * Конструктор {@link ChatTaskExecutor}.
+     *
+     * @param name            префикс имени потоков исполнителя
+     * @param maxPendingTasks максимальное количество принятых, но ещё не выполненных задач
+     */
+    public ChatTaskExecutor(String name, int maxPendingTasks) {
+        if (maxPendingTasks <= 0) {
+            throw new IllegalArgumentException("Максимальное количество задач должно быть положительным");
+        }
+        this.executorService = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(name + "-", 0).factory());
+        this.permits = new Semaphore(maxPendingTasks);
+        this.maxPendingTasks = maxPendingTasks;
+    }
+
+    /**
+     * Ставит задачу в очередь чата. Если достигнут предел невыполненных задач,
+     * блокирует вызывающий поток до освобождения места.
+     *
+     * @param chatId идентификатор чата, к которому относится задача
+     * @param task   задача
+     * @throws InterruptedException если поток был прерван во время ожидания
+     */
+    public void execute(long chatId, Runnable task) throws InterruptedException {
+        permits.acquire();
+        enqueue(chatId, task);
+    }
+
+    /**
+     * Ставит задачу в очередь чата, если предел невыполненных задач не достигнут.
+     *
+     * @param chatId идентификатор чата, к которому относится задача
+     * @param task   задача
+     * @return true, если задача принята, иначе false
+     */
+    public boolean tryExecute(long chatId, Runnable task) {
+        if (!permits.tryAcquire()) {
+            return false;
+        }
+        enqueue(chatId, task);
+        return true;
+    }
+
+    /**
+     * Возвращает количество принятых, но ещё не выполненных задач.
+     */
+    public int getPendingTasks() {
+        return maxPendingTasks - permits.availablePermits();
+    }
+
+    /**
+     * Возвращает количество чатов, для которых в данный момент выполняются задачи.
+     */
+    public int getActiveChats() {
+        return chatQueues.size();
+    }
+
+    /**
+     * Добавляет задачу в очередь чата и запускает обработчик очереди, если он ещё не запущен.
+     *
+     * @param chatId идентификатор чата
+     * @param task   задача
+     */
+    private void enqueue(long chatId, Runnable task) {
+        boolean[] isNewQueue = new boolean[1];
+        chatQueues.compute(chatId, (id, queue) -> {
+            if (queue == null) {
+                queue = new ArrayDeque<>();
+                isNewQueue[0] = true;
+            }
+            queue.add(task);
+            return queue;
+        });
+        if (isNewQueue[0]) {
+            try {
+                executorService.execute(() -> drain(chatId));
+            } catch (RejectedExecutionException e) {
+                discardQueue(chatId);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Удаляет очередь чата, обработчик которой не удалось запустить, и освобождает разрешения всех её задач.
+     * Кроме задачи, при постановке которой запуск был отклонён, в очереди могут оказаться задачи,
+     * добавленные другими потоками, увидевшими уже созданную очередь.
+     *
+     * @param chatId идентификатор чата
+     */
+    private void discardQueue(long chatId) {
+        Queue<Runnable> queue = chatQueues.remove(chatId);
+        int discarded = queue == null ? 0 : queue.size();
+        permits.release(discarded);
+        if (discarded > 1) {
+            logger.error("[Chat task exception] :: Chat: {}; Message: {}.", chatId,
+                    "Исполнитель остановлен, отброшено задач: " + discarded);
+        }
+    }
+
+    /**
+     * Последовательно выполняет задачи из очереди чата, пока очередь не опустеет.
+     *
+     * @param chatId идентификатор чата
+     */
+    private void drain(long chatId) {
+        Runnable task;
+        while ((task = pollTask(chatId)) != null) {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                logger.error("[Chat task exception] :: Chat: {}; Message: {}.", chatId, e.getMessage(), e);
+            } finally {
+                permits.release();
+            }
+        }
+    }
+
+    /**
+     * Извлекает следующую задачу из очереди чата.
+     * Если очередь пуста, атомарно удаляет её, чтобы следующая задача запустила новый обработчик.
+     *
+     * @param chatId идентификатор чата
+     * @return следующая задача или null, если очередь пуста
+     */
+    private Runnable pollTask(long chatId) {
+        Runnable[] task = new Runnable[1];
+        chatQueues.computeIfPresent(chatId, (id, queue) -> {
+            task[0] = queue.poll();
+            return task[0] == null ? null : queue;
+        });
+        return task[0];
+    }
+
+    /**
+     * Прекращает приём задач и дожидается выполнения уже принятых.
+     */
+    @Override
+    public void close() {
+        executorService.close();
+    }
+}
@@ -0,0 +1,99 @@
+package ru.naumen.bot.utils.concurrent;
+
+import java.time.Duration;
+
+/**
+ * Предохранитель, прекращающий обращения к внешнему ресурсу после серии ошибок.
+ *
+ * <p>После {@code failureThreshold} ошибок подряд предохранитель размыкается, и в течение
+ * {@code openDuration} запросы к ресурсу не выполняются. Затем пропускается один пробный запрос:
+ * его успешный ответ замыкает предохранитель, а ошибка снова размыкает его. Пока пробный запрос
+ * выполняется, остальные запросы не пропускаются; если результат пробного запроса так и не был
+ * записан, следующий пробный запрос пропускается ещё через {@code openDuration}.
+ */
+public class CircuitBreaker {
+
+    /**
+     * Количество ошибок подряд, после которого предохранитель размыкается
+     */
+    private final int failureThreshold;
+
+    /**
+     * Время, в течение которого разомкнутый предохранитель не пропускает запросы, в наносекундах
+     */
+    private final long openNanos;
+
+    /**
+     * Количество ошибок подряд
+     */
+    private int failures;
+
+    /**
+     * Разомкнут ли предохранитель
+     */
+    private boolean open;
+
+    /**
+     * Время размыкания предохранителя или пропуска последнего пробного запроса в наносекундах
+     */
+    private long openedAt;
+
+    /**
+     * Конструктор {@link CircuitBreaker}. Изначально предохранитель замкнут.
+     *
+     * @param failureThreshold количество ошибок подряд, после которого предохранитель размыкается
+     * @param openDuration     время, в течение которого разомкнутый предохранитель не пропускает запросы
+     */
+    public CircuitBreaker(int failureThreshold, Duration openDuration) {
+        if (failureThreshold < 1 || openDuration.isNegative()) {
+            throw new IllegalArgumentException("Некорректные параметры предохранителя");
+        }
+        this.failureThreshold = failureThreshold;
+        this.openNanos = openDuration.toNanos();
+    }
+
+    /**
+     * Проверяет, можно ли выполнить запрос к ресурсу. Если предохранитель разомкнут и время ожидания истекло,
+     * пропускает пробный запрос и снова отсчитывает время ожидания для остальных запросов.
+     *
+     * @return true, если предохранитель замкнут или запрос пропущен как пробный, иначе false
+     */
+    public synchronized boolean allowRequest() {
+        if (!open) {
+            return true;
+        }
+        long now = System.nanoTime();
+        if (now - openedAt < openNanos) {
+            return false;
+        }
+        openedAt = now;
+        return true;
+    }
+
+    /**
+     * Запоминает успешный запрос и замыкает предохранитель.
+     */
+    public synchronized void recordSuccess() {
+        failures = 0;
+        open = false;
+    }
+
+    /**
+     * Запоминает ошибку запроса и размыкает предохранитель, если ошибок подряд стало достаточно
+     * или запрос был пробным после размыкания.
+     */
+    public synchronized void recordFailure() {
+        failures++;
+        if (open || failures >= failureThreshold) {
+            open = true;
+            openedAt = System.nanoTime();
+        }
+    }
+
+    /**
+     * Проверяет, разомкнут ли предохранитель.
+     */
+    public synchronized boolean isOpen() {
+        return open;
+    }
+}
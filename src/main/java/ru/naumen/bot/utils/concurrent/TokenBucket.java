@@ -0,0 +1,123 @@
+package ru.naumen.bot.utils.concurrent;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ограничитель частоты операций по алгоритму «ведро с токенами».
+ *
+ * <p>Ведро вмещает не более {@code capacity} токенов и пополняется с постоянной скоростью.
+ * Каждая операция забирает один токен; если токенов нет, операция ждёт их появления.
+ */
+public class TokenBucket {
+
+    /**
+     * Максимальное количество токенов в ведре
+     */
+    private final double capacity;
+
+    /**
+     * Скорость пополнения ведра в токенах за наносекунду
+     */
+    private final double tokensPerNano;
+
+    /**
+     * Текущее количество токенов. Может быть отрицательным после {@link #suspend(Duration)}.
+     */
+    private double tokens;
+
+    /**
+     * Время последнего пополнения ведра в наносекундах
+     */
+    private long lastRefillTime;
+
+    /**
+     * Конструктор {@link TokenBucket}. Изначально ведро заполнено.
+     *
+     * @param capacity        максимальное количество токенов (допустимый всплеск операций)
+     * @param tokensPerSecond скорость пополнения ведра в токенах за секунду
+     */
+    public TokenBucket(double capacity, double tokensPerSecond) {
+        if (capacity < 1 || tokensPerSecond <= 0) {
+            throw new IllegalArgumentException("Некорректные параметры ограничителя частоты");
+        }
+        this.capacity = capacity;
+        this.tokensPerNano = tokensPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.tokens = capacity;
+        this.lastRefillTime = System.nanoTime();
+    }
+
+    /**
+     * Забирает токен, при необходимости ожидая его появления.
+     *
+     * @throws InterruptedException если поток был прерван во время ожидания
+     */
+    public void acquire() throws InterruptedException {
+        long waitNanos;
+        while ((waitNanos = tryAcquireOrGetWait()) > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    /**
+     * Забирает токен, ожидая его появления не дольше указанного времени.
+     * Если токен не появится до истечения времени, метод возвращает управление сразу, не дожидаясь его.
+     *
+     * @param timeout максимальное время ожидания
+     * @return true, если токен получен, иначе false
+     * @throws InterruptedException если поток был прерван во время ожидания
+     */
+    public boolean tryAcquire(Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        long waitNanos;
+        while ((waitNanos = tryAcquireOrGetWait()) > 0) {
+            if (System.nanoTime() + waitNanos - deadline > 0) {
+                return false;
+            }
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+        return true;
+    }
+
+    /**
+     * Забирает токен, если он есть.
+     *
+     * @return true, если токен получен, иначе false
+     */
+    public boolean tryAcquire() {
+        return tryAcquireOrGetWait() == 0;
+    }
+
+    /**
+     * Приостанавливает выдачу токенов на указанное время, например, по требованию внешнего сервиса.
+     *
+     * @param duration время, в течение которого токены не выдаются
+     */
+    public synchronized void suspend(Duration duration) {
+        refill();
+        tokens = Math.min(tokens, 0) - duration.toNanos() * tokensPerNano;
+    }
+
+    /**
+     * Забирает токен, если он есть, иначе вычисляет время до его появления.
+     *
+     * @return 0, если токен получен, иначе время ожидания токена в наносекундах
+     */
+    private synchronized long tryAcquireOrGetWait() {
+        refill();
+        if (tokens >= 1) {
+            tokens -= 1;
+            return 0;
+        }
+        return Math.max(1, (long) Math.ceil((1 - tokens) / tokensPerNano));
+    }
+
+    /**
+     * Пополняет ведро токенами, накопившимися с момента последнего пополнения.
+     */
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefillTime) * tokensPerNano);
+        lastRefillTime = now;
+    }
+}
@@ -0,0 +1,336 @@
+package ru.naumen.bot.utils.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import ru.naumen.bot.data.enums.DataType;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Метрики обработки обновлений, обращений к хранилищам и внешним API.
+ *
+ * <p>Все таймеры имеют теги {@code outcome} со значениями {@code success} и {@code error}
+ * и {@code exception} с простым именем класса исключения или {@code none}. Количество вызовов
+ * публикуется вместе с таймером, поэтому отдельные счётчики для вызовов не заводятся.
+ * <ul>
+ *     <li>{@code bot.updates} — обработка обновления, теги {@code type}, {@code handler}
+ *     и {@code data.type};</li>
+ *     <li>{@code bot.dao} — вызов метода DAO, теги {@code dao}, {@code method} и {@code data.type};</li>
+ *     <li>{@code google-sheets.requests} — запрос к Google Sheets API, тег {@code operation};</li>
+ *     <li>{@code telegram.requests} — запрос к Telegram Bot API, теги {@code method} и {@code status};</li>
+ *     <li>{@code bot.limit-reset} — сброс суммы расходов за день в одном чате, теги {@code data.type}
+ *     и {@code outcome} со значениями {@code reset}, {@code skipped} и {@code failed}
+ *     вместо тега {@code exception}.</li>
+ * </ul>
+ */
+@Component
+public class BotMetrics {
+
+    /**
+     * Имя таймера обработки обновлений
+     */
+    public static final String UPDATES = "bot.updates";
+
+    /**
+     * Имя таймера вызовов DAO
+     */
+    public static final String DAO = "bot.dao";
+
+    /**
+     * Имя таймера запросов к Google Sheets API
+     */
+    public static final String GOOGLE_SHEETS_REQUESTS = "google-sheets.requests";
+
+    /**
+     * Имя таймера запросов к Telegram Bot API
+     */
+    public static final String TELEGRAM_REQUESTS = "telegram.requests";
+
+    /**
+     * Имя счётчика ответов 429 Too Many Requests от Telegram Bot API
+     */
+    public static final String TELEGRAM_RATE_LIMITED = "telegram.rate-limited";
+
+    /**
+     * Имя таймера сброса сумм расходов за день
+     */
+    public static final String LIMIT_RESET = "bot.limit-reset";
+
+    /**
+     * Имя счётчика повторных попыток запросов к Google Sheets API
+     */
+    public static final String GOOGLE_SHEETS_RETRIES = "google-sheets.retries";
+
+    /**
+     * Имя счётчика запросов к Google Sheets API, отклонённых без отправки
+     */
+    public static final String GOOGLE_SHEETS_REJECTED = "google-sheets.rejected";
+
+    /**
+     * Имя счётчика HTTP-ответов Google Sheets API
+     */
+    public static final String GOOGLE_SHEETS_HTTP_RESPONSES = "google-sheets.http.responses";
+
+    /**
+     * Значение тега {@code outcome} для успешного вызова
+     */
+    private static final String SUCCESS = "success";
+
+    /**
+     * Значение тега {@code outcome} для вызова, завершившегося исключением
+     */
+    private static final String ERROR = "error";
+
+    /**
+     * Значение тега, когда значение отсутствует
+     */
+    private static final String NONE = "none";
+
+    /**
+     * Реестр, в котором регистрируются метрики
+     */
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Счётчик ответов 429 Too Many Requests от Telegram Bot API
+     */
+    private final Counter telegramRateLimited;
+
+    /**
+     * Конструктор BotMetrics
+     *
+     * @param meterRegistry реестр, в котором регистрируются метрики
+     */
+    public BotMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.telegramRateLimited = Counter.builder(TELEGRAM_RATE_LIMITED)
+                .description("Ответы Telegram Bot API с требованием повторить запрос позже")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Начинает замер времени.
+     *
+     * @return замер, который передаётся в один из методов {@code record}
+     */
+    public Timer.Sample start() {
+        return Timer.start(meterRegistry);
+    }
+
+    /**
+     * Записывает время обработки обновления.
+     *
+     * @param sample    замер, начатый до обработки
+     * @param type      тип обновления: {@code command}, {@code message}, {@code callback} или {@code unsupported}
+     * @param handler   обработчик обновления или null, если обработчик не найден
+     * @param dataType  тип хранилища пользователя или null, если чат ещё не открыт
+     * @param exception исключение, которым завершилась обработка, или null
+     */
+    public void recordUpdate(Timer.Sample sample, String type, Object handler, DataType dataType,
+                             Throwable exception) {
+        sample.stop(Timer.builder(UPDATES)
+                .description("Обработка обновлений, полученных ботом")
+                .tags("type", type,
+                        "handler", handler != null ? handler.getClass().getSimpleName() : NONE,
+                        "data.type", dataType != null ? dataType.name() : NONE)
+                .tags(outcomeTags(exception))
+                .register(meterRegistry));
+    }
+
+    /**
+     * Записывает время запроса к Google Sheets API.
+     *
+     * @param sample    замер, начатый до запроса
+     * @param operation название операции
+     * @param exception исключение, которым завершился запрос, или null
+     */
+    public void recordGoogleSheetsRequest(Timer.Sample sample, String operation, Throwable exception) {
+        sample.stop(Timer.builder(GOOGLE_SHEETS_REQUESTS)
+                .description("Запросы к Google Sheets API")
+                .tag("operation", operation)
+                .tags(outcomeTags(exception))
+                .register(meterRegistry));
+    }
+
+    /**
+     * Записывает время запроса к Telegram Bot API.
+     *
+     * @param sample    замер, начатый до запроса
+     * @param method    метод Telegram Bot API
+     * @param errorCode код ошибки из ответа, 0 для успешного ответа
+     * @param exception исключение, которым завершился запрос, или null, если ответ получен
+     */
+    public void recordTelegramRequest(Timer.Sample sample, String method, int errorCode, Throwable exception) {
+        sample.stop(Timer.builder(TELEGRAM_REQUESTS)
+                .description("Запросы к Telegram Bot API")
+                .tags("method", method,
+                        "status", exception == null ? String.valueOf(errorCode) : NONE,
+                        "outcome", exception == null && errorCode == 0 ? SUCCESS : ERROR,
+                        "exception", exception == null ? NONE : exception.getClass().getSimpleName())
+                .register(meterRegistry));
+    }
+
+    /**
+     * Записывает время и результат сброса суммы расходов за день в одном чате.
+     *
+     * @param sample   замер, начатый до сброса
+     * @param dataType тип хранилища пользователя
+     * @param outcome  результат сброса: {@code reset}, {@code skipped} или {@code failed}
+     */
+    public void recordLimitReset(Timer.Sample sample, DataType dataType, String outcome) {
+        sample.stop(Timer.builder(LIMIT_RESET)
+                .description("Сброс сумм расходов за день")
+                .tags("data.type", dataType.name(), "outcome", outcome)
+                .register(meterRegistry));
+    }
+
+    /**
+     * Увеличивает счётчик повторных попыток запроса к Google Sheets API.
+     *
+     * @param operation название операции
+     * @param status    код ответа, из-за которого запрос повторяется, или 0 для сетевой ошибки
+     */
+    public void countGoogleSheetsRetry(String operation, int status) {
+        Counter.builder(GOOGLE_SHEETS_RETRIES)
+                .description("Повторные попытки запросов к Google Sheets API")
+                .tags("operation", operation, "status", String.valueOf(status))
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * Увеличивает счётчик запросов к Google Sheets API, отклонённых без отправки.
+     *
+     * @param operation название операции
+     * @param reason    причина: {@code circuit-open} или {@code throttled}
+     */
+    public void countGoogleSheetsRejected(String operation, String reason) {
+        Counter.builder(GOOGLE_SHEETS_REJECTED)
+                .description("Запросы к Google Sheets API, отклонённые без отправки")
+                .tags("operation", operation, "reason", reason)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * Увеличивает счётчик HTTP-ответов Google Sheets API. Тег {@code version} показывает,
+     * удалось ли договориться о HTTP/2, при котором все запросы идут по одному соединению.
+     *
+     * @param version версия протокола, по которому получен ответ
+     */
+    public void countGoogleSheetsHttpResponse(String version) {
+        Counter.builder(GOOGLE_SHEETS_HTTP_RESPONSES)
+                .description("HTTP-ответы Google Sheets API")
+                .tag("version", version)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * Увеличивает счётчик ответов 429 Too Many Requests от Telegram Bot API.
+     */
+    public void countTelegramRateLimited() {
+        telegramRateLimited.increment();
+    }
+
+    /**
+     * Оборачивает DAO так, что время каждого вызова его методов записывается в таймер {@code bot.dao}.
+     *
+     * @param daoType  интерфейс DAO, по простому имени которого заполняется тег {@code dao}
+     * @param dao      оборачиваемый DAO
+     * @param dataType тип хранилища, с которым работает DAO
+     * @return DAO, записывающий время вызовов
+     */
+    public <D> D instrument(Class<D> daoType, D dao, DataType dataType) {
+        return daoType.cast(Proxy.newProxyInstance(daoType.getClassLoader(), new Class<?>[]{daoType},
+                new TimedDaoHandler(daoType.getSimpleName(), dao, dataType)));
+    }
+
+    /**
+     * Возвращает теги {@code outcome} и {@code exception} для результата вызова.
+     *
+     * @param exception исключение, которым завершился вызов, или null
+     */
+    private static String[] outcomeTags(Throwable exception) {
+        return exception == null
+                ? new String[]{"outcome", SUCCESS, "exception", NONE}
+                : new String[]{"outcome", ERROR, "exception", exception.getClass().getSimpleName()};
+    }
+
+    /**
+     * Обработчик вызовов DAO, записывающий их время.
+     * Таймеры успешных вызовов запоминаются, чтобы не искать их в реестре на каждом вызове.
+     */
+    private class TimedDaoHandler implements InvocationHandler {
+
+        /**
+         * Значение тега {@code dao}
+         */
+        private final String daoName;
+
+        /**
+         * DAO, вызовы которого замеряются
+         */
+        private final Object dao;
+
+        /**
+         * Значение тега {@code data.type}
+         */
+        private final String dataType;
+
+        /**
+         * Таймеры успешных вызовов, где ключом является метод DAO
+         */
+        private final Map<Method, Timer> successTimers = new ConcurrentHashMap<>();
+
+        /**
+         * Конструктор TimedDaoHandler
+         *
+         * @param daoName  значение тега {@code dao}
+         * @param dao      DAO, вызовы которого замеряются
+         * @param dataType тип хранилища, с которым работает DAO
+         */
+        private TimedDaoHandler(String daoName, Object dao, DataType dataType) {
+            this.daoName = daoName;
+            this.dao = dao;
+            this.dataType = dataType.name();
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getDeclaringClass() == Object.class) {
+                return method.invoke(dao, args);
+            }
+            Timer.Sample sample = start();
+            try {
+                Object result = method.invoke(dao, args);
+                sample.stop(successTimers.computeIfAbsent(method, key -> timer(key, null)));
+                return result;
+            } catch (InvocationTargetException e) {
+                sample.stop(timer(method, e.getCause()));
+                throw e.getCause();
+            }
+        }
+
+        /**
+         * Возвращает таймер вызовов метода DAO с указанным результатом.
+         *
+         * @param method    метод DAO
+         * @param exception исключение, которым завершился вызов, или null
+         */
+        private Timer timer(Method method, Throwable exception) {
+            return Timer.builder(DAO)
+                    .description("Вызовы методов DAO")
+                    .tags("dao", daoName, "method", method.getName(), "data.type", dataType)
+                    .tags(outcomeTags(exception))
+                    .register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package ru.naumen.bot.utils.metrics;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+import ru.naumen.bot.client.GoogleSheetsHttpTransport;
+import ru.naumen.bot.controller.telegram.TelegramMessageSender;
+import ru.naumen.bot.data.dao.googleSheets.GoogleSheetsWriteBehindBuffer;
+import ru.naumen.bot.processor.UpdateDispatcher;
+import ru.naumen.bot.service.LimitResetService;
+
+/**
+ * Метрики глубины очередей бота.
+ *
+ * <p>Значения читаются в момент сбора метрик, поэтому их публикация не замедляет обработку.
+ * <ul>
+ *     <li>{@code bot.queue.size} с тегом {@code queue} — количество элементов, ожидающих обработки:
+ *     {@code updates} — обновлений в диспетчере, {@code telegram} — запросов на отправку
+ *     в Telegram, {@code google-sheets} — строк, ожидающих записи в гугл-таблицы,
+ *     {@code limit-reset} — чатов, ожидающих сброса суммы расходов за день
+ *     в гугл-таблицах;</li>
+ *     <li>{@code bot.queue.active-chats} — количество чатов, обновления которых обрабатываются;</li>
+ *     <li>{@code google-sheets.http.in-flight} — количество запросов к Google Sheets API,
+ *     ожидающих ответа.</li>
+ * </ul>
+ */
+@Component
+public class QueueMetrics implements MeterBinder {
+
+    /**
+     * Диспетчер обновлений, полученных ботом
+     */
+    private final UpdateDispatcher updateDispatcher;
+
+    /**
+     * Отправитель запросов в Telegram Bot API
+     */
+    private final TelegramMessageSender telegramMessageSender;
+
+    /**
+     * Буфер строк, ожидающих записи в гугл-таблицы
+     */
+    private final GoogleSheetsWriteBehindBuffer writeBehindBuffer;
+
+    /**
+     * Сервис сброса сумм расходов за день
+     */
+    private final LimitResetService limitResetService;
+
+    /**
+     * Транспорт запросов к Google Sheets API
+     */
+    private final GoogleSheetsHttpTransport googleSheetsHttpTransport;
+
+    /**
+     * Конструктор QueueMetrics
+     *
+     * @param updateDispatcher          диспетчер обновлений, полученных ботом
+     * @param telegramMessageSender     отправитель запросов в Telegram Bot API
+     * @param writeBehindBuffer         буфер строк, ожидающих записи в гугл-таблицы
+     * @param limitResetService         сервис сброса сумм расходов за день
+     * @param googleSheetsHttpTransport транспорт запросов к Google Sheets API
+     */
+    public QueueMetrics(UpdateDispatcher updateDispatcher, TelegramMessageSender telegramMessageSender,
+                        GoogleSheetsWriteBehindBuffer writeBehindBuffer, LimitResetService limitResetService,
+                        GoogleSheetsHttpTransport googleSheetsHttpTransport) {
+        this.updateDispatcher = updateDispatcher;
+        this.telegramMessageSender = telegramMessageSender;
+        this.writeBehindBuffer = writeBehindBuffer;
+        this.limitResetService = limitResetService;
+        this.googleSheetsHttpTransport = googleSheetsHttpTransport;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("bot.queue.size", updateDispatcher, UpdateDispatcher::getPendingUpdates)
+                .description("Обновления, ожидающие обработки")
+                .tag("queue", "updates")
+                .register(registry);
+        Gauge.builder("bot.queue.size", telegramMessageSender, TelegramMessageSender::getPendingMessages)
+                .description("Запросы, ожидающие отправки в Telegram")
+                .tag("queue", "telegram")
+                .register(registry);
+        Gauge.builder("bot.queue.size", writeBehindBuffer, GoogleSheetsWriteBehindBuffer::getPendingRows)
+                .description("Строки, ожидающие записи в гугл-таблицы")
+                .tag("queue", "google-sheets")
+                .register(registry);
+        Gauge.builder("bot.queue.size", limitResetService, LimitResetService::getPendingResets)
+                .description("Чаты, ожидающие сброса суммы расходов за день в гугл-таблицах")
+                .tag("queue", "limit-reset")
+                .register(registry);
+        Gauge.builder("bot.queue.active-chats", updateDispatcher, UpdateDispatcher::getActiveChats)
+                .description("Чаты, обновления которых обрабатываются или ожидают обработки")
+                .register(registry);
+        Gauge.builder("google-sheets.http.in-flight", googleSheetsHttpTransport,
+                        GoogleSheetsHttpTransport::getInFlightRequests)
+                .description("Запросы к Google Sheets API, ожидающие ответа")
+                .register(registry);
+    }
+}
@@ -0,0 +1,14 @@
+package ru.naumen.bot.utils.parser;
+
+import ru.naumen.bot.data.enums.TransactionType;
+
+/**
+ * Запись ParsedTransaction представляет доход или расход, распознанный в сообщении пользователя.
+ *
+ * @param type        тип операции.
+ * @param amount      сумма операции в копейках.
+ * @param description описание операции, возможно пустое.
+ */
+public record ParsedTransaction(TransactionType type, long amount, String description)
+        implements TransactionParseResult {
+}
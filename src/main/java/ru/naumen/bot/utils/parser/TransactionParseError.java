@@ -0,0 +1,90 @@
+package ru.naumen.bot.utils.parser;
+
+/**
+ * Запись TransactionParseError представляет ошибку разбора сообщения с доходом или расходом.
+ *
+ * @param reason   причина ошибки.
+ * @param position позиция символа в сообщении, на котором разбор остановился.
+ */
+public record TransactionParseError(Reason reason, int position) implements TransactionParseResult {
+
+    /**
+     * Ошибка для сообщения, которое не начинается со знака операции и пробела.
+     * Такие сообщения приходят чаще всего, поэтому ошибка создаётся один раз.
+     */
+    public static final TransactionParseError NOT_A_TRANSACTION =
+            new TransactionParseError(Reason.NOT_A_TRANSACTION, 0);
+
+    /**
+     * Возвращает true, если сообщение начинается со знака операции и пробела,
+     * то есть пользователь пытался добавить доход или расход.
+     */
+    public boolean isTransactionAttempt() {
+        return reason != Reason.NOT_A_TRANSACTION;
+    }
+
+    /**
+     * Причины ошибок разбора.
+     */
+    public enum Reason {
+
+        /**
+         * Сообщение не начинается со знака "+" или "-" и пробела.
+         */
+        NOT_A_TRANSACTION("Сообщение не является доходом или расходом"),
+
+        /**
+         * Сумма отсутствует или не является числом.
+         */
+        INVALID_AMOUNT("Сумма должна быть числом, например, 150 или 150.50"),
+
+        /**
+         * В целой части суммы слишком много цифр.
+         */
+        TOO_MANY_INTEGER_DIGITS("Сумма должна содержать не более " + TransactionParser.MAX_INTEGER_DIGITS
+                + " цифр до точки"),
+
+        /**
+         * В дробной части суммы слишком много цифр.
+         */
+        TOO_MANY_FRACTION_DIGITS("Сумма должна содержать не более " + TransactionParser.MAX_FRACTION_DIGITS
+                + " цифр после точки"),
+
+        /**
+         * После суммы нет пробела, отделяющего описание.
+         */
+        MISSING_DESCRIPTION_SEPARATOR("Описание должно отделяться от суммы пробелом"),
+
+        /**
+         * Описание длиннее допустимого.
+         */
+        DESCRIPTION_TOO_LONG("Описание должно быть не длиннее " + TransactionParser.MAX_DESCRIPTION_LENGTH
+                + " символов"),
+
+        /**
+         * Описание состоит из нескольких строк.
+         */
+        MULTILINE_DESCRIPTION("Описание должно быть в одну строку");
+
+        /**
+         * Описание причины для пользователя
+         */
+        private final String description;
+
+        /**
+         * Конструктор Reason
+         *
+         * @param description описание причины для пользователя
+         */
+        Reason(String description) {
+            this.description = description;
+        }
+
+        /**
+         * Возвращает описание причины для пользователя.
+         */
+        public String getDescription() {
+            return description;
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package ru.naumen.bot.utils.parser;
+
+/**
+ * Результат разбора сообщения с доходом или расходом: распознанная операция
+ * {@link ParsedTransaction} или ошибка {@link TransactionParseError}.
+ */
+public sealed interface TransactionParseResult permits ParsedTransaction, TransactionParseError {
+}
@@ -0,0 +1,139 @@
+package ru.naumen.bot.utils.parser;
+
+import org.springframework.stereotype.Component;
+import ru.naumen.bot.data.enums.TransactionType;
+
+/**
+ * Разбор сообщений с доходами и расходами вида {@code "+ 1500 зарплата"} и {@code "- 350.50 кофе"}.
+ *
+ * <p>Сообщение читается за один проход без регулярных выражений и промежуточных массивов:
+ * знак операции, пробельный символ, сумма из не более чем {@value #MAX_INTEGER_DIGITS} цифр
+ * с необязательной дробной частью из не более чем {@value #MAX_FRACTION_DIGITS} цифр,
+ * пробельный символ и описание длиной до {@value #MAX_DESCRIPTION_LENGTH} символов в одну строку.
+ * Сумма собирается сразу в копейках без промежуточных вычислений с плавающей точкой.
+ */
+@Component
+public class TransactionParser {
+
+    /**
+     * Максимальное количество цифр в целой части суммы
+     */
+    public static final int MAX_INTEGER_DIGITS = 8;
+
+    /**
+     * Максимальное количество цифр в дробной части суммы
+     */
+    public static final int MAX_FRACTION_DIGITS = 2;
+
+    /**
+     * Максимальная длина описания в символах
+     */
+    public static final int MAX_DESCRIPTION_LENGTH = 100;
+
+    /**
+     * Разбирает сообщение с доходом или расходом.
+     *
+     * @param message текст сообщения
+     * @return {@link ParsedTransaction}, если сообщение распознано, иначе {@link TransactionParseError}
+     */
+    public TransactionParseResult parse(String message) {
+        int length = message.length();
+        if (length < 2 || !isWhitespace(message.charAt(1))) {
+            return TransactionParseError.NOT_A_TRANSACTION;
+        }
+        TransactionType type;
+        switch (message.charAt(0)) {
+            case '+' -> type = TransactionType.INCOME;
+            case '-' -> type = TransactionType.EXPENSE;
+            default -> {
+                return TransactionParseError.NOT_A_TRANSACTION;
+            }
+        }
+
+        int amountStart = 2;
+        int position = amountStart;
+        long minorUnits = 0;
+        while (position < length && isDigit(message.charAt(position))) {
+            if (position - amountStart < MAX_INTEGER_DIGITS) {
+                minorUnits = minorUnits * 10 + (message.charAt(position) - '0');
+            }
+            position++;
+        }
+        int integerDigits = position - amountStart;
+        if (integerDigits == 0) {
+            return new TransactionParseError(TransactionParseError.Reason.INVALID_AMOUNT, amountStart);
+        }
+        if (integerDigits > MAX_INTEGER_DIGITS) {
+            return new TransactionParseError(TransactionParseError.Reason.TOO_MANY_INTEGER_DIGITS, amountStart);
+        }
+
+        int fractionDigits = 0;
+        if (position < length && message.charAt(position) == '.') {
+            int fractionStart = ++position;
+            while (position < length && isDigit(message.charAt(position))) {
+                if (position - fractionStart < MAX_FRACTION_DIGITS) {
+                    minorUnits = minorUnits * 10 + (message.charAt(position) - '0');
+                }
+                position++;
+            }
+            fractionDigits = position - fractionStart;
+            if (fractionDigits == 0) {
+                return new TransactionParseError(TransactionParseError.Reason.INVALID_AMOUNT, fractionStart);
+            }
+            if (fractionDigits > MAX_FRACTION_DIGITS) {
+                return new TransactionParseError(TransactionParseError.Reason.TOO_MANY_FRACTION_DIGITS,
+                        fractionStart);
+            }
+        }
+        for (int digit = fractionDigits; digit < MAX_FRACTION_DIGITS; digit++) {
+            minorUnits *= 10;
+        }
+
+        if (position >= length || !isWhitespace(message.charAt(position))) {
+            return new TransactionParseError(TransactionParseError.Reason.MISSING_DESCRIPTION_SEPARATOR, position);
+        }
+        int descriptionStart = ++position;
+        int descriptionLength = 0;
+        while (position < length) {
+            char c = message.charAt(position);
+            if (isLineTerminator(c)) {
+                return new TransactionParseError(TransactionParseError.Reason.MULTILINE_DESCRIPTION, position);
+            }
+            if (!Character.isLowSurrogate(c) || !Character.isHighSurrogate(message.charAt(position - 1))) {
+                descriptionLength++;
+            }
+            if (descriptionLength > MAX_DESCRIPTION_LENGTH) {
+                return new TransactionParseError(TransactionParseError.Reason.DESCRIPTION_TOO_LONG, position);
+            }
+            position++;
+        }
+        return new ParsedTransaction(type, minorUnits, message.substring(descriptionStart));
+    }
+
+    /**
+     * Проверяет, является ли символ цифрой от 0 до 9.
+     *
+     * @param c символ
+     */
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * Проверяет, является ли символ пробельным: пробелом, табуляцией или переводом строки.
+     *
+     * @param c символ
+     */
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    /**
+     * Проверяет, завершает ли символ строку текста.
+     *
+     * @param c символ
+     */
+    private static boolean isLineTerminator(char c) {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+}
@@ -0,0 +1,237 @@
+package ru.naumen.bot.client;
+
+import com.google.api.services.sheets.v4.model.AddSheetRequest;
+import com.google.api.services.sheets.v4.model.Request;
+import com.google.api.services.sheets.v4.model.SheetProperties;
+import com.google.api.services.sheets.v4.model.UpdateSheetPropertiesRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.naumen.bot.client.emulator.EmulatedSpreadsheet;
+import ru.naumen.bot.client.emulator.GoogleSheetsEmulator;
+import ru.naumen.bot.configuration.GoogleSheetsHttpConfig;
+import ru.naumen.bot.configuration.GoogleSheetsResilienceConfig;
+import ru.naumen.bot.data.entity.Expense;
+import ru.naumen.bot.data.enums.ExpenseCategory;
+import ru.naumen.bot.utils.GoogleSheetsConverter;
+import ru.naumen.bot.utils.metrics.BotMetrics;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Интеграционные тесты для класса {@link GoogleSheetsClient}, выполняющие настоящие HTTP-запросы
+ * к эмулятору Google Sheets API.
+ */
+public class GoogleSheetsClientTest {
+
+    /**
+     * Идентификатор гугл-таблицы
+     */
+    private static final String SPREADSHEET_ID = "spreadsheet";
+
+    /**
+     * Эмулятор Google Sheets API
+     */
+    private GoogleSheetsEmulator emulator;
+
+    /**
+     * Транспорт запросов к эмулятору
+     */
+    private GoogleSheetsHttpTransport transport;
+
+    /**
+     * Тестируемый клиент
+     */
+    private GoogleSheetsClient googleSheetsClient;
+
+    /**
+     * Гугл-таблица в эмуляторе
+     */
+    private EmulatedSpreadsheet spreadsheet;
+
+    /**
+     * Запускает эмулятор и создаёт клиент, повторяющий запросы до 3 раз с паузой в несколько миллисекунд.
+     */
+    @BeforeEach
+    void setUp() throws IOException {
+        emulator = new GoogleSheetsEmulator(4);
+        spreadsheet = emulator.createSpreadsheet(SPREADSHEET_ID);
+        BotMetrics botMetrics = new BotMetrics(new SimpleMeterRegistry());
+        transport = new GoogleSheetsHttpTransport(
+                new GoogleSheetsHttpConfig(Duration.ofSeconds(5), Duration.ofSeconds(5)),
+                botMetrics);
+        GoogleSheetsResilience resilience = new GoogleSheetsResilience(
+                new GoogleSheetsResilienceConfig(3, Duration.ofMillis(1), Duration.ofMillis(5), 5,
+                        Duration.ofMinutes(1), 60_000, 60_000, 100, Duration.ofSeconds(1)),
+                botMetrics);
+        googleSheetsClient = new GoogleSheetsClient(emulator.createSheetsService(transport), botMetrics, resilience);
+    }
+
+    /**
+     * Останавливает эмулятор и транспорт.
+     */
+    @AfterEach
+    void tearDown() {
+        transport.shutdown();
+        emulator.close();
+    }
+
+    /**
+     * Тест изменения листов: переименование первого листа и добавление нового применяются одним запросом,
+     * а названия листов возвращаются в порядке их следования.
+     */
+    @Test
+    void testBatchUpdateSpreadsheetAndGetSheetTitles() throws IOException {
+        int firstSheetId = googleSheetsClient.getSheetTitles(SPREADSHEET_ID).get("Лист1");
+
+        googleSheetsClient.batchUpdateSpreadsheet(List.of(
+                new Request().setUpdateSheetProperties(new UpdateSheetPropertiesRequest()
+                        .setProperties(new SheetProperties().setSheetId(firstSheetId).setTitle("Общая информация"))
+                        .setFields("title")),
+                new Request().setAddSheet(new AddSheetRequest()
+                        .setProperties(new SheetProperties().setTitle("Расходы")))), SPREADSHEET_ID);
+
+        Assertions.assertThat(googleSheetsClient.getSheetTitles(SPREADSHEET_ID).keySet())
+                .containsExactly("Общая информация", "Расходы");
+    }
+
+    /**
+     * Тест атомарности изменения листов: если один запрос не применим, не применяется ни один.
+     */
+    @Test
+    void testBatchUpdateSpreadsheetIsAtomic() {
+        Assertions.assertThatThrownBy(() -> googleSheetsClient.batchUpdateSpreadsheet(List.of(
+                        new Request().setAddSheet(new AddSheetRequest()
+                                .setProperties(new SheetProperties().setTitle("Расходы"))),
+                        new Request().setAddSheet(new AddSheetRequest()
+                                .setProperties(new SheetProperties().setTitle("Лист1")))), SPREADSHEET_ID))
+                .isInstanceOf(IOException.class);
+
+        Assertions.assertThat(spreadsheet.getSheetIds().keySet()).containsExactly("Лист1");
+    }
+
+    /**
+     * Тест добавления, чтения, изменения и очистки строк: строки добавляются после последней заполненной,
+     * числа и даты сохраняются как при вводе пользователем, а числа читаются числами без форматирования.
+     */
+    @Test
+    void testAppendReadUpdateAndClear() throws IOException {
+        spreadsheet.addSheet("Расходы");
+        googleSheetsClient.batchUpdateData(Map.of("Расходы!A1:D1",
+                List.of(List.of("Описание", "Сумма", "Категория", "Дата"))), SPREADSHEET_ID);
+
+        googleSheetsClient.appendData("Расходы!A2:D",
+                List.of(List.of("Кофе", new BigDecimal("150.50"), "Рестораны", "'2024-01-01")), SPREADSHEET_ID);
+        googleSheetsClient.appendData("Расходы!A2:D",
+                List.of(List.of("Такси", new BigDecimal("400.00"), "Транспорт", "'2024-01-02")), SPREADSHEET_ID);
+
+        Assertions.assertThat(googleSheetsClient.readData("Расходы!A2:D", SPREADSHEET_ID)).isEqualTo(List.of(
+                List.of("Кофе", new BigDecimal("150.5"), "Рестораны", "2024-01-01"),
+                List.of("Такси", new BigDecimal("400"), "Транспорт", "2024-01-02")));
+
+        googleSheetsClient.updateData("Расходы!C3", List.of(List.of("Другое")), SPREADSHEET_ID);
+        Assertions.assertThat(spreadsheet.getValues("Расходы!C2:C")).isEqualTo(List.of(
+                List.of("Рестораны"), List.of("Другое")));
+
+        googleSheetsClient.clearSheet("Расходы!A2:D", SPREADSHEET_ID);
+        Assertions.assertThat(googleSheetsClient.readData("Расходы!A2:D", SPREADSHEET_ID)).isNull();
+        Assertions.assertThat(googleSheetsClient.readData("Расходы!A1:D1", SPREADSHEET_ID)).hasSize(1);
+    }
+
+    /**
+     * Тест описаний, похожих на дату и процент: без апострофа таблица сохраняет их числами,
+     * а строки, подготовленные {@link GoogleSheetsConverter}, читаются обратно без изменений.
+     */
+    @Test
+    void testDescriptionsAreStoredAsText() throws IOException {
+        spreadsheet.addSheet("Ввод");
+        googleSheetsClient.appendData("Ввод!A1:B", List.of(List.of("01.05", "50%")), SPREADSHEET_ID);
+        Assertions.assertThat(googleSheetsClient.readData("Ввод!A1:B", SPREADSHEET_ID).getFirst())
+                .allMatch(BigDecimal.class::isInstance);
+
+        GoogleSheetsConverter converter = new GoogleSheetsConverter();
+        List<Expense> expenses = List.of(
+                new Expense("01.05", 15000L, ExpenseCategory.OTHER, LocalDate.of(2024, 5, 1)),
+                new Expense("50%", 20000L, ExpenseCategory.OTHER, LocalDate.of(2024, 5, 2)));
+        spreadsheet.addSheet("Расходы");
+        googleSheetsClient.appendData("Расходы!A2:D", converter.expensesToSheetFormat(expenses), SPREADSHEET_ID);
+
+        Assertions.assertThat(converter.sheetFormatToExpenses(
+                googleSheetsClient.readData("Расходы!A2:D", SPREADSHEET_ID))).isEqualTo(expenses);
+    }
+
+    /**
+     * Тест сетки листа: новый лист содержит 1000 строк, чтение за пределами сетки завершается ошибкой 400,
+     * которую повторять бесполезно, а добавление строк расширяет сетку.
+     */
+    @Test
+    void testGridLimits() throws IOException {
+        Assertions.assertThat(googleSheetsClient.getRowCounts(SPREADSHEET_ID))
+                .isEqualTo(Map.of("Лист1", 1000));
+        Assertions.assertThat(googleSheetsClient.readData("Лист1!A1000", SPREADSHEET_ID)).isNull();
+        Assertions.assertThatThrownBy(() -> googleSheetsClient.batchReadData(
+                        List.of("Лист1!A1", "Лист1!A1001"), SPREADSHEET_ID))
+                .isInstanceOf(IOException.class)
+                .isNotInstanceOf(GoogleSheetsUnavailableException.class);
+
+        googleSheetsClient.appendData("Лист1!A1:A", List.of(List.of("Строка"), List.of("Строка")), SPREADSHEET_ID);
+
+        Assertions.assertThat(googleSheetsClient.getRowCounts(SPREADSHEET_ID))
+                .isEqualTo(Map.of("Лист1", 1002));
+        Assertions.assertThat(googleSheetsClient.readData("Лист1!A1002", SPREADSHEET_ID)).isNull();
+    }
+
+    /**
+     * Тест чтения нескольких диапазонов одним запросом: пустой диапазон возвращается как null.
+     */
+    @Test
+    void testBatchReadData() throws IOException {
+        Map<String, List<List<Object>>> values = new LinkedHashMap<>();
+        values.put("Лист1!B1", List.of(List.of(new BigDecimal("1000.00"))));
+        values.put("Лист1!A4:B4", List.of(List.of(new BigDecimal("500"), new BigDecimal("0"))));
+        googleSheetsClient.batchUpdateData(values, SPREADSHEET_ID);
+
+        Map<String, List<List<Object>>> result = googleSheetsClient.batchReadData(
+                List.of("Лист1!B1", "Лист1!A4:B4", "Лист1!C1"), SPREADSHEET_ID);
+
+        Assertions.assertThat(result.get("Лист1!B1")).isEqualTo(List.of(List.of(new BigDecimal("1000"))));
+        Assertions.assertThat(result.get("Лист1!A4:B4"))
+                .isEqualTo(List.of(List.of(new BigDecimal("500"), new BigDecimal("0"))));
+        Assertions.assertThat(result.get("Лист1!C1")).isNull();
+    }
+
+    /**
+     * Тест повторных попыток: ответы 429 и 503 эмулятора повторяются клиентом, и запрос завершается успешно.
+     */
+    @Test
+    void testRetriesEmulatedFailures() throws IOException {
+        emulator.failNextRequests(2, 503);
+
+        Assertions.assertThat(googleSheetsClient.getSheetTitles(SPREADSHEET_ID)).containsKey("Лист1");
+        Assertions.assertThat(emulator.getRequestCount()).isEqualTo(3);
+
+        emulator.failNextRequests(1, 429);
+        googleSheetsClient.appendData("Лист1!A1:B", List.of(List.of("a", "b")), SPREADSHEET_ID);
+        Assertions.assertThat(spreadsheet.getValues("Лист1!A1:B")).isEqualTo(List.of(List.of("a", "b")));
+    }
+
+    /**
+     * Тест ошибки, которую повторять бесполезно: запрос к несуществующей таблице завершается
+     * ответом 404 без повторных попыток.
+     */
+    @Test
+    void testUnknownSpreadsheet() {
+        Assertions.assertThatThrownBy(() -> googleSheetsClient.readData("Лист1!A1", "unknown"))
+                .isInstanceOf(IOException.class)
+                .isNotInstanceOf(GoogleSheetsUnavailableException.class);
+        Assertions.assertThat(emulator.getRequestCount()).isEqualTo(1);
+    }
+}
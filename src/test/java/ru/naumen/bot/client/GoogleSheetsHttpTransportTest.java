@@ -0,0 +1,146 @@
+package ru.naumen.bot.client;
+
+import com.google.api.client.http.ByteArrayContent;
+import com.google.api.client.http.GenericUrl;
+import com.google.api.client.http.HttpRequestFactory;
+import com.google.api.client.http.HttpResponse;
+import com.google.api.client.http.HttpResponseException;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.naumen.bot.configuration.GoogleSheetsHttpConfig;
+import ru.naumen.bot.utils.metrics.BotMetrics;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Тесты для класса {@link GoogleSheetsHttpTransport}, выполняющие запросы клиента Google API
+ * к локальному HTTP-серверу.
+ */
+public class GoogleSheetsHttpTransportTest {
+
+    /**
+     * Реестр метрик для проверки счётчиков
+     */
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    /**
+     * Тестируемый транспорт
+     */
+    private final GoogleSheetsHttpTransport transport = new GoogleSheetsHttpTransport(
+            new GoogleSheetsHttpConfig(Duration.ofSeconds(5), Duration.ofSeconds(5)),
+            new BotMetrics(meterRegistry));
+
+    /**
+     * Локальный HTTP-сервер
+     */
+    private HttpServer server;
+
+    /**
+     * Адрес локального HTTP-сервера
+     */
+    private String baseUrl;
+
+    /**
+     * Запускает локальный HTTP-сервер: {@code /gzip} отвечает сжатым текстом, если клиент принимает gzip,
+     * {@code /echo} возвращает тело и тип содержимого запроса, {@code /error} отвечает кодом 503.
+     */
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/gzip", exchange -> {
+            byte[] body = "сжатый ответ".getBytes(StandardCharsets.UTF_8);
+            String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+            if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+                ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+                try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                    gzip.write(body);
+                }
+                body = compressed.toByteArray();
+                exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+            }
+            exchange.getResponseHeaders().add("Content-Type", "text/plain; charset=UTF-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.createContext("/echo", exchange -> {
+            byte[] body = exchange.getRequestBody().readAllBytes();
+            exchange.getResponseHeaders().add("Content-Type",
+                    exchange.getRequestHeaders().getFirst("Content-Type"));
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.createContext("/error", exchange -> {
+            exchange.sendResponseHeaders(503, -1);
+            exchange.close();
+        });
+        server.start();
+        baseUrl = "http://localhost:" + server.getAddress().getPort();
+    }
+
+    /**
+     * Останавливает локальный HTTP-сервер и транспорт.
+     */
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+        transport.shutdown();
+    }
+
+    /**
+     * Тест для проверки, что ответ запрашивается в gzip и распаковывается, а ответ учитывается в метриках.
+     */
+    @Test
+    void testGetDecompressesGzipResponse() throws IOException {
+        HttpRequestFactory requestFactory = transport.createRequestFactory();
+
+        HttpResponse response = requestFactory.buildGetRequest(new GenericUrl(baseUrl + "/gzip")).execute();
+
+        Assertions.assertThat(response.getContentEncoding()).isEqualTo("gzip");
+        Assertions.assertThat(response.parseAsString()).isEqualTo("сжатый ответ");
+        Assertions.assertThat(meterRegistry.get("google-sheets.http.responses").counter().count()).isEqualTo(1);
+        Assertions.assertThat(transport.getInFlightRequests()).isZero();
+    }
+
+    /**
+     * Тест для проверки, что тело и тип содержимого запроса передаются серверу.
+     */
+    @Test
+    void testPostSendsBody() throws IOException {
+        HttpRequestFactory requestFactory = transport.createRequestFactory();
+        ByteArrayContent content = ByteArrayContent.fromString("application/json", "{\"values\":[[\"1\"]]}");
+
+        HttpResponse response = requestFactory.buildPostRequest(new GenericUrl(baseUrl + "/echo"), content)
+                .execute();
+
+        Assertions.assertThat(response.getContentType()).startsWith("application/json");
+        Assertions.assertThat(response.parseAsString()).isEqualTo("{\"values\":[[\"1\"]]}");
+    }
+
+    /**
+     * Тест для проверки, что ответ с кодом ошибки превращается в {@link HttpResponseException}
+     * с кодом ответа, по которому {@link GoogleSheetsResilience} решает, повторять ли запрос.
+     */
+    @Test
+    void testErrorStatusThrowsHttpResponseException() {
+        HttpRequestFactory requestFactory = transport.createRequestFactory();
+
+        Assertions.assertThatThrownBy(() -> requestFactory.buildGetRequest(new GenericUrl(baseUrl + "/error"))
+                        .execute())
+                .isInstanceOfSatisfying(HttpResponseException.class,
+                        e -> Assertions.assertThat(e.getStatusCode()).isEqualTo(503));
+    }
+}
@@ -0,0 +1,156 @@
+package ru.naumen.bot.client;
+
+import com.google.api.client.http.HttpHeaders;
+import com.google.api.client.http.HttpResponseException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import ru.naumen.bot.client.GoogleSheetsResilience.RequestKind;
+import ru.naumen.bot.configuration.GoogleSheetsResilienceConfig;
+import ru.naumen.bot.utils.metrics.BotMetrics;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Тесты для класса {@link GoogleSheetsResilience}, проверяющие повторные попытки запросов,
+ * предохранитель гугл-таблицы и метрики отклонённых запросов.
+ */
+public class GoogleSheetsResilienceTest {
+
+    /**
+     * Идентификатор гугл-таблицы
+     */
+    private static final String SPREADSHEET_ID = "spreadsheet";
+
+    /**
+     * Реестр метрик для проверки счётчиков
+     */
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    /**
+     * Тестируемый объект: 3 попытки с паузой в 1 мс, предохранитель размыкается после 3 ошибок подряд
+     */
+    private final GoogleSheetsResilience resilience = new GoogleSheetsResilience(
+            new GoogleSheetsResilienceConfig(3, Duration.ofMillis(1), Duration.ofMillis(2), 3,
+                    Duration.ofMinutes(1), 60_000, 60_000, 100, Duration.ofSeconds(1)),
+            new BotMetrics(meterRegistry));
+
+    /**
+     * Количество выполненных попыток запроса
+     */
+    private final AtomicInteger attempts = new AtomicInteger();
+
+    /**
+     * Тест для проверки, что запрос на чтение повторяется после ответа 503 и возвращает ответ успешной попытки.
+     */
+    @Test
+    void testRetriesServerErrors() throws IOException {
+        String response = resilience.execute("readData", SPREADSHEET_ID, RequestKind.READ, () -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw httpError(503);
+            }
+            return "ok";
+        });
+
+        Assertions.assertThat(response).isEqualTo("ok");
+        Assertions.assertThat(attempts.get()).isEqualTo(3);
+        Assertions.assertThat(meterRegistry.get("google-sheets.retries").tag("status", "503").counter().count())
+                .isEqualTo(2);
+    }
+
+    /**
+     * Тест для проверки, что ошибка запроса 400 не повторяется и выбрасывается без изменений.
+     */
+    @Test
+    void testDoesNotRetryClientErrors() {
+        Assertions.assertThatThrownBy(() -> resilience.execute("readData", SPREADSHEET_ID, RequestKind.READ,
+                        () -> {
+                            attempts.incrementAndGet();
+                            throw httpError(400);
+                        }))
+                .isInstanceOf(HttpResponseException.class)
+                .isNotInstanceOf(GoogleSheetsUnavailableException.class);
+        Assertions.assertThat(attempts.get()).isEqualTo(1);
+    }
+
+    /**
+     * Тест для проверки, что добавление строк не повторяется после ответа 503, так как строки могли
+     * быть уже добавлены, но повторяется после ответа 429, когда запрос точно не был применён.
+     */
+    @Test
+    void testAppendRetriedOnlyAfterTooManyRequests() throws IOException {
+        Assertions.assertThatThrownBy(() -> resilience.execute("appendData", SPREADSHEET_ID, RequestKind.APPEND,
+                        () -> {
+                            attempts.incrementAndGet();
+                            throw httpError(503);
+                        }))
+                .isInstanceOfSatisfying(GoogleSheetsUnavailableException.class,
+                        e -> Assertions.assertThat(e.isRejected()).isFalse());
+        Assertions.assertThat(attempts.get()).isEqualTo(1);
+
+        attempts.set(0);
+        resilience.execute("appendData", SPREADSHEET_ID, RequestKind.APPEND, () -> {
+            if (attempts.incrementAndGet() < 2) {
+                throw httpError(429);
+            }
+            return null;
+        });
+        Assertions.assertThat(attempts.get()).isEqualTo(2);
+    }
+
+    /**
+     * Тест для проверки, что после серии ошибок запросы к таблице не отправляются,
+     * а запросы к другой таблице продолжают выполняться.
+     */
+    @Test
+    void testCircuitOpensAfterFailures() throws IOException {
+        Assertions.assertThatThrownBy(() -> resilience.execute("readData", SPREADSHEET_ID, RequestKind.READ,
+                        () -> {
+                            attempts.incrementAndGet();
+                            throw httpError(500);
+                        }))
+                .isInstanceOf(GoogleSheetsUnavailableException.class);
+        Assertions.assertThat(attempts.get()).isEqualTo(3);
+
+        Assertions.assertThatThrownBy(() -> resilience.execute("readData", SPREADSHEET_ID, RequestKind.READ,
+                        () -> {
+                            attempts.incrementAndGet();
+                            return null;
+                        }))
+                .isInstanceOfSatisfying(GoogleSheetsUnavailableException.class,
+                        e -> Assertions.assertThat(e.isRejected()).isTrue());
+        Assertions.assertThat(attempts.get()).isEqualTo(3);
+        Assertions.assertThat(meterRegistry.get("google-sheets.rejected").tag("reason", "circuit-open")
+                .counter().count()).isEqualTo(1);
+
+        Assertions.assertThat(resilience.execute("readData", "other", RequestKind.READ, () -> "ok"))
+                .isEqualTo("ok");
+    }
+
+    /**
+     * Тест для проверки, что предохранитель таблицы удаляется после успешного ответа.
+     */
+    @Test
+    void testCircuitBreakerIsRemovedAfterSuccess() throws IOException {
+        resilience.execute("readData", SPREADSHEET_ID, RequestKind.READ, () -> {
+            if (attempts.incrementAndGet() < 2) {
+                throw httpError(503);
+            }
+            return null;
+        });
+        resilience.execute("readData", "other", RequestKind.READ, () -> "ok");
+
+        Assertions.assertThat(resilience.getTrackedSpreadsheets()).isZero();
+    }
+
+    /**
+     * Создаёт ошибку ответа Google Sheets API.
+     *
+     * @param status код ответа
+     */
+    private static HttpResponseException httpError(int status) {
+        return new HttpResponseException.Builder(status, "status " + status, new HttpHeaders()).build();
+    }
+}
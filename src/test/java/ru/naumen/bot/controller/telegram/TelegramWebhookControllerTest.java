@@ -0,0 +1,130 @@
+package ru.naumen.bot.controller.telegram;
+
+import com.pengrad.telegrambot.model.Update;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import ru.naumen.bot.configuration.TelegramInboundConfig;
+
+/**
+ * Тесты для класса {@link TelegramWebhookController}, в которых HTTP-клиент MockMvc
+ * отправляет обновления вместо Telegram.
+ */
+public class TelegramWebhookControllerTest {
+
+    /**
+     * Секретный токен вебхука
+     */
+    private static final String SECRET_TOKEN = "secret-token";
+
+    /**
+     * Обновление с текстовым сообщением в формате Telegram Bot API
+     */
+    private static final String UPDATE_JSON = """
+            {"update_id": 1, "message": {"message_id": 2, "text": "/start",
+             "chat": {"id": 12345, "type": "private"}}}
+            """;
+
+    /**
+     * Мок-объект для {@link TelegramBotController}, принимающий обновления.
+     */
+    private final TelegramBotController telegramBotControllerMock = Mockito.mock(TelegramBotController.class);
+
+    /**
+     * HTTP-клиент, отправляющий запросы тестируемому {@link TelegramWebhookController}.
+     */
+    private final MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new TelegramWebhookController(
+            telegramBotControllerMock,
+            new TelegramInboundConfig(TelegramInboundConfig.Mode.WEBHOOK, "https://bot.example/telegram/webhook",
+                    SECRET_TOKEN))).build();
+
+    /**
+     * Идентификатор чата, в котором происходит тестирование.
+     */
+    private final long chatId = 12345L;
+
+    /**
+     * Тест для проверки, что обновление с верным токеном передаётся контроллеру бота
+     * и сразу подтверждается.
+     */
+    @Test
+    void testReceiveUpdate() throws Exception {
+        Mockito.when(telegramBotControllerMock.acceptUpdate(Mockito.any())).thenReturn(true);
+
+        mockMvc.perform(webhookRequest(SECRET_TOKEN, UPDATE_JSON))
+                .andExpect(MockMvcResultMatchers.status().isOk());
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        Mockito.verify(telegramBotControllerMock).acceptUpdate(update.capture());
+        Assertions.assertThat(update.getValue().message().chat().id()).isEqualTo(chatId);
+        Assertions.assertThat(update.getValue().message().text()).isEqualTo("/start");
+    }
+
+    /**
+     * Тест для проверки, что запросы без токена или с неверным токеном отклоняются.
+     */
+    @Test
+    void testReceiveUpdateWithWrongToken() throws Exception {
+        mockMvc.perform(webhookRequest("wrong-token", UPDATE_JSON))
+                .andExpect(MockMvcResultMatchers.status().isUnauthorized());
+        mockMvc.perform(MockMvcRequestBuilders.post(TelegramWebhookController.WEBHOOK_PATH)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(UPDATE_JSON))
+                .andExpect(MockMvcResultMatchers.status().isUnauthorized());
+
+        Mockito.verifyNoInteractions(telegramBotControllerMock);
+    }
+
+    /**
+     * Тест для проверки, что тело, не являющееся обновлением, отклоняется.
+     */
+    @Test
+    void testReceiveMalformedUpdate() throws Exception {
+        mockMvc.perform(webhookRequest(SECRET_TOKEN, "not json"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+
+        Mockito.verifyNoInteractions(telegramBotControllerMock);
+    }
+
+    /**
+     * Тест для проверки, что при заполненных очередях возвращается 503, чтобы Telegram повторил доставку.
+     */
+    @Test
+    void testReceiveUpdateWhenQueuesAreFull() throws Exception {
+        Mockito.when(telegramBotControllerMock.acceptUpdate(Mockito.any())).thenReturn(false);
+
+        mockMvc.perform(webhookRequest(SECRET_TOKEN, UPDATE_JSON))
+                .andExpect(MockMvcResultMatchers.status().isServiceUnavailable());
+    }
+
+    /**
+     * Тест для проверки, что вебхук без секретного токена не создаётся.
+     */
+    @Test
+    void testSecretTokenIsRequired() {
+        Assertions.assertThatThrownBy(() -> new TelegramWebhookController(telegramBotControllerMock,
+                        new TelegramInboundConfig(TelegramInboundConfig.Mode.WEBHOOK,
+                                "https://bot.example/telegram/webhook", "")))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    /**
+     * Создаёт запрос к вебхуку.
+     *
+     * @param token секретный токен
+     * @param body  тело запроса
+     */
+    private MockHttpServletRequestBuilder webhookRequest(String token, String body) {
+        return MockMvcRequestBuilders.post(TelegramWebhookController.WEBHOOK_PATH)
+                .header(TelegramWebhookController.SECRET_TOKEN_HEADER, token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body);
+    }
+}
@@ -0,0 +1,189 @@
+package ru.naumen.bot.data.dao.googleSheets;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import ru.naumen.bot.data.dao.googleSheets.exception.GoogleSheetsException;
+import ru.naumen.bot.data.entity.Expense;
+import ru.naumen.bot.data.entity.Limit;
+import ru.naumen.bot.data.enums.ExpenseCategory;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Тесты для класса {@link GoogleSheetsCache}, проверяющие кэширование данных гугл-таблиц.
+ */
+public class GoogleSheetsCacheTest {
+
+    /**
+     * Тестируемый объект {@link GoogleSheetsCache}, который проверяется в данном тестовом классе.
+     */
+    private final GoogleSheetsCache googleSheetsCache =
+            new GoogleSheetsCache(new SimpleMeterRegistry(), Duration.ofMinutes(5), 100);
+
+    /**
+     * Идентификатор гугл-таблицы, данные которой кэшируются.
+     */
+    private final String spreadsheetId = "spreadsheetId";
+
+    /**
+     * Тест для проверки, что баланс загружается из гугл-таблицы только один раз,
+     * а записанное значение возвращается без загрузки.
+     */
+    @Test
+    void testBalanceIsLoadedOnce() throws GoogleSheetsException {
+        AtomicInteger loads = new AtomicInteger();
+
+        googleSheetsCache.getBalance(spreadsheetId, () -> {
+            loads.incrementAndGet();
+            return 10000L;
+        });
+        googleSheetsCache.putBalance(spreadsheetId, 5000L);
+        long balance = googleSheetsCache.getBalance(spreadsheetId, () -> {
+            loads.incrementAndGet();
+            return 10000L;
+        });
+
+        Assertions.assertThat(balance).isEqualTo(5000L);
+        Assertions.assertThat(loads).hasValue(1);
+    }
+
+    /**
+     * Тест для проверки, что отсутствие лимита тоже кэшируется, а изменение полученного лимита
+     * не меняет значение в кэше.
+     */
+    @Test
+    void testLimitIsCopied() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        GoogleSheetsCache.Loader<Limit> loader = () -> {
+            loads.incrementAndGet();
+            return null;
+        };
+
+        Assertions.assertThat(googleSheetsCache.getLimit(spreadsheetId, loader)).isNull();
+        Assertions.assertThat(googleSheetsCache.getLimit(spreadsheetId, loader)).isNull();
+        Assertions.assertThat(loads).hasValue(1);
+
+        googleSheetsCache.putLimit(spreadsheetId, new Limit(100000L, 0L));
+        googleSheetsCache.getLimit(spreadsheetId, loader).setDailyExpensesSum(50000L);
+
+        Assertions.assertThat(googleSheetsCache.getLimit(spreadsheetId, loader).getDailyExpensesSum())
+                .isEqualTo(0L);
+    }
+
+    /**
+     * Тест для проверки, что записанные расходы и изменение категории попадают в закэшированный список.
+     */
+    @Test
+    void testExpensesWriteThrough() throws GoogleSheetsException {
+        LocalDate date = LocalDate.of(2024, 10, 1);
+        Expense first = new Expense("такси", 30000L, ExpenseCategory.OTHER, date);
+        Expense second = new Expense("продукты", 100000L, ExpenseCategory.OTHER, date);
+        googleSheetsCache.getExpenses(spreadsheetId, () -> List.of(first));
+
+        googleSheetsCache.appendExpenses(spreadsheetId, googleSheetsCache.beginWrite(spreadsheetId), List.of(second));
+        googleSheetsCache.setLastExpenseCategory(spreadsheetId, googleSheetsCache.beginWrite(spreadsheetId),
+                ExpenseCategory.SUPERMARKET);
+        List<Expense> expenses = googleSheetsCache.getExpenses(spreadsheetId, List::of);
+
+        Assertions.assertThat(expenses).containsExactly(first,
+                new Expense("продукты", 100000L, ExpenseCategory.SUPERMARKET, date));
+        Assertions.assertThat(second.getCategory()).isEqualTo(ExpenseCategory.OTHER);
+    }
+
+    /**
+     * Тест для проверки, что значение, загруженное до записи в гугл-таблицу, не затирает записанное значение.
+     */
+    @Test
+    void testLoadDuringWriteIsNotCached() throws GoogleSheetsException {
+        long balance = googleSheetsCache.getBalance(spreadsheetId, () -> {
+            googleSheetsCache.putBalance(spreadsheetId, 5000L);
+            return 10000L;
+        });
+
+        Assertions.assertThat(balance).isEqualTo(5000L);
+        Assertions.assertThat(googleSheetsCache.getBalance(spreadsheetId, () -> 10000L)).isEqualTo(5000L);
+    }
+
+    /**
+     * Тест для проверки, что список расходов, загруженный после начала записи, удаляется из кэша,
+     * так как неизвестно, содержит ли он добавленный расход.
+     */
+    @Test
+    void testExpensesLoadedAfterWriteBeganAreInvalidated() throws GoogleSheetsException {
+        LocalDate date = LocalDate.of(2024, 10, 1);
+        Expense expense = new Expense("такси", 30000L, ExpenseCategory.OTHER, date);
+        long version = googleSheetsCache.beginWrite(spreadsheetId);
+        googleSheetsCache.getExpenses(spreadsheetId, () -> List.of(expense));
+
+        googleSheetsCache.appendExpenses(spreadsheetId, version, List.of(expense));
+
+        Assertions.assertThat(googleSheetsCache.getCachedExpenseCount(spreadsheetId)).isNull();
+    }
+
+    /**
+     * Тест для проверки, что количество расходов подсчитывается только один раз,
+     * увеличивается при добавлении расходов и удаляется вместе с расходами.
+     */
+    @Test
+    void testExpenseCountIsIncreasedOnAppend() throws GoogleSheetsException {
+        Expense expense = new Expense("такси", 30000L, ExpenseCategory.OTHER, LocalDate.of(2024, 10, 1));
+        AtomicInteger loads = new AtomicInteger();
+
+        googleSheetsCache.getExpenseCount(spreadsheetId, () -> {
+            loads.incrementAndGet();
+            return 5;
+        });
+        googleSheetsCache.appendExpenses(spreadsheetId, googleSheetsCache.beginWrite(spreadsheetId),
+                List.of(expense, expense));
+
+        Assertions.assertThat(googleSheetsCache.getExpenseCount(spreadsheetId, () -> 0)).isEqualTo(7);
+        Assertions.assertThat(googleSheetsCache.getCachedExpenseCount(spreadsheetId)).isNull();
+        Assertions.assertThat(loads).hasValue(1);
+
+        googleSheetsCache.invalidateExpenses(spreadsheetId);
+
+        Assertions.assertThat(googleSheetsCache.getExpenseCount(spreadsheetId, () -> 0)).isZero();
+    }
+
+    /**
+     * Тест для проверки, что количество доходов, подсчитанное после начала записи, удаляется из кэша,
+     * так как неизвестно, учтён ли в нём добавленный доход.
+     */
+    @Test
+    void testIncomeCountLoadedAfterWriteBeganIsInvalidated() throws GoogleSheetsException {
+        long version = googleSheetsCache.beginWrite(spreadsheetId);
+        googleSheetsCache.getIncomeCount(spreadsheetId, () -> 3);
+
+        googleSheetsCache.appendIncomes(spreadsheetId, version, List.of());
+
+        Assertions.assertThat(googleSheetsCache.getIncomeCount(spreadsheetId, () -> 4)).isEqualTo(4);
+    }
+
+    /**
+     * Тест для проверки, что запись в гугл-таблицу не продлевает время хранения закэшированного списка,
+     * и список перечитывается из таблицы по истечении времени с момента загрузки.
+     */
+    @Test
+    void testWritesDoNotExtendExpiration() throws Exception {
+        GoogleSheetsCache shortLivedCache = new GoogleSheetsCache(new SimpleMeterRegistry(),
+                Duration.ofMillis(300), 100);
+        Expense expense = new Expense("такси", 30000L, ExpenseCategory.OTHER, LocalDate.of(2024, 10, 1));
+        AtomicInteger loads = new AtomicInteger();
+        GoogleSheetsCache.Loader<List<Expense>> loader = () -> {
+            loads.incrementAndGet();
+            return List.of(expense);
+        };
+        shortLivedCache.getExpenses(spreadsheetId, loader);
+
+        Thread.sleep(200);
+        shortLivedCache.appendExpenses(spreadsheetId, shortLivedCache.beginWrite(spreadsheetId), List.of(expense));
+        Thread.sleep(200);
+
+        Assertions.assertThat(shortLivedCache.getExpenses(spreadsheetId, loader)).containsExactly(expense);
+        Assertions.assertThat(loads).hasValue(2);
+    }
+}
@@ -0,0 +1,102 @@
+package ru.naumen.bot.data.dao.googleSheets;
+
+import com.google.api.services.sheets.v4.model.Request;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import ru.naumen.bot.client.GoogleSheetsClient;
+import ru.naumen.bot.exception.DaoException;
+import ru.naumen.bot.service.UserService;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Тесты для класса {@link GoogleSheetsDao}, проверяющие инициализацию гугл-таблицы.
+ */
+public class GoogleSheetsDaoTest {
+
+    /**
+     * Мок-объект для {@link GoogleSheetsClient}, используемый для работы с гугл-таблицами.
+     */
+    private final GoogleSheetsClient googleSheetsClientMock = Mockito.mock(GoogleSheetsClient.class);
+
+    /**
+     * Мок-объект для {@link UserService}, используемый для получения идентификатора гугл-таблицы.
+     */
+    private final UserService userServiceMock = Mockito.mock(UserService.class);
+
+    /**
+     * Тестируемый объект {@link GoogleSheetsDao}, который проверяется в данном тестовом классе.
+     */
+    private final GoogleSheetsDao googleSheetsDao = new GoogleSheetsDao(googleSheetsClientMock, userServiceMock);
+
+    /**
+     * Идентификатор чата, в котором происходит тестирование.
+     */
+    private final long chatId = 12345L;
+
+    /**
+     * Идентификатор гугл-таблицы пользователя.
+     */
+    private final String spreadsheetId = "spreadsheetId";
+
+    /**
+     * Инициализация всех зависимостей перед каждым тестом.
+     */
+    @BeforeEach
+    void setUp() {
+        Mockito.when(userServiceMock.getGoogleSheetId(chatId)).thenReturn(spreadsheetId);
+    }
+
+    /**
+     * Тест для проверки, что новая таблица настраивается одним изменением структуры и одной записью заголовков.
+     */
+    @Test
+    void testInitNewSpreadsheet() throws DaoException, IOException {
+        Mockito.when(googleSheetsClientMock.getSheetTitles(spreadsheetId)).thenReturn(Map.of("Лист1", 0));
+
+        googleSheetsDao.initGoogleSheets(chatId);
+
+        List<Request> requests = captureRequests();
+        Assertions.assertThat(requests).hasSize(4);
+        Assertions.assertThat(requests.get(1).getUpdateSheetProperties().getProperties().getTitle())
+                .isEqualTo("Общая информация");
+        Assertions.assertThat(requests.get(2).getAddSheet().getProperties().getTitle()).isEqualTo("Расходы");
+        Assertions.assertThat(requests.get(3).getAddSheet().getProperties().getTitle()).isEqualTo("Доходы");
+        Mockito.verify(googleSheetsClientMock)
+                .batchUpdateData(ArgumentMatchers.anyMap(), ArgumentMatchers.eq(spreadsheetId));
+        Mockito.verify(googleSheetsClientMock, Mockito.never())
+                .updateData(ArgumentMatchers.anyString(), ArgumentMatchers.anyList(), ArgumentMatchers.anyString());
+    }
+
+    /**
+     * Тест для проверки, что повторная инициализация не создаёт существующие листы.
+     */
+    @Test
+    void testInitIsIdempotent() throws DaoException, IOException {
+        Mockito.when(googleSheetsClientMock.getSheetTitles(spreadsheetId))
+                .thenReturn(Map.of("Общая информация", 0, "Расходы", 1, "Доходы", 2));
+
+        googleSheetsDao.initGoogleSheets(chatId);
+
+        List<Request> requests = captureRequests();
+        Assertions.assertThat(requests).hasSize(1);
+        Assertions.assertThat(requests.getFirst().getAddSheet()).isNull();
+    }
+
+    /**
+     * Возвращает запросы на изменение структуры, переданные клиенту.
+     */
+    @SuppressWarnings("unchecked")
+    private List<Request> captureRequests() throws IOException {
+        ArgumentCaptor<List<Request>> captor = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(googleSheetsClientMock)
+                .batchUpdateSpreadsheet(captor.capture(), ArgumentMatchers.eq(spreadsheetId));
+        return captor.getValue();
+    }
+}
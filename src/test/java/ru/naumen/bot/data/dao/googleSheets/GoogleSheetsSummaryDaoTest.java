@@ -0,0 +1,130 @@
+package ru.naumen.bot.data.dao.googleSheets;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import ru.naumen.bot.client.GoogleSheetsClient;
+import ru.naumen.bot.data.dao.googleSheets.exception.GoogleSheetsException;
+import ru.naumen.bot.data.entity.Limit;
+import ru.naumen.bot.data.entity.Summary;
+import ru.naumen.bot.service.UserService;
+import ru.naumen.bot.utils.GoogleSheetsConverter;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Тесты для класса {@link GoogleSheetsSummaryDao}, проверяющие чтение и запись баланса и лимита
+ * одним запросом к гугл-таблице.
+ */
+public class GoogleSheetsSummaryDaoTest {
+
+    /**
+     * Мок-объект для {@link GoogleSheetsClient}, используемый для обращения к гугл-таблицам.
+     */
+    private final GoogleSheetsClient googleSheetsClientMock = Mockito.mock(GoogleSheetsClient.class);
+
+    /**
+     * Мок-объект для {@link UserService}, возвращающий идентификатор гугл-таблицы пользователя.
+     */
+    private final UserService userServiceMock = Mockito.mock(UserService.class);
+
+    /**
+     * Кэш данных гугл-таблиц
+     */
+    private final GoogleSheetsCache googleSheetsCache =
+            new GoogleSheetsCache(new SimpleMeterRegistry(), Duration.ofMinutes(5), 100);
+
+    /**
+     * Тестируемый объект {@link GoogleSheetsSummaryDao}, который проверяется в данном тестовом классе.
+     */
+    private final GoogleSheetsSummaryDao summaryDao = new GoogleSheetsSummaryDao(googleSheetsClientMock,
+            new GoogleSheetsConverter(), userServiceMock, googleSheetsCache, new GoogleSheetsLimitIndex());
+
+    /**
+     * Идентификатор чата, в котором происходит тестирование.
+     */
+    private final long chatId = 12345L;
+
+    /**
+     * Идентификатор гугл-таблицы пользователя.
+     */
+    private final String spreadsheetId = "spreadsheetId";
+
+    /**
+     * Настройка идентификатора гугл-таблицы перед каждым тестом.
+     */
+    @BeforeEach
+    void setUp() {
+        Mockito.when(userServiceMock.getGoogleSheetId(chatId)).thenReturn(spreadsheetId);
+    }
+
+    /**
+     * Тест для проверки, что баланс и лимит читаются одним запросом, а повторное чтение берётся из кэша.
+     */
+    @Test
+    void testGetSummaryReadsBothRangesInOneRequest() throws GoogleSheetsException, IOException {
+        List<String> ranges = List.of(GoogleSheetsSummaryDao.BALANCE_RANGE, GoogleSheetsSummaryDao.LIMIT_RANGE);
+        Mockito.when(googleSheetsClientMock.batchReadData(ranges, spreadsheetId)).thenReturn(Map.of(
+                GoogleSheetsSummaryDao.BALANCE_RANGE, List.of(List.of("1500.5")),
+                GoogleSheetsSummaryDao.LIMIT_RANGE, List.of(List.of("1000", "250"))));
+
+        Summary summary = summaryDao.getSummary(chatId);
+        summaryDao.getSummary(chatId);
+
+        Assertions.assertThat(summary.balance()).isEqualTo(150050L);
+        Assertions.assertThat(summary.limit().getDailyLimit()).isEqualTo(100000L);
+        Assertions.assertThat(summary.limit().getDailyExpensesSum()).isEqualTo(25000L);
+        Mockito.verify(googleSheetsClientMock).batchReadData(ranges, spreadsheetId);
+        Mockito.verifyNoMoreInteractions(googleSheetsClientMock);
+    }
+
+    /**
+     * Тест для проверки, что пустые диапазоны читаются как нулевой баланс и отсутствие лимита.
+     */
+    @Test
+    void testGetSummaryWithEmptyRanges() throws GoogleSheetsException, IOException {
+        Map<String, List<List<Object>>> data = new HashMap<>();
+        data.put(GoogleSheetsSummaryDao.BALANCE_RANGE, null);
+        data.put(GoogleSheetsSummaryDao.LIMIT_RANGE, null);
+        Mockito.when(googleSheetsClientMock.batchReadData(Mockito.anyList(), Mockito.eq(spreadsheetId)))
+                .thenReturn(data);
+
+        Assertions.assertThat(summaryDao.getSummary(chatId)).isEqualTo(new Summary(0L, null));
+    }
+
+    /**
+     * Тест для проверки, что баланс и лимит записываются одним запросом и сохраняются в кэше.
+     */
+    @Test
+    void testSetSummaryWritesBothRangesInOneRequest() throws GoogleSheetsException, IOException {
+        summaryDao.setSummary(chatId, new Summary(7000L, new Limit(10000L, 3000L)));
+
+        Mockito.verify(googleSheetsClientMock).batchUpdateData(Map.of(
+                GoogleSheetsSummaryDao.BALANCE_RANGE, List.of(List.of(new BigDecimal("70.00"))),
+                GoogleSheetsSummaryDao.LIMIT_RANGE, List.of(List.of(new BigDecimal("100.00"),
+                        new BigDecimal("30.00")))), spreadsheetId);
+
+        Summary summary = summaryDao.getSummary(chatId);
+        Assertions.assertThat(summary.balance()).isEqualTo(7000L);
+        Assertions.assertThat(summary.limit().getDailyExpensesSum()).isEqualTo(3000L);
+        Mockito.verifyNoMoreInteractions(googleSheetsClientMock);
+    }
+
+    /**
+     * Тест для проверки, что без лимита записывается только баланс.
+     */
+    @Test
+    void testSetSummaryWithoutLimit() throws GoogleSheetsException, IOException {
+        summaryDao.setSummary(chatId, new Summary(7000L, null));
+
+        Mockito.verify(googleSheetsClientMock).batchUpdateData(Map.of(
+                GoogleSheetsSummaryDao.BALANCE_RANGE, List.of(List.of(new BigDecimal("70.00")))), spreadsheetId);
+    }
+}
@@ -0,0 +1,187 @@
+package ru.naumen.bot.data.dao.googleSheets;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import ru.naumen.bot.client.GoogleSheetsClient;
+import ru.naumen.bot.client.GoogleSheetsUnavailableException;
+import ru.naumen.bot.data.dao.googleSheets.exception.GoogleSheetsException;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Тесты для класса {@link GoogleSheetsWriteBehindBuffer}, проверяющие объединение
+ * и отложенную запись строк в гугл-таблицы.
+ */
+public class GoogleSheetsWriteBehindBufferTest {
+
+    /**
+     * Мок-объект для {@link GoogleSheetsClient}, используемый для записи данных в гугл-таблицы.
+     */
+    private final GoogleSheetsClient googleSheetsClientMock = Mockito.mock(GoogleSheetsClient.class);
+
+    /**
+     * Тестируемый объект {@link GoogleSheetsWriteBehindBuffer}, который проверяется в данном тестовом классе.
+     */
+    private final GoogleSheetsWriteBehindBuffer writeBehindBuffer =
+            new GoogleSheetsWriteBehindBuffer(googleSheetsClientMock, 3, 100);
+
+    /**
+     * Идентификатор гугл-таблицы, в которую записываются данные.
+     */
+    private final String spreadsheetId = "spreadsheetId";
+
+    /**
+     * Тест для проверки, что несколько добавлений объединяются в один запрос к гугл-таблице.
+     */
+    @Test
+    void testFlushJoinsAppendsIntoOneRequest() throws GoogleSheetsException, IOException {
+        writeBehindBuffer.append(spreadsheetId, "Расходы!A2:D", List.of(List.of("'2024-10-01", 100.0)));
+        writeBehindBuffer.append(spreadsheetId, "Расходы!A2:D", List.of(List.of("'2024-10-02", 200.0)));
+
+        Mockito.verifyNoInteractions(googleSheetsClientMock);
+
+        writeBehindBuffer.flush(spreadsheetId);
+
+        Mockito.verify(googleSheetsClientMock).appendData("Расходы!A2:D",
+                List.of(List.of("'2024-10-01", 100.0), List.of("'2024-10-02", 200.0)), spreadsheetId);
+        Assertions.assertThat(writeBehindBuffer.getPendingRows()).isZero();
+    }
+
+    /**
+     * Тест для проверки, что буфер таблицы сбрасывается сразу при накоплении заданного количества строк.
+     */
+    @Test
+    void testAppendFlushesWhenBatchIsFull() throws GoogleSheetsException, IOException {
+        writeBehindBuffer.append(spreadsheetId, "Доходы!A2:C", List.of(List.of("1"), List.of("2")));
+        writeBehindBuffer.append(spreadsheetId, "Доходы!A2:C", List.of(List.of("3")));
+
+        Mockito.verify(googleSheetsClientMock).appendData("Доходы!A2:C",
+                List.of(List.of("1"), List.of("2"), List.of("3")), spreadsheetId);
+    }
+
+    /**
+     * Тест для проверки, что постоянная ошибка записи выбрасывается при следующем обращении к таблице,
+     * после чего строки таблицы удаляются из буфера и больше не отправляются.
+     */
+    @Test
+    void testBackgroundFailureIsReportedOnNextAccess() throws GoogleSheetsException, IOException {
+        Mockito.doThrow(new IOException("quota exceeded")).when(googleSheetsClientMock)
+                .appendData(ArgumentMatchers.anyString(), ArgumentMatchers.anyList(), ArgumentMatchers.anyString());
+        writeBehindBuffer.append(spreadsheetId, "Доходы!A2:C", List.of(List.of("1")));
+
+        writeBehindBuffer.flushAll();
+
+        Assertions.assertThatThrownBy(() ->
+                        writeBehindBuffer.append(spreadsheetId, "Доходы!A2:C", List.of(List.of("2"))))
+                .isInstanceOf(GoogleSheetsException.class);
+        Assertions.assertThat(writeBehindBuffer.getPendingRows()).isZero();
+        writeBehindBuffer.flushAll();
+        Mockito.verify(googleSheetsClientMock).appendData(ArgumentMatchers.anyString(), ArgumentMatchers.anyList(),
+                ArgumentMatchers.anyString());
+    }
+
+    /**
+     * Тест для проверки, что при освобождении таблицы оставшиеся строки записываются,
+     * а если запись не удалась, удаляются из буфера.
+     */
+    @Test
+    void testReleaseFlushesAndDropsRows() throws GoogleSheetsException, IOException {
+        writeBehindBuffer.append(spreadsheetId, "Доходы!A2:C", List.of(List.of("1")));
+        writeBehindBuffer.release(spreadsheetId);
+
+        Mockito.verify(googleSheetsClientMock).appendData("Доходы!A2:C", List.of(List.of("1")), spreadsheetId);
+
+        Mockito.doThrow(new IOException("quota exceeded")).when(googleSheetsClientMock)
+                .appendData(ArgumentMatchers.anyString(), ArgumentMatchers.anyList(), ArgumentMatchers.anyString());
+        writeBehindBuffer.append(spreadsheetId, "Доходы!A2:C", List.of(List.of("2")));
+        writeBehindBuffer.release(spreadsheetId);
+
+        Assertions.assertThat(writeBehindBuffer.getPendingRows()).isZero();
+        writeBehindBuffer.append(spreadsheetId, "Доходы!A2:C", List.of(List.of("3")));
+        Assertions.assertThat(writeBehindBuffer.getPendingRows()).isEqualTo(1);
+    }
+
+    /**
+     * Тест для проверки, что строки, ответ на отправку которых не получен, не отправляются повторно,
+     * если они уже добавлены в таблицу.
+     */
+    @Test
+    void testUncertainRowsAreNotSentTwice() throws GoogleSheetsException, IOException {
+        Mockito.doThrow(new GoogleSheetsUnavailableException("timeout", false, null)).when(googleSheetsClientMock)
+                .appendData(ArgumentMatchers.anyString(), ArgumentMatchers.anyList(), ArgumentMatchers.anyString());
+        mockSheet("Доходы!C2", List.of(List.of("Зарплата", 100.0, "2024-10-01")));
+        writeBehindBuffer.append(spreadsheetId, "Доходы!A2:C", List.of(List.of("Зарплата", 100.0, "'2024-10-01")));
+
+        writeBehindBuffer.flushAll();
+        writeBehindBuffer.flushAll();
+
+        Mockito.verify(googleSheetsClientMock).appendData(ArgumentMatchers.anyString(), ArgumentMatchers.anyList(),
+                ArgumentMatchers.anyString());
+        Assertions.assertThat(writeBehindBuffer.getPendingRows()).isZero();
+    }
+
+    /**
+     * Тест для проверки, что строки, ответ на отправку которых не получен, отправляются повторно,
+     * если их нет в таблице.
+     */
+    @Test
+    void testUncertainRowsAreResentWhenMissing() throws GoogleSheetsException, IOException {
+        Mockito.doThrow(new GoogleSheetsUnavailableException("timeout", false, null)).doNothing()
+                .when(googleSheetsClientMock)
+                .appendData(ArgumentMatchers.anyString(), ArgumentMatchers.anyList(), ArgumentMatchers.anyString());
+        mockSheet("Доходы!C2", List.of());
+        writeBehindBuffer.append(spreadsheetId, "Доходы!A2:C", List.of(List.of("Зарплата", 100.0, "'2024-10-01")));
+
+        writeBehindBuffer.flushAll();
+        writeBehindBuffer.flushAll();
+
+        Mockito.verify(googleSheetsClientMock, Mockito.times(2)).appendData("Доходы!A2:C",
+                List.of(List.of("Зарплата", 100.0, "'2024-10-01")), spreadsheetId);
+        Assertions.assertThat(writeBehindBuffer.getPendingRows()).isZero();
+    }
+
+    /**
+     * Тест для проверки изменения последней ещё не записанной строки.
+     */
+    @Test
+    void testUpdateLastPendingRow() throws GoogleSheetsException, IOException {
+        writeBehindBuffer.append(spreadsheetId, "Расходы!A2:D", List.of(List.of("'2024-10-01", 100.0, "Другое")));
+
+        boolean updated = writeBehindBuffer.updateLastPendingRow(spreadsheetId, "Расходы!A2:D", 2, "Продукты");
+        writeBehindBuffer.flush(spreadsheetId);
+
+        Assertions.assertThat(updated).isTrue();
+        Mockito.verify(googleSheetsClientMock).appendData("Расходы!A2:D",
+                List.of(List.of("'2024-10-01", 100.0, "Продукты")), spreadsheetId);
+        Assertions.assertThat(writeBehindBuffer.updateLastPendingRow(spreadsheetId, "Расходы!A2:D", 2, "Такси"))
+                .isFalse();
+    }
+
+    /**
+     * Настраивает мок клиента так, чтобы на листе были заданные строки данных.
+     *
+     * @param lastCell ячейка последнего столбца первой строки данных
+     * @param rows     строки данных, не больше одной
+     */
+    private void mockSheet(String lastCell, List<List<Object>> rows) throws IOException {
+        Mockito.when(googleSheetsClientMock.getRowCounts(ArgumentMatchers.anyString()))
+                .thenReturn(Map.of("Расходы", 1000, "Доходы", 1000));
+        Mockito.when(googleSheetsClientMock.batchReadData(ArgumentMatchers.anyList(), ArgumentMatchers.anyString()))
+                .thenAnswer(invocation -> {
+                    Map<String, List<List<Object>>> values = new LinkedHashMap<>();
+                    for (String range : invocation.<List<String>>getArgument(0)) {
+                        values.put(range, range.equals(lastCell) && !rows.isEmpty()
+                                ? List.of(List.of(rows.getFirst().getLast()))
+                                : null);
+                    }
+                    return values;
+                });
+        Mockito.when(googleSheetsClientMock.readData(ArgumentMatchers.anyString(), ArgumentMatchers.anyString()))
+                .thenReturn(rows);
+    }
+}
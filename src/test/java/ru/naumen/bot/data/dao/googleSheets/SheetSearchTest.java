@@ -0,0 +1,158 @@
+package ru.naumen.bot.data.dao.googleSheets;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.naumen.bot.client.GoogleSheetsClient;
+import ru.naumen.bot.client.GoogleSheetsHttpTransport;
+import ru.naumen.bot.client.GoogleSheetsResilience;
+import ru.naumen.bot.client.emulator.EmulatedSpreadsheet;
+import ru.naumen.bot.client.emulator.GoogleSheetsEmulator;
+import ru.naumen.bot.configuration.GoogleSheetsHttpConfig;
+import ru.naumen.bot.configuration.GoogleSheetsResilienceConfig;
+import ru.naumen.bot.utils.metrics.BotMetrics;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Интеграционные тесты для класса {@link SheetSearch}, выполняющие поиск на листе эмулятора
+ * Google Sheets API с сеткой нового листа из 1000 строк.
+ */
+public class SheetSearchTest {
+
+    /**
+     * Идентификатор гугл-таблицы
+     */
+    private static final String SPREADSHEET_ID = "spreadsheet";
+
+    /**
+     * Диапазон листа расходов
+     */
+    private static final SheetRange RANGE = SheetRange.parse("Расходы!A2:D");
+
+    /**
+     * Дата первого расхода на листе
+     */
+    private static final LocalDate START = LocalDate.of(2024, 1, 1);
+
+    /**
+     * Эмулятор Google Sheets API
+     */
+    private GoogleSheetsEmulator emulator;
+
+    /**
+     * Транспорт запросов к эмулятору
+     */
+    private GoogleSheetsHttpTransport transport;
+
+    /**
+     * Клиент, через который выполняется поиск
+     */
+    private GoogleSheetsClient googleSheetsClient;
+
+    /**
+     * Запускает эмулятор и создаёт таблицу с пустым листом "Расходы".
+     */
+    @BeforeEach
+    void setUp() throws IOException {
+        emulator = new GoogleSheetsEmulator(4);
+        EmulatedSpreadsheet spreadsheet = emulator.createSpreadsheet(SPREADSHEET_ID);
+        spreadsheet.addSheet("Расходы");
+        BotMetrics botMetrics = new BotMetrics(new SimpleMeterRegistry());
+        transport = new GoogleSheetsHttpTransport(
+                new GoogleSheetsHttpConfig(Duration.ofSeconds(5), Duration.ofSeconds(5)),
+                botMetrics);
+        GoogleSheetsResilience resilience = new GoogleSheetsResilience(
+                new GoogleSheetsResilienceConfig(3, Duration.ofMillis(1), Duration.ofMillis(5), 5,
+                        Duration.ofMinutes(1), 60_000, 60_000, 100, Duration.ofSeconds(1)),
+                botMetrics);
+        googleSheetsClient = new GoogleSheetsClient(emulator.createSheetsService(transport), botMetrics, resilience);
+    }
+
+    /**
+     * Останавливает эмулятор и транспорт.
+     */
+    @AfterEach
+    void tearDown() {
+        transport.shutdown();
+        emulator.close();
+    }
+
+    /**
+     * Тест подсчёта строк: пробы не выходят за сетку листа из 1000 строк,
+     * в том числе когда заполнены все строки сетки и когда сетка расширена добавлением строк.
+     */
+    @Test
+    void testCountRowsWithinGrid() throws IOException {
+        Assertions.assertThat(SheetSearch.countRows(googleSheetsClient, SPREADSHEET_ID, RANGE)).isZero();
+
+        appendDays(0, 300);
+        Assertions.assertThat(SheetSearch.countRows(googleSheetsClient, SPREADSHEET_ID, RANGE)).isEqualTo(300);
+
+        appendDays(300, 1500);
+        Assertions.assertThat(googleSheetsClient.getRowCounts(SPREADSHEET_ID).get("Расходы")).isEqualTo(2500);
+        Assertions.assertThat(SheetSearch.countRows(googleSheetsClient, SPREADSHEET_ID, RANGE)).isEqualTo(1500);
+    }
+
+    /**
+     * Тест поиска периода в упорядоченном столбце дат.
+     */
+    @Test
+    void testFindPeriod() throws IOException {
+        appendDays(0, 700);
+
+        int[] period = SheetSearch.findPeriod(googleSheetsClient, SPREADSHEET_ID, RANGE, "D",
+                START.plusDays(100), START.plusDays(199));
+
+        Assertions.assertThat(period).containsExactly(100, 200);
+    }
+
+    /**
+     * Тест для проверки, что при неупорядоченном столбце дат возвращаются все строки листа,
+     * чтобы строки периода были отобраны после чтения.
+     */
+    @Test
+    void testFindPeriodInUnsortedColumn() throws IOException {
+        appendDays(0, 700);
+        googleSheetsClient.updateData("Расходы!D232", List.of(List.of("2023-01-01")), SPREADSHEET_ID);
+
+        int[] period = SheetSearch.findPeriod(googleSheetsClient, SPREADSHEET_ID, RANGE, "D",
+                START.plusDays(100), START.plusDays(199));
+
+        Assertions.assertThat(period).containsExactly(0, 1699);
+    }
+
+    /**
+     * Тест для проверки, что ячейка, которая не является датой, приводит к ошибке ввода-вывода,
+     * а не к непроверяемому исключению.
+     */
+    @Test
+    void testFindPeriodWithNonDateCell() throws IOException {
+        appendDays(0, 10);
+        googleSheetsClient.updateData("Расходы!D2", List.of(List.of("не дата")), SPREADSHEET_ID);
+
+        Assertions.assertThatThrownBy(() -> SheetSearch.findPeriod(googleSheetsClient, SPREADSHEET_ID, RANGE, "D",
+                        START, START.plusDays(5)))
+                .isInstanceOf(IOException.class);
+    }
+
+    /**
+     * Добавляет на лист расходы по одному на день.
+     *
+     * @param from номер первого дня от {@link #START}
+     * @param to   номер дня после последнего
+     */
+    private void appendDays(int from, int to) throws IOException {
+        List<List<Object>> rows = new ArrayList<>();
+        for (int day = from; day < to; day++) {
+            rows.add(List.of("'Расход", day, "OTHER", "'" + START.plusDays(day)));
+        }
+        googleSheetsClient.appendData("Расходы!A2:D", rows, SPREADSHEET_ID);
+    }
+}
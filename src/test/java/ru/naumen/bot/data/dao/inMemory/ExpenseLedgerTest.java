@@ -0,0 +1,151 @@
+package ru.naumen.bot.data.dao.inMemory;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import ru.naumen.bot.data.entity.Expense;
+import ru.naumen.bot.data.enums.ExpenseCategory;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Тесты для класса {@link ExpenseLedger}, проверяющие хранение расходов в поколоночном виде.
+ */
+public class ExpenseLedgerTest {
+
+    /**
+     * Тестируемый объект {@link ExpenseLedger}, который проверяется в данном тестовом классе.
+     */
+    private final ExpenseLedger ledger = new ExpenseLedger();
+
+    /**
+     * Тест для проверки, что расходы возвращаются без изменений и в порядке добавления
+     * после многократного увеличения массивов.
+     */
+    @Test
+    void testAddAndGetAfterGrowth() {
+        List<Expense> expenses = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            expenses.add(new Expense("Расход " + (i % 10), i * 100L + 50,
+                    ExpenseCategory.values()[i % ExpenseCategory.values().length],
+                    LocalDate.of(2024, 1, 1).plusDays(i)));
+        }
+
+        ledger.add(expenses.getFirst());
+        ledger.addAll(expenses.subList(1, expenses.size()));
+
+        Assertions.assertThat(ledger.size()).isEqualTo(1000);
+        Assertions.assertThat(ledger.toList()).isEqualTo(expenses);
+    }
+
+    /**
+     * Тест для проверки получения страницы последних расходов: смещение отсчитывается
+     * от последнего добавленного расхода, а страница за началом журнала обрезается.
+     */
+    @Test
+    void testGetLatest() {
+        List<Expense> expenses = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            expenses.add(new Expense("Расход " + i, i * 100L, ExpenseCategory.OTHER, LocalDate.of(2024, 1, 1)));
+        }
+        ledger.addAll(expenses);
+
+        Assertions.assertThat(ledger.getLatest(0, 2)).isEqualTo(expenses.subList(3, 5));
+        Assertions.assertThat(ledger.getLatest(2, 2)).isEqualTo(expenses.subList(1, 3));
+        Assertions.assertThat(ledger.getLatest(4, 2)).isEqualTo(expenses.subList(0, 1));
+        Assertions.assertThat(ledger.getLatest(6, 2)).isEmpty();
+    }
+
+    /**
+     * Тест для проверки изменения категории расхода.
+     */
+    @Test
+    void testSetCategory() {
+        LocalDate date = LocalDate.of(2024, 10, 1);
+        ledger.add(new Expense("такси", 30000L, ExpenseCategory.OTHER, date));
+
+        ledger.setCategory(0, ExpenseCategory.TRANSPORT);
+
+        Assertions.assertThat(ledger.get(0)).isEqualTo(new Expense("такси", 30000L, ExpenseCategory.TRANSPORT, date));
+    }
+
+    /**
+     * Тест для проверки, что очищенный журнал пуст и снова принимает расходы.
+     */
+    @Test
+    void testClear() {
+        LocalDate date = LocalDate.of(2024, 10, 1);
+        ledger.add(new Expense("кофе", 20000L, ExpenseCategory.RESTAURANT, date));
+
+        ledger.clear();
+        ledger.add(new Expense("чай", 10000L, ExpenseCategory.RESTAURANT, date));
+
+        Assertions.assertThat(ledger.toList())
+                .containsExactly(new Expense("чай", 10000L, ExpenseCategory.RESTAURANT, date));
+    }
+
+    /**
+     * Тест для проверки выборки расходов за период, в том числе после добавления расхода
+     * с более ранней датой, чем у предыдущих.
+     */
+    @Test
+    void testGetRange() {
+        Expense september = new Expense("кофе", 20000L, ExpenseCategory.RESTAURANT, LocalDate.of(2024, 9, 30));
+        Expense first = new Expense("такси", 30000L, ExpenseCategory.TRANSPORT, LocalDate.of(2024, 10, 1));
+        Expense second = new Expense("обед", 50000L, ExpenseCategory.RESTAURANT, LocalDate.of(2024, 10, 15));
+        Expense november = new Expense("кино", 40000L, ExpenseCategory.ENTERTAINMENT, LocalDate.of(2024, 11, 1));
+        ledger.addAll(List.of(september, second, november));
+        LocalDate from = LocalDate.of(2024, 10, 1);
+        LocalDate to = LocalDate.of(2024, 10, 31);
+
+        Assertions.assertThat(ledger.getRange(from, to)).containsExactly(second);
+
+        ledger.add(first);
+
+        Assertions.assertThat(ledger.getRange(from, to)).containsExactly(first, second);
+        Assertions.assertThat(ledger.getRange(from, to, ExpenseCategory.RESTAURANT)).containsExactly(second);
+        Assertions.assertThat(ledger.getRange(LocalDate.MIN, LocalDate.MAX))
+                .containsExactly(september, first, second, november);
+
+        Expense dinner = new Expense("ужин", 60000L, ExpenseCategory.RESTAURANT, LocalDate.of(2024, 10, 15));
+        ledger.add(dinner);
+
+        Assertions.assertThat(ledger.getRange(from, to)).containsExactly(first, second, dinner);
+    }
+
+    /**
+     * Тест для проверки, что суммы по категориям за месяц учитывают добавление,
+     * изменение категории и очистку журнала.
+     */
+    @Test
+    void testCategoryTotals() {
+        YearMonth october = YearMonth.of(2024, 10);
+        ledger.addAll(List.of(
+                new Expense("кофе", 20000L, ExpenseCategory.RESTAURANT, LocalDate.of(2024, 9, 30)),
+                new Expense("обед", 50000L, ExpenseCategory.RESTAURANT, LocalDate.of(2024, 10, 1)),
+                new Expense("такси", 30000L, ExpenseCategory.OTHER, LocalDate.of(2024, 10, 2))));
+
+        Assertions.assertThat(ledger.getCategoryTotals(october))
+                .isEqualTo(Map.of(ExpenseCategory.RESTAURANT, 50000L, ExpenseCategory.OTHER, 30000L));
+
+        ledger.setCategory(2, ExpenseCategory.TRANSPORT);
+
+        Assertions.assertThat(ledger.getCategoryTotals(october))
+                .isEqualTo(Map.of(ExpenseCategory.RESTAURANT, 50000L, ExpenseCategory.TRANSPORT, 30000L));
+
+        ledger.clear();
+
+        Assertions.assertThat(ledger.getCategoryTotals(october)).isEmpty();
+    }
+
+    /**
+     * Тест для проверки, что обращение за пределами журнала приводит к исключению.
+     */
+    @Test
+    void testGetOutOfBounds() {
+        Assertions.assertThatThrownBy(() -> ledger.get(0)).isInstanceOf(IndexOutOfBoundsException.class);
+    }
+}
@@ -3,6 +3,7 @@ package ru.naumen.bot.data.dao.inMemory;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import ru.naumen.bot.data.journal.Journal;
 
 /**
  * Тесты для класса {@link InMemoryBalanceDao}, проверяющие корректность работы с балансом пользователей.
@@ -24,7 +25,7 @@ public class InMemoryBalanceDaoTest {
      */
     @BeforeEach
     void setUp() {
-        balanceDao = new InMemoryBalanceDao();
+        balanceDao = new InMemoryBalanceDao(Journal.NONE);
     }
 
     /**
@@ -32,10 +33,10 @@ public class InMemoryBalanceDaoTest {
      */
     @Test
     void testSetBalanceAndGetBalance() {
-        Assertions.assertThat(balanceDao.getBalance(chatId)).isEqualTo(0.0);
-        balanceDao.setBalance(chatId, 1.1);
+        Assertions.assertThat(balanceDao.getBalance(chatId)).isEqualTo(0L);
+        balanceDao.setBalance(chatId, 110L);
 
-        Assertions.assertThat(balanceDao.getBalance(chatId)).isEqualTo(1.1);
+        Assertions.assertThat(balanceDao.getBalance(chatId)).isEqualTo(110L);
     }
 
     /**
@@ -43,9 +44,9 @@ public class InMemoryBalanceDaoTest {
      */
     @Test
     void testRemoveBalance() {
-        balanceDao.setBalance(chatId, 1.1);
+        balanceDao.setBalance(chatId, 110L);
         balanceDao.removeBalance(chatId);
 
-        Assertions.assertThat(balanceDao.getBalance(chatId)).isEqualTo(0.0);
+        Assertions.assertThat(balanceDao.getBalance(chatId)).isEqualTo(0L);
     }
 }
@@ -5,8 +5,10 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import ru.naumen.bot.data.entity.Expense;
 import ru.naumen.bot.data.enums.ExpenseCategory;
+import ru.naumen.bot.data.journal.Journal;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -29,7 +31,7 @@ public class InMemoryExpenseDaoTest {
      */
     @BeforeEach
     void setUp() {
-        expenseDao = new InMemoryExpenseDao();
+        expenseDao = new InMemoryExpenseDao(Journal.NONE);
     }
 
     /**
@@ -59,7 +61,7 @@ public class InMemoryExpenseDaoTest {
      */
     @Test
     void testAddAndGetExpense() {
-        Expense expense = new Expense("мяу", 15.0, ExpenseCategory.CLOTHING, LocalDate.now());
+        Expense expense = new Expense("мяу", 1500L, ExpenseCategory.CLOTHING, LocalDate.now());
         expenseDao.createUserList(chatId);
 
         expenseDao.addExpense(chatId, expense);
@@ -74,8 +76,8 @@ public class InMemoryExpenseDaoTest {
     @Test
     void testAddAndGetExpenses() {
         List<Expense> expenses = List.of(
-                new Expense("Расход 1", 15.0, ExpenseCategory.CLOTHING, LocalDate.now()),
-                new Expense("Расход 2", 16.0, ExpenseCategory.TRANSFER, LocalDate.now())
+                new Expense("Расход 1", 1500L, ExpenseCategory.CLOTHING, LocalDate.now()),
+                new Expense("Расход 2", 1600L, ExpenseCategory.TRANSFER, LocalDate.now())
         );
 
         expenseDao.createUserList(chatId);
@@ -91,8 +93,8 @@ public class InMemoryExpenseDaoTest {
     @Test
     void testRemoveExpenses() {
         List<Expense> expenses = List.of(
-                new Expense("Расход 1", 15.0, ExpenseCategory.CLOTHING, LocalDate.now()),
-                new Expense("Расход 2", 16.0, ExpenseCategory.SUPERMARKET, LocalDate.now())
+                new Expense("Расход 1", 1500L, ExpenseCategory.CLOTHING, LocalDate.now()),
+                new Expense("Расход 2", 1600L, ExpenseCategory.SUPERMARKET, LocalDate.now())
         );
 
         expenseDao.createUserList(chatId);
@@ -102,5 +104,27 @@ public class InMemoryExpenseDaoTest {
         Assertions.assertThat(expenseDao.getExpenses(chatId)).isEmpty();
     }
 
-
-}
\ No newline at end of file
+    /**
+     * Тест для проверки, что параллельное добавление расходов из нескольких потоков не теряет записи,
+     * а полученный список не меняется при последующих добавлениях.
+     */
+    @Test
+    void testConcurrentAddExpense() throws InterruptedException {
+        expenseDao.createUserList(chatId);
+        List<Expense> before = expenseDao.getExpenses(chatId);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            threads.add(Thread.ofPlatform().start(() -> {
+                for (int j = 0; j < 1000; j++) {
+                    expenseDao.addExpense(chatId, new Expense("Расход", 100L, ExpenseCategory.OTHER, LocalDate.now()));
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        Assertions.assertThat(expenseDao.getExpenses(chatId)).hasSize(8000);
+        Assertions.assertThat(before).isEmpty();
+    }
+}
@@ -4,6 +4,7 @@ import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import ru.naumen.bot.data.entity.Income;
+import ru.naumen.bot.data.journal.Journal;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -29,7 +30,7 @@ public class InMemoryIncomeDaoTest {
      */
     @BeforeEach
     void setUp() {
-        incomeDao = new InMemoryIncomeDao();
+        incomeDao = new InMemoryIncomeDao(Journal.NONE);
     }
 
     /**
@@ -59,7 +60,7 @@ public class InMemoryIncomeDaoTest {
      */
     @Test
     void testAddAndGetIncome() {
-        Income income = new Income("мяу", 15.0, LocalDate.now());
+        Income income = new Income("мяу", 1500L, LocalDate.now());
         incomeDao.createUserList(chatId);
 
         incomeDao.addIncome(chatId, income);
@@ -74,8 +75,8 @@ public class InMemoryIncomeDaoTest {
     @Test
     void testAddAndGetIncomes() {
         List<Income> incomes = List.of(
-                new Income("Доход 1", 15.0, LocalDate.now()),
-                new Income("Доход 2", 16.0, LocalDate.now())
+                new Income("Доход 1", 1500L, LocalDate.now()),
+                new Income("Доход 2", 1600L, LocalDate.now())
         );
         incomeDao.createUserList(chatId);
 
@@ -91,8 +92,8 @@ public class InMemoryIncomeDaoTest {
     @Test
     void testRemoveIncomes() {
         List<Income> incomes = List.of(
-                new Income("Доход 1", 15.0, LocalDate.now()),
-                new Income("Доход 2", 16.0, LocalDate.now())
+                new Income("Доход 1", 1500L, LocalDate.now()),
+                new Income("Доход 2", 1600L, LocalDate.now())
         );
 
         incomeDao.createUserList(chatId);
@@ -6,6 +6,7 @@ import org.junit.jupiter.api.Test;
 import ru.naumen.bot.data.dao.UserDao;
 import ru.naumen.bot.data.enums.ChatState;
 import ru.naumen.bot.data.enums.DataType;
+import ru.naumen.bot.data.journal.Journal;
 
 /**
  * Тесты для класса {@link UserDao}, проверяющие функциональность управления пользователями.
@@ -27,7 +28,7 @@ public class UserDaoTest {
      */
     @BeforeEach
     void setUp() {
-        userDao = new UserDao();
+        userDao = new UserDao(Journal.NONE);
     }
 
     /**
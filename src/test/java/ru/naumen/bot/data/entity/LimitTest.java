@@ -21,7 +21,7 @@ public class LimitTest {
      */
     @BeforeEach
     void setUp() {
-        limit = new Limit(100.0, 0.0);
+        limit = new Limit(10000L, 0L);
     }
 
     /**
@@ -30,7 +30,7 @@ public class LimitTest {
     @Test
     void testWhenSumExpensesMoreThanLimit() {
         Assertions.assertThatThrownBy(() ->
-                limit.setDailyExpensesSum(101.0)).isInstanceOf(ExceedingTheLimitException.class);
+                limit.setDailyExpensesSum(10100L)).isInstanceOf(ExceedingTheLimitException.class);
     }
 
     /**
@@ -41,7 +41,7 @@ public class LimitTest {
      */
     @Test
     void testWhenSumExpensesLessThanLimit() throws ExceedingTheLimitException {
-        limit.setDailyExpensesSum(99.0);
-        Assertions.assertThat(limit.getDailyExpensesSum()).isEqualTo(99.0);
+        limit.setDailyExpensesSum(9900L);
+        Assertions.assertThat(limit.getDailyExpensesSum()).isEqualTo(9900L);
     }
 }
\ No newline at end of file
@@ -0,0 +1,54 @@
+package ru.naumen.bot.data.journal;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import ru.naumen.bot.data.entity.Expense;
+import ru.naumen.bot.data.enums.ExpenseCategory;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+/**
+ * Тесты для класса {@link JournalCodec}, проверяющие кодирование денежных сумм
+ * и настроек пользователя.
+ */
+public class JournalCodecTest {
+
+    /**
+     * Идентификатор чата, в котором происходит тестирование.
+     */
+    private final long chatId = 12345L;
+
+    /**
+     * Тест для проверки, что записи с суммами в копейках читаются без изменений.
+     */
+    @Test
+    void testEncodeAndDecodeMoneyRecords() {
+        JournalRecord balanceSet = new JournalRecord.BalanceSet(chatId, -35050L);
+        JournalRecord limitSet = new JournalRecord.LimitSet(chatId, 100000L, 7L);
+        JournalRecord expenseAdded = new JournalRecord.ExpenseAdded(chatId,
+                new Expense("кофе", 35055L, ExpenseCategory.RESTAURANT, LocalDate.of(2024, 10, 1)));
+
+        Assertions.assertThat(JournalCodec.decode(ByteBuffer.wrap(JournalCodec.encode(balanceSet))))
+                .isEqualTo(balanceSet);
+        Assertions.assertThat(JournalCodec.decode(ByteBuffer.wrap(JournalCodec.encode(limitSet))))
+                .isEqualTo(limitSet);
+        Assertions.assertThat(JournalCodec.decode(ByteBuffer.wrap(JournalCodec.encode(expenseAdded))))
+                .isEqualTo(expenseAdded);
+    }
+
+    /**
+     * Тест для проверки, что часовой пояс пользователя читается без изменений.
+     */
+    @Test
+    void testEncodeAndDecodeTimeZoneRecord() {
+        JournalRecord timeZoneSet = new JournalRecord.TimeZoneSet(chatId, ZoneId.of("Asia/Yekaterinburg"));
+        JournalRecord offsetSet = new JournalRecord.TimeZoneSet(chatId, ZoneId.of("UTC+5"));
+
+        Assertions.assertThat(JournalCodec.decode(ByteBuffer.wrap(JournalCodec.encode(timeZoneSet))))
+                .isEqualTo(timeZoneSet);
+        Assertions.assertThat(JournalCodec.decode(ByteBuffer.wrap(JournalCodec.encode(offsetSet))))
+                .isEqualTo(offsetSet);
+    }
+}
@@ -0,0 +1,312 @@
+package ru.naumen.bot.data.journal;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.naumen.bot.data.dao.UserDao;
+import ru.naumen.bot.data.dao.inMemory.InMemoryBalanceDao;
+import ru.naumen.bot.data.dao.inMemory.InMemoryExpenseDao;
+import ru.naumen.bot.data.dao.inMemory.InMemoryIncomeDao;
+import ru.naumen.bot.data.dao.inMemory.InMemoryLimitDao;
+import ru.naumen.bot.data.entity.Expense;
+import ru.naumen.bot.data.entity.Income;
+import ru.naumen.bot.data.entity.Limit;
+import ru.naumen.bot.data.enums.ChatState;
+import ru.naumen.bot.data.enums.DataType;
+import ru.naumen.bot.data.enums.ExpenseCategory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+/**
+ * Тесты для класса {@link MappedFileJournal}, проверяющие восстановление хранилищ в памяти
+ * из сегментов и снимков журнала.
+ */
+public class MappedFileJournalTest {
+
+    /**
+     * Размер сегмента, при котором несколько записей занимают несколько сегментов
+     */
+    private static final int SEGMENT_SIZE = 256;
+
+    /**
+     * Каталог журнала, создаваемый для каждого теста
+     */
+    @TempDir
+    Path directory;
+
+    /**
+     * Идентификатор чата, в котором происходит тестирование.
+     */
+    private final long chatId = 12345L;
+
+    /**
+     * Дата расходов и доходов
+     */
+    private final LocalDate date = LocalDate.of(2024, 10, 1);
+
+    /**
+     * Тест для проверки, что все изменения, записанные в несколько сегментов,
+     * восстанавливаются после перезапуска.
+     */
+    @Test
+    void testRecoverFromSegments() throws IOException {
+        Storages before = new Storages(new MappedFileJournal(directory, SEGMENT_SIZE));
+        fill(before);
+        before.journal.close();
+
+        Storages after = new Storages(new MappedFileJournal(directory, SEGMENT_SIZE));
+        long count = after.journal.recover(after::apply);
+
+        Assertions.assertThat(count).isEqualTo(12);
+        assertRecovered(after);
+    }
+
+    /**
+     * Тест для проверки, что после снимка старые сегменты удаляются, а восстановление
+     * из снимка и последующих записей даёт то же состояние.
+     */
+    @Test
+    void testRecoverFromSnapshot() throws IOException {
+        Storages before = new Storages(new MappedFileJournal(directory, SEGMENT_SIZE));
+        fill(before);
+        before.journal.snapshot(before.participants());
+
+        try (Stream<Path> files = Files.list(directory)) {
+            Assertions.assertThat(files.map(file -> file.getFileName().toString()))
+                    .filteredOn(name -> name.endsWith(".log"))
+                    .hasSize(1);
+        }
+
+        before.expenseDao.setLastExpenseCategory(chatId, ExpenseCategory.TRANSPORT);
+        before.journal.close();
+
+        Storages after = new Storages(new MappedFileJournal(directory, SEGMENT_SIZE));
+        after.journal.recover(after::apply);
+
+        Assertions.assertThat(after.expenseDao.getExpenses(chatId)).containsExactly(
+                new Expense("кофе", 20000L, ExpenseCategory.RESTAURANT, date),
+                new Expense("такси", 30000L, ExpenseCategory.TRANSPORT, date));
+        Assertions.assertThat(after.userDao.getGoogleSheetId(chatId)).isEqualTo("sheetId");
+    }
+
+    /**
+     * Тест для проверки, что изменения, выполняемые во время сохранения снимков, восстанавливаются
+     * ровно один раз: либо из снимка, либо из сегментов после него.
+     */
+    @Test
+    void testChangesDuringSnapshotAreRecoveredOnce() throws Exception {
+        int chats = 200;
+        int expenses = 20;
+        Storages before = new Storages(new MappedFileJournal(directory, SEGMENT_SIZE));
+        for (long chat = 0; chat < chats; chat++) {
+            before.expenseDao.createUserList(chat);
+        }
+        CompletableFuture<Void> writer = CompletableFuture.runAsync(() -> {
+            for (int i = 0; i < expenses; i++) {
+                for (long chat = 0; chat < chats; chat++) {
+                    before.expenseDao.addExpenses(chat, List.of(
+                            new Expense("кофе " + i, 100L * i, ExpenseCategory.RESTAURANT, date)));
+                }
+            }
+        });
+        while (!writer.isDone()) {
+            before.journal.snapshot(before.participants());
+        }
+        writer.get();
+        before.journal.close();
+
+        Storages after = new Storages(new MappedFileJournal(directory, SEGMENT_SIZE));
+        after.journal.recover(after::apply);
+
+        for (long chat = 0; chat < chats; chat++) {
+            Assertions.assertThat(after.expenseDao.getExpenses(chat))
+                    .isEqualTo(before.expenseDao.getExpenses(chat))
+                    .hasSize(expenses);
+        }
+    }
+
+    /**
+     * Тест для проверки, что оборванная при аварийном завершении запись пропускается,
+     * а предшествующие записи восстанавливаются.
+     */
+    @Test
+    void testRecoverSkipsTornRecord() throws IOException {
+        MappedFileJournal journal = new MappedFileJournal(directory, 1024);
+        Storages before = new Storages(journal);
+        before.balanceDao.setBalance(chatId, 10000L);
+        before.balanceDao.setBalance(chatId, 20000L);
+        journal.close();
+        Path segment;
+        try (Stream<Path> files = Files.list(directory)) {
+            segment = files.filter(file -> file.toString().endsWith(".log")).findFirst().orElseThrow();
+        }
+        byte[] bytes = Files.readAllBytes(segment);
+        int secondRecordEnd = 2 * JournalCodec.encode(new JournalRecord.BalanceSet(chatId, 0L)).length;
+        bytes[secondRecordEnd - 1] ^= 1;
+        Files.write(segment, bytes);
+
+        Storages after = new Storages(new MappedFileJournal(directory, 1024));
+        long count = after.journal.recover(after::apply);
+
+        Assertions.assertThat(count).isEqualTo(1);
+        Assertions.assertThat(after.balanceDao.getBalance(chatId)).isEqualTo(10000L);
+    }
+
+    /**
+     * Тест для проверки, что изменение, завершившееся исключением, не попадает в журнал.
+     */
+    @Test
+    void testFailedMutationIsNotJournaled() throws IOException {
+        Storages before = new Storages(new MappedFileJournal(directory, SEGMENT_SIZE));
+        before.expenseDao.createUserList(chatId);
+        Assertions.assertThatThrownBy(
+                () -> before.expenseDao.setLastExpenseCategory(chatId, ExpenseCategory.OTHER));
+        before.journal.close();
+
+        Storages after = new Storages(new MappedFileJournal(directory, SEGMENT_SIZE));
+
+        Assertions.assertThat(after.journal.recover(after::apply)).isEqualTo(1);
+        Assertions.assertThat(after.expenseDao.getExpenses(chatId)).isEmpty();
+    }
+
+    /**
+     * Тест для проверки, что если следующий сегмент создать не удалось, изменение не применяется,
+     * а все применённые изменения остаются в журнале.
+     */
+    @Test
+    void testChangeIsNotAppliedWhenSegmentCannotBeCreated() throws IOException {
+        Storages before = new Storages(new MappedFileJournal(directory, SEGMENT_SIZE));
+        Files.createFile(directory.resolve("segment-00000000000000000002.log"));
+        int frameLength = JournalCodec.encode(new JournalRecord.BalanceSet(chatId, 0L)).length;
+        int fitting = SEGMENT_SIZE / frameLength;
+        for (int i = 1; i <= fitting; i++) {
+            before.balanceDao.setBalance(chatId, i);
+        }
+
+        Assertions.assertThatThrownBy(() -> before.balanceDao.setBalance(chatId, 0L))
+                .isInstanceOf(UncheckedIOException.class);
+        Assertions.assertThat(before.balanceDao.getBalance(chatId)).isEqualTo(fitting);
+        before.journal.close();
+
+        Storages after = new Storages(new MappedFileJournal(directory, SEGMENT_SIZE));
+        after.journal.recover(after::apply);
+
+        Assertions.assertThat(after.balanceDao.getBalance(chatId)).isEqualTo(fitting);
+    }
+
+    /**
+     * Выполняет изменения во всех хранилищах.
+     *
+     * @param storages хранилища
+     */
+    private void fill(Storages storages) {
+        storages.userDao.openChat(chatId);
+        storages.userDao.setDataType(chatId, DataType.IN_GOOGLE_SHEET);
+        storages.userDao.setChatState(chatId, ChatState.NOTHING_WAITING);
+        storages.userDao.setGoogleSheetId(chatId, "sheetId");
+        storages.balanceDao.setBalance(chatId, 50000L);
+        storages.limitDao.setLimit(chatId, new Limit(100000L, 20000L));
+        storages.expenseDao.createUserList(chatId);
+        storages.expenseDao.addExpenses(chatId, List.of(
+                new Expense("кофе", 20000L, ExpenseCategory.RESTAURANT, date),
+                new Expense("такси", 30000L, ExpenseCategory.OTHER, date)));
+        storages.incomeDao.createUserList(chatId);
+        storages.incomeDao.addIncome(chatId, new Income("зарплата", 100000L, date));
+        storages.incomeDao.addIncome(chatId, new Income("подарок", 50000L, date));
+    }
+
+    /**
+     * Проверяет, что хранилища содержат данные, записанные в {@link #fill(Storages)}.
+     *
+     * @param storages восстановленные хранилища
+     */
+    private void assertRecovered(Storages storages) {
+        Assertions.assertThat(storages.userDao.checkChat(chatId)).isTrue();
+        Assertions.assertThat(storages.userDao.getDataType(chatId)).isEqualTo(DataType.IN_GOOGLE_SHEET);
+        Assertions.assertThat(storages.userDao.getChatState(chatId)).isEqualTo(ChatState.NOTHING_WAITING);
+        Assertions.assertThat(storages.userDao.getGoogleSheetId(chatId)).isEqualTo("sheetId");
+        Assertions.assertThat(storages.balanceDao.getBalance(chatId)).isEqualTo(50000L);
+        Assertions.assertThat(storages.limitDao.getLimit(chatId).getDailyLimit()).isEqualTo(100000L);
+        Assertions.assertThat(storages.limitDao.getLimit(chatId).getDailyExpensesSum()).isEqualTo(20000L);
+        Assertions.assertThat(storages.expenseDao.getExpenses(chatId)).containsExactly(
+                new Expense("кофе", 20000L, ExpenseCategory.RESTAURANT, date),
+                new Expense("такси", 30000L, ExpenseCategory.OTHER, date));
+        Assertions.assertThat(storages.incomeDao.getIncomes(chatId)).containsExactly(
+                new Income("зарплата", 100000L, date),
+                new Income("подарок", 50000L, date));
+    }
+
+    /**
+     * Хранилища в памяти, изменения которых записываются в один журнал.
+     */
+    private static class Storages {
+
+        /**
+         * Журнал изменений хранилищ
+         */
+        private final MappedFileJournal journal;
+
+        /**
+         * Хранилище пользователей
+         */
+        private final UserDao userDao;
+
+        /**
+         * Хранилище балансов
+         */
+        private final InMemoryBalanceDao balanceDao;
+
+        /**
+         * Хранилище лимитов
+         */
+        private final InMemoryLimitDao limitDao;
+
+        /**
+         * Хранилище расходов
+         */
+        private final InMemoryExpenseDao expenseDao;
+
+        /**
+         * Хранилище доходов
+         */
+        private final InMemoryIncomeDao incomeDao;
+
+        /**
+         * Создаёт пустые хранилища, записывающие изменения в журнал.
+         *
+         * @param journal журнал изменений хранилищ
+         */
+        private Storages(MappedFileJournal journal) {
+            this.journal = journal;
+            this.userDao = new UserDao(journal);
+            this.balanceDao = new InMemoryBalanceDao(journal);
+            this.limitDao = new InMemoryLimitDao(journal);
+            this.expenseDao = new InMemoryExpenseDao(journal);
+            this.incomeDao = new InMemoryIncomeDao(journal);
+        }
+
+        /**
+         * Возвращает все хранилища как участников журнала.
+         */
+        private List<JournalParticipant> participants() {
+            return List.of(userDao, balanceDao, limitDao, expenseDao, incomeDao);
+        }
+
+        /**
+         * Применяет запись журнала к хранилищу, к которому она относится.
+         *
+         * @param record запись журнала
+         */
+        private void apply(JournalRecord record) {
+            Assertions.assertThat(participants().stream().anyMatch(participant -> participant.apply(record)))
+                    .isTrue();
+        }
+    }
+}
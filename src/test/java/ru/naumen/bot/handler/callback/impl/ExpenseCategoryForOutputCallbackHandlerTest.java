@@ -44,17 +44,16 @@ public class ExpenseCategoryForOutputCallbackHandlerTest {
     void testHandleCallback() throws DaoException {
         long chatId = 12345L;
         String callbackId = "id";
+        LocalDate today = LocalDate.of(2024, 10, 31);
+        Mockito.when(userServiceMock.getToday(chatId)).thenReturn(today);
         List<Expense> expenses = List.of(
-                new Expense("Расход 1", 10.0,
-                        ExpenseCategory.CLOTHING, LocalDate.now().minusMonths(1)),
-                new Expense("Расход 2", 10.0,
-                        ExpenseCategory.CLOTHING, LocalDate.now()),
-                new Expense("Расход 3", 20.0,
-                        ExpenseCategory.TRANSPORT, LocalDate.now()),
-                new Expense("Расход 4", 30.0,
-                        ExpenseCategory.CLOTHING, LocalDate.now())
+                new Expense("Расход 2", 1000L,
+                        ExpenseCategory.CLOTHING, today),
+                new Expense("Расход 4", 3000L,
+                        ExpenseCategory.CLOTHING, today)
         );
-        Mockito.when(expenseServiceMock.getExpenses(chatId)).thenReturn(expenses);
+        Mockito.when(expenseServiceMock.getExpenses(chatId, today.withDayOfMonth(1),
+                today.withDayOfMonth(today.lengthOfMonth()), ExpenseCategory.CLOTHING)).thenReturn(expenses);
 
         List<AnswerMessage> expected =
                 List.of(new AnswerMessage(
@@ -0,0 +1,99 @@
+package ru.naumen.bot.handler.callback.impl;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import ru.naumen.bot.data.entity.AnswerMessage;
+import ru.naumen.bot.data.entity.Income;
+import ru.naumen.bot.data.enums.ChatState;
+import ru.naumen.bot.exception.DaoException;
+import ru.naumen.bot.interaction.HistoryPages;
+import ru.naumen.bot.interaction.keyboards.PageKeyboard;
+import ru.naumen.bot.service.ExpenseService;
+import ru.naumen.bot.service.IncomeService;
+import ru.naumen.bot.service.UserService;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Тесты для обработчика коллбэков {@link IncomesPageCallbackHandler}, который обрабатывает
+ * переход между страницами списка доходов.
+ */
+public class IncomesPageCallbackHandlerTest {
+
+    /**
+     * Мок-объект для {@link IncomeService}, используемый для получения доходов пользователя.
+     */
+    private final IncomeService incomeServiceMock = Mockito.mock(IncomeService.class);
+
+    /**
+     * Мок-объект для {@link UserService}, используемый для управления состоянием пользователя.
+     */
+    private final UserService userServiceMock = Mockito.mock(UserService.class);
+
+    /**
+     * Клавиатура для перехода между страницами
+     */
+    private final PageKeyboard pageKeyboard = new PageKeyboard();
+
+    /**
+     * Тестируемый обработчик коллбэков {@link IncomesPageCallbackHandler}.
+     */
+    private final IncomesPageCallbackHandler callbackHandler = new IncomesPageCallbackHandler(
+            new HistoryPages(Mockito.mock(ExpenseService.class), incomeServiceMock, userServiceMock,
+                    pageKeyboard, 2),
+            pageKeyboard, userServiceMock);
+
+    /**
+     * Идентификатор чата
+     */
+    private final long chatId = 12345L;
+
+    /**
+     * Тест перехода на среднюю страницу: читаются только записи этой страницы и одна запись перед ней,
+     * а к сообщению прикрепляются кнопки перехода в обе стороны.
+     */
+    @Test
+    void testHandleCallbackMiddlePage() throws DaoException {
+        List<Income> incomes = List.of(
+                new Income("income1", 10000L, LocalDate.of(2024, 1, 1)),
+                new Income("income2", 20000L, LocalDate.of(2024, 1, 2)),
+                new Income("income3", 30000L, LocalDate.of(2024, 1, 3)));
+        Mockito.when(incomeServiceMock.getLatestIncomes(chatId, 2, 3)).thenReturn(incomes);
+
+        List<AnswerMessage> response = callbackHandler.handleCallback("« Стр. 2", "id", chatId);
+
+        Mockito.verify(userServiceMock).setUserState(chatId, ChatState.WAITING_INCOMES_PAGE);
+        Assertions.assertThat(response).containsExactly(new AnswerMessage(
+                "Ваши доходы (стр. 2):\n200.0 - income2\n300.0 - income3\n", chatId,
+                List.of(List.of("« Стр. 3", "Стр. 1 »"))));
+    }
+
+    /**
+     * Тест перехода на последнюю страницу: остаётся только кнопка перехода к более новым доходам.
+     */
+    @Test
+    void testHandleCallbackLastPage() throws DaoException {
+        Mockito.when(incomeServiceMock.getLatestIncomes(chatId, 4, 3))
+                .thenReturn(List.of(new Income("income1", 10000L, LocalDate.of(2024, 1, 1))));
+
+        List<AnswerMessage> response = callbackHandler.handleCallback("Стр. 3 »", "id", chatId);
+
+        Assertions.assertThat(response).containsExactly(new AnswerMessage(
+                "Ваши доходы (стр. 3):\n100.0 - income1\n", chatId, List.of(List.of("Стр. 2 »"))));
+    }
+
+    /**
+     * Тест обработки коллбэка, который не является кнопкой перехода.
+     * Проверяет, что доходы не запрашиваются, а ожидание перехода сбрасывается.
+     */
+    @Test
+    void testHandleUnknownCallback() throws DaoException {
+        List<AnswerMessage> response = callbackHandler.handleCallback("Стр. 0 »", "id", chatId);
+
+        Assertions.assertThat(response).isEmpty();
+        Mockito.verify(userServiceMock).setUserState(chatId, ChatState.NOTHING_WAITING);
+        Mockito.verifyNoInteractions(incomeServiceMock);
+    }
+}
@@ -5,7 +5,6 @@ import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import ru.naumen.bot.data.entity.AnswerMessage;
-import ru.naumen.bot.data.entity.Expense;
 import ru.naumen.bot.data.enums.ChatState;
 import ru.naumen.bot.data.enums.ExpenseCategory;
 import ru.naumen.bot.exception.DaoException;
@@ -14,7 +13,9 @@ import ru.naumen.bot.service.ExpenseService;
 import ru.naumen.bot.service.UserService;
 
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Тесты для класса {@link AllCatOfExpensesCommandHandler}, проверяющие корректность обработки команды
@@ -45,17 +46,9 @@ public class AllCatOfExpensesCommandHandlerTest {
     @Test
     void testHandleCommand() throws DaoException {
         long chatId = 12345L;
-        List<Expense> expenses = List.of(
-                new Expense("Расход 1", 10.0,
-                        ExpenseCategory.CLOTHING, LocalDate.now().minusMonths(1)),
-                new Expense("Расход 2", 10.0,
-                        ExpenseCategory.CLOTHING, LocalDate.now()),
-                new Expense("Расход 3", 20.0,
-                        ExpenseCategory.TRANSPORT, LocalDate.now()),
-                new Expense("Расход 4", 30.0,
-                        ExpenseCategory.CLOTHING, LocalDate.now())
-        );
-        Mockito.when(expenseServiceMock.getExpenses(chatId)).thenReturn(expenses);
+        Mockito.when(userServiceMock.getToday(chatId)).thenReturn(LocalDate.of(2024, 10, 31));
+        Mockito.when(expenseServiceMock.getCategoryTotals(chatId, YearMonth.of(2024, 10)))
+                .thenReturn(Map.of(ExpenseCategory.CLOTHING, 4000L, ExpenseCategory.TRANSPORT, 2000L));
 
         List<AnswerMessage> expected =
                 List.of(new AnswerMessage(
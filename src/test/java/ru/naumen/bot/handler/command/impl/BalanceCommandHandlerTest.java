@@ -40,7 +40,7 @@ public class BalanceCommandHandlerTest {
     @Test
     void testHandleCommand() throws DaoException {
         long chatId = 12345L;
-        Mockito.when(balanceServiceMock.getBalance(chatId)).thenReturn(100.0);
+        Mockito.when(balanceServiceMock.getBalance(chatId)).thenReturn(10000L);
         List<AnswerMessage> expected =
                 List.of(new AnswerMessage("Ваш баланс: 100.0", chatId));
 
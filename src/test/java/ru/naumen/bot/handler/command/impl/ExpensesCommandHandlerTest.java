@@ -10,7 +10,10 @@ import ru.naumen.bot.data.enums.ChatState;
 import ru.naumen.bot.data.enums.ExpenseCategory;
 import ru.naumen.bot.exception.DaoException;
 import ru.naumen.bot.interaction.CommandData;
+import ru.naumen.bot.interaction.HistoryPages;
+import ru.naumen.bot.interaction.keyboards.PageKeyboard;
 import ru.naumen.bot.service.ExpenseService;
+import ru.naumen.bot.service.IncomeService;
 import ru.naumen.bot.service.UserService;
 
 import java.time.LocalDate;
@@ -34,8 +37,9 @@ public class ExpensesCommandHandlerTest {
     /**
      * Тестируемый объект {@link ExpensesCommandHandler}, обрабатывающий команду "/expenses".
      */
-    private final ExpensesCommandHandler expensesCommandHandler
-            = new ExpensesCommandHandler(expenseServiceMock, userServiceMock);
+    private final ExpensesCommandHandler expensesCommandHandler = new ExpensesCommandHandler(
+            new HistoryPages(expenseServiceMock, Mockito.mock(IncomeService.class), userServiceMock,
+                    new PageKeyboard(), 2));
 
     /**
      * Тест для обработки команды "/expenses".
@@ -45,9 +49,9 @@ public class ExpensesCommandHandlerTest {
     void testHandleCommand() throws DaoException {
         long chatId = 12345L;
         List<Expense> expenseList = List.of(
-                new Expense("expense1", 100.0,
+                new Expense("expense1", 10000L,
                         ExpenseCategory.CLOTHING, LocalDate.of(2024, 1, 1)),
-                new Expense("expense2", 200.0,
+                new Expense("expense2", 20000L,
                         ExpenseCategory.SUPERMARKET, LocalDate.of(2024, 2, 2)));
         List<AnswerMessage> expected = List.of(new AnswerMessage(
                 """
@@ -55,7 +59,7 @@ public class ExpensesCommandHandlerTest {
                         100.0 - expense1 (Одежда)
                         200.0 - expense2 (Супермаркет)
                         """, chatId));
-        Mockito.when(expenseServiceMock.getExpenses(chatId)).thenReturn(expenseList);
+        Mockito.when(expenseServiceMock.getLatestExpenses(chatId, 0, 3)).thenReturn(expenseList);
 
         List<AnswerMessage> response =
                 expensesCommandHandler.handleCommand(CommandData.EXPENSES_COMMAND.getReadableName(), chatId);
@@ -64,4 +68,29 @@ public class ExpensesCommandHandlerTest {
         Assertions.assertThat(response).containsAll(expected);
         Assertions.assertThat(response.size()).isEqualTo(1);
     }
-}
\ No newline at end of file
+
+    /**
+     * Тест для обработки команды "/expenses", когда расходов больше, чем помещается на странице.
+     * Проверяет, что выводятся последние расходы с номером страницы и кнопкой перехода к более старым.
+     */
+    @Test
+    void testHandleCommandWithOlderPage() throws DaoException {
+        long chatId = 12345L;
+        List<Expense> expenseList = List.of(
+                new Expense("expense1", 10000L, ExpenseCategory.CLOTHING, LocalDate.of(2024, 1, 1)),
+                new Expense("expense2", 20000L, ExpenseCategory.SUPERMARKET, LocalDate.of(2024, 2, 2)),
+                new Expense("expense3", 30000L, ExpenseCategory.RESTAURANT, LocalDate.of(2024, 3, 3)));
+        Mockito.when(expenseServiceMock.getLatestExpenses(chatId, 0, 3)).thenReturn(expenseList);
+
+        List<AnswerMessage> response =
+                expensesCommandHandler.handleCommand(CommandData.EXPENSES_COMMAND.getReadableName(), chatId);
+
+        Mockito.verify(userServiceMock).setUserState(chatId, ChatState.WAITING_EXPENSES_PAGE);
+        Assertions.assertThat(response).containsExactly(new AnswerMessage(
+                """
+                        Ваши расходы (стр. 1):
+                        200.0 - expense2 (Супермаркет)
+                        300.0 - expense3 (Рестораны)
+                        """, chatId, List.of(List.of("« Стр. 2"))));
+    }
+}
@@ -9,6 +9,9 @@ import ru.naumen.bot.data.entity.Income;
 import ru.naumen.bot.data.enums.ChatState;
 import ru.naumen.bot.exception.DaoException;
 import ru.naumen.bot.interaction.CommandData;
+import ru.naumen.bot.interaction.HistoryPages;
+import ru.naumen.bot.interaction.keyboards.PageKeyboard;
+import ru.naumen.bot.service.ExpenseService;
 import ru.naumen.bot.service.IncomeService;
 import ru.naumen.bot.service.UserService;
 
@@ -33,8 +36,9 @@ public class IncomesCommandHandlerTest {
     /**
      * Тестируемый объект {@link IncomesCommandHandler}, обрабатывающий команду "/incomes".
      */
-    private final IncomesCommandHandler incomesCommandHandler
-            = new IncomesCommandHandler(incomeServiceMock, userServiceMock);
+    private final IncomesCommandHandler incomesCommandHandler = new IncomesCommandHandler(
+            new HistoryPages(Mockito.mock(ExpenseService.class), incomeServiceMock, userServiceMock,
+                    new PageKeyboard(), 20));
 
     /**
      * Тест для обработки команды INCOME_COMMAND.
@@ -44,11 +48,11 @@ public class IncomesCommandHandlerTest {
     void testHandleCommand() throws DaoException {
         long chatId = 12345L;
         List<Income> incomeList = List.of(
-                new Income("income1", 100.0, LocalDate.of(2024, 1, 1)),
-                new Income("income2", 200.0, LocalDate.of(2024, 2, 2)));
+                new Income("income1", 10000L, LocalDate.of(2024, 1, 1)),
+                new Income("income2", 20000L, LocalDate.of(2024, 2, 2)));
         List<AnswerMessage> expected = List.of(new AnswerMessage(
                 "Ваши доходы:\n100.0 - income1\n200.0 - income2\n", chatId));
-        Mockito.when(incomeServiceMock.getIncomes(chatId)).thenReturn(incomeList);
+        Mockito.when(incomeServiceMock.getLatestIncomes(chatId, 0, 21)).thenReturn(incomeList);
 
         List<AnswerMessage> response = incomesCommandHandler.handleCommand(CommandData.INCOMES_COMMAND.getReadableName(), chatId);
 
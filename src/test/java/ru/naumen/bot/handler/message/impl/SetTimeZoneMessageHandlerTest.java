@@ -0,0 +1,67 @@
+package ru.naumen.bot.handler.message.impl;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import ru.naumen.bot.data.entity.AnswerMessage;
+import ru.naumen.bot.data.enums.ChatState;
+import ru.naumen.bot.service.LimitResetService;
+import ru.naumen.bot.service.UserService;
+
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * Тесты для класса {@link SetTimeZoneMessageHandler}, проверяющие работу обработчика сообщений
+ * для установки часового пояса пользователя.
+ */
+public class SetTimeZoneMessageHandlerTest {
+
+    /**
+     * Мок-объект для {@link UserService}, используемый для работы с данными пользователей.
+     */
+    private final UserService userServiceMock = Mockito.mock(UserService.class);
+
+    /**
+     * Мок-объект для {@link LimitResetService}, используемый для планирования сброса расходов за день.
+     */
+    private final LimitResetService limitResetServiceMock = Mockito.mock(LimitResetService.class);
+
+    /**
+     * Тестируемый экземпляр {@link SetTimeZoneMessageHandler}.
+     */
+    private final SetTimeZoneMessageHandler setTimeZoneMessageHandler
+            = new SetTimeZoneMessageHandler(userServiceMock, limitResetServiceMock);
+
+    /**
+     * Идентификатор чата, используемый в тестах.
+     */
+    private final long chatId = 12345L;
+
+    /**
+     * Тестирует установку часового пояса и перенос сброса расходов за день.
+     */
+    @Test
+    void testHandleMessageSuccess() {
+        List<AnswerMessage> response = setTimeZoneMessageHandler.handleMessage(" Asia/Yekaterinburg ", chatId);
+
+        Mockito.verify(userServiceMock).setUserState(chatId, ChatState.NOTHING_WAITING);
+        Mockito.verify(userServiceMock).setTimeZone(chatId, ZoneId.of("Asia/Yekaterinburg"));
+        Mockito.verify(limitResetServiceMock).reschedule(chatId);
+        Assertions.assertThat(response)
+                .containsExactly(new AnswerMessage("Часовой пояс установлен: Asia/Yekaterinburg", chatId));
+    }
+
+    /**
+     * Тестирует ответ на некорректный часовой пояс.
+     */
+    @Test
+    void testHandleMessageWithInvalidTimeZone() {
+        List<AnswerMessage> response = setTimeZoneMessageHandler.handleMessage("Москва", chatId);
+
+        Mockito.verify(userServiceMock).setUserState(chatId, ChatState.NOTHING_WAITING);
+        Mockito.verify(userServiceMock, Mockito.never()).setTimeZone(Mockito.anyLong(), Mockito.any());
+        Mockito.verifyNoInteractions(limitResetServiceMock);
+        Assertions.assertThat(response).containsExactly(new AnswerMessage("Некорректный часовой пояс!", chatId));
+    }
+}
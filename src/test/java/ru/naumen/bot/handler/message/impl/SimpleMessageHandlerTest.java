@@ -5,6 +5,7 @@ import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import ru.naumen.bot.data.entity.AnswerMessage;
 import ru.naumen.bot.data.enums.ChatState;
+import ru.naumen.bot.data.enums.TransactionType;
 import ru.naumen.bot.exception.DaoException;
 import ru.naumen.bot.exception.ExceedingTheLimitException;
 import ru.naumen.bot.interaction.CommandData;
@@ -12,6 +13,8 @@ import ru.naumen.bot.interaction.keyboards.CategoriesKeyboard;
 import ru.naumen.bot.service.ExpenseService;
 import ru.naumen.bot.service.IncomeService;
 import ru.naumen.bot.service.UserService;
+import ru.naumen.bot.utils.parser.ParsedTransaction;
+import ru.naumen.bot.utils.parser.TransactionParser;
 
 import java.util.List;
 
@@ -44,7 +47,7 @@ public class SimpleMessageHandlerTest {
      * Тестируемый объект {@link SimpleMessageHandler}, который обрабатывает входящие сообщения.
      */
     private final SimpleMessageHandler simpleMessageHandler = new SimpleMessageHandler(expenseServiceMock,
-            incomeServiceMock, userServiceMock, categoriesKeyboardMock);
+            incomeServiceMock, userServiceMock, categoriesKeyboardMock, new TransactionParser());
 
     /**
      * Идентификатор чата, в котором происходит тестирование.
@@ -63,7 +66,8 @@ public class SimpleMessageHandlerTest {
         List<AnswerMessage> response =
                 simpleMessageHandler.handleMessage("+ 888 Доход", chatId);
 
-        Mockito.verify(incomeServiceMock).addIncome("+ 888 Доход", chatId);
+        Mockito.verify(incomeServiceMock)
+                .addIncome(new ParsedTransaction(TransactionType.INCOME, 88800L, "Доход"), chatId);
         Assertions.assertThat(response).containsAll(expected);
         Assertions.assertThat(response.size()).isEqualTo(1);
     }
@@ -74,6 +78,7 @@ public class SimpleMessageHandlerTest {
      */
     @Test
     void testHandleMessageWithExpenseMessage() throws DaoException, ExceedingTheLimitException {
+        ParsedTransaction expense = new ParsedTransaction(TransactionType.EXPENSE, 66600L, "Расход");
         List<List<String>> keyboardButtons = List.of(List.of("Категория 1", "Категория 2", "Категория 3"));
         Mockito.when(categoriesKeyboardMock.getCategoriesInGroups(3)).thenReturn(keyboardButtons);
         List<AnswerMessage> expected =
@@ -82,7 +87,7 @@ public class SimpleMessageHandlerTest {
         List<AnswerMessage> response =
                 simpleMessageHandler.handleMessage("- 666 Расход", chatId);
 
-        Mockito.verify(expenseServiceMock).addExpense("- 666 Расход", chatId);
+        Mockito.verify(expenseServiceMock).addExpense(expense, chatId);
         Mockito.verify(userServiceMock).setUserState(chatId, ChatState.WAITING_EXPENSE_CATEGORY_FOR_ADDING);
         Assertions.assertThat(response).containsAll(expected);
         Assertions.assertThat(response.size()).isEqualTo(1);
@@ -94,10 +99,11 @@ public class SimpleMessageHandlerTest {
      */
     @Test
     void testHandleMessageWithExpenseMessageAndExceedingTheLimit() throws DaoException, ExceedingTheLimitException {
+        ParsedTransaction expense = new ParsedTransaction(TransactionType.EXPENSE, 66600L, "Расход");
         List<List<String>> keyboardButtons = List.of(List.of("Категория 1", "Категория 2", "Категория 3"));
         Mockito.when(categoriesKeyboardMock.getCategoriesInGroups(3)).thenReturn(keyboardButtons);
-        Mockito.doThrow(new ExceedingTheLimitException(1000.0)).
-                when(expenseServiceMock).addExpense("- 666 Расход", chatId);
+        Mockito.doThrow(new ExceedingTheLimitException(100000L)).
+                when(expenseServiceMock).addExpense(expense, chatId);
         List<AnswerMessage> expected =
                 List.of(
                         new AnswerMessage("Лимит расходов на день превышен!", chatId),
@@ -108,7 +114,7 @@ public class SimpleMessageHandlerTest {
         List<AnswerMessage> response =
                 simpleMessageHandler.handleMessage("- 666 Расход", chatId);
 
-        Mockito.verify(expenseServiceMock).addExpense("- 666 Расход", chatId);
+        Mockito.verify(expenseServiceMock).addExpense(expense, chatId);
         Mockito.verify(userServiceMock).setUserState(chatId, ChatState.WAITING_EXPENSE_CATEGORY_FOR_ADDING);
         Assertions.assertThat(response).containsAll(expected);
         Assertions.assertThat(response.size()).isEqualTo(3);
@@ -133,4 +139,23 @@ public class SimpleMessageHandlerTest {
         Assertions.assertThat(response).containsAll(expected);
         Assertions.assertThat(response.size()).isEqualTo(1);
     }
-}
\ No newline at end of file
+
+    /**
+     * Тест для проверки обработки сообщения, похожего на расход, но с некорректной суммой.
+     * Проверяет, что пользователю сообщается причина ошибки и сервисы не вызываются.
+     */
+    @Test
+    void testHandleMessageWithInvalidAmount() throws DaoException {
+        List<AnswerMessage> expected = List.of(new AnswerMessage("Не удалось добавить операцию: "
+                + "Сумма должна содержать не более 2 цифр после точки."
+                + "\nНапример: + 1500 зарплата или - 350.50 кофе", chatId));
+
+        List<AnswerMessage> response =
+                simpleMessageHandler.handleMessage("- 66.666 Расход", chatId);
+
+        Mockito.verifyNoInteractions(incomeServiceMock);
+        Mockito.verifyNoInteractions(expenseServiceMock);
+        Mockito.verifyNoInteractions(userServiceMock);
+        Assertions.assertThat(response).isEqualTo(expected);
+    }
+}
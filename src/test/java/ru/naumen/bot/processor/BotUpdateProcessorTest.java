@@ -1,9 +1,11 @@
 package ru.naumen.bot.processor;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
+import ru.naumen.bot.client.GoogleSheetsUnavailableException;
 import ru.naumen.bot.data.dao.googleSheets.exception.GoogleSheetsException;
 import ru.naumen.bot.data.entity.AnswerMessage;
 import ru.naumen.bot.data.entity.BotUpdate;
@@ -15,6 +17,7 @@ import ru.naumen.bot.handler.command.CommandHandler;
 import ru.naumen.bot.handler.message.MessageHandler;
 import ru.naumen.bot.interaction.CommandData;
 import ru.naumen.bot.service.UserService;
+import ru.naumen.bot.utils.metrics.BotMetrics;
 
 import java.util.List;
 
@@ -44,6 +47,11 @@ public class BotUpdateProcessorTest {
      */
     private final MessageHandler messageHandlerMock = Mockito.mock(MessageHandler.class);
 
+    /**
+     * Реестр метрик, в который {@link BotUpdateProcessor} записывает время обработки обновлений.
+     */
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     /**
      * Тестируемый объект {@link BotUpdateProcessor}, который обрабатывает обновления бота.
      */
@@ -67,7 +75,8 @@ public class BotUpdateProcessorTest {
                 userServiceMock,
                 List.of(commandHandlerMock),
                 List.of(callbackHandlerMock),
-                List.of(messageHandlerMock)
+                List.of(messageHandlerMock),
+                new BotMetrics(meterRegistry)
         );
     }
 
@@ -179,6 +188,26 @@ public class BotUpdateProcessorTest {
         Assertions.assertThat(response.size()).isEqualTo(2);
     }
 
+    /**
+     * Тест для проверки обработки обновления, когда гугл-таблица временно недоступна.
+     * Ожидается, что пользователь останется на режиме работы с гугл-таблицей и получит просьбу повторить позже.
+     */
+    @Test
+    void testProcessBotUpdate_WithTemporaryGoogleSheetsException() throws DaoException {
+        BotUpdate botUpdate =
+                new BotUpdate(chatId, CommandData.START_COMMAND.getReadableName(), null, null);
+        Mockito.when(commandHandlerMock.handleCommand(CommandData.START_COMMAND.getReadableName(), chatId))
+                .thenThrow(new GoogleSheetsException("exception",
+                        new GoogleSheetsUnavailableException("unavailable", true, null)));
+
+        List<AnswerMessage> response = botUpdateProcessor.processBotUpdate(botUpdate);
+
+        Mockito.verify(userServiceMock, Mockito.never()).setDataType(Mockito.anyLong(), Mockito.any());
+        Mockito.verify(userServiceMock, Mockito.never()).setUserState(Mockito.anyLong(), Mockito.any());
+        Assertions.assertThat(response).containsExactly(new AnswerMessage("Гугл-таблица сейчас недоступна "
+                + "или перегружена. Попробуйте повторить действие через минуту.", chatId));
+    }
+
     /**
      * Тест для проверки обработки обновления с исключением {@link DaoException}.
      * Ожидается, что будет возвращено сообщение об ошибке.
@@ -211,4 +240,27 @@ public class BotUpdateProcessorTest {
         Assertions.assertThat(response).containsAll(expected);
         Assertions.assertThat(response.size()).isEqualTo(1);
     }
-}
\ No newline at end of file
+
+    /**
+     * Тест для проверки, что время обработки обновления записывается в метрики
+     * с типом обновления, типом хранилища и результатом обработки.
+     */
+    @Test
+    void testProcessBotUpdate_RecordsMetrics() throws DaoException {
+        BotUpdate botUpdate =
+                new BotUpdate(chatId, CommandData.START_COMMAND.getReadableName(), null, null);
+        Mockito.when(userServiceMock.getDataType(chatId)).thenReturn(DataType.IN_MEMORY);
+        Mockito.when(commandHandlerMock.handleCommand(CommandData.START_COMMAND.getReadableName(), chatId)).
+                thenThrow(new DaoException(new Exception("exception")));
+
+        botUpdateProcessor.processBotUpdate(botUpdate);
+        botUpdateProcessor.processBotUpdate(new BotUpdate(chatId, null, null, null));
+
+        Assertions.assertThat(meterRegistry.get(BotMetrics.UPDATES)
+                .tags("type", "command", "data.type", "IN_MEMORY", "outcome", "error", "exception", "DaoException")
+                .timer().count()).isEqualTo(1);
+        Assertions.assertThat(meterRegistry.get(BotMetrics.UPDATES)
+                .tags("type", "unsupported", "handler", "none", "outcome", "success")
+                .timer().count()).isEqualTo(1);
+    }
+}
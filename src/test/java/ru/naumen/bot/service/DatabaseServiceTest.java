@@ -1,20 +1,35 @@
 package ru.naumen.bot.service;
 
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
+import ru.naumen.bot.data.dao.googleSheets.exception.GoogleSheetsException;
+import ru.naumen.bot.data.dao.inMemory.InMemoryBalanceDao;
+import ru.naumen.bot.data.dao.inMemory.InMemoryExpenseDao;
+import ru.naumen.bot.data.dao.inMemory.InMemoryIncomeDao;
+import ru.naumen.bot.data.dao.inMemory.InMemoryLimitDao;
+import ru.naumen.bot.data.dao.provider.BalanceDaoProvider;
+import ru.naumen.bot.data.dao.provider.ExpenseDaoProvider;
+import ru.naumen.bot.data.dao.provider.IncomeDaoProvider;
+import ru.naumen.bot.data.dao.provider.LimitDaoProvider;
 import ru.naumen.bot.data.entity.Expense;
 import ru.naumen.bot.data.entity.Income;
 import ru.naumen.bot.data.entity.Limit;
 import ru.naumen.bot.data.enums.ChatState;
 import ru.naumen.bot.data.enums.DataType;
 import ru.naumen.bot.data.enums.ExpenseCategory;
+import ru.naumen.bot.data.journal.Journal;
 import ru.naumen.bot.exception.DaoException;
+import ru.naumen.bot.utils.concurrent.ChatLocks;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
- * Тесты для класса {@link DatabaseService}, который предоставляет методы для работы с базами данных.
+ * Тесты для класса {@link DatabaseService}, который переносит данные между хранилищами.
+ * Вместо гугл-таблиц используется второй набор DAO в памяти.
  */
 public class DatabaseServiceTest {
 
@@ -24,79 +39,177 @@ public class DatabaseServiceTest {
     private final UserService userService = Mockito.mock(UserService.class);
 
     /**
-     * Мок-объект для {@link IncomeService}, используемый для работы с доходами пользователя.
+     * Мок-объект для {@link GoogleSheetsService}, используемый для работы с Google Sheets.
      */
-    private final IncomeService incomeService = Mockito.mock(IncomeService.class);
+    private final GoogleSheetsService googleSheetsService = Mockito.mock(GoogleSheetsService.class);
 
     /**
-     * Мок-объект для {@link ExpenseService}, используемый для работы с расходами пользователя.
+     * DAO расходов исходного хранилища
      */
-    private final ExpenseService expenseService = Mockito.mock(ExpenseService.class);
+    private final InMemoryExpenseDao sourceExpenseDao = new InMemoryExpenseDao(Journal.NONE);
 
     /**
-     * Мок-объект для {@link BalanceService}, используемый для управления балансом пользователей.
+     * DAO доходов исходного хранилища
      */
-    private final BalanceService balanceService = Mockito.mock(BalanceService.class);
+    private final InMemoryIncomeDao sourceIncomeDao = new InMemoryIncomeDao(Journal.NONE);
 
     /**
-     * Мок-объект для {@link GoogleSheetsService}, используемый для работы с Google Sheets.
+     * DAO баланса исходного хранилища
      */
-    private final GoogleSheetsService googleSheetsService = Mockito.mock(GoogleSheetsService.class);
+    private final InMemoryBalanceDao sourceBalanceDao = new InMemoryBalanceDao(Journal.NONE);
 
     /**
-     * Тестируемый объект {@link DatabaseService}.
+     * DAO лимитов исходного хранилища
      */
-    private final DatabaseService databaseService = new DatabaseService(userService, incomeService,
-            expenseService, balanceService, googleSheetsService);
+    private final InMemoryLimitDao sourceLimitDao = new InMemoryLimitDao(Journal.NONE);
 
+    /**
+     * DAO расходов нового хранилища, в котором можно подменять отдельные вызовы
+     */
+    private final InMemoryExpenseDao targetExpenseDao = Mockito.spy(new InMemoryExpenseDao(Journal.NONE));
 
     /**
-     * Тест для метода {@link DatabaseService#changeDB(long, DataType)}.
-     * <p>
-     * Проверяет:
-     * <ul>
-     *     <li>Правильность вызова методов для получения текущих данных (доходы, расходы, баланс, лимит).</li>
-     *     <li>Удаление данных из старой базы.</li>
-     *     <li>Установку нового типа базы данных.</li>
-     *     <li>Инициализация Google Sheets не происходит, так как новый тип данных - IN_MEMORY.</li>
-     *     <li>Запись данных в новую базу.</li>
-     * </ul>
+     * DAO доходов нового хранилища
      */
-    @Test
-    void testChangeDBWithNewTypeInMemory() throws DaoException {
-        long chatId = 12345L;
-        DataType newDataType = DataType.IN_MEMORY;
-        List<Income> mockIncomes = List.of(new Income("Доход 1", 20.0, LocalDate.now()));
-        List<Expense> mockExpenses = List.of(
-                new Expense("Расход 1", 30.0, ExpenseCategory.OTHER, LocalDate.now()));
-        Double mockBalance = 100.0;
-        Limit limit = new Limit(100.0, 0.0);
-
-        Mockito.when(incomeService.getIncomes(chatId)).thenReturn(mockIncomes);
-        Mockito.when(expenseService.getExpenses(chatId)).thenReturn(mockExpenses);
-        Mockito.when(balanceService.getBalance(chatId)).thenReturn(mockBalance);
-        Mockito.when(expenseService.getExpensesLimit(chatId)).thenReturn(limit);
-        Mockito.when(userService.getUserState(chatId)).thenReturn(ChatState.WAITING_FOR_TYPE_DB_FOR_CHANGE_DB);
+    private final InMemoryIncomeDao targetIncomeDao = new InMemoryIncomeDao(Journal.NONE);
+
+    /**
+     * DAO баланса нового хранилища
+     */
+    private final InMemoryBalanceDao targetBalanceDao = new InMemoryBalanceDao(Journal.NONE);
+
+    /**
+     * DAO лимитов нового хранилища
+     */
+    private final InMemoryLimitDao targetLimitDao = new InMemoryLimitDao(Journal.NONE);
 
-        databaseService.changeDB(chatId, newDataType);
+    /**
+     * Тестируемый объект {@link DatabaseService}, переносящий данные частями по 2 записи.
+     */
+    private DatabaseService databaseService;
 
-        Mockito.verify(incomeService).getIncomes(chatId);
-        Mockito.verify(expenseService).getExpenses(chatId);
-        Mockito.verify(balanceService).getBalance(chatId);
-        Mockito.verify(expenseService).getExpensesLimit(chatId);
+    /**
+     * Идентификатор чата
+     */
+    private final long chatId = 12345L;
+
+    /**
+     * Расходы в исходном хранилище
+     */
+    private final List<Expense> expenses = new ArrayList<>();
 
-        Mockito.verify(userService).setDataType(chatId, newDataType);
+    /**
+     * Доходы в исходном хранилище
+     */
+    private final List<Income> incomes = new ArrayList<>();
+
+    /**
+     * Заполняет исходное хранилище и создаёт провайдеры, возвращающие DAO исходного хранилища
+     * для IN_MEMORY и DAO нового хранилища для IN_GOOGLE_SHEET.
+     */
+    @BeforeEach
+    void setUp() {
+        ExpenseDaoProvider expenseDaoProvider = Mockito.mock(ExpenseDaoProvider.class);
+        IncomeDaoProvider incomeDaoProvider = Mockito.mock(IncomeDaoProvider.class);
+        BalanceDaoProvider balanceDaoProvider = Mockito.mock(BalanceDaoProvider.class);
+        LimitDaoProvider limitDaoProvider = Mockito.mock(LimitDaoProvider.class);
+        Mockito.when(expenseDaoProvider.getExpenseDao(DataType.IN_MEMORY)).thenReturn(sourceExpenseDao);
+        Mockito.when(expenseDaoProvider.getExpenseDao(DataType.IN_GOOGLE_SHEET)).thenReturn(targetExpenseDao);
+        Mockito.when(incomeDaoProvider.getIncomeDao(DataType.IN_MEMORY)).thenReturn(sourceIncomeDao);
+        Mockito.when(incomeDaoProvider.getIncomeDao(DataType.IN_GOOGLE_SHEET)).thenReturn(targetIncomeDao);
+        Mockito.when(balanceDaoProvider.getBalanceDao(DataType.IN_MEMORY)).thenReturn(sourceBalanceDao);
+        Mockito.when(balanceDaoProvider.getBalanceDao(DataType.IN_GOOGLE_SHEET)).thenReturn(targetBalanceDao);
+        Mockito.when(limitDaoProvider.getLimitDao(DataType.IN_MEMORY)).thenReturn(sourceLimitDao);
+        Mockito.when(limitDaoProvider.getLimitDao(DataType.IN_GOOGLE_SHEET)).thenReturn(targetLimitDao);
+        databaseService = new DatabaseService(userService, googleSheetsService, expenseDaoProvider,
+                incomeDaoProvider, balanceDaoProvider, limitDaoProvider, new ChatLocks(), 2);
+
+        Mockito.when(userService.getDataType(chatId)).thenReturn(DataType.IN_MEMORY);
+        Mockito.when(userService.getUserState(chatId)).thenReturn(ChatState.WAITING_FOR_TYPE_DB_FOR_CHANGE_DB);
+        for (int i = 0; i < 5; i++) {
+            expenses.add(new Expense("Расход " + i, 1000L * (i + 1), ExpenseCategory.OTHER,
+                    LocalDate.of(2024, 1, 1).plusDays(i)));
+        }
+        for (int i = 0; i < 3; i++) {
+            incomes.add(new Income("Доход " + i, 5000L * (i + 1), LocalDate.of(2024, 1, 1).plusDays(i)));
+        }
+        sourceExpenseDao.createUserList(chatId);
+        sourceIncomeDao.createUserList(chatId);
+        targetExpenseDao.createUserList(chatId);
+        targetIncomeDao.createUserList(chatId);
+        sourceExpenseDao.addExpenses(chatId, expenses);
+        sourceIncomeDao.addIncomes(chatId, incomes);
+        sourceBalanceDao.setBalance(chatId, 10000L);
+        sourceLimitDao.setLimit(chatId, new Limit(5000L, 1000L));
+    }
+
+    /**
+     * Тест переноса данных: доходы и расходы переносятся частями в исходном порядке,
+     * баланс и лимит копируются, тип базы данных меняется, а исходные данные удаляются.
+     * Google Sheets не инициализируется, так как пользователь не присылал ссылку.
+     */
+    @Test
+    void testChangeDB() throws DaoException {
+        databaseService.changeDB(chatId, DataType.IN_GOOGLE_SHEET);
+
+        Assertions.assertThat(targetExpenseDao.getExpenses(chatId)).isEqualTo(expenses);
+        Assertions.assertThat(targetIncomeDao.getIncomes(chatId)).isEqualTo(incomes);
+        Assertions.assertThat(targetBalanceDao.getBalance(chatId)).isEqualTo(10000L);
+        Assertions.assertThat(targetLimitDao.getLimit(chatId).getDailyLimit()).isEqualTo(5000L);
+        Assertions.assertThat(targetLimitDao.getLimit(chatId).getDailyExpensesSum()).isEqualTo(1000L);
+        Mockito.verify(targetExpenseDao, Mockito.times(3)).addExpenses(Mockito.eq(chatId), Mockito.anyList());
+        Mockito.verify(userService).setDataType(chatId, DataType.IN_GOOGLE_SHEET);
         Mockito.verifyNoInteractions(googleSheetsService);
 
-        Mockito.verify(incomeService).removeIncomes(chatId);
-        Mockito.verify(expenseService).removeExpenses(chatId);
-        Mockito.verify(balanceService).removeBalance(chatId);
-        Mockito.verify(expenseService).removeExpensesLimit(chatId);
+        Assertions.assertThat(sourceExpenseDao.countExpenses(chatId)).isZero();
+        Assertions.assertThat(sourceIncomeDao.countIncomes(chatId)).isZero();
+        Assertions.assertThat(sourceLimitDao.getLimit(chatId)).isNull();
+    }
+
+    /**
+     * Тест продолжения прерванного переноса: после ошибки записи тип базы данных не меняется
+     * и исходные данные сохраняются, а повторный перенос дописывает только недостающие расходы.
+     */
+    @Test
+    void testChangeDBResumesAfterFailure() throws DaoException {
+        Mockito.doCallRealMethod()
+                .doThrow(new GoogleSheetsException("Ошибка записи отложенных данных", new RuntimeException()))
+                .doCallRealMethod()
+                .when(targetExpenseDao).addExpenses(Mockito.eq(chatId), Mockito.anyList());
+
+        Assertions.assertThatThrownBy(() -> databaseService.changeDB(chatId, DataType.IN_GOOGLE_SHEET))
+                .isInstanceOf(DaoException.class);
+        Mockito.verify(userService, Mockito.never()).setDataType(Mockito.anyLong(), Mockito.any());
+        Assertions.assertThat(sourceExpenseDao.getExpenses(chatId)).isEqualTo(expenses);
+        Assertions.assertThat(targetExpenseDao.getExpenses(chatId)).isEqualTo(expenses.subList(0, 2));
+
+        databaseService.changeDB(chatId, DataType.IN_GOOGLE_SHEET);
+
+        Assertions.assertThat(targetExpenseDao.getExpenses(chatId)).isEqualTo(expenses);
+        Mockito.verify(targetExpenseDao).addExpenses(chatId, expenses.subList(0, 2));
+        Mockito.verify(targetExpenseDao, Mockito.times(2)).addExpenses(chatId, expenses.subList(2, 4));
+        Mockito.verify(targetExpenseDao).addExpenses(chatId, expenses.subList(4, 5));
+        Mockito.verify(userService).setDataType(chatId, DataType.IN_GOOGLE_SHEET);
+        Assertions.assertThat(sourceExpenseDao.countExpenses(chatId)).isZero();
+    }
 
-        Mockito.verify(incomeService).addIncomes(chatId, mockIncomes);
-        Mockito.verify(expenseService).addExpenses(chatId, mockExpenses);
-        Mockito.verify(balanceService).setBalance(chatId, mockBalance);
-        Mockito.verify(expenseService).setExpensesLimit(chatId, limit);
+    /**
+     * Тест сверки перенесённых данных: если расходы в новом хранилище отличаются от исходных,
+     * перенос завершается ошибкой, а исходные данные и тип базы данных не меняются.
+     */
+    @Test
+    void testChangeDBKeepsSourceOnMismatch() throws DaoException {
+        Mockito.doReturn(List.of(expenses.get(0), new Expense("Расход 1", 1L, ExpenseCategory.OTHER,
+                        LocalDate.of(2024, 1, 2))))
+                .when(targetExpenseDao).getExpensesChunk(chatId, 0, 2);
+
+        Assertions.assertThatThrownBy(() -> databaseService.changeDB(chatId, DataType.IN_GOOGLE_SHEET))
+                .isInstanceOf(DaoException.class)
+                .hasMessageContaining("не совпадают");
+
+        Mockito.verify(userService, Mockito.never()).setDataType(Mockito.anyLong(), Mockito.any());
+        Assertions.assertThat(sourceExpenseDao.getExpenses(chatId)).isEqualTo(expenses);
+        Assertions.assertThat(sourceBalanceDao.getBalance(chatId)).isEqualTo(10000L);
     }
 
     /**
@@ -105,11 +218,8 @@ public class DatabaseServiceTest {
      */
     @Test
     void testChangeDBWithNewTypeGoogleSheetAndInitTable() throws DaoException {
-        long chatId = 12345L;
-        DataType newDataType = DataType.IN_GOOGLE_SHEET;
         Mockito.when(userService.getUserState(chatId)).thenReturn(ChatState.WAITING_FOR_GOOGLE_SHEET_LINK);
-        databaseService.changeDB(chatId, newDataType);
+        databaseService.changeDB(chatId, DataType.IN_GOOGLE_SHEET);
         Mockito.verify(googleSheetsService).initGoogleSheets(chatId);
     }
-
 }
@@ -4,17 +4,21 @@ import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
-import ru.naumen.bot.data.dao.BalanceDao;
 import ru.naumen.bot.data.dao.ExpenseDao;
 import ru.naumen.bot.data.dao.LimitDao;
-import ru.naumen.bot.data.dao.provider.BalanceDaoProvider;
+import ru.naumen.bot.data.dao.SummaryDao;
 import ru.naumen.bot.data.dao.provider.ExpenseDaoProvider;
 import ru.naumen.bot.data.dao.provider.LimitDaoProvider;
+import ru.naumen.bot.data.dao.provider.SummaryDaoProvider;
 import ru.naumen.bot.data.entity.Expense;
 import ru.naumen.bot.data.entity.Limit;
+import ru.naumen.bot.data.entity.Summary;
 import ru.naumen.bot.data.enums.ExpenseCategory;
+import ru.naumen.bot.data.enums.TransactionType;
 import ru.naumen.bot.exception.DaoException;
 import ru.naumen.bot.exception.ExceedingTheLimitException;
+import ru.naumen.bot.utils.concurrent.ChatLocks;
+import ru.naumen.bot.utils.parser.ParsedTransaction;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -30,15 +34,15 @@ public class ExpenseServiceTest {
     private final ExpenseDao expenseDaoMock = Mockito.mock(ExpenseDao.class);
 
     /**
-     * Мок-объект для {@link BalanceDao}, используемый для работы с балансами пользователей.
+     * Мок-объект для {@link SummaryDao}, используемый для работы с балансом и лимитом пользователей.
      */
-    private final BalanceDao balanceDaoMock = Mockito.mock(BalanceDao.class);
+    private final SummaryDao summaryDaoMock = Mockito.mock(SummaryDao.class);
 
     /**
-     * Мок-объект для {@link BalanceDaoProvider}, который предоставляет
-     * доступ к DAO-объектам для работы с балансом пользователя
+     * Мок-объект для {@link SummaryDaoProvider}, который предоставляет
+     * доступ к DAO-объектам для работы с балансом и лимитом пользователя
      */
-    private final BalanceDaoProvider balanceDaoProviderMock = Mockito.mock(BalanceDaoProvider.class);
+    private final SummaryDaoProvider summaryDaoProviderMock = Mockito.mock(SummaryDaoProvider.class);
 
     /**
      * Мок-объект для {@link ExpenseDaoProvider}, который предоставляет
@@ -61,13 +65,18 @@ public class ExpenseServiceTest {
      * Тестируемый объект {@link ExpenseService}, который проверяется в данном тестовом классе.
      */
     private final ExpenseService expenseService = new ExpenseService(expenseDaoProviderMock, limitDaoProviderMock,
-            balanceDaoProviderMock, userServiceMock);
+            summaryDaoProviderMock, userServiceMock, new ChatLocks());
 
     /**
      * Идентификатор чата, в котором происходит тестирование.
      */
     private final long chatId = 12345L;
 
+    /**
+     * Текущая дата пользователя, возвращаемая {@link UserService#getToday(long)}.
+     */
+    private final LocalDate today = LocalDate.of(2024, 10, 31);
+
     /**
      * Мок-объект для {@link LimitDao}, используемый для работы с лимитом пользователя.
      */
@@ -79,7 +88,7 @@ public class ExpenseServiceTest {
     @BeforeEach
     void setUp() {
         Mockito.when(expenseDaoProviderMock.getExpenseDaoForUser(chatId)).thenReturn(expenseDaoMock);
-        Mockito.when(balanceDaoProviderMock.getBalanceDaoForUser(chatId)).thenReturn(balanceDaoMock);
+        Mockito.when(summaryDaoProviderMock.getSummaryDaoForUser(chatId)).thenReturn(summaryDaoMock);
         Mockito.when(limitDaoProviderMock.getLimitDaoForUser(chatId)).thenReturn(limitDaoMock);
     }
 
@@ -90,8 +99,8 @@ public class ExpenseServiceTest {
     @Test
     void testGetExpenses() throws DaoException {
         List<Expense> expectedExpenses = List.of(
-                new Expense("Расход 1", 50.0, ExpenseCategory.OTHER, LocalDate.now()),
-                new Expense("Расход 2", 20.0, ExpenseCategory.OTHER, LocalDate.now())
+                new Expense("Расход 1", 5000L, ExpenseCategory.OTHER, LocalDate.now()),
+                new Expense("Расход 2", 2000L, ExpenseCategory.OTHER, LocalDate.now())
         );
         Mockito.when(expenseDaoMock.getExpenses(chatId)).thenReturn(expectedExpenses);
 
@@ -103,23 +112,40 @@ public class ExpenseServiceTest {
 
     /**
      * Тест для проверки метода {@link ExpenseService#addExpense}.
-     * Проверяет, что расход добавляется в хранилище и баланс, и лимит обновляются корректно.
+     * Проверяет, что расход добавляется в хранилище, а баланс и лимит читаются и записываются вместе.
      */
     @Test
     void testAddExpense() throws DaoException, ExceedingTheLimitException {
-        String expenseMessage = "- 30 Расход 1";
-        Limit limit = new Limit(100.0, 0.0);
-        Mockito.when(balanceDaoMock.getBalance(chatId)).thenReturn(100.0);
-        Mockito.when(limitDaoMock.getLimit(chatId)).thenReturn(limit);
+        ParsedTransaction expense = new ParsedTransaction(TransactionType.EXPENSE, 3000L, "Расход 1");
+        Mockito.when(summaryDaoMock.getSummary(chatId)).thenReturn(new Summary(10000L, new Limit(10000L, 0L)));
+        Mockito.when(userServiceMock.getToday(chatId)).thenReturn(today);
 
-        expenseService.addExpense(expenseMessage, chatId);
+        expenseService.addExpense(expense, chatId);
 
         Expense expectedExpense =
-                new Expense("Расход 1", 30.0, ExpenseCategory.OTHER, LocalDate.now());
+                new Expense("Расход 1", 3000L, ExpenseCategory.OTHER, today);
         Mockito.verify(expenseDaoMock).addExpense(chatId, expectedExpense);
-        Mockito.verify(balanceDaoMock).setBalance(chatId, 70.0);
-        Mockito.verify(limitDaoMock).setLimit(Mockito.eq(chatId), Mockito.argThat(limit1 ->
-                limit1.getDailyExpensesSum() == 30.0 && limit1.getDailyLimit() == 100.0));
+        Mockito.verify(summaryDaoMock).setSummary(Mockito.eq(chatId), Mockito.argThat(summary ->
+                summary.balance() == 7000L
+                        && summary.limit().getDailyExpensesSum() == 3000L
+                        && summary.limit().getDailyLimit() == 10000L));
+        Mockito.verifyNoInteractions(limitDaoMock);
+    }
+
+    /**
+     * Тест для проверки метода {@link ExpenseService#addExpense} при превышении лимита.
+     * Проверяет, что баланс и сумма расходов за день записываются, а исключение пробрасывается.
+     */
+    @Test
+    void testAddExpenseExceedingTheLimit() throws DaoException {
+        ParsedTransaction expense = new ParsedTransaction(TransactionType.EXPENSE, 3000L, "Расход 1");
+        Mockito.when(summaryDaoMock.getSummary(chatId)).thenReturn(new Summary(10000L, new Limit(5000L, 4000L)));
+
+        Assertions.assertThatThrownBy(() -> expenseService.addExpense(expense, chatId))
+                .isInstanceOf(ExceedingTheLimitException.class);
+
+        Mockito.verify(summaryDaoMock).setSummary(Mockito.eq(chatId), Mockito.argThat(summary ->
+                summary.balance() == 7000L && summary.limit().getDailyExpensesSum() == 7000L));
     }
 
 //    @Test
@@ -148,18 +174,34 @@ public class ExpenseServiceTest {
      */
     @Test
     void testAddExpenseWithNullLimit() throws DaoException, ExceedingTheLimitException {
-        String expenseMessage = "- 30 Расход 1";
-        Mockito.when(balanceDaoMock.getBalance(chatId)).thenReturn(100.0);
-        Mockito.when(limitDaoMock.getLimit(chatId)).thenReturn(null);
+        ParsedTransaction expense = new ParsedTransaction(TransactionType.EXPENSE, 3000L, "Расход 1");
+        Mockito.when(summaryDaoMock.getSummary(chatId)).thenReturn(new Summary(10000L, null));
+        Mockito.when(userServiceMock.getToday(chatId)).thenReturn(today);
 
-        expenseService.addExpense(expenseMessage, chatId);
+        expenseService.addExpense(expense, chatId);
 
         Expense expectedExpense =
-                new Expense("Расход 1", 30.0, ExpenseCategory.OTHER, LocalDate.now());
+                new Expense("Расход 1", 3000L, ExpenseCategory.OTHER, today);
         Mockito.verify(expenseDaoMock).addExpense(chatId, expectedExpense);
-        Mockito.verify(balanceDaoMock).setBalance(chatId, 70.0);
-        Mockito.verify(limitDaoMock).getLimit(chatId);
-        Mockito.verifyNoMoreInteractions(limitDaoMock);
+        Mockito.verify(summaryDaoMock).setSummary(chatId, new Summary(7000L, null));
+        Mockito.verifyNoInteractions(limitDaoMock);
+    }
+
+    /**
+     * Тест для проверки метода {@link ExpenseService#addExpense}.
+     * Проверяет, что при ошибке чтения баланса и лимита расход не добавляется в хранилище.
+     */
+    @Test
+    void testAddExpenseWhenSummaryIsUnavailable() throws DaoException {
+        ParsedTransaction expense = new ParsedTransaction(TransactionType.EXPENSE, 3000L, "Расход 1");
+        Mockito.when(summaryDaoMock.getSummary(chatId)).thenThrow(new DaoException(new RuntimeException()));
+        Mockito.when(userServiceMock.getToday(chatId)).thenReturn(today);
+
+        Assertions.assertThatThrownBy(() -> expenseService.addExpense(expense, chatId))
+                .isInstanceOf(DaoException.class);
+
+        Mockito.verify(expenseDaoMock, Mockito.never()).addExpense(Mockito.eq(chatId), Mockito.any());
+        Mockito.verify(summaryDaoMock, Mockito.never()).setSummary(Mockito.eq(chatId), Mockito.any());
     }
 
     /**
@@ -169,8 +211,8 @@ public class ExpenseServiceTest {
     @Test
     void testAddExpenses() throws DaoException {
         List<Expense> expenses = List.of(
-                new Expense("Расход 1", 50.0, ExpenseCategory.OTHER, LocalDate.now()),
-                new Expense("Расход 2", 20.0, ExpenseCategory.OTHER, LocalDate.now())
+                new Expense("Расход 1", 5000L, ExpenseCategory.OTHER, LocalDate.now()),
+                new Expense("Расход 2", 2000L, ExpenseCategory.OTHER, LocalDate.now())
         );
 
         expenseService.addExpenses(chatId, expenses);
@@ -198,7 +240,7 @@ public class ExpenseServiceTest {
         expenseService.setExpensesLimit(chatId, "100.0");
 
         Mockito.verify(limitDaoMock).setLimit(Mockito.eq(chatId), Mockito.argThat(limit ->
-                limit.getDailyLimit() == 100.0 && limit.getDailyExpensesSum() == 0.0));
+                limit.getDailyLimit() == 10000L && limit.getDailyExpensesSum() == 0L));
     }
 
     /**
@@ -9,7 +9,10 @@ import ru.naumen.bot.data.dao.IncomeDao;
 import ru.naumen.bot.data.dao.provider.BalanceDaoProvider;
 import ru.naumen.bot.data.dao.provider.IncomeDaoProvider;
 import ru.naumen.bot.data.entity.Income;
+import ru.naumen.bot.data.enums.TransactionType;
 import ru.naumen.bot.exception.DaoException;
+import ru.naumen.bot.utils.concurrent.ChatLocks;
+import ru.naumen.bot.utils.parser.ParsedTransaction;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -41,16 +44,27 @@ public class IncomeServiceTest {
      */
     BalanceDaoProvider balanceDaoProviderMock = Mockito.mock(BalanceDaoProvider.class);
 
+    /**
+     * Мок-объект для {@link UserService}, используемый для работы с пользователями.
+     */
+    private final UserService userServiceMock = Mockito.mock(UserService.class);
+
     /**
      * Тестируемый объект {@link IncomeService}, который проверяется в данном тестовом классе.
      */
-    private final IncomeService incomeService = new IncomeService(incomeDaoProviderMock, balanceDaoProviderMock);
+    private final IncomeService incomeService = new IncomeService(incomeDaoProviderMock, balanceDaoProviderMock,
+            userServiceMock, new ChatLocks());
 
     /**
      * Идентификатор чата, в котором происходит тестирование.
      */
     private final long chatId = 12345L;
 
+    /**
+     * Текущая дата пользователя, возвращаемая {@link UserService#getToday(long)}.
+     */
+    private final LocalDate today = LocalDate.of(2024, 10, 31);
+
     /**
      * Инициализация всех зависимостей и {@link IncomeService} перед каждым тестом.
      */
@@ -67,8 +81,8 @@ public class IncomeServiceTest {
     @Test
     void testGetIncomes() throws DaoException {
         List<Income> expectedIncomes = List.of(
-                new Income("Доход 1", 50.0, LocalDate.now()),
-                new Income("Доход 2", 20.0, LocalDate.now())
+                new Income("Доход 1", 5000L, LocalDate.now()),
+                new Income("Доход 2", 2000L, LocalDate.now())
         );
         Mockito.when(incomeService.getIncomes(chatId)).thenReturn(expectedIncomes);
 
@@ -84,14 +98,32 @@ public class IncomeServiceTest {
      */
     @Test
     void testAddIncome() throws DaoException {
-        String incomeMessage = "+ 30 Доход 1";
-        Mockito.when(balanceDaoMock.getBalance(chatId)).thenReturn(100.0);
+        ParsedTransaction income = new ParsedTransaction(TransactionType.INCOME, 3000L, "Доход 1");
+        Mockito.when(balanceDaoMock.getBalance(chatId)).thenReturn(10000L);
+        Mockito.when(userServiceMock.getToday(chatId)).thenReturn(today);
 
-        incomeService.addIncome(incomeMessage, chatId);
+        incomeService.addIncome(income, chatId);
 
-        Income expectedIncome = new Income("Доход 1", 30.0, LocalDate.now());
+        Income expectedIncome = new Income("Доход 1", 3000L, today);
         Mockito.verify(incomeDaoMock).addIncome(chatId, expectedIncome);
-        Mockito.verify(balanceDaoMock).setBalance(chatId, 130.0);
+        Mockito.verify(balanceDaoMock).setBalance(chatId, 13000L);
+    }
+
+    /**
+     * Тест для проверки метода {@link IncomeService#addIncome}.
+     * Проверяет, что при ошибке чтения баланса доход не добавляется в хранилище.
+     */
+    @Test
+    void testAddIncomeWhenBalanceIsUnavailable() throws DaoException {
+        ParsedTransaction income = new ParsedTransaction(TransactionType.INCOME, 3000L, "Доход 1");
+        Mockito.when(balanceDaoMock.getBalance(chatId)).thenThrow(new DaoException(new RuntimeException()));
+        Mockito.when(userServiceMock.getToday(chatId)).thenReturn(today);
+
+        Assertions.assertThatThrownBy(() -> incomeService.addIncome(income, chatId))
+                .isInstanceOf(DaoException.class);
+
+        Mockito.verify(incomeDaoMock, Mockito.never()).addIncome(Mockito.eq(chatId), Mockito.any());
+        Mockito.verify(balanceDaoMock, Mockito.never()).setBalance(Mockito.eq(chatId), Mockito.anyLong());
     }
 
     /**
@@ -101,8 +133,8 @@ public class IncomeServiceTest {
     @Test
     void testAddIncomes() throws DaoException {
         List<Income> incomes = List.of(
-                new Income("Доход 1", 50.0, LocalDate.now()),
-                new Income("Доход 2", 20.0, LocalDate.now())
+                new Income("Доход 1", 5000L, LocalDate.now()),
+                new Income("Доход 2", 2000L, LocalDate.now())
         );
 
         incomeService.addIncomes(chatId, incomes);
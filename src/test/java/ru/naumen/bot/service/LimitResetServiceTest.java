@@ -0,0 +1,261 @@
+package ru.naumen.bot.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import ru.naumen.bot.data.dao.LimitDao;
+import ru.naumen.bot.data.dao.googleSheets.GoogleSheetsLimitIndex;
+import ru.naumen.bot.data.dao.googleSheets.exception.GoogleSheetsException;
+import ru.naumen.bot.data.dao.inMemory.InMemoryLimitDao;
+import ru.naumen.bot.data.dao.provider.LimitDaoProvider;
+import ru.naumen.bot.data.entity.Limit;
+import ru.naumen.bot.data.enums.DataType;
+import ru.naumen.bot.data.journal.Journal;
+import ru.naumen.bot.utils.concurrent.ChatLocks;
+import ru.naumen.bot.utils.metrics.BotMetrics;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Тесты для класса {@link LimitResetService}, проверяющие сброс сумм расходов за день
+ * в полночь по времени пользователя.
+ */
+public class LimitResetServiceTest {
+
+    /**
+     * DAO лимитов в памяти, в котором проверяется сброс.
+     */
+    private final InMemoryLimitDao inMemoryLimitDao = new InMemoryLimitDao(Journal.NONE);
+
+    /**
+     * Мок-объект для {@link LimitDao}, используемый для работы с лимитами в гугл-таблицах.
+     */
+    private final LimitDao googleSheetsLimitDaoMock = Mockito.mock(LimitDao.class);
+
+    /**
+     * Мок-объект для {@link LimitDaoProvider}, который предоставляет
+     * доступ к DAO-объектам для работы с лимитами пользователя
+     */
+    private final LimitDaoProvider limitDaoProviderMock = Mockito.mock(LimitDaoProvider.class);
+
+    /**
+     * Индекс чатов, в таблицах которых не установлен лимит.
+     */
+    private final GoogleSheetsLimitIndex googleSheetsLimitIndex = new GoogleSheetsLimitIndex();
+
+    /**
+     * Мок-объект для {@link UserService}, используемый для работы с пользователями.
+     */
+    private final UserService userServiceMock = Mockito.mock(UserService.class);
+
+    /**
+     * Реестр, в который записываются метрики сброса.
+     */
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    /**
+     * Часы, время которых переводится в тестах.
+     */
+    private final TestClock clock = new TestClock(Instant.parse("2024-10-01T12:00:00Z"));
+
+    /**
+     * Тестируемый объект {@link LimitResetService}, который проверяется в данном тестовом классе.
+     */
+    private final LimitResetService limitResetService = new LimitResetService(inMemoryLimitDao,
+            limitDaoProviderMock, googleSheetsLimitIndex, userServiceMock, new ChatLocks(),
+            new BotMetrics(meterRegistry), clock, 2);
+
+    /**
+     * Тест для проверки, что сумма расходов сбрасывается в полночь в часовом поясе каждого пользователя.
+     */
+    @Test
+    void testResetAtLocalMidnight() {
+        Mockito.when(userServiceMock.getAllUserIds()).thenReturn(Set.of(1L, 2L));
+        Mockito.when(userServiceMock.getDataType(Mockito.anyLong())).thenReturn(DataType.IN_MEMORY);
+        Mockito.when(userServiceMock.getTimeZone(1L)).thenReturn(ZoneId.of("Europe/Moscow"));
+        Mockito.when(userServiceMock.getTimeZone(2L)).thenReturn(ZoneOffset.UTC);
+        inMemoryLimitDao.setLimit(1L, new Limit(10000L, 3000L));
+        inMemoryLimitDao.setLimit(2L, new Limit(10000L, 4000L));
+
+        limitResetService.resetDueLimits();
+        Assertions.assertThat(limitResetService.getNextReset(1L)).isEqualTo(Instant.parse("2024-10-01T21:00:00Z"));
+        Assertions.assertThat(limitResetService.getNextReset(2L)).isEqualTo(Instant.parse("2024-10-02T00:00:00Z"));
+
+        clock.setInstant(Instant.parse("2024-10-01T21:00:00Z"));
+        limitResetService.resetDueLimits();
+        Assertions.assertThat(inMemoryLimitDao.getLimit(1L).getDailyExpensesSum()).isEqualTo(0L);
+        Assertions.assertThat(inMemoryLimitDao.getLimit(1L).getDailyLimit()).isEqualTo(10000L);
+        Assertions.assertThat(inMemoryLimitDao.getLimit(2L).getDailyExpensesSum()).isEqualTo(4000L);
+        Assertions.assertThat(limitResetService.getNextReset(1L)).isEqualTo(Instant.parse("2024-10-02T21:00:00Z"));
+
+        clock.setInstant(Instant.parse("2024-10-02T00:00:00Z"));
+        limitResetService.resetDueLimits();
+        Assertions.assertThat(inMemoryLimitDao.getLimit(2L).getDailyExpensesSum()).isEqualTo(0L);
+        Assertions.assertThat(countResets(DataType.IN_MEMORY, "reset")).isEqualTo(2);
+        Mockito.verifyNoInteractions(limitDaoProviderMock);
+    }
+
+    /**
+     * Тест для проверки, что после изменения часового пояса сброс переносится на полночь в новом поясе,
+     * а сброс, запланированный в прежнем поясе, не выполняется.
+     */
+    @Test
+    void testRescheduleAfterTimeZoneChange() {
+        Mockito.when(userServiceMock.getAllUserIds()).thenReturn(Set.of(1L));
+        Mockito.when(userServiceMock.getDataType(1L)).thenReturn(DataType.IN_MEMORY);
+        Mockito.when(userServiceMock.getTimeZone(1L)).thenReturn(ZoneOffset.UTC);
+        limitResetService.resetDueLimits();
+
+        Mockito.when(userServiceMock.getTimeZone(1L)).thenReturn(ZoneId.of("Asia/Yekaterinburg"));
+        limitResetService.reschedule(1L);
+        Assertions.assertThat(limitResetService.getNextReset(1L)).isEqualTo(Instant.parse("2024-10-01T19:00:00Z"));
+
+        inMemoryLimitDao.setLimit(1L, new Limit(10000L, 3000L));
+        clock.setInstant(Instant.parse("2024-10-02T00:00:00Z"));
+        limitResetService.resetDueLimits();
+
+        Assertions.assertThat(inMemoryLimitDao.getLimit(1L).getDailyExpensesSum()).isEqualTo(0L);
+        Assertions.assertThat(countResets(DataType.IN_MEMORY, "reset")).isEqualTo(1);
+        Assertions.assertThat(limitResetService.getNextReset(1L)).isEqualTo(Instant.parse("2024-10-02T19:00:00Z"));
+    }
+
+    /**
+     * Тест для проверки сброса в гугл-таблицах: чаты без лимита по индексу пропускаются
+     * без обращения к таблице, а ошибка в одном чате не мешает сбросу в остальных.
+     */
+    @Test
+    void testResetGoogleSheetsLimits() throws Exception {
+        Mockito.when(userServiceMock.getAllUserIds()).thenReturn(Set.of(1L, 2L, 3L, 4L));
+        for (long chatId = 1; chatId <= 4; chatId++) {
+            Mockito.when(userServiceMock.getDataType(chatId)).thenReturn(DataType.IN_GOOGLE_SHEET);
+            Mockito.when(userServiceMock.getTimeZone(chatId)).thenReturn(ZoneOffset.UTC);
+            Mockito.when(userServiceMock.getGoogleSheetId(chatId)).thenReturn("sheetId" + chatId);
+            Mockito.when(limitDaoProviderMock.getLimitDaoForUser(chatId)).thenReturn(googleSheetsLimitDaoMock);
+        }
+        googleSheetsLimitIndex.update("sheetId3", false);
+        Mockito.when(googleSheetsLimitDaoMock.getLimit(1L)).thenReturn(new Limit(10000L, 3000L));
+        Mockito.when(googleSheetsLimitDaoMock.getLimit(2L))
+                .thenThrow(new GoogleSheetsException("Ошибка получения лимита", new RuntimeException()));
+        Mockito.when(googleSheetsLimitDaoMock.getLimit(4L)).thenReturn(new Limit(10000L, 0L));
+        limitResetService.resetDueLimits();
+
+        clock.setInstant(Instant.parse("2024-10-02T00:00:00Z"));
+        resetUntilDone();
+        limitResetService.close();
+
+        Mockito.verify(googleSheetsLimitDaoMock).setLimit(Mockito.eq(1L), Mockito.argThat(limit ->
+                limit.getDailyLimit() == 10000L && limit.getDailyExpensesSum() == 0L));
+        Mockito.verify(googleSheetsLimitDaoMock, Mockito.never()).getLimit(3L);
+        Mockito.verify(googleSheetsLimitDaoMock, Mockito.never()).setLimit(Mockito.eq(4L), Mockito.any());
+        Assertions.assertThat(countResets(DataType.IN_GOOGLE_SHEET, "reset")).isEqualTo(1);
+        Assertions.assertThat(countResets(DataType.IN_GOOGLE_SHEET, "skipped")).isEqualTo(2);
+        Assertions.assertThat(countResets(DataType.IN_GOOGLE_SHEET, "failed")).isEqualTo(1);
+        Assertions.assertThat(limitResetService.getPendingResets()).isZero();
+    }
+
+    /**
+     * Тест для проверки, что проверка очереди не ждёт освобождения места у исполнителя:
+     * сброс, который не поместился, откладывается и выполняется при следующей проверке.
+     */
+    @Test
+    void testResetIsDeferredWhenExecutorIsFull() throws Exception {
+        Mockito.when(userServiceMock.getAllUserIds()).thenReturn(Set.of(1L, 2L, 3L));
+        for (long chatId = 1; chatId <= 3; chatId++) {
+            Mockito.when(userServiceMock.getDataType(chatId)).thenReturn(DataType.IN_GOOGLE_SHEET);
+            Mockito.when(userServiceMock.getTimeZone(chatId)).thenReturn(ZoneOffset.UTC);
+            Mockito.when(limitDaoProviderMock.getLimitDaoForUser(chatId)).thenReturn(googleSheetsLimitDaoMock);
+        }
+        CountDownLatch release = new CountDownLatch(1);
+        Mockito.when(googleSheetsLimitDaoMock.getLimit(Mockito.anyLong())).thenAnswer(invocation -> {
+            release.await();
+            return new Limit(10000L, 3000L);
+        });
+        limitResetService.resetDueLimits();
+
+        clock.setInstant(Instant.parse("2024-10-02T00:00:00Z"));
+        limitResetService.resetDueLimits();
+
+        Assertions.assertThat(limitResetService.getPendingResets()).isEqualTo(2);
+        Assertions.assertThat(limitResetService.getDeferredResets()).isEqualTo(1);
+
+        release.countDown();
+        resetUntilDone();
+        limitResetService.close();
+
+        Mockito.verify(googleSheetsLimitDaoMock, Mockito.times(3)).setLimit(Mockito.anyLong(), Mockito.any());
+        Assertions.assertThat(countResets(DataType.IN_GOOGLE_SHEET, "reset")).isEqualTo(3);
+    }
+
+    /**
+     * Проверяет очередь сбросов, пока не будут выполнены все начатые и отложенные сбросы.
+     */
+    private void resetUntilDone() throws InterruptedException {
+        limitResetService.resetDueLimits();
+        while (limitResetService.getPendingResets() > 0 || limitResetService.getDeferredResets() > 0) {
+            Thread.sleep(10);
+            limitResetService.resetDueLimits();
+        }
+    }
+
+    /**
+     * Возвращает количество сбросов с указанным результатом из метрик.
+     *
+     * @param dataType тип хранилища
+     * @param outcome  результат сброса
+     */
+    private long countResets(DataType dataType, String outcome) {
+        return meterRegistry.get(BotMetrics.LIMIT_RESET)
+                .tags("data.type", dataType.name(), "outcome", outcome)
+                .timer().count();
+    }
+
+    /**
+     * Часы, время которых устанавливается вручную.
+     */
+    private static class TestClock extends Clock {
+
+        /**
+         * Текущее время
+         */
+        private volatile Instant instant;
+
+        /**
+         * Конструктор TestClock
+         *
+         * @param instant начальное время
+         */
+        private TestClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        /**
+         * Устанавливает текущее время.
+         *
+         * @param instant новое время
+         */
+        private void setInstant(Instant instant) {
+            this.instant = instant;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
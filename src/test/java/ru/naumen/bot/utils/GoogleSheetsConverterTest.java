@@ -7,6 +7,7 @@ import ru.naumen.bot.data.entity.Income;
 import ru.naumen.bot.data.entity.Limit;
 import ru.naumen.bot.data.enums.ExpenseCategory;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
 
@@ -23,8 +24,8 @@ public class GoogleSheetsConverterTest {
      */
     @Test
     public void testIncomeToSheetFormat() {
-        Income income = new Income("Salary", 5000.0, LocalDate.of(2023, 11, 1));
-        List<List<Object>> expected = List.of(List.of("Salary", 5000.0, "'2023-11-01"));
+        Income income = new Income("Salary", 500000L, LocalDate.of(2023, 11, 1));
+        List<List<Object>> expected = List.of(List.of("'Salary", new BigDecimal("5000.00"), "'2023-11-01"));
 
         List<List<Object>> result = converter.incomeToSheetFormat(income);
 
@@ -38,13 +39,13 @@ public class GoogleSheetsConverterTest {
     @Test
     public void testIncomesToSheetFormat() {
         List<Income> incomes = List.of(
-                new Income("Salary", 5000.0, LocalDate.of(2023, 11, 1)),
-                new Income("Bonus", 1500.0, LocalDate.of(2023, 11, 5))
+                new Income("Salary", 500000L, LocalDate.of(2023, 11, 1)),
+                new Income("Bonus", 150000L, LocalDate.of(2023, 11, 5))
         );
 
         List<List<Object>> expected = List.of(
-                List.of("Salary", 5000.0, "'2023-11-01"),
-                List.of("Bonus", 1500.0, "'2023-11-05")
+                List.of("'Salary", new BigDecimal("5000.00"), "'2023-11-01"),
+                List.of("'Bonus", new BigDecimal("1500.00"), "'2023-11-05")
         );
 
         List<List<Object>> result = converter.incomesToSheetFormat(incomes);
@@ -58,9 +59,9 @@ public class GoogleSheetsConverterTest {
      */
     @Test
     public void testExpenseToSheetFormat() {
-        Expense expense = new Expense("Groceries", 150.0,
+        Expense expense = new Expense("Groceries", 15000L,
                 ExpenseCategory.OTHER, LocalDate.of(2023, 11, 3));
-        List<List<Object>> expected = List.of(List.of("Groceries", 150.0, "OTHER", "'2023-11-03"));
+        List<List<Object>> expected = List.of(List.of("'Groceries", new BigDecimal("150.00"), "OTHER", "'2023-11-03"));
 
         List<List<Object>> result = converter.expenseToSheetFormat(expense);
 
@@ -74,15 +75,15 @@ public class GoogleSheetsConverterTest {
     @Test
     public void testExpensesToSheetFormat() {
         List<Expense> expenses = List.of(
-                new Expense("Groceries", 150.0,
+                new Expense("Groceries", 15000L,
                         ExpenseCategory.TRANSPORT, LocalDate.of(2023, 11, 3)),
-                new Expense("Rent", 1000.0,
+                new Expense("Rent", 100000L,
                         ExpenseCategory.OTHER, LocalDate.of(2023, 11, 1))
         );
 
         List<List<Object>> expected = List.of(
-                List.of("Groceries", 150.0, "TRANSPORT", "'2023-11-03"),
-                List.of("Rent", 1000.0, "OTHER", "'2023-11-01")
+                List.of("'Groceries", new BigDecimal("150.00"), "TRANSPORT", "'2023-11-03"),
+                List.of("'Rent", new BigDecimal("1000.00"), "OTHER", "'2023-11-01")
         );
 
         List<List<Object>> result = converter.expensesToSheetFormat(expenses);
@@ -102,8 +103,8 @@ public class GoogleSheetsConverterTest {
         );
 
         List<Income> expected = List.of(
-                new Income("Salary", 5000.0, LocalDate.of(2023, 11, 1)),
-                new Income("Bonus", 1500.0, LocalDate.of(2023, 11, 5))
+                new Income("Salary", 500000L, LocalDate.of(2023, 11, 1)),
+                new Income("Bonus", 150000L, LocalDate.of(2023, 11, 5))
         );
 
         List<Income> result = converter.sheetFormatToIncomes(data);
@@ -123,9 +124,9 @@ public class GoogleSheetsConverterTest {
         );
 
         List<Expense> expected = List.of(
-                new Expense("Groceries", 150.0,
+                new Expense("Groceries", 15000L,
                         ExpenseCategory.OTHER, LocalDate.of(2023, 11, 3)),
-                new Expense("Rent", 1000.0,
+                new Expense("Rent", 100000L,
                         ExpenseCategory.SUPERMARKET, LocalDate.of(2023, 11, 1))
         );
 
@@ -135,40 +136,103 @@ public class GoogleSheetsConverterTest {
     }
 
     /**
-     * Тест для метода doubleToSheetFormat.
-     * Проверяет правильность преобразования значения Double в формат таблицы.
+     * Тест для метода sheetFormatToExpenses на значениях без форматирования.
+     * Проверяет, что суммы читаются из чисел, даты — из серийных номеров и текста,
+     * а категории — по имени константы и по названию для пользователя.
      */
     @Test
-    public void testDoubleToSheetFormat() {
-        double balance = 12345.67;
-        List<List<Object>> expected = List.of(List.of(balance));
+    public void testSheetFormatToExpensesWithUnformattedValues() {
+        List<List<Object>> data = List.of(
+                List.of("Groceries", new BigDecimal("150.5"), "OTHER", new BigDecimal("45233")),
+                List.of(1000, new BigDecimal("1000"), "Супермаркет", "2023-11-01")
+        );
 
-        List<List<Object>> result = converter.doubleToSheetFormat(balance);
+        List<Expense> expected = List.of(
+                new Expense("Groceries", 15050L,
+                        ExpenseCategory.OTHER, LocalDate.of(2023, 11, 3)),
+                new Expense("1000", 100000L,
+                        ExpenseCategory.SUPERMARKET, LocalDate.of(2023, 11, 1))
+        );
+
+        List<Expense> result = converter.sheetFormatToExpenses(data);
 
         Assertions.assertThat(result).isEqualTo(expected);
     }
 
     /**
-     * Тест для метода sheetFormatToDouble.
-     * Проверяет правильность преобразования данных из формата таблицы в значение типа Double.
+     * Тест для метода sheetFormatToIncomes на значениях без форматирования.
+     */
+    @Test
+    public void testSheetFormatToIncomesWithUnformattedValues() {
+        List<List<Object>> data = List.<List<Object>>of(List.of("Salary", new BigDecimal("5000"), "2023-11-01"));
+
+        List<Income> result = converter.sheetFormatToIncomes(data);
+
+        Assertions.assertThat(result).containsExactly(new Income("Salary", 500000L, LocalDate.of(2023, 11, 1)));
+    }
+
+    /**
+     * Тест для метода streamExpenses.
+     * Проверяет, что строки других категорий отбрасываются, а строки с нераспознанной датой не разбираются,
+     * если до них не дошёл поток.
+     */
+    @Test
+    public void testStreamExpenses() {
+        List<List<Object>> data = List.of(
+                List.of("Taxi", new BigDecimal("400"), "TRANSPORT", "2023-11-03"),
+                List.of("Bus", new BigDecimal("50"), "TRANSPORT", "2023-11-04"),
+                List.of("Rent", new BigDecimal("1000"), "OTHER", "не дата")
+        );
+
+        Assertions.assertThat(converter.streamExpenses(data, ExpenseCategory.TRANSPORT).toList()).containsExactly(
+                new Expense("Taxi", 40000L, ExpenseCategory.TRANSPORT, LocalDate.of(2023, 11, 3)),
+                new Expense("Bus", 5000L, ExpenseCategory.TRANSPORT, LocalDate.of(2023, 11, 4)));
+        Assertions.assertThat(converter.streamExpenses(data, null).limit(1).toList()).hasSize(1);
+        Assertions.assertThat(converter.streamExpenses(null, null)).isEmpty();
+    }
+
+    /**
+     * Тест для метода cellToCategory с неизвестной категорией.
      */
     @Test
-    public void testSheetFormatToDouble() {
-        List<List<Object>> data = List.of(List.of("12345.67"));
-        Double expected = 12345.67;
+    public void testCellToCategoryWithUnknownCategory() {
+        Assertions.assertThatThrownBy(() -> GoogleSheetsConverter.cellToCategory("FOOD"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
 
-        Double result = converter.sheetFormatToDouble(data);
+    /**
+     * Тест для метода moneyToSheetFormat.
+     * Проверяет, что сумма в копейках записывается в таблицу числом в рублях с двумя знаками после запятой.
+     */
+    @Test
+    public void testMoneyToSheetFormat() {
+        List<List<Object>> expected = List.of(List.of(new BigDecimal("12345.67")));
+
+        List<List<Object>> result = converter.moneyToSheetFormat(1234567L);
 
         Assertions.assertThat(result).isEqualTo(expected);
     }
 
     /**
-     * Тест для метода sheetFormatToDouble при отсутствии баланса в таблице.
-     * Проверяет, что возвращается значение 0.0, если входные данные равны null.
+     * Тест для метода sheetFormatToMoney.
+     * Проверяет правильность преобразования данных из формата таблицы в сумму в копейках.
+     */
+    @Test
+    public void testSheetFormatToMoney() {
+        Assertions.assertThat(converter.sheetFormatToMoney(List.of(List.of("12345.67")))).isEqualTo(1234567L);
+        Assertions.assertThat(converter.sheetFormatToMoney(List.of(List.of("-350.5")))).isEqualTo(-35050L);
+        Assertions.assertThat(converter.sheetFormatToMoney(List.of(List.of("1500")))).isEqualTo(150000L);
+        Assertions.assertThat(converter.sheetFormatToMoney(List.of(List.of(new BigDecimal("350.5")))))
+                .isEqualTo(35050L);
+    }
+
+    /**
+     * Тест для метода sheetFormatToMoney при отсутствии баланса в таблице.
+     * Проверяет, что возвращается 0, если входные данные равны null.
      */
     @Test
-    public void testSheetFormatToDoubleWithNullOrEmptyData() {
-        Assertions.assertThat(converter.sheetFormatToDouble(null)).isEqualTo(0.0);
+    public void testSheetFormatToMoneyWithNullOrEmptyData() {
+        Assertions.assertThat(converter.sheetFormatToMoney(null)).isEqualTo(0L);
     }
 
     /**
@@ -177,8 +241,8 @@ public class GoogleSheetsConverterTest {
      */
     @Test
     public void testLimitToSheetFormat() {
-        Limit limit = new Limit(1000.0, 0.0);
-        List<List<Object>> expected = List.of(List.of(1000.0, 0.0));
+        Limit limit = new Limit(100000L, 0L);
+        List<List<Object>> expected = List.of(List.of(new BigDecimal("1000.00"), new BigDecimal("0.00")));
         List<List<Object>> result = converter.limitToSheetFormat(limit);
         Assertions.assertThat(result).isEqualTo(expected);
     }
@@ -201,7 +265,7 @@ public class GoogleSheetsConverterTest {
     @Test
     public void testSheetFormatToLimit() {
         List<List<Object>> data = List.of(List.of("1000.0", "0.0"));
-        Limit expected = new Limit(1000.0, 0.0);
+        Limit expected = new Limit(100000L, 0L);
         Limit result = converter.sheetFormatToLimit(data);
         Assertions.assertThat(result.getDailyLimit()).isEqualTo(expected.getDailyLimit());
         Assertions.assertThat(result.getDailyExpensesSum()).isEqualTo(expected.getDailyExpensesSum());
@@ -0,0 +1,77 @@
+package ru.naumen.bot.utils;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+/**
+ * Тесты для класса {@link Money}, проверяющие перевод сумм в копейки и обратно.
+ */
+public class MoneyTest {
+
+    /**
+     * Тест для проверки разбора десятичной записи суммы, в том числе с погрешностью записи в формате double.
+     */
+    @Test
+    void testParse() {
+        Assertions.assertThat(Money.parse("1500")).isEqualTo(150000L);
+        Assertions.assertThat(Money.parse("350.5")).isEqualTo(35050L);
+        Assertions.assertThat(Money.parse("0.07")).isEqualTo(7L);
+        Assertions.assertThat(Money.parse("-12.30")).isEqualTo(-1230L);
+        Assertions.assertThat(Money.parse("0.30000000000000004")).isEqualTo(30L);
+        Assertions.assertThat(Money.parse("1E+7")).isEqualTo(1000000000L);
+    }
+
+    /**
+     * Тест для проверки, что строка, не являющаяся суммой, и слишком большая сумма
+     * отклоняются с {@link NumberFormatException}.
+     */
+    @Test
+    void testParseInvalid() {
+        Assertions.assertThatThrownBy(() -> Money.parse("5dd00")).isInstanceOf(NumberFormatException.class);
+        Assertions.assertThatThrownBy(() -> Money.parse("1E+20")).isInstanceOf(NumberFormatException.class);
+    }
+
+    /**
+     * Тест для проверки перевода числа, прочитанного из таблицы без форматирования, в копейки.
+     */
+    @Test
+    void testFromDecimal() {
+        Assertions.assertThat(Money.fromDecimal(new BigDecimal("1500"))).isEqualTo(150000L);
+        Assertions.assertThat(Money.fromDecimal(new BigDecimal("350.5"))).isEqualTo(35050L);
+        Assertions.assertThat(Money.fromDecimal(new BigDecimal("-12.30"))).isEqualTo(-1230L);
+        Assertions.assertThat(Money.fromDecimal(new BigDecimal("0.30000000000000004"))).isEqualTo(30L);
+        Assertions.assertThat(Money.fromDecimal(new BigDecimal("1E+3"))).isEqualTo(100000L);
+        Assertions.assertThatThrownBy(() -> Money.fromDecimal(new BigDecimal("1E+20")))
+                .isInstanceOf(NumberFormatException.class);
+    }
+
+    /**
+     * Тест для проверки форматирования суммы для сообщений пользователю.
+     */
+    @Test
+    void testFormat() {
+        Assertions.assertThat(Money.format(150000L)).isEqualTo("1500.0");
+        Assertions.assertThat(Money.format(35050L)).isEqualTo("350.5");
+        Assertions.assertThat(Money.format(35055L)).isEqualTo("350.55");
+        Assertions.assertThat(Money.format(7L)).isEqualTo("0.07");
+        Assertions.assertThat(Money.format(0L)).isEqualTo("0.0");
+        Assertions.assertThat(Money.format(-1230L)).isEqualTo("-12.3");
+        Assertions.assertThat(Money.format(-5L)).isEqualTo("-0.05");
+    }
+
+    /**
+     * Тест для проверки, что сложение сумм в копейках точно, в отличие от сложения в формате double.
+     */
+    @Test
+    void testArithmeticIsExact() {
+        long sum = 0;
+        for (int i = 0; i < 10; i++) {
+            sum += Money.parse("0.1");
+        }
+
+        Assertions.assertThat(sum).isEqualTo(Money.ofUnits(1));
+        Assertions.assertThat(Money.toDecimal(sum)).isEqualTo(new BigDecimal("1.00"));
+    }
+}
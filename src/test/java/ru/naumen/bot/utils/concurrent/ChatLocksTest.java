@@ -0,0 +1,88 @@
+package ru.naumen.bot.utils.concurrent;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Тесты для класса {@link ChatLocks}, проверяющие независимость блокировок чатов.
+ */
+public class ChatLocksTest {
+
+    /**
+     * Тестируемый объект {@link ChatLocks}.
+     */
+    private final ChatLocks chatLocks = new ChatLocks();
+
+    /**
+     * Тест для проверки, что блокировка одного чата не задерживает другой чат,
+     * но задерживает операции того же чата.
+     */
+    @Test
+    void testChatsAreLockedIndependently() throws Exception {
+        Lock lock = chatLocks.getLock(1L);
+        lock.lock();
+        try {
+            Assertions.assertThat(CompletableFuture.supplyAsync(() -> chatLocks.getLock(2L).tryLock())
+                    .get(5, TimeUnit.SECONDS)).isTrue();
+            Assertions.assertThat(CompletableFuture.supplyAsync(() -> chatLocks.getLock(1L).tryLock())
+                    .get(5, TimeUnit.SECONDS)).isFalse();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Тест для проверки, что блокировка повторно входимая и удаляется после последнего освобождения.
+     */
+    @Test
+    void testLockIsRemovedAfterLastUnlock() {
+        Lock outer = chatLocks.getLock(1L);
+        Lock inner = chatLocks.getLock(1L);
+
+        outer.lock();
+        inner.lock();
+        inner.unlock();
+
+        Assertions.assertThat(chatLocks.getActiveChats()).isEqualTo(1);
+
+        outer.unlock();
+
+        Assertions.assertThat(chatLocks.getActiveChats()).isZero();
+    }
+
+    /**
+     * Тест для проверки, что условие блокировки чата освобождает блокировку на время ожидания,
+     * а сама блокировка не удаляется, пока условие ожидается.
+     */
+    @Test
+    void testConditionReleasesLockWhileAwaiting() throws Exception {
+        Lock lock = chatLocks.getLock(1L);
+        lock.lock();
+        Condition condition = lock.newCondition();
+        try {
+            CompletableFuture<Void> signaller = CompletableFuture.runAsync(() -> {
+                Lock other = chatLocks.getLock(1L);
+                other.lock();
+                try {
+                    condition.signal();
+                } finally {
+                    other.unlock();
+                }
+            });
+
+            Assertions.assertThat(condition.await(5, TimeUnit.SECONDS)).isTrue();
+            signaller.get(5, TimeUnit.SECONDS);
+            Assertions.assertThat(chatLocks.getActiveChats()).isEqualTo(1);
+        } finally {
+            lock.unlock();
+        }
+
+        Assertions.assertThat(chatLocks.getActiveChats()).isZero();
+        Assertions.assertThatThrownBy(lock::newCondition).isInstanceOf(IllegalMonitorStateException.class);
+    }
+}
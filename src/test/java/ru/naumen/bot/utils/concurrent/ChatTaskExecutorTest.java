@@ -0,0 +1,108 @@
+package ru.naumen.bot.utils.concurrent;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Тесты для класса {@link ChatTaskExecutor}, проверяющие порядок и параллельность выполнения задач.
+ */
+public class ChatTaskExecutorTest {
+
+    /**
+     * Тестируемый объект {@link ChatTaskExecutor}.
+     */
+    private final ChatTaskExecutor chatTaskExecutor = new ChatTaskExecutor("test", 3);
+
+    /**
+     * Остановка исполнителя после каждого теста.
+     */
+    @AfterEach
+    void tearDown() {
+        chatTaskExecutor.close();
+    }
+
+    /**
+     * Тест для проверки, что задачи одного чата выполняются в порядке поступления.
+     */
+    @Test
+    void testTasksOfOneChatAreExecutedInOrder() throws InterruptedException {
+        List<Integer> executed = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(10);
+
+        for (int i = 0; i < 10; i++) {
+            int number = i;
+            chatTaskExecutor.execute(1L, () -> {
+                executed.add(number);
+                done.countDown();
+            });
+        }
+
+        Assertions.assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        Assertions.assertThat(executed).containsExactly(0, 1, 2, 3, 4, 5, 6, 7, 8, 9);
+    }
+
+    /**
+     * Тест для проверки, что долгая задача одного чата не задерживает задачи другого чата.
+     */
+    @Test
+    void testSlowChatDoesNotBlockOtherChats() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch otherChatDone = new CountDownLatch(1);
+
+        chatTaskExecutor.execute(1L, () -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        chatTaskExecutor.execute(2L, otherChatDone::countDown);
+
+        Assertions.assertThat(otherChatDone.await(5, TimeUnit.SECONDS)).isTrue();
+        release.countDown();
+    }
+
+    /**
+     * Тест для проверки, что при достижении предела невыполненных задач новые задачи не принимаются.
+     */
+    @Test
+    void testTryExecuteRejectsTasksWhenLimitReached() {
+        CountDownLatch release = new CountDownLatch(1);
+        Runnable blockingTask = () -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+
+        Assertions.assertThat(chatTaskExecutor.tryExecute(1L, blockingTask)).isTrue();
+        Assertions.assertThat(chatTaskExecutor.tryExecute(1L, blockingTask)).isTrue();
+        Assertions.assertThat(chatTaskExecutor.tryExecute(2L, blockingTask)).isTrue();
+        Assertions.assertThat(chatTaskExecutor.tryExecute(3L, blockingTask)).isFalse();
+        Assertions.assertThat(chatTaskExecutor.getPendingTasks()).isEqualTo(3);
+
+        release.countDown();
+    }
+
+    /**
+     * Тест для проверки, что задача, отклонённая остановленным исполнителем, не занимает место в очереди.
+     */
+    @Test
+    void testRejectedTaskReleasesPermit() {
+        chatTaskExecutor.close();
+
+        Assertions.assertThatThrownBy(() -> chatTaskExecutor.tryExecute(1L, () -> {
+                }))
+                .isInstanceOf(RejectedExecutionException.class);
+        Assertions.assertThat(chatTaskExecutor.getPendingTasks()).isZero();
+        Assertions.assertThat(chatTaskExecutor.getActiveChats()).isZero();
+    }
+}
@@ -0,0 +1,69 @@
+package ru.naumen.bot.utils.concurrent;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+/**
+ * Тесты для класса {@link CircuitBreaker}, проверяющие размыкание и замыкание предохранителя.
+ */
+public class CircuitBreakerTest {
+
+    /**
+     * Тест для проверки, что предохранитель размыкается только после заданного количества ошибок подряд,
+     * а успешный запрос сбрасывает счётчик ошибок.
+     */
+    @Test
+    void testOpensAfterConsecutiveFailures() {
+        CircuitBreaker circuitBreaker = new CircuitBreaker(2, Duration.ofMinutes(1));
+
+        circuitBreaker.recordFailure();
+        circuitBreaker.recordSuccess();
+        circuitBreaker.recordFailure();
+        Assertions.assertThat(circuitBreaker.allowRequest()).isTrue();
+
+        circuitBreaker.recordFailure();
+        Assertions.assertThat(circuitBreaker.isOpen()).isTrue();
+        Assertions.assertThat(circuitBreaker.allowRequest()).isFalse();
+    }
+
+    /**
+     * Тест для проверки, что после времени размыкания предохранитель пропускает пробный запрос:
+     * его ошибка снова размыкает предохранитель, а успех замыкает.
+     */
+    @Test
+    void testTrialRequestAfterOpenDuration() throws InterruptedException {
+        CircuitBreaker circuitBreaker = new CircuitBreaker(1, Duration.ofMillis(20));
+        circuitBreaker.recordFailure();
+        Thread.sleep(30);
+
+        Assertions.assertThat(circuitBreaker.allowRequest()).isTrue();
+        circuitBreaker.recordFailure();
+        Assertions.assertThat(circuitBreaker.allowRequest()).isFalse();
+
+        Thread.sleep(30);
+        Assertions.assertThat(circuitBreaker.allowRequest()).isTrue();
+        circuitBreaker.recordSuccess();
+        Assertions.assertThat(circuitBreaker.isOpen()).isFalse();
+    }
+
+    /**
+     * Тест для проверки, что после времени размыкания пропускается только один пробный запрос,
+     * а следующий пробный запрос пропускается, если результат предыдущего не был записан, ещё через время размыкания.
+     */
+    @Test
+    void testSingleTrialRequest() throws InterruptedException {
+        CircuitBreaker circuitBreaker = new CircuitBreaker(1, Duration.ofMillis(20));
+        circuitBreaker.recordFailure();
+        Thread.sleep(30);
+
+        Assertions.assertThat(circuitBreaker.allowRequest()).isTrue();
+        Assertions.assertThat(circuitBreaker.allowRequest()).isFalse();
+        Assertions.assertThat(circuitBreaker.isOpen()).isTrue();
+
+        Thread.sleep(30);
+        Assertions.assertThat(circuitBreaker.allowRequest()).isTrue();
+        Assertions.assertThat(circuitBreaker.allowRequest()).isFalse();
+    }
+}
@@ -0,0 +1,69 @@
+package ru.naumen.bot.utils.concurrent;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+/**
+ * Тесты для класса {@link TokenBucket}, проверяющие ограничение частоты операций.
+ */
+public class TokenBucketTest {
+
+    /**
+     * Тест для проверки, что ведро выдаёт не больше токенов, чем его вместимость.
+     */
+    @Test
+    void testTryAcquireAllowsBurstUpToCapacity() {
+        TokenBucket tokenBucket = new TokenBucket(3, 0.001);
+
+        Assertions.assertThat(tokenBucket.tryAcquire()).isTrue();
+        Assertions.assertThat(tokenBucket.tryAcquire()).isTrue();
+        Assertions.assertThat(tokenBucket.tryAcquire()).isTrue();
+        Assertions.assertThat(tokenBucket.tryAcquire()).isFalse();
+    }
+
+    /**
+     * Тест для проверки, что после приостановки ведро не выдаёт токены.
+     */
+    @Test
+    void testSuspendStopsIssuingTokens() {
+        TokenBucket tokenBucket = new TokenBucket(3, 1000);
+
+        tokenBucket.suspend(Duration.ofSeconds(10));
+
+        Assertions.assertThat(tokenBucket.tryAcquire()).isFalse();
+    }
+
+    /**
+     * Тест для проверки, что ведро пополняется со временем.
+     */
+    @Test
+    void testAcquireWaitsForRefill() throws InterruptedException {
+        TokenBucket tokenBucket = new TokenBucket(1, 100);
+        tokenBucket.acquire();
+
+        long start = System.nanoTime();
+        tokenBucket.acquire();
+
+        Assertions.assertThat(Duration.ofNanos(System.nanoTime() - start)).isGreaterThan(Duration.ofMillis(5));
+    }
+
+    /**
+     * Тест для проверки, что ожидание токена ограничено временем: токен, который появится позже
+     * срока ожидания, не выдаётся, а токен, который успевает появиться, выдаётся.
+     */
+    @Test
+    void testTryAcquireWithTimeout() throws InterruptedException {
+        TokenBucket tokenBucket = new TokenBucket(1, 100);
+        tokenBucket.acquire();
+        tokenBucket.suspend(Duration.ofSeconds(10));
+
+        Assertions.assertThat(tokenBucket.tryAcquire(Duration.ofMillis(50))).isFalse();
+
+        TokenBucket refillingBucket = new TokenBucket(1, 100);
+        refillingBucket.acquire();
+
+        Assertions.assertThat(refillingBucket.tryAcquire(Duration.ofSeconds(1))).isTrue();
+    }
+}
@@ -0,0 +1,71 @@
+package ru.naumen.bot.utils.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import ru.naumen.bot.data.dao.BalanceDao;
+import ru.naumen.bot.data.dao.inMemory.InMemoryBalanceDao;
+import ru.naumen.bot.data.enums.DataType;
+import ru.naumen.bot.data.journal.Journal;
+import ru.naumen.bot.exception.DaoException;
+
+/**
+ * Тесты для класса {@link BotMetrics}, проверяющие запись времени вызовов DAO.
+ */
+public class BotMetricsTest {
+
+    /**
+     * Реестр, в который записываются метрики
+     */
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    /**
+     * Тестируемый объект {@link BotMetrics}, который проверяется в данном тестовом классе.
+     */
+    private final BotMetrics botMetrics = new BotMetrics(meterRegistry);
+
+    /**
+     * Идентификатор чата, в котором происходит тестирование.
+     */
+    private final long chatId = 12345L;
+
+    /**
+     * Тест для проверки, что обёрнутый DAO возвращает результаты исходного DAO
+     * и записывает время каждого вызова с тегами метода и типа хранилища.
+     */
+    @Test
+    void testInstrumentRecordsSuccessfulCalls() throws DaoException {
+        BalanceDao balanceDao = botMetrics.instrument(BalanceDao.class,
+                new InMemoryBalanceDao(Journal.NONE), DataType.IN_MEMORY);
+
+        balanceDao.setBalance(chatId, 10000L);
+        balanceDao.setBalance(chatId, 20000L);
+
+        Assertions.assertThat(balanceDao.getBalance(chatId)).isEqualTo(20000L);
+        Assertions.assertThat(meterRegistry.get(BotMetrics.DAO)
+                .tags("dao", "BalanceDao", "method", "setBalance", "data.type", "IN_MEMORY", "outcome", "success")
+                .timer().count()).isEqualTo(2);
+        Assertions.assertThat(meterRegistry.get(BotMetrics.DAO)
+                .tags("method", "getBalance")
+                .timer().count()).isEqualTo(1);
+    }
+
+    /**
+     * Тест для проверки, что исключение исходного DAO пробрасывается без обёртки
+     * и вызов записывается с результатом {@code error}.
+     */
+    @Test
+    void testInstrumentRecordsFailedCalls() throws DaoException {
+        BalanceDao balanceDaoMock = Mockito.mock(BalanceDao.class);
+        DaoException exception = new DaoException(new Exception("exception"));
+        Mockito.when(balanceDaoMock.getBalance(chatId)).thenThrow(exception);
+        BalanceDao balanceDao = botMetrics.instrument(BalanceDao.class, balanceDaoMock, DataType.IN_GOOGLE_SHEET);
+
+        Assertions.assertThatThrownBy(() -> balanceDao.getBalance(chatId)).isSameAs(exception);
+        Assertions.assertThat(meterRegistry.get(BotMetrics.DAO)
+                .tags("method", "getBalance", "data.type", "IN_GOOGLE_SHEET",
+                        "outcome", "error", "exception", "DaoException")
+                .timer().count()).isEqualTo(1);
+    }
+}
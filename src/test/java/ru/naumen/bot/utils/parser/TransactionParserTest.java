@@ -0,0 +1,77 @@
+package ru.naumen.bot.utils.parser;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import ru.naumen.bot.data.enums.TransactionType;
+
+/**
+ * Тесты для класса {@link TransactionParser}, проверяющие разбор сообщений с доходами и расходами.
+ */
+public class TransactionParserTest {
+
+    /**
+     * Тестируемый объект {@link TransactionParser}, который проверяется в данном тестовом классе.
+     */
+    private final TransactionParser transactionParser = new TransactionParser();
+
+    /**
+     * Тест для проверки разбора дохода и расхода с целой и дробной суммой.
+     * Сумма должна быть переведена в копейки без потери точности.
+     */
+    @Test
+    void testParseTransactions() {
+        Assertions.assertThat(transactionParser.parse("+ 1500 зарплата"))
+                .isEqualTo(new ParsedTransaction(TransactionType.INCOME, 150000L, "зарплата"));
+        Assertions.assertThat(transactionParser.parse("- 350.5 кофе и булочка"))
+                .isEqualTo(new ParsedTransaction(TransactionType.EXPENSE, 35050L, "кофе и булочка"));
+        Assertions.assertThat(transactionParser.parse("-\t0.07\t"))
+                .isEqualTo(new ParsedTransaction(TransactionType.EXPENSE, 7L, ""));
+        Assertions.assertThat(transactionParser.parse("+ 99999999.99 много"))
+                .isEqualTo(new ParsedTransaction(TransactionType.INCOME, 9999999999L, "много"));
+    }
+
+    /**
+     * Тест для проверки, что сообщение без знака операции и пробела не считается попыткой
+     * добавить операцию.
+     */
+    @Test
+    void testParseNotATransaction() {
+        Assertions.assertThat(transactionParser.parse("привет")).isSameAs(TransactionParseError.NOT_A_TRANSACTION);
+        Assertions.assertThat(transactionParser.parse("+888 Доход")).isSameAs(TransactionParseError.NOT_A_TRANSACTION);
+        Assertions.assertThat(transactionParser.parse("-")).isSameAs(TransactionParseError.NOT_A_TRANSACTION);
+    }
+
+    /**
+     * Тест для проверки причин и позиций ошибок в сообщениях, похожих на операции.
+     */
+    @Test
+    void testParseErrors() {
+        Assertions.assertThat(transactionParser.parse("+ сто рублей"))
+                .isEqualTo(new TransactionParseError(TransactionParseError.Reason.INVALID_AMOUNT, 2));
+        Assertions.assertThat(transactionParser.parse("+ 100. рублей"))
+                .isEqualTo(new TransactionParseError(TransactionParseError.Reason.INVALID_AMOUNT, 6));
+        Assertions.assertThat(transactionParser.parse("+ 123456789 много"))
+                .isEqualTo(new TransactionParseError(TransactionParseError.Reason.TOO_MANY_INTEGER_DIGITS, 2));
+        Assertions.assertThat(transactionParser.parse("- 1.999 кофе"))
+                .isEqualTo(new TransactionParseError(TransactionParseError.Reason.TOO_MANY_FRACTION_DIGITS, 4));
+        Assertions.assertThat(transactionParser.parse("- 100руб"))
+                .isEqualTo(new TransactionParseError(TransactionParseError.Reason.MISSING_DESCRIPTION_SEPARATOR, 5));
+        Assertions.assertThat(transactionParser.parse("- 100"))
+                .isEqualTo(new TransactionParseError(TransactionParseError.Reason.MISSING_DESCRIPTION_SEPARATOR, 5));
+        Assertions.assertThat(transactionParser.parse("- 100 кофе\nи булочка"))
+                .isEqualTo(new TransactionParseError(TransactionParseError.Reason.MULTILINE_DESCRIPTION, 10));
+    }
+
+    /**
+     * Тест для проверки ограничения длины описания, в котором символ вне базовой плоскости Unicode
+     * считается одним символом.
+     */
+    @Test
+    void testParseDescriptionLength() {
+        String emoji = "😀";
+        Assertions.assertThat(transactionParser.parse("- 1 " + emoji.repeat(100)))
+                .isEqualTo(new ParsedTransaction(TransactionType.EXPENSE, 100L, emoji.repeat(100)));
+        Assertions.assertThat(transactionParser.parse("- 1 " + "а".repeat(101)))
+                .isEqualTo(new TransactionParseError(TransactionParseError.Reason.DESCRIPTION_TOO_LONG, 104));
+    }
+}
@@ -0,0 +1,132 @@
+package ru.naumen.bot.client.emulator;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Диапазон ячеек в нотации A1, например, {@code Расходы!A2:D} или {@code 'Общая информация'!B1}.
+ * Номера строк и столбцов начинаются с 0, конец диапазона не включается; у открытого диапазона
+ * вроде {@code A2:D} конец равен {@link Integer#MAX_VALUE}.
+ *
+ * @param sheet       название листа
+ * @param startRow    первая строка
+ * @param startColumn первый столбец
+ * @param endRow      строка после последней
+ * @param endColumn   столбец после последнего
+ */
+public record A1Range(String sheet, int startRow, int startColumn, int endRow, int endColumn) {
+
+    /**
+     * Ссылка на ячейку, строку или столбец: буквы столбца и номер строки, каждая часть необязательна
+     */
+    private static final Pattern CELL = Pattern.compile("([A-Za-z]*)(\\d*)");
+
+    /**
+     * Разбирает диапазон в нотации A1. Диапазон без ячеек, например, {@code Расходы}, занимает весь лист.
+     *
+     * @param range диапазон в нотации A1
+     * @return разобранный диапазон
+     * @throws IllegalArgumentException если диапазон не удалось разобрать
+     */
+    public static A1Range parse(String range) {
+        int separator = range.lastIndexOf('!');
+        if (separator < 0) {
+            return new A1Range(unquote(range), 0, 0, Integer.MAX_VALUE, Integer.MAX_VALUE);
+        }
+        String sheet = unquote(range.substring(0, separator));
+        String[] cells = range.substring(separator + 1).split(":", -1);
+        if (cells.length > 2) {
+            throw new IllegalArgumentException("Unable to parse range: " + range);
+        }
+        Matcher start = matchCell(cells[0], range);
+        int startColumn = start.group(1).isEmpty() ? 0 : column(start.group(1));
+        int startRow = start.group(2).isEmpty() ? 0 : Integer.parseInt(start.group(2)) - 1;
+        if (cells.length == 1) {
+            int endColumn = start.group(1).isEmpty() ? Integer.MAX_VALUE : startColumn + 1;
+            int endRow = start.group(2).isEmpty() ? Integer.MAX_VALUE : startRow + 1;
+            return new A1Range(sheet, startRow, startColumn, endRow, endColumn);
+        }
+        Matcher end = matchCell(cells[1], range);
+        int endColumn = end.group(1).isEmpty() ? Integer.MAX_VALUE : column(end.group(1)) + 1;
+        int endRow = end.group(2).isEmpty() ? Integer.MAX_VALUE : Integer.parseInt(end.group(2));
+        if (endRow <= startRow || endColumn <= startColumn) {
+            throw new IllegalArgumentException("Unable to parse range: " + range);
+        }
+        return new A1Range(sheet, startRow, startColumn, endRow, endColumn);
+    }
+
+    /**
+     * Возвращает диапазон в нотации A1, ограниченный переданным количеством строк и столбцов,
+     * если диапазон открытый.
+     *
+     * @param rows    количество строк, которым ограничивается открытый конец диапазона
+     * @param columns количество столбцов, которым ограничивается открытый конец диапазона
+     */
+    public String format(int rows, int columns) {
+        int lastRow = Math.max(Math.min(endRow, startRow + Math.max(rows, 1)), startRow + 1);
+        int lastColumn = Math.max(Math.min(endColumn, startColumn + Math.max(columns, 1)), startColumn + 1);
+        return quote(sheet) + "!" + columnName(startColumn) + (startRow + 1)
+                + ":" + columnName(lastColumn - 1) + lastRow;
+    }
+
+    /**
+     * Проверяет, что часть диапазона является ссылкой на ячейку.
+     *
+     * @param cell  часть диапазона
+     * @param range весь диапазон для сообщения об ошибке
+     */
+    private static Matcher matchCell(String cell, String range) {
+        Matcher matcher = CELL.matcher(cell);
+        if (cell.isEmpty() || !matcher.matches()) {
+            throw new IllegalArgumentException("Unable to parse range: " + range);
+        }
+        return matcher;
+    }
+
+    /**
+     * Возвращает номер столбца по его буквам, начиная с 0.
+     *
+     * @param letters буквы столбца, например, {@code AB}
+     */
+    private static int column(String letters) {
+        int result = 0;
+        for (char letter : letters.toUpperCase().toCharArray()) {
+            result = result * 26 + (letter - 'A' + 1);
+        }
+        return result - 1;
+    }
+
+    /**
+     * Возвращает буквы столбца по его номеру, начиная с 0.
+     *
+     * @param column номер столбца
+     */
+    private static String columnName(int column) {
+        StringBuilder result = new StringBuilder();
+        for (int value = column + 1; value > 0; value = (value - 1) / 26) {
+            result.insert(0, (char) ('A' + (value - 1) % 26));
+        }
+        return result.toString();
+    }
+
+    /**
+     * Убирает кавычки вокруг названия листа.
+     *
+     * @param sheet название листа, возможно, в одинарных кавычках
+     */
+    private static String unquote(String sheet) {
+        if (sheet.length() >= 2 && sheet.startsWith("'") && sheet.endsWith("'")) {
+            return sheet.substring(1, sheet.length() - 1).replace("''", "'");
+        }
+        return sheet;
+    }
+
+    /**
+     * Заключает название листа в кавычки, если в нём есть символы кроме букв и цифр, как это делает Google Sheets.
+     *
+     * @param sheet название листа
+     */
+    private static String quote(String sheet) {
+        return sheet.chars().allMatch(Character::isLetterOrDigit) ? sheet : "'" + sheet.replace("'", "''") + "'";
+    }
+}
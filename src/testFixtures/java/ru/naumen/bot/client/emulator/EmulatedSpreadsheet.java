@@ -0,0 +1,479 @@
+package ru.naumen.bot.client.emulator;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Гугл-таблица эмулятора Google Sheets API: листы со значениями ячеек.
+ *
+ * <p>Значения хранятся так, как их сохранил бы Google Sheets: строки, числа {@link BigDecimal}
+ * и логические значения. При чтении они возвращаются отформатированными строками, как при
+ * {@code valueRenderOption=FORMATTED_VALUE} с форматом ячеек по умолчанию. Все методы синхронизированы,
+ * поэтому запросы к одной таблице выполняются по очереди, как в Google Sheets.
+ *
+ * <p>Как и в Google Sheets, новый лист содержит сетку из {@value #DEFAULT_ROW_COUNT} строк
+ * и {@value #DEFAULT_COLUMN_COUNT} столбцов. Чтение, изменение и очистка диапазона за пределами сетки
+ * завершаются ошибкой, а добавление строк расширяет сетку на количество добавленных строк.
+ */
+public class EmulatedSpreadsheet {
+
+    /**
+     * Количество строк в сетке нового листа
+     */
+    public static final int DEFAULT_ROW_COUNT = 1000;
+
+    /**
+     * Количество столбцов в сетке нового листа
+     */
+    public static final int DEFAULT_COLUMN_COUNT = 26;
+
+    /**
+     * Идентификатор таблицы
+     */
+    private final String spreadsheetId;
+
+    /**
+     * Листы таблицы в порядке следования, где ключом является название листа
+     */
+    private final Map<String, Sheet> sheets = new LinkedHashMap<>();
+
+    /**
+     * Название таблицы
+     */
+    private String title;
+
+    /**
+     * Идентификатор следующего добавляемого листа
+     */
+    private int nextSheetId;
+
+    /**
+     * Конструктор EmulatedSpreadsheet. Новая таблица, как и в Google Sheets, содержит один лист "Лист1".
+     *
+     * @param spreadsheetId идентификатор таблицы
+     */
+    public EmulatedSpreadsheet(String spreadsheetId) {
+        this.spreadsheetId = spreadsheetId;
+        this.title = spreadsheetId;
+        addSheet("Лист1");
+    }
+
+    /**
+     * Возвращает идентификатор таблицы.
+     */
+    public String getSpreadsheetId() {
+        return spreadsheetId;
+    }
+
+    /**
+     * Возвращает название таблицы.
+     */
+    public synchronized String getTitle() {
+        return title;
+    }
+
+    /**
+     * Задаёт название таблицы.
+     *
+     * @param title новое название
+     */
+    public synchronized void setTitle(String title) {
+        this.title = title;
+    }
+
+    /**
+     * Возвращает идентификаторы листов в порядке их следования, где ключом является название листа.
+     */
+    public synchronized Map<String, Integer> getSheetIds() {
+        Map<String, Integer> result = new LinkedHashMap<>();
+        sheets.forEach((sheetTitle, sheet) -> result.put(sheetTitle, sheet.id));
+        return result;
+    }
+
+    /**
+     * Возвращает размер сетки листа.
+     *
+     * @param sheetTitle название листа
+     * @return количество строк и количество столбцов
+     * @throws IllegalArgumentException если листа нет
+     */
+    public synchronized int[] getGridSize(String sheetTitle) {
+        Sheet sheet = getSheet(new A1Range(sheetTitle, 0, 0, 1, 1));
+        return new int[]{sheet.rowCount, sheet.columnCount};
+    }
+
+    /**
+     * Добавляет лист в конец таблицы.
+     *
+     * @param sheetTitle название листа
+     * @return идентификатор добавленного листа
+     * @throws IllegalArgumentException если лист с таким названием уже есть
+     */
+    public synchronized int addSheet(String sheetTitle) {
+        if (sheets.containsKey(sheetTitle)) {
+            throw new IllegalArgumentException("A sheet with the name \"" + sheetTitle + "\" already exists.");
+        }
+        Sheet sheet = new Sheet(nextSheetId++);
+        sheets.put(sheetTitle, sheet);
+        return sheet.id;
+    }
+
+    /**
+     * Переименовывает лист, сохраняя его место среди листов.
+     *
+     * @param sheetId  идентификатор листа
+     * @param newTitle новое название листа
+     * @throws IllegalArgumentException если листа нет или лист с новым названием уже есть
+     */
+    public synchronized void renameSheet(int sheetId, String newTitle) {
+        String oldTitle = findTitle(sheetId);
+        if (oldTitle.equals(newTitle)) {
+            return;
+        }
+        if (sheets.containsKey(newTitle)) {
+            throw new IllegalArgumentException("A sheet with the name \"" + newTitle + "\" already exists.");
+        }
+        Map<String, Sheet> renamed = new LinkedHashMap<>();
+        sheets.forEach((sheetTitle, sheet) -> renamed.put(sheetTitle.equals(oldTitle) ? newTitle : sheetTitle, sheet));
+        sheets.clear();
+        sheets.putAll(renamed);
+    }
+
+    /**
+     * Удаляет лист.
+     *
+     * @param sheetId идентификатор листа
+     * @throws IllegalArgumentException если листа нет или он последний в таблице
+     */
+    public synchronized void deleteSheet(int sheetId) {
+        String sheetTitle = findTitle(sheetId);
+        if (sheets.size() == 1) {
+            throw new IllegalArgumentException("You can't remove all the sheets in a document.");
+        }
+        sheets.remove(sheetTitle);
+    }
+
+    /**
+     * Читает отформатированные значения диапазона, как при {@code valueRenderOption=FORMATTED_VALUE}.
+     *
+     * @param range диапазон ячеек
+     * @return отформатированные значения строк диапазона
+     * @throws IllegalArgumentException если листа нет
+     */
+    public List<List<Object>> getValues(A1Range range) {
+        return getValues(range, false);
+    }
+
+    /**
+     * Читает значения диапазона. Пустые строки и ячейки в конце диапазона не возвращаются.
+     *
+     * @param range       диапазон ячеек
+     * @param unformatted true, если числа и логические значения возвращаются как есть,
+     *                    как при {@code valueRenderOption=UNFORMATTED_VALUE}, false, если строками
+     * @return значения строк диапазона
+     * @throws IllegalArgumentException если листа нет
+     */
+    public synchronized List<List<Object>> getValues(A1Range range, boolean unformatted) {
+        Sheet sheet = getSheet(range);
+        checkGridLimits(sheet, range);
+        List<List<Object>> result = new ArrayList<>();
+        int lastRow = Math.min(range.endRow(), sheet.rows.size());
+        for (int rowIndex = range.startRow(); rowIndex < lastRow; rowIndex++) {
+            List<Object> row = sheet.rows.get(rowIndex);
+            List<Object> values = new ArrayList<>();
+            int lastColumn = Math.min(range.endColumn(), row.size());
+            for (int column = range.startColumn(); column < lastColumn; column++) {
+                Object value = row.get(column);
+                values.add(unformatted && value != null ? unformat(value) : format(value));
+            }
+            while (!values.isEmpty() && "".equals(values.getLast())) {
+                values.removeLast();
+            }
+            result.add(values);
+        }
+        while (!result.isEmpty() && result.getLast().isEmpty()) {
+            result.removeLast();
+        }
+        return result;
+    }
+
+    /**
+     * Читает значения диапазона, заданного в нотации A1. Удобен для проверок в тестах.
+     *
+     * @param range диапазон ячеек, например, {@code Расходы!A2:D}
+     * @return отформатированные значения строк диапазона
+     */
+    public List<List<Object>> getValues(String range) {
+        return getValues(A1Range.parse(range));
+    }
+
+    /**
+     * Записывает значения, начиная с левой верхней ячейки диапазона.
+     *
+     * @param range  диапазон ячеек
+     * @param values значения строк
+     * @throws IllegalArgumentException если листа нет или значения не помещаются в диапазон
+     */
+    public synchronized void updateValues(A1Range range, List<List<Object>> values) {
+        Sheet sheet = getSheet(range);
+        checkGridLimits(sheet, range);
+        if (values.size() > (long) range.endRow() - range.startRow()) {
+            throw new IllegalArgumentException("Requested writing within range [" + range.format(0, 0)
+                    + "], but tried writing to row [" + (range.startRow() + values.size()) + "]");
+        }
+        for (int i = 0; i < values.size(); i++) {
+            List<Object> row = values.get(i);
+            checkGridLimits(sheet, new A1Range(range.sheet(), range.startRow(), range.startColumn(),
+                    range.startRow() + i + 1, range.startColumn() + Math.max(row.size(), 1)));
+            if (row.size() > (long) range.endColumn() - range.startColumn()) {
+                throw new IllegalArgumentException("Requested writing within range [" + range.format(0, 0)
+                        + "], but tried writing to column [" + (range.startColumn() + row.size()) + "]");
+            }
+            for (int j = 0; j < row.size(); j++) {
+                sheet.set(range.startRow() + i, range.startColumn() + j, row.get(j));
+            }
+        }
+    }
+
+    /**
+     * Добавляет строки после последней непустой строки диапазона, как {@code insertDataOption=INSERT_ROWS}.
+     *
+     * @param range  диапазон ячеек, в котором ищется конец таблицы
+     * @param values значения строк
+     * @return диапазон, в который записаны строки
+     * @throws IllegalArgumentException если листа нет
+     */
+    public synchronized A1Range appendValues(A1Range range, List<List<Object>> values) {
+        Sheet sheet = getSheet(range);
+        int nextRow = range.startRow();
+        for (int rowIndex = Math.min(range.endRow(), sheet.rows.size()) - 1; rowIndex >= range.startRow(); rowIndex--) {
+            if (sheet.hasValues(rowIndex, range.startColumn(), range.endColumn())) {
+                nextRow = rowIndex + 1;
+                break;
+            }
+        }
+        int columns = values.stream().mapToInt(List::size).max().orElse(0);
+        sheet.rowCount += values.size();
+        sheet.insertRows(nextRow, values.size());
+        for (int i = 0; i < values.size(); i++) {
+            List<Object> row = values.get(i);
+            for (int j = 0; j < row.size(); j++) {
+                sheet.set(nextRow + i, range.startColumn() + j, row.get(j));
+            }
+        }
+        return new A1Range(range.sheet(), nextRow, range.startColumn(), nextRow + Math.max(values.size(), 1),
+                range.startColumn() + Math.max(columns, 1));
+    }
+
+    /**
+     * Очищает значения ячеек диапазона.
+     *
+     * @param range диапазон ячеек
+     * @throws IllegalArgumentException если листа нет
+     */
+    public synchronized void clearValues(A1Range range) {
+        Sheet sheet = getSheet(range);
+        checkGridLimits(sheet, range);
+        int lastRow = Math.min(range.endRow(), sheet.rows.size());
+        for (int rowIndex = range.startRow(); rowIndex < lastRow; rowIndex++) {
+            List<Object> row = sheet.rows.get(rowIndex);
+            int lastColumn = Math.min(range.endColumn(), row.size());
+            for (int column = range.startColumn(); column < lastColumn; column++) {
+                row.set(column, null);
+            }
+        }
+    }
+
+    /**
+     * Создаёт копию таблицы с теми же листами, но без значений, чтобы проверить на ней изменения листов
+     * до их применения к самой таблице.
+     */
+    synchronized EmulatedSpreadsheet copySheets() {
+        EmulatedSpreadsheet copy = new EmulatedSpreadsheet(spreadsheetId);
+        copy.sheets.clear();
+        sheets.forEach((sheetTitle, sheet) -> copy.sheets.put(sheetTitle, new Sheet(sheet.id)));
+        copy.nextSheetId = nextSheetId;
+        copy.title = title;
+        return copy;
+    }
+
+    /**
+     * Возвращает количество заполненных строк и столбцов листа, чтобы ограничить открытый диапазон в ответе.
+     *
+     * @param sheetTitle название листа
+     * @return количество строк и количество столбцов
+     */
+    synchronized int[] getExtent(String sheetTitle) {
+        Sheet sheet = sheets.get(sheetTitle);
+        if (sheet == null) {
+            return new int[]{0, 0};
+        }
+        return new int[]{sheet.rows.size(), sheet.rows.stream().mapToInt(List::size).max().orElse(0)};
+    }
+
+    /**
+     * Возвращает лист диапазона.
+     *
+     * @param range диапазон ячеек
+     * @throws IllegalArgumentException если листа нет
+     */
+    private Sheet getSheet(A1Range range) {
+        Sheet sheet = sheets.get(range.sheet());
+        if (sheet == null) {
+            throw new IllegalArgumentException("Unable to parse range: " + range.sheet());
+        }
+        return sheet;
+    }
+
+    /**
+     * Проверяет, что диапазон не выходит за сетку листа. Открытый конец диапазона не проверяется.
+     *
+     * @param sheet лист
+     * @param range диапазон ячеек
+     * @throws IllegalArgumentException если диапазон выходит за сетку листа
+     */
+    private static void checkGridLimits(Sheet sheet, A1Range range) {
+        boolean rowsExceeded = range.startRow() >= sheet.rowCount
+                || range.endRow() != Integer.MAX_VALUE && range.endRow() > sheet.rowCount;
+        boolean columnsExceeded = range.startColumn() >= sheet.columnCount
+                || range.endColumn() != Integer.MAX_VALUE && range.endColumn() > sheet.columnCount;
+        if (rowsExceeded || columnsExceeded) {
+            throw new IllegalArgumentException("Range (" + range.format(0, 0) + ") exceeds grid limits. Max rows: "
+                    + sheet.rowCount + ", max columns: " + sheet.columnCount);
+        }
+    }
+
+    /**
+     * Возвращает название листа по его идентификатору.
+     *
+     * @param sheetId идентификатор листа
+     * @throws IllegalArgumentException если листа нет
+     */
+    private String findTitle(int sheetId) {
+        return sheets.entrySet().stream()
+                .filter(entry -> entry.getValue().id == sheetId)
+                .map(Map.Entry::getKey)
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("No grid with id: " + sheetId));
+    }
+
+    /**
+     * Возвращает значение ячейки без форматирования. Числа возвращаются без незначащих нулей
+     * и без экспоненты, как их возвращает Google Sheets API: {@code 150.5}, {@code 400}.
+     *
+     * @param value значение ячейки
+     */
+    private static Object unformat(Object value) {
+        if (value instanceof BigDecimal number) {
+            BigDecimal stripped = number.stripTrailingZeros();
+            return stripped.scale() < 0 ? stripped.setScale(0) : stripped;
+        }
+        return value;
+    }
+
+    /**
+     * Форматирует значение ячейки так, как Google Sheets показывает его с форматом по умолчанию.
+     *
+     * @param value значение ячейки или null для пустой ячейки
+     */
+    private static String format(Object value) {
+        if (value == null) {
+            return "";
+        }
+        if (value instanceof BigDecimal number) {
+            return number.stripTrailingZeros().toPlainString();
+        }
+        if (value instanceof Boolean bool) {
+            return bool ? "TRUE" : "FALSE";
+        }
+        return value.toString();
+    }
+
+    /**
+     * Лист таблицы.
+     */
+    private static class Sheet {
+
+        /**
+         * Идентификатор листа
+         */
+        private final int id;
+
+        /**
+         * Количество строк сетки листа
+         */
+        private int rowCount = DEFAULT_ROW_COUNT;
+
+        /**
+         * Количество столбцов сетки листа
+         */
+        private final int columnCount = DEFAULT_COLUMN_COUNT;
+
+        /**
+         * Строки листа, в которых пустые ячейки равны null
+         */
+        private final List<List<Object>> rows = new ArrayList<>();
+
+        /**
+         * Конструктор Sheet
+         *
+         * @param id идентификатор листа
+         */
+        private Sheet(int id) {
+            this.id = id;
+        }
+
+        /**
+         * Записывает значение в ячейку, добавляя недостающие строки и ячейки.
+         *
+         * @param rowIndex номер строки
+         * @param column   номер столбца
+         * @param value    значение или null для очистки ячейки
+         */
+        private void set(int rowIndex, int column, Object value) {
+            while (rows.size() <= rowIndex) {
+                rows.add(new ArrayList<>());
+            }
+            List<Object> row = rows.get(rowIndex);
+            while (row.size() <= column) {
+                row.add(null);
+            }
+            row.set(column, value);
+        }
+
+        /**
+         * Вставляет пустые строки, сдвигая следующие строки вниз.
+         *
+         * @param rowIndex номер первой вставляемой строки
+         * @param count    количество строк
+         */
+        private void insertRows(int rowIndex, int count) {
+            if (rowIndex >= rows.size()) {
+                return;
+            }
+            for (int i = 0; i < count; i++) {
+                rows.add(rowIndex, new ArrayList<>());
+            }
+        }
+
+        /**
+         * Проверяет, есть ли в строке непустые ячейки в заданных столбцах.
+         *
+         * @param rowIndex    номер строки
+         * @param startColumn первый столбец
+         * @param endColumn   столбец после последнего
+         */
+        private boolean hasValues(int rowIndex, int startColumn, int endColumn) {
+            List<Object> row = rows.get(rowIndex);
+            for (int column = startColumn; column < Math.min(endColumn, row.size()); column++) {
+                if (row.get(column) != null && !"".equals(row.get(column))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
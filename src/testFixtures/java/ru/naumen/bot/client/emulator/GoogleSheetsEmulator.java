@@ -0,0 +1,809 @@
+package ru.naumen.bot.client.emulator;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.api.client.http.HttpTransport;
+import com.google.api.client.json.gson.GsonFactory;
+import com.google.api.services.sheets.v4.Sheets;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import ru.naumen.bot.utils.concurrent.TokenBucket;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Эмулятор Google Sheets API v4 в том же процессе для интеграционных и нагрузочных тестов.
+ *
+ * <p>Эмулятор поднимает HTTP-сервер на локальном адресе и обслуживает запросы, которые отправляет
+ * {@link ru.naumen.bot.client.GoogleSheetsClient}: {@code spreadsheets.get}, {@code spreadsheets.batchUpdate}
+ * (добавление, переименование и удаление листов, изменение названия таблицы) и {@code values.get},
+ * {@code values.batchGet}, {@code values.update}, {@code values.batchUpdate}, {@code values.append},
+ * {@code values.clear}. Клиент подключается к нему через корневой адрес {@link #getRootUrl()},
+ * который задаётся свойством {@code google-sheets.root-url} или в {@link #createSheetsService(HttpTransport)}.
+ *
+ * <p>Для воспроизводимых замеров задаются задержка ответа, квоты запросов на чтение и запись,
+ * при превышении которых возвращается ответ 429, количество потоков, обслуживающих запросы,
+ * и ошибки, которыми завершатся следующие запросы.
+ */
+public class GoogleSheetsEmulator implements AutoCloseable {
+
+    /**
+     * Префикс пути запросов к таблицам
+     */
+    private static final String SPREADSHEETS_PATH = "/v4/spreadsheets/";
+
+    /**
+     * Даты, которые Google Sheets с русской локалью распознаёт при вводе: {@code 31.01}, {@code 31.01.2024}
+     * и {@code 2024-01-31}
+     */
+    private static final Pattern DATE_PATTERN =
+            Pattern.compile("(\\d{1,2})\\.(\\d{1,2})(?:\\.(\\d{4}))?|(\\d{4})-(\\d{1,2})-(\\d{1,2})");
+
+    /**
+     * День, от которого отсчитываются серийные номера дат в Google Sheets
+     */
+    private static final LocalDate SERIAL_NUMBER_EPOCH = LocalDate.of(1899, 12, 30);
+
+    /**
+     * Сервер, обслуживающий запросы
+     */
+    private final HttpServer server;
+
+    /**
+     * Потоки, обслуживающие запросы
+     */
+    private final ExecutorService executor;
+
+    /**
+     * Преобразование тел запросов и ответов в JSON
+     */
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .setNodeFactory(JsonNodeFactory.withExactBigDecimals(true));
+
+    /**
+     * Таблицы эмулятора, где ключом является идентификатор таблицы
+     */
+    private final Map<String, EmulatedSpreadsheet> spreadsheets = new ConcurrentHashMap<>();
+
+    /**
+     * Количество полученных запросов
+     */
+    private final AtomicLong requestCount = new AtomicLong();
+
+    /**
+     * Количество запросов, обрабатываемых в данный момент
+     */
+    private final AtomicInteger concurrentRequests = new AtomicInteger();
+
+    /**
+     * Наибольшее количество запросов, обрабатывавшихся одновременно
+     */
+    private final AtomicInteger maxConcurrentRequests = new AtomicInteger();
+
+    /**
+     * Количество следующих запросов, которые завершатся ошибкой {@link #failureStatus}
+     */
+    private final AtomicInteger pendingFailures = new AtomicInteger();
+
+    /**
+     * Код ответа для запросов, которые должны завершиться ошибкой
+     */
+    private volatile int failureStatus;
+
+    /**
+     * Постоянная часть задержки ответа
+     */
+    private volatile Duration latency = Duration.ZERO;
+
+    /**
+     * Наибольшая случайная добавка к задержке ответа
+     */
+    private volatile Duration latencyJitter = Duration.ZERO;
+
+    /**
+     * Квота запросов на чтение или null, если квота не ограничена
+     */
+    private volatile TokenBucket readQuota;
+
+    /**
+     * Квота запросов на запись или null, если квота не ограничена
+     */
+    private volatile TokenBucket writeQuota;
+
+    /**
+     * Конструктор GoogleSheetsEmulator. Сервер запускается сразу на свободном порту локального адреса.
+     *
+     * @param threads количество потоков, обслуживающих запросы, то есть наибольшее количество
+     *                одновременно обрабатываемых запросов
+     * @throws IOException если не удалось запустить сервер
+     */
+    public GoogleSheetsEmulator(int threads) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        executor = Executors.newFixedThreadPool(threads);
+        server.setExecutor(executor);
+        server.createContext(SPREADSHEETS_PATH, this::handle);
+        server.start();
+    }
+
+    /**
+     * Возвращает корневой адрес API эмулятора, который передаётся клиенту вместо
+     * {@code https://sheets.googleapis.com/}.
+     */
+    public String getRootUrl() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + "/";
+    }
+
+    /**
+     * Создаёт сервис Google Sheets без авторизации, отправляющий запросы в эмулятор.
+     *
+     * @param transport транспорт HTTP-запросов
+     * @return сервис Google Sheets
+     */
+    public Sheets createSheetsService(HttpTransport transport) {
+        return new Sheets.Builder(transport, GsonFactory.getDefaultInstance(), null)
+                .setRootUrl(getRootUrl())
+                .setApplicationName("Google Sheets Emulator")
+                .build();
+    }
+
+    /**
+     * Создаёт пустую таблицу с одним листом "Лист1".
+     *
+     * @param spreadsheetId идентификатор таблицы
+     * @return созданная таблица
+     */
+    public EmulatedSpreadsheet createSpreadsheet(String spreadsheetId) {
+        EmulatedSpreadsheet spreadsheet = new EmulatedSpreadsheet(spreadsheetId);
+        spreadsheets.put(spreadsheetId, spreadsheet);
+        return spreadsheet;
+    }
+
+    /**
+     * Возвращает таблицу или null, если её нет.
+     *
+     * @param spreadsheetId идентификатор таблицы
+     */
+    public EmulatedSpreadsheet getSpreadsheet(String spreadsheetId) {
+        return spreadsheets.get(spreadsheetId);
+    }
+
+    /**
+     * Задаёт задержку каждого ответа: постоянную часть и случайную добавку от 0 до {@code jitter}.
+     *
+     * @param latency постоянная часть задержки
+     * @param jitter  наибольшая случайная добавка
+     */
+    public void setLatency(Duration latency, Duration jitter) {
+        this.latency = latency;
+        this.latencyJitter = jitter;
+    }
+
+    /**
+     * Ограничивает частоту запросов на чтение и запись. Запросы сверх квоты получают ответ
+     * 429 Too Many Requests, как при превышении квоты проекта в Google Sheets API.
+     *
+     * @param readRequestsPerMinute  допустимое количество запросов на чтение в минуту
+     * @param writeRequestsPerMinute допустимое количество запросов на запись в минуту
+     * @param burst                  допустимый всплеск запросов каждого вида
+     */
+    public void setQuota(double readRequestsPerMinute, double writeRequestsPerMinute, int burst) {
+        readQuota = new TokenBucket(burst, readRequestsPerMinute / 60);
+        writeQuota = new TokenBucket(burst, writeRequestsPerMinute / 60);
+    }
+
+    /**
+     * Снимает ограничение частоты запросов.
+     */
+    public void removeQuota() {
+        readQuota = null;
+        writeQuota = null;
+    }
+
+    /**
+     * Завершает следующие запросы ошибкой, например, 503 Service Unavailable.
+     *
+     * @param count  количество запросов
+     * @param status код ответа
+     */
+    public void failNextRequests(int count, int status) {
+        failureStatus = status;
+        pendingFailures.set(count);
+    }
+
+    /**
+     * Возвращает количество полученных запросов, включая завершившиеся ошибкой.
+     */
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    /**
+     * Возвращает наибольшее количество запросов, обрабатывавшихся одновременно.
+     */
+    public int getMaxConcurrentRequests() {
+        return maxConcurrentRequests.get();
+    }
+
+    /**
+     * Останавливает сервер.
+     */
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    /**
+     * Обрабатывает запрос: выдерживает задержку, проверяет квоту и запланированные ошибки
+     * и выполняет операцию над таблицей.
+     *
+     * @param exchange запрос и ответ
+     */
+    private void handle(HttpExchange exchange) throws IOException {
+        requestCount.incrementAndGet();
+        maxConcurrentRequests.accumulateAndGet(concurrentRequests.incrementAndGet(), Math::max);
+        try {
+            sleep();
+            boolean read = "GET".equals(methodOf(exchange));
+            TokenBucket quota = read ? readQuota : writeQuota;
+            if (pendingFailures.getAndUpdate(count -> Math.max(count - 1, 0)) > 0) {
+                sendError(exchange, failureStatus, "Emulated failure");
+            } else if (quota != null && !quota.tryAcquire()) {
+                sendError(exchange, 429, "Quota exceeded for quota metric '"
+                        + (read ? "Read" : "Write") + " requests' of service 'sheets.googleapis.com'");
+            } else {
+                sendJson(exchange, 200, route(exchange));
+            }
+        } catch (NotFoundException e) {
+            sendError(exchange, 404, e.getMessage());
+        } catch (IllegalArgumentException e) {
+            sendError(exchange, 400, e.getMessage());
+        } finally {
+            exchange.close();
+            concurrentRequests.decrementAndGet();
+        }
+    }
+
+    /**
+     * Выполняет операцию, соответствующую пути и методу запроса.
+     *
+     * @param exchange запрос
+     * @return тело ответа
+     * @throws NotFoundException если таблицы или операции нет
+     */
+    private JsonNode route(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath().substring(SPREADSHEETS_PATH.length());
+        String method = methodOf(exchange);
+        Map<String, List<String>> query = parseQuery(method.equals(exchange.getRequestMethod())
+                ? exchange.getRequestURI().getRawQuery()
+                : new String(openBody(exchange).readAllBytes(), StandardCharsets.UTF_8));
+        int valuesIndex = path.indexOf("/values");
+        String spreadsheetId = valuesIndex < 0 ? path.split(":", 2)[0] : path.substring(0, valuesIndex);
+        EmulatedSpreadsheet spreadsheet = spreadsheets.get(spreadsheetId);
+        if (spreadsheet == null) {
+            throw new NotFoundException("Requested entity was not found.");
+        }
+        String operation = valuesIndex < 0 ? path.substring(spreadsheetId.length())
+                : path.substring(valuesIndex + "/values".length());
+
+        if (operation.isEmpty() && "GET".equals(method)) {
+            return getSpreadsheet(spreadsheet);
+        }
+        if (operation.equals(":batchUpdate") && valuesIndex < 0 && "POST".equals(method)) {
+            return batchUpdateSpreadsheet(spreadsheet, readBody(exchange));
+        }
+        if (operation.equals(":batchGet") && "GET".equals(method)) {
+            return batchGetValues(spreadsheet, query.getOrDefault("ranges", List.of()), isUnformatted(query));
+        }
+        if (operation.equals(":batchUpdate") && "POST".equals(method)) {
+            return batchUpdateValues(spreadsheet, readBody(exchange));
+        }
+        if (operation.startsWith("/")) {
+            String range = operation.substring(1);
+            if (range.endsWith(":append") && "POST".equals(method)) {
+                return appendValues(spreadsheet, range.substring(0, range.length() - ":append".length()),
+                        readBody(exchange), query);
+            }
+            if (range.endsWith(":clear") && "POST".equals(method)) {
+                return clearValues(spreadsheet, range.substring(0, range.length() - ":clear".length()));
+            }
+            if ("GET".equals(method)) {
+                return valueRange(spreadsheet, A1Range.parse(range), isUnformatted(query));
+            }
+            if ("PUT".equals(method)) {
+                JsonNode body = readBody(exchange);
+                return updateValues(spreadsheet, range, body.path("values"),
+                        first(query, "valueInputOption"));
+            }
+        }
+        throw new NotFoundException("Operation is not supported by the emulator: " + method + " " + path);
+    }
+
+    /**
+     * Выполняет {@code spreadsheets.get}: возвращает название таблицы и свойства листов с размером сетки.
+     *
+     * @param spreadsheet таблица
+     */
+    private JsonNode getSpreadsheet(EmulatedSpreadsheet spreadsheet) {
+        ObjectNode response = objectMapper.createObjectNode();
+        response.put("spreadsheetId", spreadsheet.getSpreadsheetId());
+        response.putObject("properties").put("title", spreadsheet.getTitle());
+        ArrayNode sheets = response.putArray("sheets");
+        synchronized (spreadsheet) {
+            int index = 0;
+            for (Map.Entry<String, Integer> sheet : spreadsheet.getSheetIds().entrySet()) {
+                int[] gridSize = spreadsheet.getGridSize(sheet.getKey());
+                ObjectNode properties = sheets.addObject().putObject("properties")
+                        .put("sheetId", sheet.getValue())
+                        .put("title", sheet.getKey())
+                        .put("index", index++);
+                properties.putObject("gridProperties")
+                        .put("rowCount", gridSize[0])
+                        .put("columnCount", gridSize[1]);
+            }
+        }
+        return response;
+    }
+
+    /**
+     * Выполняет {@code spreadsheets.batchUpdate}. Запросы сначала применяются к копии листов таблицы,
+     * поэтому при ошибке в одном из них не применяется ни один, как в Google Sheets.
+     *
+     * @param spreadsheet таблица
+     * @param body        тело запроса со списком {@code requests}
+     */
+    private JsonNode batchUpdateSpreadsheet(EmulatedSpreadsheet spreadsheet, JsonNode body) {
+        synchronized (spreadsheet) {
+            EmulatedSpreadsheet check = spreadsheet.copySheets();
+            for (JsonNode request : body.path("requests")) {
+                applyRequest(check, request);
+            }
+
+            ObjectNode response = objectMapper.createObjectNode();
+            response.put("spreadsheetId", spreadsheet.getSpreadsheetId());
+            ArrayNode replies = response.putArray("replies");
+            for (JsonNode request : body.path("requests")) {
+                ObjectNode reply = replies.addObject();
+                Integer addedSheetId = applyRequest(spreadsheet, request);
+                if (addedSheetId != null) {
+                    reply.putObject("addSheet").putObject("properties")
+                            .put("sheetId", addedSheetId)
+                            .put("title", request.path("addSheet").path("properties").path("title").asText());
+                }
+            }
+            return response;
+        }
+    }
+
+    /**
+     * Применяет один запрос {@code spreadsheets.batchUpdate}.
+     *
+     * @param spreadsheet таблица
+     * @param request     запрос
+     * @return идентификатор добавленного листа или null, если лист не добавлялся
+     * @throws IllegalArgumentException если запрос не может быть применён или не поддерживается
+     */
+    private Integer applyRequest(EmulatedSpreadsheet spreadsheet, JsonNode request) {
+        if (request.has("addSheet")) {
+            return spreadsheet.addSheet(request.path("addSheet").path("properties").path("title").asText());
+        }
+        if (request.has("updateSheetProperties")) {
+            JsonNode properties = request.path("updateSheetProperties").path("properties");
+            spreadsheet.renameSheet(properties.path("sheetId").asInt(), properties.path("title").asText());
+            return null;
+        }
+        if (request.has("deleteSheet")) {
+            spreadsheet.deleteSheet(request.path("deleteSheet").path("sheetId").asInt());
+            return null;
+        }
+        if (request.has("updateSpreadsheetProperties")) {
+            spreadsheet.setTitle(request.path("updateSpreadsheetProperties").path("properties")
+                    .path("title").asText());
+            return null;
+        }
+        throw new IllegalArgumentException("Request is not supported by the emulator: " + request.fieldNames().next());
+    }
+
+    /**
+     * Выполняет {@code values.batchGet}.
+     *
+     * @param spreadsheet таблица
+     * @param ranges      диапазоны ячеек
+     * @param unformatted true, если значения возвращаются без форматирования
+     */
+    private JsonNode batchGetValues(EmulatedSpreadsheet spreadsheet, List<String> ranges, boolean unformatted) {
+        ObjectNode response = objectMapper.createObjectNode();
+        response.put("spreadsheetId", spreadsheet.getSpreadsheetId());
+        ArrayNode valueRanges = response.putArray("valueRanges");
+        for (String range : ranges) {
+            valueRanges.add(valueRange(spreadsheet, A1Range.parse(range), unformatted));
+        }
+        return response;
+    }
+
+    /**
+     * Выполняет {@code values.batchUpdate}.
+     *
+     * @param spreadsheet таблица
+     * @param body        тело запроса со списком {@code data}
+     */
+    private JsonNode batchUpdateValues(EmulatedSpreadsheet spreadsheet, JsonNode body) {
+        String valueInputOption = body.path("valueInputOption").asText(null);
+        ObjectNode response = objectMapper.createObjectNode();
+        response.put("spreadsheetId", spreadsheet.getSpreadsheetId());
+        ArrayNode responses = response.putArray("responses");
+        synchronized (spreadsheet) {
+            for (JsonNode data : body.path("data")) {
+                A1Range.parse(data.path("range").asText());
+            }
+            for (JsonNode data : body.path("data")) {
+                responses.add(updateValues(spreadsheet, data.path("range").asText(), data.path("values"),
+                        valueInputOption));
+            }
+        }
+        return response;
+    }
+
+    /**
+     * Выполняет {@code values.update}.
+     *
+     * @param spreadsheet      таблица
+     * @param range            диапазон ячеек
+     * @param values           значения строк
+     * @param valueInputOption способ разбора значений: {@code RAW} или {@code USER_ENTERED}
+     */
+    private JsonNode updateValues(EmulatedSpreadsheet spreadsheet, String range, JsonNode values,
+                                  String valueInputOption) {
+        if (valueInputOption == null) {
+            throw new IllegalArgumentException("'valueInputOption' is required but not specified");
+        }
+        A1Range a1Range = A1Range.parse(range);
+        List<List<Object>> rows = toRows(values, "USER_ENTERED".equals(valueInputOption));
+        spreadsheet.updateValues(a1Range, rows);
+        int columns = rows.stream().mapToInt(List::size).max().orElse(0);
+        ObjectNode response = objectMapper.createObjectNode();
+        response.put("spreadsheetId", spreadsheet.getSpreadsheetId());
+        response.put("updatedRange", a1Range.format(rows.size(), columns));
+        response.put("updatedRows", rows.size());
+        response.put("updatedColumns", columns);
+        response.put("updatedCells", rows.stream().mapToInt(List::size).sum());
+        return response;
+    }
+
+    /**
+     * Выполняет {@code values.append}.
+     *
+     * @param spreadsheet таблица
+     * @param range       диапазон ячеек, в котором ищется конец таблицы
+     * @param body        тело запроса со значениями строк
+     * @param query       параметры запроса
+     */
+    private JsonNode appendValues(EmulatedSpreadsheet spreadsheet, String range, JsonNode body,
+                                  Map<String, List<String>> query) {
+        String valueInputOption = first(query, "valueInputOption");
+        if (valueInputOption == null) {
+            throw new IllegalArgumentException("'valueInputOption' is required but not specified");
+        }
+        List<List<Object>> rows = toRows(body.path("values"), "USER_ENTERED".equals(valueInputOption));
+        A1Range updated = spreadsheet.appendValues(A1Range.parse(range), rows);
+        int columns = rows.stream().mapToInt(List::size).max().orElse(0);
+        ObjectNode response = objectMapper.createObjectNode();
+        response.put("spreadsheetId", spreadsheet.getSpreadsheetId());
+        ObjectNode updates = response.putObject("updates");
+        updates.put("spreadsheetId", spreadsheet.getSpreadsheetId());
+        updates.put("updatedRange", updated.format(rows.size(), columns));
+        updates.put("updatedRows", rows.size());
+        updates.put("updatedColumns", columns);
+        updates.put("updatedCells", rows.stream().mapToInt(List::size).sum());
+        if ("true".equals(first(query, "includeValuesInResponse"))) {
+            updates.set("updatedData", valueRange(spreadsheet, updated,
+                    "UNFORMATTED_VALUE".equals(first(query, "responseValueRenderOption"))));
+        }
+        return response;
+    }
+
+    /**
+     * Выполняет {@code values.clear}.
+     *
+     * @param spreadsheet таблица
+     * @param range       диапазон ячеек
+     */
+    private JsonNode clearValues(EmulatedSpreadsheet spreadsheet, String range) {
+        A1Range a1Range = A1Range.parse(range);
+        spreadsheet.clearValues(a1Range);
+        ObjectNode response = objectMapper.createObjectNode();
+        response.put("spreadsheetId", spreadsheet.getSpreadsheetId());
+        response.put("clearedRange", formatRange(spreadsheet, a1Range));
+        return response;
+    }
+
+    /**
+     * Возвращает значения диапазона в формате {@code ValueRange}. Поле {@code values} отсутствует,
+     * если диапазон пустой, как в Google Sheets.
+     *
+     * @param spreadsheet таблица
+     * @param range       диапазон ячеек
+     * @param unformatted true, если значения возвращаются без форматирования
+     */
+    private ObjectNode valueRange(EmulatedSpreadsheet spreadsheet, A1Range range, boolean unformatted) {
+        List<List<Object>> values = spreadsheet.getValues(range, unformatted);
+        ObjectNode valueRange = objectMapper.createObjectNode();
+        valueRange.put("range", formatRange(spreadsheet, range));
+        valueRange.put("majorDimension", "ROWS");
+        if (!values.isEmpty()) {
+            valueRange.set("values", objectMapper.valueToTree(values));
+        }
+        return valueRange;
+    }
+
+    /**
+     * Возвращает диапазон в нотации A1, ограничивая открытый конец заполненной частью листа.
+     *
+     * @param spreadsheet таблица
+     * @param range       диапазон ячеек
+     */
+    private static String formatRange(EmulatedSpreadsheet spreadsheet, A1Range range) {
+        int[] extent = spreadsheet.getExtent(range.sheet());
+        return range.format(extent[0] - range.startRow(), extent[1] - range.startColumn());
+    }
+
+    /**
+     * Преобразует значения строк из JSON. При {@code USER_ENTERED} строки, похожие на числа, проценты
+     * или даты, сохраняются как числа и серийные номера дат, а апостроф в начале строки убирается,
+     * как при вводе в Google Sheets.
+     *
+     * @param values      значения строк в JSON
+     * @param userEntered разбирать ли значения как введённые пользователем
+     */
+    private static List<List<Object>> toRows(JsonNode values, boolean userEntered) {
+        List<List<Object>> rows = new ArrayList<>();
+        for (JsonNode row : values) {
+            List<Object> cells = new ArrayList<>();
+            for (JsonNode cell : row) {
+                cells.add(toCell(cell, userEntered));
+            }
+            rows.add(cells);
+        }
+        return rows;
+    }
+
+    /**
+     * Преобразует значение ячейки из JSON.
+     *
+     * @param cell        значение ячейки в JSON
+     * @param userEntered разбирать ли значение как введённое пользователем
+     */
+    private static Object toCell(JsonNode cell, boolean userEntered) {
+        if (cell.isNull()) {
+            return null;
+        }
+        if (cell.isNumber()) {
+            return cell.decimalValue();
+        }
+        if (cell.isBoolean()) {
+            return cell.booleanValue();
+        }
+        String text = cell.asText();
+        if (!userEntered || text.isEmpty()) {
+            return text;
+        }
+        if (text.startsWith("'")) {
+            return text.substring(1);
+        }
+        Matcher date = DATE_PATTERN.matcher(text);
+        if (date.matches()) {
+            return toSerialNumber(date, text);
+        }
+        try {
+            return text.endsWith("%")
+                    ? new BigDecimal(text.substring(0, text.length() - 1)).movePointLeft(2)
+                    : new BigDecimal(text);
+        } catch (NumberFormatException e) {
+            return text;
+        }
+    }
+
+    /**
+     * Преобразует распознанную дату в серийный номер. Дата без года относится к текущему году,
+     * а несуществующая дата остаётся текстом.
+     *
+     * @param date результат сопоставления с {@link #DATE_PATTERN}
+     * @param text введённый текст
+     */
+    private static Object toSerialNumber(Matcher date, String text) {
+        boolean iso = date.group(4) != null;
+        int day = Integer.parseInt(iso ? date.group(6) : date.group(1));
+        int month = Integer.parseInt(iso ? date.group(5) : date.group(2));
+        String year = iso ? date.group(4) : date.group(3);
+        try {
+            LocalDate value = LocalDate.of(year != null ? Integer.parseInt(year) : LocalDate.now().getYear(),
+                    month, day);
+            return BigDecimal.valueOf(ChronoUnit.DAYS.between(SERIAL_NUMBER_EPOCH, value));
+        } catch (DateTimeException e) {
+            return text;
+        }
+    }
+
+    /**
+     * Возвращает метод запроса с учётом заголовка {@code X-HTTP-Method-Override}. Клиент Google API
+     * отправляет GET-запрос со слишком длинным адресом как POST, перенося параметры в тело.
+     *
+     * @param exchange запрос
+     */
+    private static String methodOf(HttpExchange exchange) {
+        String override = exchange.getRequestHeaders().getFirst("X-HTTP-Method-Override");
+        return override == null ? exchange.getRequestMethod() : override;
+    }
+
+    /**
+     * Читает тело запроса, распаковывая его, если клиент сжал его gzip.
+     *
+     * @param exchange запрос
+     */
+    private JsonNode readBody(HttpExchange exchange) throws IOException {
+        try (InputStream body = openBody(exchange)) {
+            return objectMapper.readTree(body);
+        }
+    }
+
+    /**
+     * Открывает тело запроса, распаковывая его, если клиент сжал его gzip.
+     *
+     * @param exchange запрос
+     */
+    private static InputStream openBody(HttpExchange exchange) throws IOException {
+        String encoding = exchange.getRequestHeaders().getFirst("Content-Encoding");
+        boolean gzip = encoding != null && encoding.contains("gzip");
+        return gzip ? new GZIPInputStream(exchange.getRequestBody()) : exchange.getRequestBody();
+    }
+
+    /**
+     * Отправляет ответ в формате JSON, сжимая его gzip, если клиент это поддерживает.
+     *
+     * @param exchange запрос и ответ
+     * @param status   код ответа
+     * @param response тело ответа
+     */
+    private void sendJson(HttpExchange exchange, int status, JsonNode response) throws IOException {
+        byte[] body = objectMapper.writeValueAsBytes(response);
+        String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                gzip.write(body);
+            }
+            body = compressed.toByteArray();
+            exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+        }
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=UTF-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /**
+     * Отправляет ошибку в формате Google API.
+     *
+     * @param exchange запрос и ответ
+     * @param status   код ответа
+     * @param message  сообщение об ошибке
+     */
+    private void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        ObjectNode response = objectMapper.createObjectNode();
+        ObjectNode error = response.putObject("error");
+        error.put("code", status);
+        error.put("message", message);
+        error.put("status", switch (status) {
+            case 400 -> "INVALID_ARGUMENT";
+            case 404 -> "NOT_FOUND";
+            case 429 -> "RESOURCE_EXHAUSTED";
+            case 503 -> "UNAVAILABLE";
+            default -> status >= 500 ? "INTERNAL" : "FAILED_PRECONDITION";
+        });
+        sendJson(exchange, status, response);
+    }
+
+    /**
+     * Выдерживает задержку ответа.
+     */
+    private void sleep() {
+        long nanos = latency.toNanos();
+        long jitter = latencyJitter.toNanos();
+        if (jitter > 0) {
+            nanos += ThreadLocalRandom.current().nextLong(jitter + 1);
+        }
+        if (nanos <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Проверяет, запрошены ли значения без форматирования. Даты в эмуляторе хранятся текстом,
+     * поэтому {@code dateTimeRenderOption} на ответ не влияет.
+     *
+     * @param query параметры запроса
+     */
+    private static boolean isUnformatted(Map<String, List<String>> query) {
+        return "UNFORMATTED_VALUE".equals(first(query, "valueRenderOption"));
+    }
+
+    /**
+     * Разбирает параметры запроса. Параметр может повторяться, например, {@code ranges} в {@code batchGet}.
+     *
+     * @param rawQuery строка параметров запроса без декодирования
+     */
+    private static Map<String, List<String>> parseQuery(String rawQuery) {
+        Map<String, List<String>> result = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return result;
+        }
+        for (String parameter : rawQuery.split("&")) {
+            String[] parts = parameter.split("=", 2);
+            result.computeIfAbsent(URLDecoder.decode(parts[0], StandardCharsets.UTF_8), key -> new ArrayList<>())
+                    .add(parts.length > 1 ? URLDecoder.decode(parts[1], StandardCharsets.UTF_8) : "");
+        }
+        return result;
+    }
+
+    /**
+     * Возвращает первое значение параметра запроса или null, если параметра нет.
+     *
+     * @param query параметры запроса
+     * @param name  название параметра
+     */
+    private static String first(Map<String, List<String>> query, String name) {
+        List<String> values = query.get(name);
+        return values == null || values.isEmpty() ? null : values.getFirst();
+    }
+
+    /**
+     * Исключение, после которого клиент получает ответ 404 Not Found.
+     */
+    private static class NotFoundException extends IOException {
+
+        /**
+         * Конструктор NotFoundException
+         *
+         * @param message сообщение об ошибке
+         */
+        private NotFoundException(String message) {
+            super(message);
+        }
+    }
+}